@@ -0,0 +1,298 @@
+package com.github.liyibo1110.resilience4j.adaptivelimiter;
+
+import com.github.liyibo1110.resilience4j.adaptivelimiter.event.AdaptiveLimiterEvent;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.event.AdaptiveLimiterOnCallFinishedEvent;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.event.AdaptiveLimiterOnCallPermittedEvent;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.event.AdaptiveLimiterOnCallRejectedEvent;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.event.AdaptiveLimiterOnLimitChangedEvent;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.internal.AtomicAdaptiveLimiter;
+import com.github.liyibo1110.resilience4j.core.EventConsumer;
+import io.vavr.CheckedFunction0;
+import io.vavr.CheckedFunction1;
+import io.vavr.CheckedRunnable;
+import io.vavr.collection.HashMap;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 和Bulkhead一样控制特定接口的并发数量，区别在于并发上限不是固定的maxConcurrentCalls，
+ * 而是根据每次调用的RTT和drop（失败或者超时）由AIMD、VEGAS或者GRADIENT算法自动调整：
+ * 下游变慢或者开始失败时降低上限，恢复之后再逐渐升高，所以扩缩容之后不需要重新配置。
+ * 超过上限的调用直接被拒绝，不会等待。
+ * @author liyibo
+ * @date 2026-10-18 23:22
+ */
+public interface AdaptiveLimiter {
+
+    static <T> CheckedFunction0<T> decorateCheckedSupplier(AdaptiveLimiter limiter, CheckedFunction0<T> supplier) {
+        return () -> {
+            limiter.acquirePermission();
+            final long start = System.nanoTime();
+            T result;
+            try {
+                result = supplier.apply();
+            } catch (Throwable t) {
+                limiter.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, t);
+                throw t;
+            }
+            // 放在try外面，事件消费者抛出的异常不会再走onError，许可也就不会被释放两次
+            limiter.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        };
+    }
+
+    static <T> Supplier<CompletionStage<T>> decorateCompletionStage(AdaptiveLimiter limiter, Supplier<CompletionStage<T>> supplier) {
+        return () -> {
+            final CompletableFuture<T> promise = new CompletableFuture<>();
+            if(!limiter.tryAcquirePermission()) {
+                promise.completeExceptionally(AdaptiveLimiterFullException.createAdaptiveLimiterFullException(limiter));
+            }else {
+                final long start = System.nanoTime();
+                try {
+                    supplier.get().whenComplete((result, t) -> {
+                        long duration = System.nanoTime() - start;
+                        // 先释放许可再完成promise，放在finally里保证onSuccess/onError抛出异常时promise也能完成
+                        if(t == null) {
+                            try {
+                                limiter.onSuccess(duration, TimeUnit.NANOSECONDS);
+                            } finally {
+                                promise.complete(result);
+                            }
+                        }else {
+                            try {
+                                limiter.onError(duration, TimeUnit.NANOSECONDS, t);
+                            } finally {
+                                promise.completeExceptionally(t);
+                            }
+                        }
+                    });
+                } catch (Throwable t) {
+                    try {
+                        limiter.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, t);
+                    } finally {
+                        promise.completeExceptionally(t);
+                    }
+                }
+            }
+            return promise;
+        };
+    }
+
+    static CheckedRunnable decorateCheckedRunnable(AdaptiveLimiter limiter, CheckedRunnable runnable) {
+        return () -> {
+            limiter.acquirePermission();
+            final long start = System.nanoTime();
+            try {
+                runnable.run();
+            } catch (Throwable t) {
+                limiter.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, t);
+                throw t;
+            }
+            limiter.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        };
+    }
+
+    static <T> Callable<T> decorateCallable(AdaptiveLimiter limiter, Callable<T> callable) {
+        return () -> {
+            limiter.acquirePermission();
+            final long start = System.nanoTime();
+            T result;
+            try {
+                result = callable.call();
+            } catch (Throwable t) {
+                limiter.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, t);
+                throw t;
+            }
+            limiter.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        };
+    }
+
+    static <T> Supplier<T> decorateSupplier(AdaptiveLimiter limiter, Supplier<T> supplier) {
+        return () -> {
+            limiter.acquirePermission();
+            final long start = System.nanoTime();
+            T result;
+            try {
+                result = supplier.get();
+            } catch (Throwable t) {
+                limiter.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, t);
+                throw t;
+            }
+            limiter.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        };
+    }
+
+    static <T> Consumer<T> decorateConsumer(AdaptiveLimiter limiter, Consumer<T> consumer) {
+        return t -> {
+            limiter.acquirePermission();
+            final long start = System.nanoTime();
+            try {
+                consumer.accept(t);
+            } catch (Throwable e) {
+                limiter.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+                throw e;
+            }
+            limiter.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        };
+    }
+
+    static Runnable decorateRunnable(AdaptiveLimiter limiter, Runnable runnable) {
+        return () -> {
+            limiter.acquirePermission();
+            final long start = System.nanoTime();
+            try {
+                runnable.run();
+            } catch (Throwable t) {
+                limiter.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, t);
+                throw t;
+            }
+            limiter.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        };
+    }
+
+    static <T, R> Function<T, R> decorateFunction(AdaptiveLimiter limiter, Function<T, R> function) {
+        return (T t) -> {
+            limiter.acquirePermission();
+            final long start = System.nanoTime();
+            R result;
+            try {
+                result = function.apply(t);
+            } catch (Throwable e) {
+                limiter.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+                throw e;
+            }
+            limiter.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        };
+    }
+
+    static <T, R> CheckedFunction1<T, R> decorateCheckedFunction(AdaptiveLimiter limiter, CheckedFunction1<T, R> function) {
+        return (T t) -> {
+            limiter.acquirePermission();
+            final long start = System.nanoTime();
+            R result;
+            try {
+                result = function.apply(t);
+            } catch (Throwable e) {
+                limiter.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+                throw e;
+            }
+            limiter.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        };
+    }
+
+    static AdaptiveLimiter ofDefaults(String name) {
+        return new AtomicAdaptiveLimiter(name, AdaptiveLimiterConfig.ofDefaults());
+    }
+
+    static AdaptiveLimiter of(String name, AdaptiveLimiterConfig config) {
+        return of(name, config, HashMap.empty());
+    }
+
+    static AdaptiveLimiter of(String name, AdaptiveLimiterConfig config,
+                              io.vavr.collection.Map<String, String> tags) {
+        return new AtomicAdaptiveLimiter(name, config, tags);
+    }
+
+    static AdaptiveLimiter of(String name, Supplier<AdaptiveLimiterConfig> configSupplier) {
+        return of(name, configSupplier.get(), HashMap.empty());
+    }
+
+    static AdaptiveLimiter of(String name, Supplier<AdaptiveLimiterConfig> configSupplier,
+                              io.vavr.collection.Map<String, String> tags) {
+        return of(name, configSupplier.get(), tags);
+    }
+
+    /**
+     * 换成新的配置，当前的并发上限会被限制到新的[minLimit, maxLimit]里继续调整，算法内部的RTT统计会重新开始
+     */
+    void changeConfig(AdaptiveLimiterConfig newConfig);
+
+    /**
+     * 在途调用数小于当前并发上限时占用一个许可，不会等待
+     */
+    boolean tryAcquirePermission();
+
+    /**
+     * 不允许调用时抛出AdaptiveLimiterFullException
+     */
+    void acquirePermission();
+
+    /**
+     * 只释放许可，不作为样本（例如调用被取消，或者还没发出去就失败了）
+     */
+    void releasePermission();
+
+    /**
+     * 释放许可，duration作为一个RTT样本，超过dropLatencyThreshold时算作drop
+     */
+    void onSuccess(long duration, TimeUnit durationUnit);
+
+    /**
+     * 释放许可，dropExceptionPredicate认为是drop的异常会降低并发上限，其余异常等同于releasePermission
+     */
+    void onError(long duration, TimeUnit durationUnit, Throwable throwable);
+
+    String getName();
+
+    AdaptiveLimiterConfig getAdaptiveLimiterConfig();
+
+    Metrics getMetrics();
+
+    io.vavr.collection.Map<String, String> getTags();
+
+    EventPublisher getEventPublisher();
+
+    default <T> T executeSupplier(Supplier<T> supplier) {
+        return decorateSupplier(this, supplier).get();
+    }
+
+    default <T> T executeCallable(Callable<T> callable) throws Exception {
+        return decorateCallable(this, callable).call();
+    }
+
+    default void executeRunnable(Runnable runnable) {
+        decorateRunnable(this, runnable).run();
+    }
+
+    default <T> T executeCheckedSupplier(CheckedFunction0<T> checkedSupplier) throws Throwable {
+        return decorateCheckedSupplier(this, checkedSupplier).apply();
+    }
+
+    default <T> CompletionStage<T> executeCompletionStage(Supplier<CompletionStage<T>> supplier) {
+        return decorateCompletionStage(this, supplier).get();
+    }
+
+    interface Metrics {
+        /**
+         * 当前的并发上限
+         */
+        int getLimit();
+
+        /**
+         * 当前在途的调用数量
+         */
+        int getNumberOfInFlightCalls();
+
+        /**
+         * 此时还可以放行的调用数量
+         */
+        int getAvailablePermissions();
+    }
+
+    interface EventPublisher extends com.github.liyibo1110.resilience4j.core.EventPublisher<AdaptiveLimiterEvent> {
+        EventPublisher onCallRejected(EventConsumer<AdaptiveLimiterOnCallRejectedEvent> eventConsumer);
+        EventPublisher onCallPermitted(EventConsumer<AdaptiveLimiterOnCallPermittedEvent> eventConsumer);
+        EventPublisher onCallFinished(EventConsumer<AdaptiveLimiterOnCallFinishedEvent> eventConsumer);
+        EventPublisher onLimitChanged(EventConsumer<AdaptiveLimiterOnLimitChangedEvent> eventConsumer);
+    }
+}
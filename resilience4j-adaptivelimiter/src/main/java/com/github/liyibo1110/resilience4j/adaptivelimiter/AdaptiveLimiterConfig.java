@@ -0,0 +1,311 @@
+package com.github.liyibo1110.resilience4j.adaptivelimiter;
+
+import javax.annotation.concurrent.Immutable;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * AdaptiveLimiter专用的Config，initialLimit只是起点，之后的并发上限由algorithm根据RTT和drop在[minLimit, maxLimit]之间调整
+ * @author liyibo
+ * @date 2026-10-18 23:15
+ */
+@Immutable
+public class AdaptiveLimiterConfig implements Serializable {
+
+    private static final long serialVersionUID = 4728153907315823617L;
+
+    public static final Algorithm DEFAULT_ALGORITHM = Algorithm.GRADIENT;
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    public static final int DEFAULT_MAX_LIMIT = 200;
+    public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+    public static final Duration DEFAULT_DROP_LATENCY_THRESHOLD = Duration.ofSeconds(5);
+    public static final double DEFAULT_SMOOTHING = 0.2;
+    public static final double DEFAULT_RTT_TOLERANCE = 1.5;
+    public static final int DEFAULT_LONG_WINDOW_SIZE = 600;
+    public static final boolean DEFAULT_WRITABLE_STACK_TRACE_ENABLED = true;
+    private static final Predicate<Throwable> DEFAULT_DROP_EXCEPTION_PREDICATE = throwable -> true;
+
+    private final Algorithm algorithm;
+
+    /** 初始并发上限 */
+    private final int initialLimit;
+
+    /** 并发上限的下界 */
+    private final int minLimit;
+
+    /** 并发上限的上界 */
+    private final int maxLimit;
+
+    /** 发生drop时并发上限乘以这个系数 */
+    private final double backoffRatio;
+
+    /** RTT超过这个值的调用也算作drop */
+    private final Duration dropLatencyThreshold;
+
+    /** GRADIENT专用，新上限占多少权重 */
+    private final double smoothing;
+
+    /** GRADIENT专用，短期RTT是长期RTT的多少倍以内不算排队 */
+    private final double rttTolerance;
+
+    /** GRADIENT专用，长期RTT的指数平均相当于多少个样本 */
+    private final int longWindowSize;
+
+    /** 返回true的异常算作drop，否则只释放许可，不作为样本 */
+    private final transient Predicate<Throwable> dropExceptionPredicate;
+
+    private final boolean writableStackTraceEnabled;
+
+    private AdaptiveLimiterConfig(Algorithm algorithm, int initialLimit, int minLimit, int maxLimit,
+                                  double backoffRatio, Duration dropLatencyThreshold, double smoothing,
+                                  double rttTolerance, int longWindowSize,
+                                  Predicate<Throwable> dropExceptionPredicate, boolean writableStackTraceEnabled) {
+        this.algorithm = algorithm;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.dropLatencyThreshold = dropLatencyThreshold;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.longWindowSize = longWindowSize;
+        this.dropExceptionPredicate = dropExceptionPredicate;
+        this.writableStackTraceEnabled = writableStackTraceEnabled;
+    }
+
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    public static Builder from(AdaptiveLimiterConfig baseConfig) {
+        return new Builder(baseConfig);
+    }
+
+    public static AdaptiveLimiterConfig ofDefaults() {
+        return new Builder().build();
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public Duration getDropLatencyThreshold() {
+        return dropLatencyThreshold;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public double getRttTolerance() {
+        return rttTolerance;
+    }
+
+    public int getLongWindowSize() {
+        return longWindowSize;
+    }
+
+    public Predicate<Throwable> getDropExceptionPredicate() {
+        return dropExceptionPredicate;
+    }
+
+    public boolean isWritableStackTraceEnabled() {
+        return writableStackTraceEnabled;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("AdaptiveLimiterConfig{");
+        sb.append("algorithm=").append(algorithm);
+        sb.append(", initialLimit=").append(initialLimit);
+        sb.append(", minLimit=").append(minLimit);
+        sb.append(", maxLimit=").append(maxLimit);
+        sb.append(", backoffRatio=").append(backoffRatio);
+        sb.append(", dropLatencyThreshold=").append(dropLatencyThreshold);
+        sb.append(", smoothing=").append(smoothing);
+        sb.append(", rttTolerance=").append(rttTolerance);
+        sb.append(", longWindowSize=").append(longWindowSize);
+        sb.append(", writableStackTraceEnabled=").append(writableStackTraceEnabled);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * 调整并发上限的算法
+     */
+    public enum Algorithm {
+        /** 加性增、乘性减：没有drop并且并发用到一半以上时+1，发生drop时乘以backoffRatio */
+        AIMD,
+        /** TCP Vegas：用最小RTT估算排队的请求数，排队少就增加，排队多就减少 */
+        VEGAS,
+        /** 梯度：用长期RTT / 短期RTT的比值缩放并发上限，再加上sqrt(limit)的排队余量 */
+        GRADIENT
+    }
+
+    public static class Builder {
+        private Algorithm algorithm;
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+        private double backoffRatio;
+        private Duration dropLatencyThreshold;
+        private double smoothing;
+        private double rttTolerance;
+        private int longWindowSize;
+        private Predicate<Throwable> dropExceptionPredicate;
+        private boolean writableStackTraceEnabled;
+
+        public Builder() {
+            this.algorithm = DEFAULT_ALGORITHM;
+            this.initialLimit = DEFAULT_INITIAL_LIMIT;
+            this.minLimit = DEFAULT_MIN_LIMIT;
+            this.maxLimit = DEFAULT_MAX_LIMIT;
+            this.backoffRatio = DEFAULT_BACKOFF_RATIO;
+            this.dropLatencyThreshold = DEFAULT_DROP_LATENCY_THRESHOLD;
+            this.smoothing = DEFAULT_SMOOTHING;
+            this.rttTolerance = DEFAULT_RTT_TOLERANCE;
+            this.longWindowSize = DEFAULT_LONG_WINDOW_SIZE;
+            this.dropExceptionPredicate = DEFAULT_DROP_EXCEPTION_PREDICATE;
+            this.writableStackTraceEnabled = DEFAULT_WRITABLE_STACK_TRACE_ENABLED;
+        }
+
+        public Builder(AdaptiveLimiterConfig config) {
+            this.algorithm = config.getAlgorithm();
+            this.initialLimit = config.getInitialLimit();
+            this.minLimit = config.getMinLimit();
+            this.maxLimit = config.getMaxLimit();
+            this.backoffRatio = config.getBackoffRatio();
+            this.dropLatencyThreshold = config.getDropLatencyThreshold();
+            this.smoothing = config.getSmoothing();
+            this.rttTolerance = config.getRttTolerance();
+            this.longWindowSize = config.getLongWindowSize();
+            this.dropExceptionPredicate = config.getDropExceptionPredicate() != null
+                    ? config.getDropExceptionPredicate() : DEFAULT_DROP_EXCEPTION_PREDICATE;
+            this.writableStackTraceEnabled = config.isWritableStackTraceEnabled();
+        }
+
+        public Builder algorithm(Algorithm algorithm) {
+            if(algorithm == null)
+                throw new IllegalArgumentException("algorithm must not be null");
+            this.algorithm = algorithm;
+            return this;
+        }
+
+        public Builder initialLimit(int initialLimit) {
+            if(initialLimit < 1)
+                throw new IllegalArgumentException("initialLimit must be an integer value >= 1");
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        public Builder minLimit(int minLimit) {
+            if(minLimit < 1)
+                throw new IllegalArgumentException("minLimit must be an integer value >= 1");
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        public Builder maxLimit(int maxLimit) {
+            if(maxLimit < 1)
+                throw new IllegalArgumentException("maxLimit must be an integer value >= 1");
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        public Builder backoffRatio(double backoffRatio) {
+            if(!(backoffRatio >= 0.5 && backoffRatio < 1))
+                throw new IllegalArgumentException("backoffRatio must be in the range [0.5, 1)");
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        public Builder dropLatencyThreshold(Duration dropLatencyThreshold) {
+            if(dropLatencyThreshold == null || dropLatencyThreshold.isNegative() || dropLatencyThreshold.isZero())
+                throw new IllegalArgumentException("dropLatencyThreshold must be a positive duration");
+            this.dropLatencyThreshold = dropLatencyThreshold;
+            return this;
+        }
+
+        public Builder smoothing(double smoothing) {
+            if(!(smoothing > 0 && smoothing <= 1))
+                throw new IllegalArgumentException("smoothing must be in the range (0, 1]");
+            this.smoothing = smoothing;
+            return this;
+        }
+
+        public Builder rttTolerance(double rttTolerance) {
+            if(!(rttTolerance >= 1))
+                throw new IllegalArgumentException("rttTolerance must be a value >= 1");
+            this.rttTolerance = rttTolerance;
+            return this;
+        }
+
+        public Builder longWindowSize(int longWindowSize) {
+            if(longWindowSize < 1)
+                throw new IllegalArgumentException("longWindowSize must be an integer value >= 1");
+            this.longWindowSize = longWindowSize;
+            return this;
+        }
+
+        /**
+         * 返回true的异常算作drop，会降低并发上限，默认所有异常都算
+         */
+        public Builder dropExceptionPredicate(Predicate<Throwable> dropExceptionPredicate) {
+            if(dropExceptionPredicate == null)
+                throw new IllegalArgumentException("dropExceptionPredicate must not be null");
+            this.dropExceptionPredicate = dropExceptionPredicate;
+            return this;
+        }
+
+        /**
+         * 只有这些异常（包括子类）算作drop，其余异常只释放许可
+         */
+        @SafeVarargs
+        public final Builder dropExceptions(Class<? extends Throwable>... exceptions) {
+            if(exceptions == null)
+                throw new IllegalArgumentException("exceptions must not be null");
+            Class<? extends Throwable>[] classes = exceptions.clone();
+            this.dropExceptionPredicate = throwable -> {
+                for(Class<? extends Throwable> c : classes) {
+                    if(c.isAssignableFrom(throwable.getClass()))
+                        return true;
+                }
+                return false;
+            };
+            return this;
+        }
+
+        public Builder writableStackTraceEnabled(boolean writableStackTraceEnabled) {
+            this.writableStackTraceEnabled = writableStackTraceEnabled;
+            return this;
+        }
+
+        public AdaptiveLimiterConfig build() {
+            if(minLimit > maxLimit)
+                throw new IllegalStateException("minLimit must be less than or equal to maxLimit");
+            if(initialLimit < minLimit || initialLimit > maxLimit)
+                throw new IllegalStateException("initialLimit must be in the range [minLimit, maxLimit]");
+            return new AdaptiveLimiterConfig(algorithm, initialLimit, minLimit, maxLimit, backoffRatio,
+                    dropLatencyThreshold, smoothing, rttTolerance, longWindowSize,
+                    dropExceptionPredicate, writableStackTraceEnabled);
+        }
+    }
+}
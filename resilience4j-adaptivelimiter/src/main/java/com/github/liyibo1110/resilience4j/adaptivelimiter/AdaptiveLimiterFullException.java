@@ -0,0 +1,20 @@
+package com.github.liyibo1110.resilience4j.adaptivelimiter;
+
+/**
+ * AdaptiveLimiter的在途调用数已经达到当前并发上限对应的异常
+ * @author liyibo
+ * @date 2026-10-18 23:20
+ */
+public class AdaptiveLimiterFullException extends RuntimeException {
+
+    private AdaptiveLimiterFullException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
+
+    public static AdaptiveLimiterFullException createAdaptiveLimiterFullException(AdaptiveLimiter adaptiveLimiter) {
+        boolean writableStackTraceEnabled = adaptiveLimiter.getAdaptiveLimiterConfig().isWritableStackTraceEnabled();
+        String message = String.format("AdaptiveLimiter '%s' has reached its limit of %d concurrent calls and does not permit further calls",
+                adaptiveLimiter.getName(), adaptiveLimiter.getMetrics().getLimit());
+        return new AdaptiveLimiterFullException(message, writableStackTraceEnabled);
+    }
+}
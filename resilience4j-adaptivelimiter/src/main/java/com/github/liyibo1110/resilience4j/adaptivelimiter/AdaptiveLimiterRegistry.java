@@ -0,0 +1,135 @@
+package com.github.liyibo1110.resilience4j.adaptivelimiter;
+
+import com.github.liyibo1110.resilience4j.adaptivelimiter.internal.InMemoryAdaptiveLimiterRegistry;
+import com.github.liyibo1110.resilience4j.core.Registry;
+import com.github.liyibo1110.resilience4j.core.RegistryStore;
+import com.github.liyibo1110.resilience4j.core.registry.RegistryEventConsumer;
+import io.vavr.collection.Seq;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * @author liyibo
+ * @date 2026-10-18 23:50
+ */
+public interface AdaptiveLimiterRegistry extends Registry<AdaptiveLimiter, AdaptiveLimiterConfig> {
+
+    static AdaptiveLimiterRegistry of(AdaptiveLimiterConfig config) {
+        return new InMemoryAdaptiveLimiterRegistry(config);
+    }
+
+    static AdaptiveLimiterRegistry of(AdaptiveLimiterConfig config,
+                               io.vavr.collection.Map<String, String> tags) {
+        return new InMemoryAdaptiveLimiterRegistry(config, tags);
+    }
+
+    static AdaptiveLimiterRegistry of(AdaptiveLimiterConfig config,
+                               RegistryEventConsumer<AdaptiveLimiter> registryEventConsumer) {
+        return new InMemoryAdaptiveLimiterRegistry(config, registryEventConsumer);
+    }
+
+    static AdaptiveLimiterRegistry of(AdaptiveLimiterConfig config,
+                               List<RegistryEventConsumer<AdaptiveLimiter>> registryEventConsumers) {
+        return new InMemoryAdaptiveLimiterRegistry(config, registryEventConsumers);
+    }
+
+    static AdaptiveLimiterRegistry of(Map<String, AdaptiveLimiterConfig> configs) {
+        return new InMemoryAdaptiveLimiterRegistry(configs);
+    }
+
+    static AdaptiveLimiterRegistry of(Map<String, AdaptiveLimiterConfig> configs,
+                               io.vavr.collection.Map<String, String> tags) {
+        return new InMemoryAdaptiveLimiterRegistry(configs, tags);
+    }
+
+    static AdaptiveLimiterRegistry of(Map<String, AdaptiveLimiterConfig> configs,
+                               RegistryEventConsumer<AdaptiveLimiter> registryEventConsumer) {
+        return new InMemoryAdaptiveLimiterRegistry(configs, registryEventConsumer);
+    }
+
+    static AdaptiveLimiterRegistry of(Map<String, AdaptiveLimiterConfig> configs,
+                               RegistryEventConsumer<AdaptiveLimiter> registryEventConsumer,
+                               io.vavr.collection.Map<String, String> tags) {
+        return new InMemoryAdaptiveLimiterRegistry(configs, registryEventConsumer, tags);
+    }
+
+    static AdaptiveLimiterRegistry of(Map<String, AdaptiveLimiterConfig> configs,
+                               List<RegistryEventConsumer<AdaptiveLimiter>> registryEventConsumers) {
+        return new InMemoryAdaptiveLimiterRegistry(configs, registryEventConsumers);
+    }
+
+    static AdaptiveLimiterRegistry ofDefaults() {
+        return new InMemoryAdaptiveLimiterRegistry(AdaptiveLimiterConfig.ofDefaults());
+    }
+
+    Seq<AdaptiveLimiter> getAllAdaptiveLimiters();
+
+    AdaptiveLimiter adaptiveLimiter(String name);
+
+    AdaptiveLimiter adaptiveLimiter(String name, io.vavr.collection.Map<String, String> tags);
+
+    AdaptiveLimiter adaptiveLimiter(String name, AdaptiveLimiterConfig config);
+
+    AdaptiveLimiter adaptiveLimiter(String name, AdaptiveLimiterConfig config,
+                      io.vavr.collection.Map<String, String> tags);
+
+    AdaptiveLimiter adaptiveLimiter(String name, Supplier<AdaptiveLimiterConfig> configSupplier);
+
+    AdaptiveLimiter adaptiveLimiter(String name, Supplier<AdaptiveLimiterConfig> configSupplier,
+                      io.vavr.collection.Map<String, String> tags);
+
+    AdaptiveLimiter adaptiveLimiter(String name, String configName);
+
+    AdaptiveLimiter adaptiveLimiter(String name, String configName, io.vavr.collection.Map<String, String> tags);
+
+    static Builder custom() {
+        return new Builder();
+    }
+
+    class Builder {
+        private static final String DEFAULT_CONFIG = "default";
+        private RegistryStore<AdaptiveLimiter> registryStore;
+        private Map<String, AdaptiveLimiterConfig> adaptiveLimiterConfigsMap;
+        private List<RegistryEventConsumer<AdaptiveLimiter>> registryEventConsumers;
+        private io.vavr.collection.Map<String, String> tags;
+
+        public Builder() {
+            this.adaptiveLimiterConfigsMap = new java.util.HashMap<>();
+            this.registryEventConsumers = new ArrayList<>();
+        }
+
+        public Builder withRegistryStore(RegistryStore<AdaptiveLimiter> registryStore) {
+            this.registryStore = registryStore;
+            return this;
+        }
+
+        public Builder withAdaptiveLimiterConfig(AdaptiveLimiterConfig adaptiveLimiterConfig) {
+            adaptiveLimiterConfigsMap.put(DEFAULT_CONFIG, adaptiveLimiterConfig);
+            return this;
+        }
+
+        public Builder addAdaptiveLimiterConfig(String configName, AdaptiveLimiterConfig configuration) {
+            if(configName.equals(DEFAULT_CONFIG))
+                throw new IllegalArgumentException("You cannot add another configuration with name 'default' as it is preserved for default configuration");
+            adaptiveLimiterConfigsMap.put(configName, configuration);
+            return this;
+        }
+
+        public Builder addRegistryEventConsumer(RegistryEventConsumer<AdaptiveLimiter> registryEventConsumer) {
+            this.registryEventConsumers.add(registryEventConsumer);
+            return this;
+        }
+
+        public Builder withTags(io.vavr.collection.Map<String, String> tags) {
+            this.tags = tags;
+            return this;
+        }
+
+        public AdaptiveLimiterRegistry build() {
+            return new InMemoryAdaptiveLimiterRegistry(adaptiveLimiterConfigsMap, registryEventConsumers, tags, registryStore);
+        }
+    }
+}
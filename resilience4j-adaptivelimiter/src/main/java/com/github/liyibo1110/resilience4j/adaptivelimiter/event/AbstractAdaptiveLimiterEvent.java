@@ -0,0 +1,28 @@
+package com.github.liyibo1110.resilience4j.adaptivelimiter.event;
+
+import java.time.ZonedDateTime;
+
+/**
+ * @author liyibo
+ * @date 2026-10-18 23:10
+ */
+abstract class AbstractAdaptiveLimiterEvent implements AdaptiveLimiterEvent {
+
+    private final String adaptiveLimiterName;
+    private final ZonedDateTime creationTime;
+
+    AbstractAdaptiveLimiterEvent(String adaptiveLimiterName) {
+        this.adaptiveLimiterName = adaptiveLimiterName;
+        this.creationTime = ZonedDateTime.now();
+    }
+
+    @Override
+    public String getAdaptiveLimiterName() {
+        return adaptiveLimiterName;
+    }
+
+    @Override
+    public ZonedDateTime getCreationTime() {
+        return creationTime;
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.liyibo1110.resilience4j.adaptivelimiter.event;
+
+import java.time.ZonedDateTime;
+
+/**
+ * @author liyibo
+ * @date 2026-10-18 23:10
+ */
+public interface AdaptiveLimiterEvent {
+    String getAdaptiveLimiterName();
+    Type getEventType();
+    ZonedDateTime getCreationTime();
+
+    enum Type {
+        CALL_PERMITTED,
+        CALL_REJECTED,
+        CALL_FINISHED,
+        LIMIT_CHANGED
+    }
+}
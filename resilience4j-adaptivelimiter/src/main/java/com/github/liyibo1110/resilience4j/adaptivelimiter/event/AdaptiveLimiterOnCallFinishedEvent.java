@@ -0,0 +1,42 @@
+package com.github.liyibo1110.resilience4j.adaptivelimiter.event;
+
+import java.time.Duration;
+
+/**
+ * 调用结束（成功或者被算作drop）时发布，只释放许可不计入样本时不会发布
+ * @author liyibo
+ * @date 2026-10-18 23:12
+ */
+public class AdaptiveLimiterOnCallFinishedEvent extends AbstractAdaptiveLimiterEvent {
+
+    /** 调用耗时，即这次的RTT样本 */
+    private final Duration elapsedDuration;
+
+    /** 是否被算作drop（失败或者超过dropLatencyThreshold） */
+    private final boolean dropped;
+
+    public AdaptiveLimiterOnCallFinishedEvent(String adaptiveLimiterName, Duration elapsedDuration, boolean dropped) {
+        super(adaptiveLimiterName);
+        this.elapsedDuration = elapsedDuration;
+        this.dropped = dropped;
+    }
+
+    public Duration getElapsedDuration() {
+        return elapsedDuration;
+    }
+
+    public boolean isDropped() {
+        return dropped;
+    }
+
+    @Override
+    public Type getEventType() {
+        return Type.CALL_FINISHED;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: AdaptiveLimiter '%s' finished a call in %sms%s.",
+                getCreationTime(), getAdaptiveLimiterName(), elapsedDuration.toMillis(), dropped ? " (dropped)" : "");
+    }
+}
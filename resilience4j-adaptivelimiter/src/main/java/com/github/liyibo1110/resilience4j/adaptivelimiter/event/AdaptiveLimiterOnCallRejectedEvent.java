@@ -0,0 +1,23 @@
+package com.github.liyibo1110.resilience4j.adaptivelimiter.event;
+
+/**
+ * @author liyibo
+ * @date 2026-10-18 23:11
+ */
+public class AdaptiveLimiterOnCallRejectedEvent extends AbstractAdaptiveLimiterEvent {
+
+    public AdaptiveLimiterOnCallRejectedEvent(String adaptiveLimiterName) {
+        super(adaptiveLimiterName);
+    }
+
+    @Override
+    public Type getEventType() {
+        return Type.CALL_REJECTED;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: AdaptiveLimiter '%s' rejected a call.",
+                getCreationTime(), getAdaptiveLimiterName());
+    }
+}
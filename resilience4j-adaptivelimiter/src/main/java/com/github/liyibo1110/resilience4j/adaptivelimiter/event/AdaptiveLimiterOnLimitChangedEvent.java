@@ -0,0 +1,37 @@
+package com.github.liyibo1110.resilience4j.adaptivelimiter.event;
+
+/**
+ * 并发上限被算法调整时发布
+ * @author liyibo
+ * @date 2026-10-18 23:13
+ */
+public class AdaptiveLimiterOnLimitChangedEvent extends AbstractAdaptiveLimiterEvent {
+
+    private final int previousLimit;
+    private final int newLimit;
+
+    public AdaptiveLimiterOnLimitChangedEvent(String adaptiveLimiterName, int previousLimit, int newLimit) {
+        super(adaptiveLimiterName);
+        this.previousLimit = previousLimit;
+        this.newLimit = newLimit;
+    }
+
+    public int getPreviousLimit() {
+        return previousLimit;
+    }
+
+    public int getNewLimit() {
+        return newLimit;
+    }
+
+    @Override
+    public Type getEventType() {
+        return Type.LIMIT_CHANGED;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: AdaptiveLimiter '%s' changed its limit from %d to %d.",
+                getCreationTime(), getAdaptiveLimiterName(), previousLimit, newLimit);
+    }
+}
@@ -0,0 +1,29 @@
+package com.github.liyibo1110.resilience4j.adaptivelimiter.internal;
+
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiterConfig;
+
+/**
+ * 加性增、乘性减：发生drop时limit * backoffRatio，否则只要在途调用数达到limit的一半就+1，
+ * 在途调用数很少时说明上限不是瓶颈，不增加，避免空闲时上限无限增长
+ * @author liyibo
+ * @date 2026-10-18 23:32
+ */
+final class AimdLimitAlgorithm implements LimitAlgorithm {
+
+    private final AdaptiveLimiterConfig config;
+    private int limit;
+
+    AimdLimitAlgorithm(AdaptiveLimiterConfig config, int initialLimit) {
+        this.config = config;
+        this.limit = initialLimit;
+    }
+
+    @Override
+    public int onSample(long rttNanos, int inFlight, boolean dropped) {
+        if(dropped)
+            limit = LimitAlgorithm.clamp(Math.floor(limit * config.getBackoffRatio()), config);
+        else if(inFlight * 2 >= limit)
+            limit = LimitAlgorithm.clamp(limit + 1, config);
+        return limit;
+    }
+}
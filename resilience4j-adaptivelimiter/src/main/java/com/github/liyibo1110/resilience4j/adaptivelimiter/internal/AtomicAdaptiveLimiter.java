@@ -0,0 +1,259 @@
+package com.github.liyibo1110.resilience4j.adaptivelimiter.internal;
+
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiter;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiterConfig;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiterFullException;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.event.AdaptiveLimiterEvent;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.event.AdaptiveLimiterOnCallFinishedEvent;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.event.AdaptiveLimiterOnCallPermittedEvent;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.event.AdaptiveLimiterOnCallRejectedEvent;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.event.AdaptiveLimiterOnLimitChangedEvent;
+import com.github.liyibo1110.resilience4j.core.EventConsumer;
+import com.github.liyibo1110.resilience4j.core.EventProcessor;
+import com.github.liyibo1110.resilience4j.core.lang.Nullable;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * 基于AtomicInteger的AdaptiveLimiter实现，获取和释放许可都只是对在途调用数做CAS，不加锁；
+ * 只有把样本交给LimitAlgorithm并更新limit时才需要加锁（算法内部有多个字段要一起更新），
+ * 而limit本身是volatile的，tryAcquirePermission读到的总是最近一次算出来的上限。
+ * @author liyibo
+ * @date 2026-10-18 23:45
+ */
+public class AtomicAdaptiveLimiter implements AdaptiveLimiter {
+    private static final Logger LOG = LoggerFactory.getLogger(AtomicAdaptiveLimiter.class);
+    private static final String CONFIG_MUST_NOT_BE_NULL = "Config must not be null";
+    private static final String TAGS_MUST_NOTE_BE_NULL = "Tags must not be null";
+
+    private final String name;
+    private final AtomicInteger inFlight;
+    private final AdaptiveLimiterMetrics metrics;
+    private final AdaptiveLimiterEventProcessor eventProcessor;
+    private final Map<String, String> tags;
+
+    /** 保护algorithm和limit的写入 */
+    private final Object limitLock = new Object();
+
+    /** 注意这个AdaptiveLimiterConfig是不可变的，每次对其字段修改，都会生成新的实例 */
+    private volatile AdaptiveLimiterConfig config;
+
+    /** 只能在持有limitLock时访问 */
+    private LimitAlgorithm algorithm;
+
+    /** 当前的并发上限，只在持有limitLock时写入 */
+    private volatile int limit;
+
+    public AtomicAdaptiveLimiter(String name) {
+        this(name, AdaptiveLimiterConfig.ofDefaults(), HashMap.empty());
+    }
+
+    public AtomicAdaptiveLimiter(String name, @Nullable AdaptiveLimiterConfig config) {
+        this(name, config, HashMap.empty());
+    }
+
+    public AtomicAdaptiveLimiter(String name, @Nullable AdaptiveLimiterConfig config, Map<String, String> tags) {
+        this.name = name;
+        this.config = requireNonNull(config, CONFIG_MUST_NOT_BE_NULL);
+        this.tags = requireNonNull(tags, TAGS_MUST_NOTE_BE_NULL);
+        this.inFlight = new AtomicInteger(0);
+        this.limit = config.getInitialLimit();
+        this.algorithm = LimitAlgorithm.of(config, this.limit);
+        this.metrics = new AdaptiveLimiterMetrics();
+        this.eventProcessor = new AdaptiveLimiterEventProcessor();
+    }
+
+    @Override
+    public void changeConfig(final AdaptiveLimiterConfig newConfig) {
+        int previousLimit;
+        int newLimit;
+        synchronized(limitLock) {
+            previousLimit = this.limit;
+            newLimit = Math.max(newConfig.getMinLimit(), Math.min(newConfig.getMaxLimit(), previousLimit));
+            this.algorithm = LimitAlgorithm.of(newConfig, newLimit);
+            this.config = newConfig;
+            this.limit = newLimit;
+        }
+        this.publishLimitChangedEvent(previousLimit, newLimit);
+    }
+
+    @Override
+    public boolean tryAcquirePermission() {
+        boolean callPermitted = this.tryEnter();
+        this.publishAdaptiveLimiterEvent(() -> callPermitted ? new AdaptiveLimiterOnCallPermittedEvent(name)
+                                                             : new AdaptiveLimiterOnCallRejectedEvent(name));
+        return callPermitted;
+    }
+
+    @Override
+    public void acquirePermission() {
+        if(tryAcquirePermission())
+            return;
+        throw AdaptiveLimiterFullException.createAdaptiveLimiterFullException(this);
+    }
+
+    @Override
+    public void releasePermission() {
+        inFlight.decrementAndGet();
+    }
+
+    @Override
+    public void onSuccess(long duration, TimeUnit durationUnit) {
+        long rttNanos = durationUnit.toNanos(duration);
+        this.onSample(rttNanos, rttNanos > config.getDropLatencyThreshold().toNanos());
+    }
+
+    @Override
+    public void onError(long duration, TimeUnit durationUnit, Throwable throwable) {
+        // 异步调用的异常通常被包装过一层
+        Throwable cause = throwable;
+        if((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null)
+            cause = cause.getCause();
+        if(config.getDropExceptionPredicate().test(cause))
+            this.onSample(durationUnit.toNanos(duration), true);
+        else
+            this.releasePermission();
+    }
+
+    /**
+     * 释放许可并把样本交给算法，上限有变化时发布LIMIT_CHANGED
+     */
+    private void onSample(long rttNanos, boolean dropped) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        int previousLimit;
+        int newLimit;
+        synchronized(limitLock) {
+            previousLimit = this.limit;
+            newLimit = algorithm.onSample(rttNanos, inFlightBefore, dropped);
+            this.limit = newLimit;
+        }
+        this.publishAdaptiveLimiterEvent(() -> new AdaptiveLimiterOnCallFinishedEvent(name, Duration.ofNanos(rttNanos), dropped));
+        this.publishLimitChangedEvent(previousLimit, newLimit);
+    }
+
+    /**
+     * 在途调用数小于limit时+1，limit变小后已经在途的调用不受影响，只是新的调用要等它们结束
+     */
+    private boolean tryEnter() {
+        int current;
+        do {
+            current = inFlight.get();
+            if(current >= limit)
+                return false;
+        } while(!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public AdaptiveLimiterConfig getAdaptiveLimiterConfig() {
+        return config;
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public AdaptiveLimiter.EventPublisher getEventPublisher() {
+        return eventProcessor;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AdaptiveLimiter '%s'", this.name);
+    }
+
+    private void publishLimitChangedEvent(int previousLimit, int newLimit) {
+        if(previousLimit != newLimit)
+            publishAdaptiveLimiterEvent(() -> new AdaptiveLimiterOnLimitChangedEvent(name, previousLimit, newLimit));
+    }
+
+    /**
+     * 事件消费者抛出的异常只记录日志，不能影响许可的获取和释放
+     */
+    private void publishAdaptiveLimiterEvent(Supplier<AdaptiveLimiterEvent> eventSupplier) {
+        if(!eventProcessor.hasConsumers())
+            return;
+        AdaptiveLimiterEvent event = eventSupplier.get();
+        try {
+            eventProcessor.consumeEvent(event);
+        } catch (Throwable t) {
+            LOG.warn("Failed to handle event {}", event.getEventType(), t);
+        }
+    }
+
+    private class AdaptiveLimiterEventProcessor extends EventProcessor<AdaptiveLimiterEvent>
+            implements AdaptiveLimiter.EventPublisher, EventConsumer<AdaptiveLimiterEvent> {
+
+        @Override
+        public AdaptiveLimiter.EventPublisher onCallRejected(EventConsumer<AdaptiveLimiterOnCallRejectedEvent> eventConsumer) {
+            registerConsumer(AdaptiveLimiterOnCallRejectedEvent.class.getName(), eventConsumer);
+            return this;
+        }
+
+        @Override
+        public AdaptiveLimiter.EventPublisher onCallPermitted(EventConsumer<AdaptiveLimiterOnCallPermittedEvent> eventConsumer) {
+            registerConsumer(AdaptiveLimiterOnCallPermittedEvent.class.getName(), eventConsumer);
+            return this;
+        }
+
+        @Override
+        public AdaptiveLimiter.EventPublisher onCallFinished(EventConsumer<AdaptiveLimiterOnCallFinishedEvent> eventConsumer) {
+            registerConsumer(AdaptiveLimiterOnCallFinishedEvent.class.getName(), eventConsumer);
+            return this;
+        }
+
+        @Override
+        public AdaptiveLimiter.EventPublisher onLimitChanged(EventConsumer<AdaptiveLimiterOnLimitChangedEvent> eventConsumer) {
+            registerConsumer(AdaptiveLimiterOnLimitChangedEvent.class.getName(), eventConsumer);
+            return this;
+        }
+
+        @Override
+        public void consumeEvent(AdaptiveLimiterEvent event) {
+            super.processEvent(event);
+        }
+    }
+
+    private final class AdaptiveLimiterMetrics implements AdaptiveLimiter.Metrics {
+
+        private AdaptiveLimiterMetrics() {}
+
+        @Override
+        public int getLimit() {
+            return limit;
+        }
+
+        @Override
+        public int getNumberOfInFlightCalls() {
+            return inFlight.get();
+        }
+
+        @Override
+        public int getAvailablePermissions() {
+            return Math.max(0, limit - inFlight.get());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.liyibo1110.resilience4j.adaptivelimiter.internal;
+
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiterConfig;
+
+/**
+ * 梯度算法：长期RTT是窗口为longWindowSize的指数平均，短期RTT是这次的样本，
+ * gradient = rttTolerance * longRtt / shortRtt（限制在[0.5, 1]），newLimit = limit * gradient + sqrt(limit)，
+ * 最后按smoothing和原来的limit加权。RTT正常时gradient是1，上限每次增加一点sqrt(limit)的余量，
+ * RTT升高超过rttTolerance倍后按比例缩小。短期RTT远低于长期RTT时（负载下降）让长期RTT加速衰减，尽快适应新的基准。
+ * @author liyibo
+ * @date 2026-10-18 23:40
+ */
+final class GradientLimitAlgorithm implements LimitAlgorithm {
+
+    private final AdaptiveLimiterConfig config;
+    private final double longRttFactor;
+    private double limit;
+
+    /** 长期RTT的指数平均，0表示还没有样本 */
+    private double longRtt;
+
+    GradientLimitAlgorithm(AdaptiveLimiterConfig config, int initialLimit) {
+        this.config = config;
+        this.longRttFactor = 2.0 / (config.getLongWindowSize() + 1);
+        this.limit = initialLimit;
+    }
+
+    @Override
+    public int onSample(long rttNanos, int inFlight, boolean dropped) {
+        if(dropped) {
+            limit = LimitAlgorithm.clamp(limit * config.getBackoffRatio(), config);
+            return (int) limit;
+        }
+        double shortRtt = Math.max(1, rttNanos);
+        if(longRtt == 0)
+            longRtt = shortRtt;
+        else
+            longRtt = longRtt * (1 - longRttFactor) + shortRtt * longRttFactor;
+        if(longRtt / shortRtt > 2)
+            longRtt *= 0.95;
+        if(inFlight * 2 < limit)    // 上限不是瓶颈，不根据RTT调整
+            return (int) limit;
+
+        double gradient = Math.max(0.5, Math.min(1.0, config.getRttTolerance() * longRtt / shortRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - config.getSmoothing()) + newLimit * config.getSmoothing();
+        limit = Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), newLimit));
+        return (int) limit;
+    }
+}
@@ -0,0 +1,150 @@
+package com.github.liyibo1110.resilience4j.adaptivelimiter.internal;
+
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiter;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiterConfig;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiterRegistry;
+import com.github.liyibo1110.resilience4j.core.ConfigurationNotFoundException;
+import com.github.liyibo1110.resilience4j.core.RegistryStore;
+import com.github.liyibo1110.resilience4j.core.registry.AbstractRegistry;
+import com.github.liyibo1110.resilience4j.core.registry.InMemoryRegistryStore;
+import com.github.liyibo1110.resilience4j.core.registry.RegistryEventConsumer;
+import io.vavr.collection.Array;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.Seq;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * @author liyibo
+ * @date 2026-10-18 23:50
+ */
+public final class InMemoryAdaptiveLimiterRegistry extends AbstractRegistry<AdaptiveLimiter, AdaptiveLimiterConfig>
+            implements AdaptiveLimiterRegistry {
+
+    public InMemoryAdaptiveLimiterRegistry() {
+        this(AdaptiveLimiterConfig.ofDefaults());
+    }
+
+    public InMemoryAdaptiveLimiterRegistry(io.vavr.collection.Map<String, String> tags) {
+        this(AdaptiveLimiterConfig.ofDefaults(), tags);
+    }
+
+    public InMemoryAdaptiveLimiterRegistry(Map<String, AdaptiveLimiterConfig> configs) {
+        this(configs, HashMap.empty());
+    }
+
+    public InMemoryAdaptiveLimiterRegistry(Map<String, AdaptiveLimiterConfig> configs,
+                                    io.vavr.collection.Map<String, String> tags) {
+        this(configs.getOrDefault(DEFAULT_CONFIG, AdaptiveLimiterConfig.ofDefaults()), tags);
+        this.configurations.putAll(configs);
+    }
+
+    public InMemoryAdaptiveLimiterRegistry(Map<String, AdaptiveLimiterConfig> configs, RegistryEventConsumer<AdaptiveLimiter> registryEventConsumer) {
+        this(configs, registryEventConsumer, HashMap.empty());
+    }
+
+    public InMemoryAdaptiveLimiterRegistry(Map<String, AdaptiveLimiterConfig> configs, RegistryEventConsumer<AdaptiveLimiter> registryEventConsumer,
+            io.vavr.collection.Map<String, String> tags) {
+        this(configs.getOrDefault(DEFAULT_CONFIG, AdaptiveLimiterConfig.ofDefaults()), registryEventConsumer, tags);
+        this.configurations.putAll(configs);
+    }
+
+    public InMemoryAdaptiveLimiterRegistry(Map<String, AdaptiveLimiterConfig> configs, List<RegistryEventConsumer<AdaptiveLimiter>> registryEventConsumers) {
+        this(configs, registryEventConsumers, HashMap.empty());
+    }
+
+    public InMemoryAdaptiveLimiterRegistry(Map<String, AdaptiveLimiterConfig> configs, List<RegistryEventConsumer<AdaptiveLimiter>> registryEventConsumers,
+            io.vavr.collection.Map<String, String> tags) {
+        this(configs.getOrDefault(DEFAULT_CONFIG, AdaptiveLimiterConfig.ofDefaults()), registryEventConsumers, tags);
+        this.configurations.putAll(configs);
+    }
+
+    public InMemoryAdaptiveLimiterRegistry(AdaptiveLimiterConfig defaultConfig) {
+        super(defaultConfig);
+    }
+
+    public InMemoryAdaptiveLimiterRegistry(AdaptiveLimiterConfig defaultConfig, io.vavr.collection.Map<String, String> tags) {
+        super(defaultConfig, tags);
+    }
+
+    public InMemoryAdaptiveLimiterRegistry(AdaptiveLimiterConfig defaultConfig, List<RegistryEventConsumer<AdaptiveLimiter>> registryEventConsumers) {
+        super(defaultConfig, registryEventConsumers);
+    }
+
+    public InMemoryAdaptiveLimiterRegistry(AdaptiveLimiterConfig defaultConfig, List<RegistryEventConsumer<AdaptiveLimiter>> registryEventConsumers,
+                                    io.vavr.collection.Map<String, String> tags) {
+        super(defaultConfig, registryEventConsumers, tags);
+    }
+
+    public InMemoryAdaptiveLimiterRegistry(AdaptiveLimiterConfig defaultConfig, RegistryEventConsumer<AdaptiveLimiter> registryEventConsumer) {
+        super(defaultConfig, registryEventConsumer);
+    }
+
+    public InMemoryAdaptiveLimiterRegistry(AdaptiveLimiterConfig defaultConfig, RegistryEventConsumer<AdaptiveLimiter> registryEventConsumer,
+                                    io.vavr.collection.Map<String, String> tags) {
+        super(defaultConfig, registryEventConsumer, tags);
+    }
+
+    public InMemoryAdaptiveLimiterRegistry(Map<String, AdaptiveLimiterConfig> configs, List<RegistryEventConsumer<AdaptiveLimiter>> registryEventConsumers,
+                                    io.vavr.collection.Map<String, String> tags, RegistryStore<AdaptiveLimiter> registryStore) {
+        super(configs.getOrDefault(DEFAULT_CONFIG, AdaptiveLimiterConfig.ofDefaults()),
+                registryEventConsumers, Optional.ofNullable(tags).orElse(HashMap.empty()),
+                Optional.ofNullable(registryStore).orElse(new InMemoryRegistryStore<>()));
+        this.configurations.putAll(configs);
+    }
+
+    @Override
+    public Seq<AdaptiveLimiter> getAllAdaptiveLimiters() {
+        return Array.ofAll(entryMap.values());
+    }
+
+    @Override
+    public AdaptiveLimiter adaptiveLimiter(String name) {
+        return adaptiveLimiter(name, HashMap.empty());
+    }
+
+    @Override
+    public AdaptiveLimiter adaptiveLimiter(String name, io.vavr.collection.Map<String, String> tags) {
+        return adaptiveLimiter(name, getDefaultConfig(), getAllTags(tags));
+    }
+
+    @Override
+    public AdaptiveLimiter adaptiveLimiter(String name, AdaptiveLimiterConfig config) {
+        return adaptiveLimiter(name, config, HashMap.empty());
+    }
+
+    @Override
+    public AdaptiveLimiter adaptiveLimiter(String name, AdaptiveLimiterConfig config,
+                             io.vavr.collection.Map<String, String> tags) {
+        return computeIfAbsent(name, () -> AdaptiveLimiter.of(name, Objects.requireNonNull(config, CONFIG_MUST_NOT_BE_NULL), getAllTags(tags)));
+    }
+
+    @Override
+    public AdaptiveLimiter adaptiveLimiter(String name, Supplier<AdaptiveLimiterConfig> configSupplier) {
+        return adaptiveLimiter(name, configSupplier, HashMap.empty());
+    }
+
+    @Override
+    public AdaptiveLimiter adaptiveLimiter(String name, Supplier<AdaptiveLimiterConfig> configSupplier,
+                             io.vavr.collection.Map<String, String> tags) {
+        return computeIfAbsent(name, () -> AdaptiveLimiter.of(name, Objects.requireNonNull(
+                Objects.requireNonNull(configSupplier, SUPPLIER_MUST_NOT_BE_NULL).get(),
+                CONFIG_MUST_NOT_BE_NULL), getAllTags(tags)));
+    }
+
+    @Override
+    public AdaptiveLimiter adaptiveLimiter(String name, String configName) {
+        return adaptiveLimiter(name, configName, HashMap.empty());
+    }
+
+    @Override
+    public AdaptiveLimiter adaptiveLimiter(String name, String configName,
+                             io.vavr.collection.Map<String, String> tags) {
+        return computeIfAbsent(name, () -> AdaptiveLimiter.of(name, getConfiguration(configName)
+                .orElseThrow(() -> new ConfigurationNotFoundException(configName)), getAllTags(tags)));
+    }
+}
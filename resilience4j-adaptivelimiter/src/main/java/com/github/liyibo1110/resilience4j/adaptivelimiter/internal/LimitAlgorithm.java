@@ -0,0 +1,31 @@
+package com.github.liyibo1110.resilience4j.adaptivelimiter.internal;
+
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiterConfig;
+
+/**
+ * 根据每次调用的样本计算新的并发上限，实现类都不是线程安全的，由AtomicAdaptiveLimiter加锁调用
+ * @author liyibo
+ * @date 2026-10-18 23:30
+ */
+interface LimitAlgorithm {
+
+    static LimitAlgorithm of(AdaptiveLimiterConfig config, int initialLimit) {
+        return switch(config.getAlgorithm()) {
+            case AIMD -> new AimdLimitAlgorithm(config, initialLimit);
+            case VEGAS -> new VegasLimitAlgorithm(config, initialLimit);
+            case GRADIENT -> new GradientLimitAlgorithm(config, initialLimit);
+        };
+    }
+
+    /**
+     * @param rttNanos 这次调用的耗时
+     * @param inFlight 这次调用结束前的在途调用数（包括自己）
+     * @param dropped 这次调用是否算作drop
+     * @return 新的并发上限，已经限制在[minLimit, maxLimit]里
+     */
+    int onSample(long rttNanos, int inFlight, boolean dropped);
+
+    static int clamp(double limit, AdaptiveLimiterConfig config) {
+        return (int) Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), limit));
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.liyibo1110.resilience4j.adaptivelimiter.internal;
+
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiterConfig;
+
+/**
+ * TCP Vegas：把见过的最小RTT当作没有排队时的RTT（rttNoLoad），用queueSize = limit * (1 - rttNoLoad / rtt)估算正在排队的调用数，
+ * 排队数少于alpha = 3 * log10(limit)时增加，多于beta = 6 * log10(limit)时减少，步长都是log10(limit)，几乎没有排队时直接增加beta。
+ * 每过30 * limit个样本把rttNoLoad重置成当前样本，避免下游的基准RTT变大（例如换了机房）之后一直认为在排队。
+ * @author liyibo
+ * @date 2026-10-18 23:35
+ */
+final class VegasLimitAlgorithm implements LimitAlgorithm {
+
+    private static final int PROBE_MULTIPLIER = 30;
+
+    private final AdaptiveLimiterConfig config;
+    private double limit;
+
+    /** 没有排队时的RTT，0表示还没有样本 */
+    private long rttNoLoad;
+
+    /** 距离上次重置rttNoLoad的样本数 */
+    private long samplesSinceProbe;
+
+    VegasLimitAlgorithm(AdaptiveLimiterConfig config, int initialLimit) {
+        this.config = config;
+        this.limit = initialLimit;
+    }
+
+    @Override
+    public int onSample(long rttNanos, int inFlight, boolean dropped) {
+        // 被丢弃的样本RTT不可信，先退避，也不计入探测周期，免得用它重置rttNoLoad
+        if(dropped) {
+            limit = LimitAlgorithm.clamp(limit * config.getBackoffRatio(), config);
+            return (int) limit;
+        }
+        if(++samplesSinceProbe >= PROBE_MULTIPLIER * (long) limit) {
+            samplesSinceProbe = 0;
+            rttNoLoad = Math.max(1, rttNanos);
+            return (int) limit;
+        }
+        if(rttNoLoad == 0 || rttNanos < rttNoLoad) {
+            rttNoLoad = Math.max(1, rttNanos);
+            return (int) limit;
+        }
+        if(inFlight * 2 < limit)    // 上限不是瓶颈，RTT里看不出排队情况
+            return (int) limit;
+
+        double step = Math.max(1, Math.log10(limit));
+        double queueSize = Math.ceil(limit * (1 - (double) rttNoLoad / rttNanos));
+        double newLimit;
+        if(queueSize <= step)
+            newLimit = limit + 6 * step;
+        else if(queueSize < 3 * step)
+            newLimit = limit + step;
+        else if(queueSize > 6 * step)
+            newLimit = limit - step;
+        else
+            return (int) limit;
+        limit = Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), newLimit));
+        return (int) limit;
+    }
+}
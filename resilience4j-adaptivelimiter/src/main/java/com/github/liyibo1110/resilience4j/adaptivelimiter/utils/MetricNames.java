@@ -0,0 +1,15 @@
+package com.github.liyibo1110.resilience4j.adaptivelimiter.utils;
+
+/**
+ * @author liyibo
+ * @date 2026-10-18 23:14
+ */
+public class MetricNames {
+
+    public static final String DEFAULT_PREFIX = "resilience4j.adaptivelimiter";
+    public static final String LIMIT = "limit";
+    public static final String IN_FLIGHT_CALLS = "in_flight_calls";
+    public static final String AVAILABLE_PERMISSIONS = "available_permissions";
+
+    private MetricNames() {}
+}
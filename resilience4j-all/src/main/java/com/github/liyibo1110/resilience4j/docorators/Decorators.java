@@ -1,9 +1,11 @@
 package com.github.liyibo1110.resilience4j.docorators;
 
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiter;
 import com.github.liyibo1110.resilience4j.bulkhead.Bulkhead;
 import com.github.liyibo1110.resilience4j.bulkhead.BulkheadFullException;
 import com.github.liyibo1110.resilience4j.bulkhead.ThreadPoolBulkhead;
 import com.github.liyibo1110.resilience4j.cache.Cache;
+import com.github.liyibo1110.resilience4j.circuitbreaker.CallOutcome;
 import com.github.liyibo1110.resilience4j.circuitbreaker.CircuitBreaker;
 import com.github.liyibo1110.resilience4j.core.CallableUtils;
 import com.github.liyibo1110.resilience4j.core.CheckFunctionUtils;
@@ -21,12 +23,14 @@ import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 import java.util.function.UnaryOperator;
 
 /**
@@ -87,6 +91,28 @@ public interface Decorators {
             return this;
         }
 
+        /**
+         * 以CircuitBreaker作为最外层并结束装饰，被拒绝或者失败都不抛异常，而是返回对应的CallOutcome
+         */
+        public Supplier<CallOutcome<T>> withCircuitBreakerOutcome(CircuitBreaker circuitBreaker) {
+            return CircuitBreaker.decorateOutcomeSupplier(circuitBreaker, supplier::get);
+        }
+
+        /**
+         * supplier的一次调用包含batchSize个条目，CircuitBreaker按条目计数，抛出异常时所有条目都算失败
+         */
+        public DecorateSupplier<T> withCircuitBreakerBatch(CircuitBreaker circuitBreaker, int batchSize) {
+            return withCircuitBreakerBatch(circuitBreaker, batchSize, result -> 0);
+        }
+
+        /**
+         * 同上，failedItemsCounter从返回值里数出失败的条目数
+         */
+        public DecorateSupplier<T> withCircuitBreakerBatch(CircuitBreaker circuitBreaker, int batchSize, ToIntFunction<T> failedItemsCounter) {
+            supplier = CircuitBreaker.decorateBatchSupplier(circuitBreaker, batchSize, supplier, failedItemsCounter);
+            return this;
+        }
+
         public DecorateSupplier<T> withRetry(Retry retryContext) {
             supplier = Retry.decorateSupplier(retryContext, supplier);
             return this;
@@ -110,6 +136,11 @@ public interface Decorators {
             return this;
         }
 
+        public DecorateSupplier<T> withAdaptiveLimiter(AdaptiveLimiter adaptiveLimiter) {
+            supplier = AdaptiveLimiter.decorateSupplier(adaptiveLimiter, supplier);
+            return this;
+        }
+
         public DecorateSupplier<T> withFallback(Function<Throwable, T> exceptionHandler) {
             supplier = SupplierUtils.recover(supplier, exceptionHandler);
             return this;
@@ -194,6 +225,11 @@ public interface Decorators {
             return this;
         }
 
+        public DecorateFunction<T, R> withAdaptiveLimiter(AdaptiveLimiter adaptiveLimiter) {
+            function = AdaptiveLimiter.decorateFunction(adaptiveLimiter, function);
+            return this;
+        }
+
         public Function<T, R> decorate() {
             return function;
         }
@@ -237,6 +273,11 @@ public interface Decorators {
             return this;
         }
 
+        public DecorateRunnable withAdaptiveLimiter(AdaptiveLimiter adaptiveLimiter) {
+            runnable = AdaptiveLimiter.decorateRunnable(adaptiveLimiter, runnable);
+            return this;
+        }
+
         public DecorateCompletionStage<Void> withThreadPoolBulkhead(ThreadPoolBulkhead threadPoolBulkhead) {
             return Decorators.ofCompletionStage(getCompletionStageSupplier(threadPoolBulkhead));
         }
@@ -296,6 +337,11 @@ public interface Decorators {
             return this;
         }
 
+        public DecorateCallable<T> withAdaptiveLimiter(AdaptiveLimiter adaptiveLimiter) {
+            callable = AdaptiveLimiter.decorateCallable(adaptiveLimiter, callable);
+            return this;
+        }
+
         public DecorateCallable<T> withFallback(BiFunction<T, Throwable, T> handler) {
             callable = CallableUtils.andThen(callable, handler);
             return this;
@@ -361,6 +407,28 @@ public interface Decorators {
             return this;
         }
 
+        /**
+         * 以CircuitBreaker作为最外层并结束装饰，被拒绝或者失败都不抛异常，而是返回对应的CallOutcome
+         */
+        public Supplier<CallOutcome<T>> withCircuitBreakerOutcome(CircuitBreaker circuitBreaker) {
+            return CircuitBreaker.decorateOutcomeSupplier(circuitBreaker, supplier);
+        }
+
+        /**
+         * supplier的一次调用包含batchSize个条目，CircuitBreaker按条目计数，抛出异常时所有条目都算失败
+         */
+        public DecorateCheckedSupplier<T> withCircuitBreakerBatch(CircuitBreaker circuitBreaker, int batchSize) {
+            return withCircuitBreakerBatch(circuitBreaker, batchSize, result -> 0);
+        }
+
+        /**
+         * 同上，failedItemsCounter从返回值里数出失败的条目数
+         */
+        public DecorateCheckedSupplier<T> withCircuitBreakerBatch(CircuitBreaker circuitBreaker, int batchSize, ToIntFunction<T> failedItemsCounter) {
+            supplier = CircuitBreaker.decorateCheckedBatchSupplier(circuitBreaker, batchSize, supplier, failedItemsCounter);
+            return this;
+        }
+
         public DecorateCheckedSupplier<T> withRetry(Retry retryContext) {
             supplier = Retry.decorateCheckedSupplier(retryContext, supplier);
             return this;
@@ -384,6 +452,11 @@ public interface Decorators {
             return this;
         }
 
+        public DecorateCheckedSupplier<T> withAdaptiveLimiter(AdaptiveLimiter adaptiveLimiter) {
+            supplier = AdaptiveLimiter.decorateCheckedSupplier(adaptiveLimiter, supplier);
+            return this;
+        }
+
         public DecorateCheckedSupplier<T> withFallback(CheckedFunction2<T, Throwable, T> handler) {
             supplier = CheckFunctionUtils.andThen(supplier, handler);
             return this;
@@ -458,6 +531,11 @@ public interface Decorators {
             return this;
         }
 
+        public DecorateCheckedFunction<T, R> withAdaptiveLimiter(AdaptiveLimiter adaptiveLimiter) {
+            function = AdaptiveLimiter.decorateCheckedFunction(adaptiveLimiter, function);
+            return this;
+        }
+
         public CheckedFunction1<T, R> decorate() {
             return function;
         }
@@ -502,6 +580,11 @@ public interface Decorators {
             return this;
         }
 
+        public DecorateCheckedRunnable withAdaptiveLimiter(AdaptiveLimiter adaptiveLimiter) {
+            runnable = AdaptiveLimiter.decorateCheckedRunnable(adaptiveLimiter, runnable);
+            return this;
+        }
+
         public CheckedRunnable decorate() {
             return runnable;
         }
@@ -536,11 +619,27 @@ public interface Decorators {
             return this;
         }
 
+        public DecorateCompletionStage<T> withAdaptiveLimiter(AdaptiveLimiter adaptiveLimiter) {
+            stageSupplier = AdaptiveLimiter.decorateCompletionStage(adaptiveLimiter, stageSupplier);
+            return this;
+        }
+
+        /**
+         * 使用共享的HashedWheelScheduler做超时检测
+         */
+        public DecorateCompletionStage<T> withTimeLimiter(TimeLimiter timeLimiter) {
+            stageSupplier = TimeLimiter.decorateCompletionStage(timeLimiter, stageSupplier);
+            return this;
+        }
+
         public DecorateCompletionStage<T> withTimeLimiter(TimeLimiter timeLimiter, ScheduledExecutorService scheduler) {
             stageSupplier =  timeLimiter.decorateCompletionStage(scheduler, stageSupplier);
             return this;
         }
 
+        /**
+         * 使用共享的HashedWheelScheduler异步等待许可，不会阻塞调用线程
+         */
         public DecorateCompletionStage<T> withRateLimiter(RateLimiter rateLimiter) {
             return withRateLimiter(rateLimiter, 1);
         }
@@ -550,6 +649,24 @@ public interface Decorators {
             return this;
         }
 
+        public DecorateCompletionStage<T> withRateLimiter(RateLimiter rateLimiter, ScheduledExecutorService scheduler) {
+            return withRateLimiter(rateLimiter, 1, scheduler);
+        }
+
+        public DecorateCompletionStage<T> withRateLimiter(RateLimiter rateLimiter, int permits, ScheduledExecutorService scheduler) {
+            stageSupplier = RateLimiter.decorateCompletionStage(rateLimiter, permits, scheduler, stageSupplier);
+            return this;
+        }
+
+        /**
+         * 拿到许可之后在executor上调用被装饰的CompletionStage
+         */
+        public DecorateCompletionStage<T> withRateLimiter(RateLimiter rateLimiter, int permits, ScheduledExecutorService scheduler,
+                                                          Executor executor) {
+            stageSupplier = RateLimiter.decorateCompletionStage(rateLimiter, permits, scheduler, executor, stageSupplier);
+            return this;
+        }
+
         public DecorateCompletionStage<T> withFallback(Predicate<T> resultPredicate, UnaryOperator<T> resultHandler) {
             stageSupplier = CompletionStageUtils.recover(stageSupplier, resultPredicate, resultHandler);
             return this;
@@ -618,6 +735,11 @@ public interface Decorators {
             return this;
         }
 
+        public DecorateConsumer<T> withAdaptiveLimiter(AdaptiveLimiter adaptiveLimiter) {
+            consumer = AdaptiveLimiter.decorateConsumer(adaptiveLimiter, consumer);
+            return this;
+        }
+
         public Consumer<T> decorate() {
             return consumer;
         }
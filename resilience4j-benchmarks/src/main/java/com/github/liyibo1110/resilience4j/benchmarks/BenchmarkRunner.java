@@ -0,0 +1,62 @@
+package com.github.liyibo1110.resilience4j.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 按多个线程数依次运行所有benchmark（都带上-prof gc），并把结果合并输出到一个文件，用来生成/对比baseline。
+ * 参数：[线程数列表，默认1,4,16] [输出文件，默认baseline.txt] [benchmark正则，默认全部] [quick，缩短迭代时间]
+ * 模块下的baseline.txt是用默认的线程数列表跑出来的：java -jar target/benchmarks.jar 1,4,16 baseline.txt ".*Benchmark" quick，
+ * 修改热点路径后可以重新跑一遍对比，其中gc.alloc.rate.norm（B/op）是跨机器最稳定的指标。
+ * @author liyibo
+ * @date 2026-10-18 11:40
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String threads = args.length > 0 ? args[0] : "1,4,16";
+        String output = args.length > 1 ? args[1] : "baseline.txt";
+        String include = args.length > 2 ? args[2] : BenchmarkRunner.class.getPackageName() + ".*Benchmark";
+        boolean quick = args.length > 3 && "quick".equals(args[3]);
+
+        Map<Integer, Collection<RunResult>> results = new LinkedHashMap<>();
+        for(String thread : threads.split(",")) {
+            int threadCount = Integer.parseInt(thread.trim());
+            OptionsBuilder builder = new OptionsBuilder();
+            builder.include(include)
+                    .threads(threadCount)
+                    .addProfiler(GCProfiler.class);
+            if(quick) {
+                builder.warmupIterations(1)
+                        .warmupTime(TimeValue.milliseconds(500))
+                        .measurementIterations(2)
+                        .measurementTime(TimeValue.milliseconds(500));
+            }
+            Options options = builder.build();
+            results.put(threadCount, new Runner(options).run());
+        }
+
+        // JMH的文本格式里没有线程数这一列，所以按线程数分段输出
+        try(PrintStream out = new PrintStream(output, StandardCharsets.UTF_8)) {
+            for(Map.Entry<Integer, Collection<RunResult>> entry : results.entrySet()) {
+                out.println("# Threads: " + entry.getKey());
+                ResultFormatFactory.getInstance(ResultFormatType.TEXT, out).writeOut(entry.getValue());
+                out.println();
+            }
+        }
+    }
+}
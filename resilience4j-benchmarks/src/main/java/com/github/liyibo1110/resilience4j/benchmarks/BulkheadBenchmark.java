@@ -0,0 +1,60 @@
+package com.github.liyibo1110.resilience4j.benchmarks;
+
+import com.github.liyibo1110.resilience4j.bulkhead.Bulkhead;
+import com.github.liyibo1110.resilience4j.bulkhead.BulkheadConfig;
+import com.github.liyibo1110.resilience4j.bulkhead.internal.SemaphoreBulkhead;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SemaphoreBulkhead获取许可并立即归还的路径
+ * @author liyibo
+ * @date 2026-10-18 11:16
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BulkheadBenchmark {
+
+    @Param({"false", "true"})
+    public boolean consumerRegistered;
+
+    private Bulkhead bulkhead;
+
+    @Setup
+    public void setUp() {
+        BulkheadConfig config = BulkheadConfig.custom()
+                .maxConcurrentCalls(1024)
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+        this.bulkhead = new SemaphoreBulkhead("benchmark", config);
+        if(this.consumerRegistered) {
+            LongAdder counter = new LongAdder();
+            this.bulkhead.getEventPublisher().onEvent(event -> counter.increment());
+        }
+    }
+
+    @Benchmark
+    public boolean tryAcquirePermissionAndOnComplete() {
+        boolean permitted = this.bulkhead.tryAcquirePermission();
+        if(permitted)
+            this.bulkhead.onComplete();
+        return permitted;
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.liyibo1110.resilience4j.benchmarks;
+
+import com.github.liyibo1110.resilience4j.circuitbreaker.CircuitBreaker;
+import com.github.liyibo1110.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import com.github.liyibo1110.resilience4j.circuitbreaker.internal.CircuitBreakerStateMachine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CircuitBreakerStateMachine在CLOSED状态下的热点路径：获取许可和记录成功结果，
+ * 以及故障期间OPEN状态下拒绝调用的路径
+ * @author liyibo
+ * @date 2026-10-18 11:05
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CircuitBreakerBenchmark {
+
+    @Param({"COUNT_BASED", "TIME_BASED", "STRIPED_TIME_BASED", "EXPONENTIALLY_WEIGHTED", "PACKED_COUNT_BASED"})
+    public CircuitBreakerConfig.SlidingWindowType windowType;
+
+    @Param({"false", "true"})
+    public boolean consumerRegistered;
+
+    private CircuitBreaker circuitBreaker;
+
+    @Setup
+    public void setUp() {
+        // 阈值给到最大，保证压测期间一直是CLOSED状态
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .slidingWindow(100, 100, this.windowType)
+                .failureRateThreshold(100)
+                .build();
+        this.circuitBreaker = new CircuitBreakerStateMachine("benchmark", config);
+        if(this.consumerRegistered) {
+            LongAdder counter = new LongAdder();
+            this.circuitBreaker.getEventPublisher().onEvent(event -> counter.increment());
+        }
+    }
+
+    @Benchmark
+    public boolean tryAcquirePermission() {
+        return this.circuitBreaker.tryAcquirePermission();
+    }
+
+    @Benchmark
+    public void onSuccess() {
+        this.circuitBreaker.onSuccess(1000, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 一直处于OPEN状态的CircuitBreaker（等待时间足够长，压测期间不会进入HALF_OPEN）
+     */
+    @State(Scope.Benchmark)
+    public static class OpenCircuitBreaker {
+        private CircuitBreaker circuitBreaker;
+
+        @Setup
+        public void setUp() {
+            CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                    .waitDurationInOpenState(Duration.ofHours(1))
+                    .build();
+            this.circuitBreaker = new CircuitBreakerStateMachine("open", config);
+            this.circuitBreaker.transitionToOpenState();
+        }
+    }
+
+    @Benchmark
+    public boolean tryAcquirePermissionWhenOpen(OpenCircuitBreaker open) {
+        return open.circuitBreaker.tryAcquirePermission();
+    }
+
+    @Benchmark
+    public void tryAcquirePermissionAndOnSuccess() {
+        if(this.circuitBreaker.tryAcquirePermission())
+            this.circuitBreaker.onSuccess(1000, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.liyibo1110.resilience4j.benchmarks;
+
+import com.github.liyibo1110.resilience4j.bulkhead.Bulkhead;
+import com.github.liyibo1110.resilience4j.bulkhead.BulkheadConfig;
+import com.github.liyibo1110.resilience4j.circuitbreaker.CircuitBreaker;
+import com.github.liyibo1110.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import com.github.liyibo1110.resilience4j.docorators.Decorators;
+import com.github.liyibo1110.resilience4j.ratelimiter.RateLimiter;
+import com.github.liyibo1110.resilience4j.ratelimiter.RateLimiterConfig;
+import com.github.liyibo1110.resilience4j.retry.Retry;
+import com.github.liyibo1110.resilience4j.retry.RetryConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Decorators.ofSupplier完整装饰链（CircuitBreaker + Retry + RateLimiter + Bulkhead）的成功路径
+ * @author liyibo
+ * @date 2026-10-18 11:33
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecoratorsBenchmark {
+
+    @Param({"COUNT_BASED", "TIME_BASED", "STRIPED_TIME_BASED"})
+    public CircuitBreakerConfig.SlidingWindowType windowType;
+
+    @Param({"false", "true"})
+    public boolean consumerRegistered;
+
+    private Supplier<String> decorated;
+
+    @Setup
+    public void setUp() {
+        CircuitBreaker circuitBreaker = CircuitBreaker.of("benchmark", CircuitBreakerConfig.custom()
+                .slidingWindow(100, 100, this.windowType)
+                .failureRateThreshold(100)
+                .build());
+        Retry retry = Retry.of("benchmark", RetryConfig.ofDefaults());
+        RateLimiter rateLimiter = RateLimiter.of("benchmark", RateLimiterConfig.custom()
+                .limitForPeriod(Integer.MAX_VALUE)
+                .limitRefreshPeriod(Duration.ofNanos(1))
+                .timeoutDuration(Duration.ZERO)
+                .build());
+        Bulkhead bulkhead = Bulkhead.of("benchmark", BulkheadConfig.custom()
+                .maxConcurrentCalls(1024)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        if(this.consumerRegistered) {
+            LongAdder counter = new LongAdder();
+            circuitBreaker.getEventPublisher().onEvent(event -> counter.increment());
+            retry.getEventPublisher().onEvent(event -> counter.increment());
+            rateLimiter.getEventPublisher().onEvent(event -> counter.increment());
+            bulkhead.getEventPublisher().onEvent(event -> counter.increment());
+        }
+        this.decorated = Decorators.ofSupplier(() -> "result")
+                .withCircuitBreaker(circuitBreaker)
+                .withRetry(retry)
+                .withRateLimiter(rateLimiter)
+                .withBulkhead(bulkhead)
+                .decorate();
+    }
+
+    @Benchmark
+    public String ofSupplier() {
+        return this.decorated.get();
+    }
+}
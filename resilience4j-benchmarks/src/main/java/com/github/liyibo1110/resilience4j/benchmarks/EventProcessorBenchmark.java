@@ -0,0 +1,75 @@
+package com.github.liyibo1110.resilience4j.benchmarks;
+
+import com.github.liyibo1110.resilience4j.circuitbreaker.event.CircuitBreakerEvent;
+import com.github.liyibo1110.resilience4j.circuitbreaker.event.CircuitBreakerOnSuccessEvent;
+import com.github.liyibo1110.resilience4j.core.AsyncEventDispatcher;
+import com.github.liyibo1110.resilience4j.core.EventProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * EventProcessor.processEvent的分发路径，同时注册了通用消费者和按类型消费者，
+ * 按类型消费者模拟了一个慢消费者（例如日志），用来对比同步分发和AsyncEventDispatcher异步分发时调用线程的开销
+ * @author liyibo
+ * @date 2026-10-18 11:28
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventProcessorBenchmark {
+
+    @Param({"false", "true"})
+    public boolean consumerRegistered;
+
+    @Param({"SYNC", "ASYNC"})
+    public String dispatch;
+
+    private AsyncEventDispatcher dispatcher;
+
+    private EventProcessor<CircuitBreakerEvent> eventProcessor;
+    private CircuitBreakerEvent event;
+
+    @Setup
+    public void setUp() {
+        this.eventProcessor = new EventProcessor<>();
+        if(this.consumerRegistered) {
+            LongAdder counter = new LongAdder();
+            this.eventProcessor.onEvent(e -> counter.increment());
+            this.eventProcessor.registerConsumer(CircuitBreakerOnSuccessEvent.class.getName(), e -> Blackhole.consumeCPU(200));
+        }
+        if("ASYNC".equals(this.dispatch)) {
+            this.dispatcher = new AsyncEventDispatcher("benchmark-events", 4096, AsyncEventDispatcher.OverflowPolicy.DROP);
+            this.eventProcessor.dispatchAsync(this.dispatcher);
+        }
+        this.event = new CircuitBreakerOnSuccessEvent("benchmark", Duration.ofMillis(1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        if(this.dispatcher != null)
+            this.dispatcher.close();
+    }
+
+    @Benchmark
+    public boolean processEvent() {
+        return this.eventProcessor.processEvent(this.event);
+    }
+}
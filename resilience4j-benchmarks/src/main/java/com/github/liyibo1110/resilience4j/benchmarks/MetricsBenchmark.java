@@ -0,0 +1,72 @@
+package com.github.liyibo1110.resilience4j.benchmarks;
+
+import com.github.liyibo1110.resilience4j.core.CoarseClock;
+import com.github.liyibo1110.resilience4j.core.metrics.ExponentiallyWeightedMetrics;
+import com.github.liyibo1110.resilience4j.core.metrics.FixedSizeSlidingWindowMetrics;
+import com.github.liyibo1110.resilience4j.core.metrics.Metrics;
+import com.github.liyibo1110.resilience4j.core.metrics.PackedFixedSizeSlidingWindowMetrics;
+import com.github.liyibo1110.resilience4j.core.metrics.SlidingTimeWindowMetrics;
+import com.github.liyibo1110.resilience4j.core.metrics.Snapshot;
+import com.github.liyibo1110.resilience4j.core.metrics.StripedSlidingTimeWindowMetrics;
+import com.github.liyibo1110.resilience4j.core.metrics.Thresholds;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * core.metrics各个窗口实现的record路径，对比返回Snapshot的record和不分配对象的recordAndEvaluate，
+ * 以及基于时间的窗口使用系统时钟和CoarseClock的差别
+ * @author liyibo
+ * @date 2026-10-18 13:30
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    @Param({"COUNT_BASED", "TIME_BASED", "STRIPED_TIME_BASED", "EXPONENTIALLY_WEIGHTED", "PACKED_COUNT_BASED"})
+    public String windowType;
+
+    @Param({"SYSTEM", "COARSE"})
+    public String clock;
+
+    private Metrics metrics;
+    private Thresholds thresholds;
+
+    @Setup
+    public void setUp() {
+        Clock clock = "COARSE".equals(this.clock) ? CoarseClock.getInstance() : Clock.systemUTC();
+        this.metrics = switch(this.windowType) {
+            case "COUNT_BASED" -> new FixedSizeSlidingWindowMetrics(100);
+            case "TIME_BASED" -> new SlidingTimeWindowMetrics(100, clock);
+            case "STRIPED_TIME_BASED" -> new StripedSlidingTimeWindowMetrics(100, clock);
+            case "EXPONENTIALLY_WEIGHTED" -> new ExponentiallyWeightedMetrics(100);
+            default -> new PackedFixedSizeSlidingWindowMetrics(100);
+        };
+        this.thresholds = new Thresholds(100, 50, 100);
+    }
+
+    @Benchmark
+    public Snapshot record() {
+        return this.metrics.record(1000, TimeUnit.NANOSECONDS, Metrics.Outcome.SUCCESS);
+    }
+
+    @Benchmark
+    public int recordAndEvaluate() {
+        return this.metrics.recordAndEvaluate(1000, TimeUnit.NANOSECONDS, Metrics.Outcome.SUCCESS, this.thresholds);
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.liyibo1110.resilience4j.benchmarks;
+
+import com.github.liyibo1110.resilience4j.ratelimiter.RateLimiter;
+import com.github.liyibo1110.resilience4j.ratelimiter.RateLimiterConfig;
+import com.github.liyibo1110.resilience4j.ratelimiter.internal.AtomicRateLimiter;
+import com.github.liyibo1110.resilience4j.ratelimiter.internal.GcraRateLimiter;
+import com.github.liyibo1110.resilience4j.ratelimiter.internal.PackedAtomicRateLimiter;
+import com.github.liyibo1110.resilience4j.ratelimiter.internal.StripedRateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AtomicRateLimiter获取许可的路径，许可数给得足够大，只测CAS本身的开销，不会真正等待。
+ * 同时对比每次CAS都创建State对象的AtomicRateLimiter和把状态打包成long的PackedAtomicRateLimiter，
+ * 两者的差别主要看-prof gc里的gc.alloc.rate.norm，以及metrics采集时getAvailablePermissions的开销；
+ * StripedRateLimiter要用多线程（-t）跑才能看出CAS竞争被分散之后的效果
+ * @author liyibo
+ * @date 2026-10-18 11:12
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    @Param({"ATOMIC", "PACKED_ATOMIC", "STRIPED", "GCRA"})
+    public String implementation;
+
+    @Param({"false", "true"})
+    public boolean consumerRegistered;
+
+    private RateLimiter rateLimiter;
+
+    @Setup
+    public void setUp() {
+        RateLimiterConfig config = RateLimiterConfig.custom()
+                .limitForPeriod(Integer.MAX_VALUE)
+                .limitRefreshPeriod(Duration.ofNanos(1))
+                .timeoutDuration(Duration.ZERO)
+                .build();
+        this.rateLimiter = switch(this.implementation) {
+            case "ATOMIC" -> new AtomicRateLimiter("benchmark", config);
+            case "PACKED_ATOMIC" -> new PackedAtomicRateLimiter("benchmark", config);
+            case "STRIPED" -> new StripedRateLimiter("benchmark", config);
+            default -> new GcraRateLimiter("benchmark", config);
+        };
+        if(this.consumerRegistered) {
+            LongAdder counter = new LongAdder();
+            this.rateLimiter.getEventPublisher().onEvent(event -> counter.increment());
+        }
+    }
+
+    @Benchmark
+    public boolean acquirePermission() {
+        return this.rateLimiter.acquirePermission();
+    }
+
+    @Benchmark
+    public int getAvailablePermissions() {
+        return this.rateLimiter.getMetrics().getAvailablePermissions();
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.liyibo1110.resilience4j.benchmarks;
+
+import com.github.liyibo1110.resilience4j.retry.Retry;
+import com.github.liyibo1110.resilience4j.retry.RetryConfig;
+import com.github.liyibo1110.resilience4j.retry.internal.RetryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RetryImpl.ContextImpl的创建和一次成功完成（不发生重试）的路径
+ * @author liyibo
+ * @date 2026-10-18 11:20
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RetryBenchmark {
+
+    @Param({"false", "true"})
+    public boolean consumerRegistered;
+
+    private Retry retry;
+
+    @Setup
+    public void setUp() {
+        this.retry = new RetryImpl<>("benchmark", RetryConfig.ofDefaults());
+        if(this.consumerRegistered) {
+            LongAdder counter = new LongAdder();
+            this.retry.getEventPublisher().onEvent(event -> counter.increment());
+        }
+    }
+
+    @Benchmark
+    public Retry.Context<Object> contextOnComplete() {
+        Retry.Context<Object> context = this.retry.context();
+        context.onResult("result");
+        context.onComplete();
+        return context;
+    }
+}
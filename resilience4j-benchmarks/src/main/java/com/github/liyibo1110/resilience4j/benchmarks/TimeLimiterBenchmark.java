@@ -0,0 +1,70 @@
+package com.github.liyibo1110.resilience4j.benchmarks;
+
+import com.github.liyibo1110.resilience4j.timelimiter.TimeLimiter;
+import com.github.liyibo1110.resilience4j.timelimiter.TimeLimiterConfig;
+import com.github.liyibo1110.resilience4j.timelimiter.internal.TimeLimiterImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * TimeLimiterImpl.decorateCompletionStage的路径，被装饰的stage是已完成的，所以只测调度和取消timeout任务的开销
+ * @author liyibo
+ * @date 2026-10-18 11:24
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeLimiterBenchmark {
+
+    @Param({"false", "true"})
+    public boolean consumerRegistered;
+
+    private ScheduledExecutorService scheduler;
+    private Supplier<CompletionStage<String>> decorated;
+
+    @Setup
+    public void setUp() {
+        TimeLimiter timeLimiter = new TimeLimiterImpl("benchmark", TimeLimiterConfig.custom()
+                .timeoutDuration(Duration.ofSeconds(10))
+                .build());
+        if(this.consumerRegistered) {
+            LongAdder counter = new LongAdder();
+            timeLimiter.getEventPublisher().onEvent(event -> counter.increment());
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        CompletableFuture<String> completed = CompletableFuture.completedFuture("result");
+        this.decorated = timeLimiter.decorateCompletionStage(this.scheduler, () -> completed);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.scheduler.shutdownNow();
+    }
+
+    @Benchmark
+    public String decorateCompletionStage() {
+        return this.decorated.get().toCompletableFuture().join();
+    }
+}
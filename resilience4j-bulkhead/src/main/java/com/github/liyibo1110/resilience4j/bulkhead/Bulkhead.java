@@ -7,6 +7,7 @@ import com.github.liyibo1110.resilience4j.bulkhead.event.BulkheadOnCallRejectedE
 import com.github.liyibo1110.resilience4j.bulkhead.internal.SemaphoreBulkhead;
 import com.github.liyibo1110.resilience4j.core.EventConsumer;
 import com.github.liyibo1110.resilience4j.core.functions.OnceConsumer;
+import com.github.liyibo1110.resilience4j.core.lang.Nullable;
 import io.vavr.CheckedConsumer;
 import io.vavr.CheckedFunction0;
 import io.vavr.CheckedFunction1;
@@ -244,6 +245,15 @@ public interface Bulkhead {
 
     EventPublisher getEventPublisher();
 
+    /**
+     * 启用了preallocatedExceptionEnabled时BulkheadFullException.createBulkheadFullException会使用这个缓存的实例，
+     * 返回null表示不支持，每次都新建
+     */
+    @Nullable
+    default BulkheadFullException getPreallocatedBulkheadFullException() {
+        return null;
+    }
+
     default <T> T executeSupplier(Supplier<T> supplier) {
         return decorateSupplier(this, supplier).get();
     }
@@ -19,6 +19,7 @@ public class BulkheadConfig implements Serializable {
     public static final Duration DEFAULT_MAX_WAIT_DURATION = Duration.ofSeconds(0);
     public static final boolean DEFAULT_WRITABLE_STACK_TRACE_ENABLED = true;
     public static final boolean DEFAULT_FAIR_CALL_HANDLING_STRATEGY_ENABLED = true;
+    public static final boolean DEFAULT_PREALLOCATED_EXCEPTION_ENABLED = false;
 
     /** 最大并发数 */
     private final int maxConcurrentCalls;
@@ -28,13 +29,15 @@ public class BulkheadConfig implements Serializable {
 
     private final boolean writableStackTraceEnabled;
     private final boolean fairCallHandlingEnabled;
+    private final boolean preallocatedExceptionEnabled;
 
-    private BulkheadConfig(int maxConcurrentCalls, Duration maxWaitDuration,
-                           boolean writableStackTraceEnabled, boolean fairCallHandlingEnabled) {
+    private BulkheadConfig(int maxConcurrentCalls, Duration maxWaitDuration, boolean writableStackTraceEnabled,
+                           boolean fairCallHandlingEnabled, boolean preallocatedExceptionEnabled) {
         this.maxConcurrentCalls = maxConcurrentCalls;
         this.maxWaitDuration = maxWaitDuration;
         this.writableStackTraceEnabled = writableStackTraceEnabled;
         this.fairCallHandlingEnabled = fairCallHandlingEnabled;
+        this.preallocatedExceptionEnabled = preallocatedExceptionEnabled;
     }
 
     public static Builder custom() {
@@ -65,6 +68,10 @@ public class BulkheadConfig implements Serializable {
         return fairCallHandlingEnabled;
     }
 
+    public boolean isPreallocatedExceptionEnabled() {
+        return preallocatedExceptionEnabled;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("BulkheadConfig{");
@@ -72,6 +79,7 @@ public class BulkheadConfig implements Serializable {
         sb.append(", maxWaitDuration=").append(maxWaitDuration);
         sb.append(", writableStackTraceEnabled=").append(writableStackTraceEnabled);
         sb.append(", fairCallHandlingEnabled=").append(fairCallHandlingEnabled);
+        sb.append(", preallocatedExceptionEnabled=").append(preallocatedExceptionEnabled);
         sb.append('}');
         return sb.toString();
     }
@@ -81,12 +89,14 @@ public class BulkheadConfig implements Serializable {
         private Duration maxWaitDuration;
         private boolean writableStackTraceEnabled;
         private boolean fairCallHandlingEnabled;
+        private boolean preallocatedExceptionEnabled;
 
         public Builder() {
             this.maxConcurrentCalls = DEFAULT_MAX_CONCURRENT_CALLS;
             this.maxWaitDuration = DEFAULT_MAX_WAIT_DURATION;
             this.writableStackTraceEnabled = DEFAULT_WRITABLE_STACK_TRACE_ENABLED;
             this.fairCallHandlingEnabled = DEFAULT_FAIR_CALL_HANDLING_STRATEGY_ENABLED;
+            this.preallocatedExceptionEnabled = DEFAULT_PREALLOCATED_EXCEPTION_ENABLED;
         }
 
         public Builder(BulkheadConfig bulkheadConfig) {
@@ -94,6 +104,7 @@ public class BulkheadConfig implements Serializable {
             this.maxWaitDuration = bulkheadConfig.getMaxWaitDuration();
             this.writableStackTraceEnabled = bulkheadConfig.isWritableStackTraceEnabled();
             this.fairCallHandlingEnabled = bulkheadConfig.isFairCallHandlingEnabled();
+            this.preallocatedExceptionEnabled = bulkheadConfig.isPreallocatedExceptionEnabled();
         }
 
         public Builder maxConcurrentCalls(int maxConcurrentCalls) {
@@ -120,8 +131,17 @@ public class BulkheadConfig implements Serializable {
             return this;
         }
 
+        /**
+         * 启用后，每个Bulkhead缓存一个没有堆栈的BulkheadFullException，满了之后直接抛出同一个实例
+         */
+        public Builder preallocatedExceptionEnabled(boolean preallocatedExceptionEnabled) {
+            this.preallocatedExceptionEnabled = preallocatedExceptionEnabled;
+            return this;
+        }
+
         public BulkheadConfig build() {
-            return new BulkheadConfig(maxConcurrentCalls, maxWaitDuration, writableStackTraceEnabled, fairCallHandlingEnabled);
+            return new BulkheadConfig(maxConcurrentCalls, maxWaitDuration, writableStackTraceEnabled,
+                    fairCallHandlingEnabled, preallocatedExceptionEnabled);
         }
     }
 }
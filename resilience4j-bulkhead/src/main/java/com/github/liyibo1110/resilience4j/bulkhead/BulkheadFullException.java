@@ -11,7 +11,15 @@ public class BulkheadFullException extends RuntimeException {
         super(message, null, false, writableStackTrace);
     }
 
+    /**
+     * 启用了preallocatedExceptionEnabled时（并且线程没有被中断），返回Bulkhead实例缓存的实例（实例不支持缓存时仍然新建）
+     */
     public static BulkheadFullException createBulkheadFullException(Bulkhead bulkhead) {
+        if(bulkhead.getBulkheadConfig().isPreallocatedExceptionEnabled() && !Thread.currentThread().isInterrupted()) {
+            BulkheadFullException preallocated = bulkhead.getPreallocatedBulkheadFullException();
+            if(preallocated != null)
+                return preallocated;
+        }
         boolean writableStackTraceEnabled = bulkhead.getBulkheadConfig().isWritableStackTraceEnabled();
         String message;
         if(Thread.currentThread().isInterrupted())
@@ -21,9 +29,25 @@ public class BulkheadFullException extends RuntimeException {
         return new BulkheadFullException(message, writableStackTraceEnabled);
     }
 
+    /**
+     * 启用了preallocatedExceptionEnabled时，返回ThreadPoolBulkhead实例缓存的实例（实例不支持缓存时仍然新建）
+     */
     public static BulkheadFullException createBulkheadFullException(ThreadPoolBulkhead bulkhead) {
+        if(bulkhead.getBulkheadConfig().isPreallocatedExceptionEnabled()) {
+            BulkheadFullException preallocated = bulkhead.getPreallocatedBulkheadFullException();
+            if(preallocated != null)
+                return preallocated;
+        }
         boolean writableStackTraceEnabled = bulkhead.getBulkheadConfig().isWritableStackTraceEnabled();
         String message = String.format("Bulkhead '%s' is full and does not permit further calls", bulkhead.getName());
         return new BulkheadFullException(message, writableStackTraceEnabled);
     }
+
+    /**
+     * 创建用于缓存的实例，会被反复抛出，所以总是不带堆栈
+     */
+    public static BulkheadFullException createPreallocatedBulkheadFullException(String bulkheadName) {
+        String message = String.format("Bulkhead '%s' is full and does not permit further calls", bulkheadName);
+        return new BulkheadFullException(message, false);
+    }
 }
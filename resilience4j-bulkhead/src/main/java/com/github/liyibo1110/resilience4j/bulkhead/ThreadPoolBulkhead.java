@@ -6,6 +6,7 @@ import com.github.liyibo1110.resilience4j.bulkhead.event.BulkheadOnCallPermitted
 import com.github.liyibo1110.resilience4j.bulkhead.event.BulkheadOnCallRejectedEvent;
 import com.github.liyibo1110.resilience4j.bulkhead.internal.FixedThreadPoolBulkhead;
 import com.github.liyibo1110.resilience4j.core.EventConsumer;
+import com.github.liyibo1110.resilience4j.core.lang.Nullable;
 import io.vavr.collection.Map;
 
 import java.util.concurrent.Callable;
@@ -61,6 +62,15 @@ public interface ThreadPoolBulkhead extends AutoCloseable {
 
     ThreadPoolBulkheadEventPublisher getEventPublisher();
 
+    /**
+     * 启用了preallocatedExceptionEnabled时BulkheadFullException.createBulkheadFullException会使用这个缓存的实例，
+     * 返回null表示不支持，每次都新建
+     */
+    @Nullable
+    default BulkheadFullException getPreallocatedBulkheadFullException() {
+        return null;
+    }
+
     default <T> Supplier<CompletionStage<T>> decorateSupplier(Supplier<T> supplier) {
         return decorateSupplier(this, supplier);
     }
@@ -27,6 +27,7 @@ public class ThreadPoolBulkheadConfig {
                     : 1;
     public static final int DEFAULT_MAX_THREAD_POOL_SIZE = Runtime.getRuntime().availableProcessors();
     public static final boolean DEFAULT_WRITABLE_STACK_TRACE_ENABLED = true;
+    public static final boolean DEFAULT_PREALLOCATED_EXCEPTION_ENABLED = false;
 
     /** 最大线程池的个数 */
     private int maxThreadPoolSize = DEFAULT_MAX_THREAD_POOL_SIZE;
@@ -34,6 +35,7 @@ public class ThreadPoolBulkheadConfig {
     private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
     private Duration keepAliveDuration = DEFAULT_KEEP_ALIVE_DURATION;
     private boolean writableStackTraceEnabled = DEFAULT_WRITABLE_STACK_TRACE_ENABLED;
+    private boolean preallocatedExceptionEnabled = DEFAULT_PREALLOCATED_EXCEPTION_ENABLED;
     private List<ContextPropagator> contextPropagators = new ArrayList<>();
 
     // 队列满了，对应的处理策略
@@ -73,6 +75,10 @@ public class ThreadPoolBulkheadConfig {
         return writableStackTraceEnabled;
     }
 
+    public boolean isPreallocatedExceptionEnabled() {
+        return preallocatedExceptionEnabled;
+    }
+
     public List<ContextPropagator> getContextPropagator() {
         return contextPropagators;
     }
@@ -89,6 +95,7 @@ public class ThreadPoolBulkheadConfig {
         sb.append(", queueCapacity=").append(queueCapacity);
         sb.append(", keepAliveDuration=").append(keepAliveDuration);
         sb.append(", writableStackTraceEnabled=").append(writableStackTraceEnabled);
+        sb.append(", preallocatedExceptionEnabled=").append(preallocatedExceptionEnabled);
         sb.append(", contextPropagators=").append(contextPropagators);
         sb.append(", rejectExecutionHandle=").append(rejectedExecutionHandler.getClass().getSimpleName());
         sb.append('}');
@@ -155,6 +162,14 @@ public class ThreadPoolBulkheadConfig {
             return this;
         }
 
+        /**
+         * 启用后，每个ThreadPoolBulkhead缓存一个没有堆栈的BulkheadFullException，队列满了之后直接抛出同一个实例
+         */
+        public Builder preallocatedExceptionEnabled(boolean preallocatedExceptionEnabled) {
+            config.preallocatedExceptionEnabled = preallocatedExceptionEnabled;
+            return this;
+        }
+
         public Builder rejectedExecutionHandler(RejectedExecutionHandler rejectedExecutionHandler) {
             Objects.requireNonNull(rejectedExecutionHandler);
             config.rejectedExecutionHandler = rejectedExecutionHandler;
@@ -43,6 +43,10 @@ public class FixedThreadPoolBulkhead implements ThreadPoolBulkhead {
     private final ThreadPoolBulkheadConfig config;
     private final Map<String, String> tags;
 
+    /** 缓存的BulkheadFullException，只在启用了preallocatedExceptionEnabled时才会创建 */
+    @Nullable
+    private final BulkheadFullException preallocatedException;
+
     public FixedThreadPoolBulkhead(String name, @Nullable ThreadPoolBulkheadConfig bulkheadConfig) {
         this(name, bulkheadConfig, HashMap.empty());
     }
@@ -60,6 +64,17 @@ public class FixedThreadPoolBulkhead implements ThreadPoolBulkhead {
                 config.getRejectedExecutionHandler());
         this.metrics = new FixedThreadPoolBulkhead.BulkheadMetrics();
         this.eventProcessor = new FixedThreadPoolBulkhead.BulkheadEventProcessor();
+        this.preallocatedException = config.isPreallocatedExceptionEnabled()
+                ? BulkheadFullException.createPreallocatedBulkheadFullException(name)
+                : null;
+    }
+
+    /**
+     * 返回缓存的BulkheadFullException，只有启用了preallocatedExceptionEnabled时才可以调用
+     */
+    @Override
+    public BulkheadFullException getPreallocatedBulkheadFullException() {
+        return requireNonNull(this.preallocatedException, "preallocatedExceptionEnabled is not enabled");
     }
 
     public FixedThreadPoolBulkhead(String name) {
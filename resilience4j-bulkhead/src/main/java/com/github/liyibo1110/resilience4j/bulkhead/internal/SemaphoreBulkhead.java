@@ -42,6 +42,10 @@ public class SemaphoreBulkhead implements Bulkhead {
     /** 注意这个BulkheadConfig是不可变的，每次对其字段修改，都会生成新的实例 */
     private volatile BulkheadConfig config;
 
+    /** 缓存的BulkheadFullException，启用了preallocatedExceptionEnabled后第一次拒绝时才创建 */
+    @Nullable
+    private volatile BulkheadFullException preallocatedException;
+
     public SemaphoreBulkhead(String name, @Nullable BulkheadConfig bulkheadConfig) {
         this(name, bulkheadConfig, HashMap.empty());
     }
@@ -100,6 +104,19 @@ public class SemaphoreBulkhead implements Bulkhead {
         throw BulkheadFullException.createBulkheadFullException(this);
     }
 
+    /**
+     * 返回缓存的BulkheadFullException（并发创建了多个也没关系，都是等价的实例）
+     */
+    @Override
+    public BulkheadFullException getPreallocatedBulkheadFullException() {
+        BulkheadFullException exception = this.preallocatedException;
+        if(exception == null) {
+            exception = BulkheadFullException.createPreallocatedBulkheadFullException(this.name);
+            this.preallocatedException = exception;
+        }
+        return exception;
+    }
+
     @Override
     public void releasePermission() {
         semaphore.release();
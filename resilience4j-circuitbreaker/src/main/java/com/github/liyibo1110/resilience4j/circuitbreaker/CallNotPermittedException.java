@@ -9,17 +9,60 @@ public class CallNotPermittedException extends RuntimeException {
     private final transient String causingCircuitBreakerName;
 
     private CallNotPermittedException(CircuitBreaker cb, String message, boolean writableStackTrace) {
+        this(cb.getName(), message, writableStackTrace);
+    }
+
+    private CallNotPermittedException(String circuitBreakerName, String message, boolean writableStackTrace) {
         super(message, null, false, writableStackTrace);
-        this.causingCircuitBreakerName = cb.getName();
+        this.causingCircuitBreakerName = circuitBreakerName;
     }
 
     /**
-     * 实际可用的对象工厂
+     * 实际可用的对象工厂，启用了preallocatedExceptionEnabled时，返回CircuitBreaker实例缓存的实例（实例不支持缓存时仍然新建）
      */
     public static CallNotPermittedException createCallNotPermittedException(CircuitBreaker cb) {
+        if(cb.getCircuitBreakerConfig().isPreallocatedExceptionEnabled()) {
+            CallNotPermittedException preallocated = cb.getPreallocatedCallNotPermittedException();
+            if(preallocated != null)
+                return preallocated;
+        }
         boolean writableStackTraceEnabled = cb.getCircuitBreakerConfig().isWritableStackTraceEnabled();
-        String message = String.format("CircuitBreaker '%s' is %s and does not permit further calls", cb.getName(), cb.getState());
-        return new CallNotPermittedException(cb, message, writableStackTraceEnabled);
+        return new CallNotPermittedException(cb, createMessage(cb, cb.getState()), writableStackTraceEnabled);
+    }
+
+    /**
+     * 创建用于缓存的实例，会被反复抛出，所以总是不带堆栈
+     */
+    public static CallNotPermittedException createPreallocatedCallNotPermittedException(CircuitBreaker cb, CircuitBreaker.State state) {
+        return new CallNotPermittedException(cb, createMessage(cb, state), false);
+    }
+
+    /**
+     * KeyedCircuitBreaker用的对象工厂，异常里的名字是name[key]，启用了preallocatedExceptionEnabled时，返回按状态缓存的实例（名字里没有key）
+     */
+    public static CallNotPermittedException createCallNotPermittedException(KeyedCircuitBreaker<?> cb, Object key, CircuitBreaker.State state) {
+        if(cb.getCircuitBreakerConfig().isPreallocatedExceptionEnabled()) {
+            CallNotPermittedException preallocated = cb.getPreallocatedCallNotPermittedException(state);
+            if(preallocated != null)
+                return preallocated;
+        }
+        String name = cb.getName() + "[" + key + "]";
+        return new CallNotPermittedException(name, createMessage(name, state), cb.getCircuitBreakerConfig().isWritableStackTraceEnabled());
+    }
+
+    /**
+     * 创建KeyedCircuitBreaker用于缓存的实例，所有key共用
+     */
+    public static CallNotPermittedException createPreallocatedCallNotPermittedException(KeyedCircuitBreaker<?> cb, CircuitBreaker.State state) {
+        return new CallNotPermittedException(cb.getName(), createMessage(cb.getName(), state), false);
+    }
+
+    private static String createMessage(CircuitBreaker cb, CircuitBreaker.State state) {
+        return createMessage(cb.getName(), state);
+    }
+
+    private static String createMessage(String circuitBreakerName, CircuitBreaker.State state) {
+        return String.format("CircuitBreaker '%s' is %s and does not permit further calls", circuitBreakerName, state);
     }
 
     public String getCausingCircuitBreakerName() {
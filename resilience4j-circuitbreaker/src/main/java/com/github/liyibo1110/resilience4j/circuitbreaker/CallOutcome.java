@@ -0,0 +1,102 @@
+package com.github.liyibo1110.resilience4j.circuitbreaker;
+
+/**
+ * CircuitBreaker.tryExecuteCheckedSupplier的返回值，是“成功 / 失败 / 被拒绝”三者之一的联合类型，
+ * 被CircuitBreaker拒绝时不会抛出CallNotPermittedException，而是返回一个预先分配好的NOT_PERMITTED实例，
+ * 所以在OPEN状态下高频拒绝时，既不会创建异常对象，也不会有抛异常的开销。
+ * 需要异常的时候（例如要传给下游），再调用getOrThrow按需创建。
+ * @author liyibo
+ * @date 2026-10-18 17:40
+ */
+public final class CallOutcome<T> {
+
+    public enum Kind {
+        SUCCESS,
+        FAILURE,
+        NOT_PERMITTED
+    }
+
+    private static final CallOutcome<?> NOT_PERMITTED = new CallOutcome<>(Kind.NOT_PERMITTED, null, null);
+
+    /** 返回值为null的成功结果（例如Runnable）也是可以共享的 */
+    private static final CallOutcome<?> NULL_SUCCESS = new CallOutcome<>(Kind.SUCCESS, null, null);
+
+    private final Kind kind;
+    private final T value;
+    private final Throwable failure;
+
+    private CallOutcome(Kind kind, T value, Throwable failure) {
+        this.kind = kind;
+        this.value = value;
+        this.failure = failure;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> CallOutcome<T> success(T value) {
+        return value == null ? (CallOutcome<T>) NULL_SUCCESS : new CallOutcome<>(Kind.SUCCESS, value, null);
+    }
+
+    public static <T> CallOutcome<T> failure(Throwable failure) {
+        if(failure == null)
+            throw new IllegalArgumentException("failure must not be null");
+        return new CallOutcome<>(Kind.FAILURE, null, failure);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> CallOutcome<T> notPermitted() {
+        return (CallOutcome<T>) NOT_PERMITTED;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public boolean isSuccess() {
+        return this.kind == Kind.SUCCESS;
+    }
+
+    public boolean isFailure() {
+        return this.kind == Kind.FAILURE;
+    }
+
+    /**
+     * 返回false表示调用被CircuitBreaker拒绝了，被装饰的方法根本没有执行
+     */
+    public boolean isPermitted() {
+        return this.kind != Kind.NOT_PERMITTED;
+    }
+
+    /**
+     * 成功时的返回值，其它情况都返回null
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * 失败时的异常，其它情况都返回null
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     * 转换回抛异常的风格：成功时返回结果，失败时抛出原异常，被拒绝时抛出CallNotPermittedException
+     */
+    public T getOrThrow(CircuitBreaker cb) throws Throwable {
+        return switch(this.kind) {
+            case SUCCESS -> this.value;
+            case FAILURE -> throw this.failure;
+            case NOT_PERMITTED -> throw CallNotPermittedException.createCallNotPermittedException(cb);
+        };
+    }
+
+    @Override
+    public String toString() {
+        return switch(this.kind) {
+            case SUCCESS -> "CallOutcome{SUCCESS, value=" + this.value + "}";
+            case FAILURE -> "CallOutcome{FAILURE, failure=" + this.failure + "}";
+            case NOT_PERMITTED -> "CallOutcome{NOT_PERMITTED}";
+        };
+    }
+}
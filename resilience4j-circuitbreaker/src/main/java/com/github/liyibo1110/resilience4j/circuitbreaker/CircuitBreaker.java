@@ -12,6 +12,7 @@ import com.github.liyibo1110.resilience4j.circuitbreaker.event.CircuitBreakerOnS
 import com.github.liyibo1110.resilience4j.circuitbreaker.internal.CircuitBreakerStateMachine;
 import com.github.liyibo1110.resilience4j.core.EventConsumer;
 import com.github.liyibo1110.resilience4j.core.functions.OnceConsumer;
+import com.github.liyibo1110.resilience4j.core.lang.Nullable;
 import io.vavr.CheckedConsumer;
 import io.vavr.CheckedFunction0;
 import io.vavr.CheckedFunction1;
@@ -27,6 +28,7 @@ import java.util.Objects;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -35,6 +37,7 @@ import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -189,6 +192,97 @@ public interface CircuitBreaker {
         };
     }
 
+    /**
+     * 装饰给定的CheckedFunction0，但是不抛出CallNotPermittedException，被拒绝时返回预先分配好的CallOutcome.notPermitted()，
+     * 被装饰方法抛出的异常也会被包装成CallOutcome.failure（Error除外，和decorateCheckedSupplier一样不处理）
+     */
+    static <T> Supplier<CallOutcome<T>> decorateOutcomeSupplier(CircuitBreaker cb, CheckedFunction0<T> supplier) {
+        return () -> {
+            final long permit = cb.tryAcquirePermit();
+            if(permit == NO_PERMIT)
+                return CallOutcome.notPermitted();
+            T result;
+            try {
+                result = supplier.apply();
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable t) {
+                cb.onPermitError(permit, t);
+                return CallOutcome.failure(t);
+            }
+            cb.onPermitResult(permit, result);
+            return CallOutcome.success(result);
+        };
+    }
+
+    /**
+     * 装饰一次包含batchSize个条目的批量调用，按条目获取permission和记录结果：
+     * 整个batch的用时算作每个条目的用时，failedItemsCounter从返回值里数出失败的条目数，
+     * 抛出异常时和单次调用一样按ignore/record名单处理，只是作用于整个batch的条目
+     */
+    static <T> CheckedFunction0<T> decorateCheckedBatchSupplier(CircuitBreaker cb, int batchSize, CheckedFunction0<T> supplier,
+                                                                ToIntFunction<T> failedItemsCounter) {
+        return () -> {
+            if(!cb.tryAcquirePermissions(batchSize))
+                throw CallNotPermittedException.createCallNotPermittedException(cb);
+            final long start = cb.getCurrentTimestamp();
+            try {
+                T result = supplier.apply();
+                long duration = cb.getCurrentTimestamp() - start;
+                int failures = Math.min(batchSize, Math.max(0, failedItemsCounter.applyAsInt(result)));
+                recordBatch(cb, batchSize - failures, failures, duration);
+                return result;
+            } catch (Exception e) {
+                long duration = cb.getCurrentTimestamp() - start;
+                recordBatchError(cb, batchSize, duration, e);
+                throw e;
+            }
+        };
+    }
+
+    static <T> Supplier<T> decorateBatchSupplier(CircuitBreaker cb, int batchSize, Supplier<T> supplier,
+                                                 ToIntFunction<T> failedItemsCounter) {
+        return () -> {
+            if(!cb.tryAcquirePermissions(batchSize))
+                throw CallNotPermittedException.createCallNotPermittedException(cb);
+            final long start = cb.getCurrentTimestamp();
+            try {
+                T result = supplier.get();
+                long duration = cb.getCurrentTimestamp() - start;
+                int failures = Math.min(batchSize, Math.max(0, failedItemsCounter.applyAsInt(result)));
+                recordBatch(cb, batchSize - failures, failures, duration);
+                return result;
+            } catch (Exception e) {
+                long duration = cb.getCurrentTimestamp() - start;
+                recordBatchError(cb, batchSize, duration, e);
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * 每个条目都经历了整个batch的用时，所以用时超过阈值时所有条目都是慢调用
+     */
+    private static void recordBatch(CircuitBreaker cb, int successes, int failures, long duration) {
+        int items = successes + failures;
+        boolean slow = cb.getTimestampUnit().toNanos(duration) > cb.getCircuitBreakerConfig().getSlowCallDurationThreshold().toNanos();
+        cb.onResults(successes, failures, slow ? items : 0, duration * items, cb.getTimestampUnit());
+    }
+
+    private static void recordBatchError(CircuitBreaker cb, int batchSize, long duration, Exception e) {
+        CircuitBreakerConfig config = cb.getCircuitBreakerConfig();
+        // 和onError一样，先拆掉异步调用包装的那一层，再按ignore/record名单判断
+        Throwable cause = e;
+        if((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null)
+            cause = cause.getCause();
+        if(config.getIgnoreExceptionPredicate().test(cause))
+            cb.releasePermissions(batchSize);
+        else if(config.getRecordExceptionPredicate().test(cause))
+            recordBatch(cb, 0, batchSize, duration);
+        else
+            recordBatch(cb, batchSize, 0, duration);
+    }
+
     static <T> Consumer<T> decorateConsumer(CircuitBreaker cb, Consumer<T> consumer) {
         return (t) -> {
             cb.acquirePermission();
@@ -320,6 +414,14 @@ public interface CircuitBreaker {
      */
     boolean tryAcquirePermission();
 
+    /**
+     * 批量获取n个permission，用于一次call包含n个条目（例如批量写入），需要按条目而不是按call计数的场景，
+     * 要么全部获得，要么一个都不获得，被拒绝时不允许调用次数会增加n。
+     * 当状态为“半开”时，只要还剩至少1个permission就允许整个batch，并消耗掉剩余的permission（最多n个）。
+     * 获得permission后，调用结束时必须调用onResults，如果调用在运行之前被取消，则必须调用releasePermissions(n)。
+     */
+    boolean tryAcquirePermissions(int n);
+
     /**
      * 释放一个permission，仅在已获取permission但未使用的时候才使用，
      * 否则应该使用onSuccess或onError来指示call完成或失败。
@@ -327,6 +429,11 @@ public interface CircuitBreaker {
      */
     void releasePermission();
 
+    /**
+     * 释放tryAcquirePermissions获取的n个permission
+     */
+    void releasePermissions(int n);
+
     /**
      * 尝试获取执行call的权限，如果不允许，则不允许call的计数会增加。
      * 当状态为“开启”或“强制开启”，会抛出CallNotPermittedException。
@@ -351,6 +458,12 @@ public interface CircuitBreaker {
      */
     void onResult(long duration, TimeUnit unit, Object result);
 
+    /**
+     * 一次记录一批条目的结果，只会更新一次滑动窗口，而不是逐个条目调用onSuccess/onError。
+     * slow是successes + failures中慢调用的条目数（优先算作成功的慢调用），totalDuration是所有条目用时的总和。
+     */
+    void onResults(int successes, int failures, int slow, long totalDuration, TimeUnit unit);
+
     /**
      * 使cb恢复到原始关闭状态，并清空统计数据，
      * 仅当希望完全重置cb而不创建新的cb时，才应该使用这个方法。
@@ -381,6 +494,15 @@ public interface CircuitBreaker {
 
     EventPublisher getEventPublisher();
 
+    /**
+     * 启用了preallocatedExceptionEnabled时CallNotPermittedException.createCallNotPermittedException会使用这个缓存的实例，
+     * 返回null表示不支持，每次都新建
+     */
+    @Nullable
+    default CallNotPermittedException getPreallocatedCallNotPermittedException() {
+        return null;
+    }
+
     /**
      * 默认就是System.nanoTime()
      */
@@ -391,6 +513,42 @@ public interface CircuitBreaker {
      */
     TimeUnit getTimestampUnit();
 
+    /**
+     * tryAcquirePermit未获得权限时返回的permit
+     */
+    long NO_PERMIT = Long.MIN_VALUE;
+
+    /**
+     * 和tryAcquirePermission相同，但是返回long类型的permit而不是boolean：
+     * 获得权限时返回调用开始的时间戳（即getCurrentTimestamp），否则返回NO_PERMIT，被拒绝时不会创建任何对象，也不会抛异常。
+     * 拿到permit后，调用结束时必须用onPermitResult / onPermitSuccess / onPermitError之一记录结果，或者用releasePermission释放。
+     */
+    default long tryAcquirePermit() {
+        return this.tryAcquirePermission() ? this.getCurrentTimestamp() : NO_PERMIT;
+    }
+
+    /**
+     * 用tryAcquirePermit返回的permit记录call的返回值，用时由permit算出
+     */
+    default void onPermitResult(long permit, Object result) {
+        this.onResult(this.getCurrentTimestamp() - permit, this.getTimestampUnit(), result);
+    }
+
+    default void onPermitSuccess(long permit) {
+        this.onSuccess(this.getCurrentTimestamp() - permit, this.getTimestampUnit());
+    }
+
+    default void onPermitError(long permit, Throwable t) {
+        this.onError(this.getCurrentTimestamp() - permit, this.getTimestampUnit(), t);
+    }
+
+    /**
+     * 执行给定的CheckedFunction0，结果以CallOutcome返回，被拒绝时不抛异常，见decorateOutcomeSupplier
+     */
+    default <T> CallOutcome<T> tryExecuteCheckedSupplier(CheckedFunction0<T> checkedSupplier) {
+        return decorateOutcomeSupplier(this, checkedSupplier).get();
+    }
+
     /**
      * 对外的干活方法，下面类似方法不再写注释了
      */
@@ -479,7 +637,9 @@ public interface CircuitBreaker {
         HALF_OPEN(2, true),
         DISABLED(3, false),
         FORCED_OPEN(4, false),
-        METRICS_ONLY(5, true);
+        METRICS_ONLY(5, true),
+        /** 半开探测成功后逐步放量的状态，只有配置了rampUpDuration才会进入 */
+        RAMPING(6, true);
 
         private final int order;
         public final boolean allowPublish;
@@ -506,6 +666,13 @@ public interface CircuitBreaker {
         HALF_OPEN_TO_DISABLED(State.HALF_OPEN, State.DISABLED),
         HALF_OPEN_TO_METRICS_ONLY(State.HALF_OPEN, State.METRICS_ONLY),
         HALF_OPEN_TO_FORCED_OPEN(State.HALF_OPEN, State.FORCED_OPEN),
+        HALF_OPEN_TO_RAMPING(State.HALF_OPEN, State.RAMPING),
+        RAMPING_TO_CLOSED(State.RAMPING, State.CLOSED),
+        RAMPING_TO_OPEN(State.RAMPING, State.OPEN),
+        RAMPING_TO_HALF_OPEN(State.RAMPING, State.HALF_OPEN),
+        RAMPING_TO_DISABLED(State.RAMPING, State.DISABLED),
+        RAMPING_TO_METRICS_ONLY(State.RAMPING, State.METRICS_ONLY),
+        RAMPING_TO_FORCED_OPEN(State.RAMPING, State.FORCED_OPEN),
         OPEN_TO_OPEN(State.OPEN, State.OPEN),
         OPEN_TO_CLOSED(State.OPEN, State.CLOSED),
         OPEN_TO_HALF_OPEN(State.OPEN, State.HALF_OPEN),
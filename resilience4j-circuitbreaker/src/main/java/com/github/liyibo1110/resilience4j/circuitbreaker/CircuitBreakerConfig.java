@@ -1,5 +1,6 @@
 package com.github.liyibo1110.resilience4j.circuitbreaker;
 
+import com.github.liyibo1110.resilience4j.circuitbreaker.shared.SharedStateStore;
 import com.github.liyibo1110.resilience4j.core.IntervalFunction;
 import com.github.liyibo1110.resilience4j.core.lang.Nullable;
 import com.github.liyibo1110.resilience4j.core.predicate.PredicateCreator;
@@ -8,6 +9,7 @@ import java.io.Serializable;
 import java.time.Clock;
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -28,7 +30,17 @@ public class CircuitBreakerConfig implements Serializable {
     public static final int DEFAULT_SLOW_CALL_DURATION_THRESHOLD = 60; // Seconds
     public static final int DEFAULT_WAIT_DURATION_IN_HALF_OPEN_STATE = 0; // Seconds. It is an optional parameter
     public static final SlidingWindowType DEFAULT_SLIDING_WINDOW_TYPE = SlidingWindowType.COUNT_BASED;
+    public static final Duration DEFAULT_SLIDING_WINDOW_BUCKET_WIDTH = Duration.ofSeconds(1);
     public static final boolean DEFAULT_WRITABLE_STACK_TRACE_ENABLED = true;
+    public static final boolean DEFAULT_PREALLOCATED_EXCEPTION_ENABLED = false;
+    public static final float DEFAULT_INITIAL_RAMP_UP_RATIO = 0.1f;
+    public static final RampUpStrategy DEFAULT_RAMP_UP_STRATEGY = RampUpStrategy.LINEAR;
+    public static final int DEFAULT_SUCCESS_SAMPLING_RATE = 1;
+    /** 一个样本会以successSamplingRate的权重计入窗口里的int计数，上限保证窗口汇总值不会溢出 */
+    public static final int MAX_SUCCESS_SAMPLING_RATE = 1024;
+    public static final Duration DEFAULT_SHARED_STATE_SYNC_INTERVAL = Duration.ofSeconds(1);
+    public static final Duration DEFAULT_SHARED_STATE_MAX_STALENESS = Duration.ofSeconds(5);
+    public static final Duration DEFAULT_PERSISTED_WINDOW_MAX_AGE = Duration.ofMinutes(1);
     private static final Predicate<Throwable> DEFAULT_RECORD_EXCEPTION_PREDICATE = throwable -> true;
     private static final Predicate<Throwable> DEFAULT_IGNORE_EXCEPTION_PREDICATE = throwable -> false;
     private static final Function<Clock, Long> DEFAULT_TIMESTAMP_FUNCTION = clock -> System.nanoTime();
@@ -52,13 +64,30 @@ public class CircuitBreakerConfig implements Serializable {
     private int permittedNumberOfCallsInHalfOpenState = DEFAULT_PERMITTED_CALLS_IN_HALF_OPEN_STATE;
     private int slidingWindowSize = DEFAULT_SLIDING_WINDOW_SIZE;
     private SlidingWindowType slidingWindowType = DEFAULT_SLIDING_WINDOW_TYPE;
+    /** 基于时间的窗口中每个bucket的宽度，这时slidingWindowSize就是bucket的数量 */
+    private Duration slidingWindowBucketWidth = DEFAULT_SLIDING_WINDOW_BUCKET_WIDTH;
     private int minimumNumberOfCalls = DEFAULT_MINIMUM_NUMBER_OF_CALLS;
     private boolean writableStackTraceEnabled = DEFAULT_WRITABLE_STACK_TRACE_ENABLED;
+    private boolean preallocatedExceptionEnabled = DEFAULT_PREALLOCATED_EXCEPTION_ENABLED;
     private boolean automaticTransitionFromOpenToHalfOpenEnabled = false;
     private IntervalFunction waitIntervalFunctionInOpenState = IntervalFunction.of(Duration.ofSeconds(DEFAULT_WAIT_DURATION_IN_OPEN_STATE));
     private float slowCallRateThreshold = DEFAULT_SLOW_CALL_RATE_THRESHOLD;
     private Duration slowCallDurationThreshold = Duration.ofSeconds(DEFAULT_SLOW_CALL_DURATION_THRESHOLD);
     private Duration maxWaitDurationInHalfOpenState = Duration.ofSeconds(DEFAULT_WAIT_DURATION_IN_HALF_OPEN_STATE);
+    /** 延迟百分位阈值，latencyPercentile为0表示不启用 */
+    private double latencyPercentile = 0;
+    private Duration latencyPercentileThreshold = Duration.ZERO;
+    /** 半开状态探测成功后逐步放量的时长，为0表示不启用，直接切换到CLOSED */
+    private Duration rampUpDuration = Duration.ZERO;
+    private RampUpStrategy rampUpStrategy = DEFAULT_RAMP_UP_STRATEGY;
+    private float initialRampUpRatio = DEFAULT_INITIAL_RAMP_UP_RATIO;
+    private int successSamplingRate = DEFAULT_SUCCESS_SAMPLING_RATE;
+    @Nullable
+    private transient SharedStateStore sharedStateStore;
+    private Duration sharedStateSyncInterval = DEFAULT_SHARED_STATE_SYNC_INTERVAL;
+    private Duration sharedStateMaxStaleness = DEFAULT_SHARED_STATE_MAX_STALENESS;
+    /** 基于次数的窗口从状态文件恢复时，窗口汇总值的最大年龄，超过之后只恢复状态 */
+    private Duration persistedWindowMaxAge = DEFAULT_PERSISTED_WINDOW_MAX_AGE;
 
     private CircuitBreakerConfig() {}
 
@@ -126,6 +155,10 @@ public class CircuitBreakerConfig implements Serializable {
         return writableStackTraceEnabled;
     }
 
+    public boolean isPreallocatedExceptionEnabled() {
+        return preallocatedExceptionEnabled;
+    }
+
     public int getPermittedNumberOfCallsInHalfOpenState() {
         return permittedNumberOfCallsInHalfOpenState;
     }
@@ -134,6 +167,10 @@ public class CircuitBreakerConfig implements Serializable {
         return slidingWindowType;
     }
 
+    public Duration getSlidingWindowBucketWidth() {
+        return slidingWindowBucketWidth;
+    }
+
     public float getSlowCallRateThreshold() {
         return slowCallRateThreshold;
     }
@@ -146,8 +183,81 @@ public class CircuitBreakerConfig implements Serializable {
         return maxWaitDurationInHalfOpenState;
     }
 
+    public double getLatencyPercentile() {
+        return latencyPercentile;
+    }
+
+    public Duration getLatencyPercentileThreshold() {
+        return latencyPercentileThreshold;
+    }
+
+    public boolean isLatencyPercentileThresholdEnabled() {
+        return latencyPercentile > 0;
+    }
+
+    public Duration getRampUpDuration() {
+        return rampUpDuration;
+    }
+
+    public RampUpStrategy getRampUpStrategy() {
+        return rampUpStrategy;
+    }
+
+    public float getInitialRampUpRatio() {
+        return initialRampUpRatio;
+    }
+
+    public boolean isRampUpEnabled() {
+        return !rampUpDuration.isZero();
+    }
+
+    public int getSuccessSamplingRate() {
+        return successSamplingRate;
+    }
+
+    @Nullable
+    public SharedStateStore getSharedStateStore() {
+        return sharedStateStore;
+    }
+
+    public Duration getSharedStateSyncInterval() {
+        return sharedStateSyncInterval;
+    }
+
+    public Duration getSharedStateMaxStaleness() {
+        return sharedStateMaxStaleness;
+    }
+
+    public Duration getPersistedWindowMaxAge() {
+        return persistedWindowMaxAge;
+    }
+
+    public boolean isSharedStateEnabled() {
+        return sharedStateStore != null;
+    }
+
+    /**
+     * RAMPING状态下放行比例随时间增长的方式：LINEAR是从initialRampUpRatio线性增长到1，
+     * EXPONENTIAL是从initialRampUpRatio按指数增长到1（前期增长慢，后期增长快，对刚恢复的后端更保守）
+     */
+    public enum RampUpStrategy {
+        LINEAR, EXPONENTIAL
+    }
+
+    /**
+     * 滑动窗口类型，STRIPED_TIME_BASED和TIME_BASED语义相同，但record是无锁分段的，适合多核高并发场景，
+     * EXPONENTIALLY_WEIGHTED是指数加权移动平均，记忆长度约为slidingWindowSize次调用，内存占用和窗口大小无关，适合breaker数量特别多的场景，
+     * PACKED_COUNT_BASED和COUNT_BASED语义相同，但每次调用只占约8字节（结果打包成bit，用时存在long数组里），适合大型registry
+     */
     public enum SlidingWindowType {
-        TIME_BASED, COUNT_BASED
+        TIME_BASED, COUNT_BASED, STRIPED_TIME_BASED, EXPONENTIALLY_WEIGHTED, PACKED_COUNT_BASED;
+
+        /**
+         * 是否是按调用次数统计的窗口，这类窗口最多只能统计到slidingWindowSize次调用
+         */
+        public boolean isCountBased() {
+            return this == COUNT_BASED || this == EXPONENTIALLY_WEIGHTED || this == PACKED_COUNT_BASED;
+        }
     }
 
     @Override
@@ -169,10 +279,14 @@ public class CircuitBreakerConfig implements Serializable {
         b.append(slidingWindowSize);
         b.append(", slidingWindowType=");
         b.append(slidingWindowType);
+        b.append(", slidingWindowBucketWidth=");
+        b.append(slidingWindowBucketWidth);
         b.append(", minimumNumberOfCalls=");
         b.append(minimumNumberOfCalls);
         b.append(", writableStackTraceEnabled=");
         b.append(writableStackTraceEnabled);
+        b.append(", preallocatedExceptionEnabled=");
+        b.append(preallocatedExceptionEnabled);
         b.append(", automaticTransitionFromOpenToHalfOpenEnabled=");
         b.append(automaticTransitionFromOpenToHalfOpenEnabled);
         b.append(", waitIntervalFunctionInOpenState=");
@@ -181,6 +295,26 @@ public class CircuitBreakerConfig implements Serializable {
         b.append(slowCallRateThreshold);
         b.append(", slowCallDurationThreshold=");
         b.append(slowCallDurationThreshold);
+        b.append(", latencyPercentile=");
+        b.append(latencyPercentile);
+        b.append(", latencyPercentileThreshold=");
+        b.append(latencyPercentileThreshold);
+        b.append(", rampUpDuration=");
+        b.append(rampUpDuration);
+        b.append(", rampUpStrategy=");
+        b.append(rampUpStrategy);
+        b.append(", initialRampUpRatio=");
+        b.append(initialRampUpRatio);
+        b.append(", successSamplingRate=");
+        b.append(successSamplingRate);
+        b.append(", sharedStateStore=");
+        b.append(sharedStateStore);
+        b.append(", sharedStateSyncInterval=");
+        b.append(sharedStateSyncInterval);
+        b.append(", sharedStateMaxStaleness=");
+        b.append(sharedStateMaxStaleness);
+        b.append(", persistedWindowMaxAge=");
+        b.append(persistedWindowMaxAge);
         b.append("}");
         return b.toString();
     }
@@ -200,6 +334,7 @@ public class CircuitBreakerConfig implements Serializable {
         private float failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
         private int minimumNumberOfCalls = DEFAULT_MINIMUM_NUMBER_OF_CALLS;
         private boolean writableStackTraceEnabled = DEFAULT_WRITABLE_STACK_TRACE_ENABLED;
+        private boolean preallocatedExceptionEnabled = DEFAULT_PREALLOCATED_EXCEPTION_ENABLED;
         private int permittedNumberOfCallsInHalfOpenState = DEFAULT_PERMITTED_CALLS_IN_HALF_OPEN_STATE;
         private int slidingWindowSize = DEFAULT_SLIDING_WINDOW_SIZE;
         private Predicate<Object> recordResultPredicate = DEFAULT_RECORD_RESULT_PREDICATE;
@@ -208,9 +343,21 @@ public class CircuitBreakerConfig implements Serializable {
 
         private boolean automaticTransitionFromOpenToHalfOpenEnabled = false;
         private SlidingWindowType slidingWindowType = DEFAULT_SLIDING_WINDOW_TYPE;
+        private Duration slidingWindowBucketWidth = DEFAULT_SLIDING_WINDOW_BUCKET_WIDTH;
         private float slowCallRateThreshold = DEFAULT_SLOW_CALL_RATE_THRESHOLD;
         private Duration slowCallDurationThreshold = Duration.ofSeconds(DEFAULT_SLOW_CALL_DURATION_THRESHOLD);
         private Duration maxWaitDurationInHalfOpenState = Duration.ofSeconds(DEFAULT_WAIT_DURATION_IN_HALF_OPEN_STATE);
+        private double latencyPercentile = 0;
+        private Duration latencyPercentileThreshold = Duration.ZERO;
+        private Duration rampUpDuration = Duration.ZERO;
+        private RampUpStrategy rampUpStrategy = DEFAULT_RAMP_UP_STRATEGY;
+        private float initialRampUpRatio = DEFAULT_INITIAL_RAMP_UP_RATIO;
+        private int successSamplingRate = DEFAULT_SUCCESS_SAMPLING_RATE;
+        @Nullable
+        private SharedStateStore sharedStateStore;
+        private Duration sharedStateSyncInterval = DEFAULT_SHARED_STATE_SYNC_INTERVAL;
+        private Duration sharedStateMaxStaleness = DEFAULT_SHARED_STATE_MAX_STALENESS;
+        private Duration persistedWindowMaxAge = DEFAULT_PERSISTED_WINDOW_MAX_AGE;
         private byte createWaitIntervalFunctionCounter = 0;
 
         public Builder(CircuitBreakerConfig baseConfig) {
@@ -218,6 +365,7 @@ public class CircuitBreakerConfig implements Serializable {
             this.permittedNumberOfCallsInHalfOpenState = baseConfig.permittedNumberOfCallsInHalfOpenState;
             this.slidingWindowSize = baseConfig.slidingWindowSize;
             this.slidingWindowType = baseConfig.slidingWindowType;
+            this.slidingWindowBucketWidth = baseConfig.slidingWindowBucketWidth;
             this.minimumNumberOfCalls = baseConfig.minimumNumberOfCalls;
             this.failureRateThreshold = baseConfig.failureRateThreshold;
             this.ignoreExceptions = baseConfig.ignoreExceptions;
@@ -231,7 +379,18 @@ public class CircuitBreakerConfig implements Serializable {
             this.slowCallDurationThreshold = baseConfig.slowCallDurationThreshold;
             this.maxWaitDurationInHalfOpenState = baseConfig.maxWaitDurationInHalfOpenState;
             this.writableStackTraceEnabled = baseConfig.writableStackTraceEnabled;
+            this.preallocatedExceptionEnabled = baseConfig.preallocatedExceptionEnabled;
             this.recordResultPredicate = baseConfig.recordResultPredicate;
+            this.latencyPercentile = baseConfig.latencyPercentile;
+            this.latencyPercentileThreshold = baseConfig.latencyPercentileThreshold;
+            this.rampUpDuration = baseConfig.rampUpDuration;
+            this.rampUpStrategy = baseConfig.rampUpStrategy;
+            this.initialRampUpRatio = baseConfig.initialRampUpRatio;
+            this.successSamplingRate = baseConfig.successSamplingRate;
+            this.sharedStateStore = baseConfig.sharedStateStore;
+            this.sharedStateSyncInterval = baseConfig.sharedStateSyncInterval;
+            this.sharedStateMaxStaleness = baseConfig.sharedStateMaxStaleness;
+            this.persistedWindowMaxAge = baseConfig.persistedWindowMaxAge;
         }
 
         public Builder() {}
@@ -255,6 +414,14 @@ public class CircuitBreakerConfig implements Serializable {
             return this;
         }
 
+        /**
+         * 启用后，每个CircuitBreaker按状态缓存一个没有堆栈的CallNotPermittedException，拒绝调用时直接抛出同一个实例，不再分配任何对象
+         */
+        public Builder preallocatedExceptionEnabled(boolean preallocatedExceptionEnabled) {
+            this.preallocatedExceptionEnabled = preallocatedExceptionEnabled;
+            return this;
+        }
+
         public Builder waitDurationInOpenState(Duration waitDurationInOpenState) {
             long waitDurationInMillis = waitDurationInOpenState.toMillis();
             if(waitDurationInMillis < 1)
@@ -277,6 +444,20 @@ public class CircuitBreakerConfig implements Serializable {
             return this;
         }
 
+        /**
+         * 窗口内调用延迟的指定百分位（例如99代表p99）超过threshold时，和慢调用率超出阈值一样触发熔断，
+         * 启用后滑动窗口会额外维护一个延迟直方图，只支持COUNT_BASED和TIME_BASED类型的窗口
+         */
+        public Builder latencyPercentileThreshold(double percentile, Duration threshold) {
+            if(percentile <= 0 || percentile >= 100)
+                throw new IllegalArgumentException("percentile must be between 0 and 100 (exclusive)");
+            if(threshold.toNanos() < 1)
+                throw new IllegalArgumentException("latencyPercentileThreshold must be at least 1[ns]");
+            this.latencyPercentile = percentile;
+            this.latencyPercentileThreshold = threshold;
+            return this;
+        }
+
         public Builder maxWaitDurationInHalfOpenState(Duration maxWaitDurationInHalfOpenState) {
             if(maxWaitDurationInHalfOpenState.toMillis() < 1)
                 throw new IllegalArgumentException("maxWaitDurationInHalfOpenState must be at least 1[ms]");
@@ -284,6 +465,82 @@ public class CircuitBreakerConfig implements Serializable {
             return this;
         }
 
+        /**
+         * 半开状态探测成功后，先进入RAMPING状态，在rampUpDuration内逐步放量，期间仍然会判断阈值，超过时回到OPEN状态
+         */
+        public Builder rampUpDuration(Duration rampUpDuration) {
+            if(rampUpDuration.isNegative())
+                throw new IllegalArgumentException("rampUpDuration must not be negative");
+            this.rampUpDuration = rampUpDuration;
+            return this;
+        }
+
+        public Builder rampUpStrategy(RampUpStrategy rampUpStrategy) {
+            this.rampUpStrategy = Objects.requireNonNull(rampUpStrategy);
+            return this;
+        }
+
+        /**
+         * 进入RAMPING状态时的放行比例
+         */
+        public Builder initialRampUpRatio(float initialRampUpRatio) {
+            if(initialRampUpRatio <= 0 || initialRampUpRatio > 1)
+                throw new IllegalArgumentException("initialRampUpRatio must be greater than 0 and not greater than 1");
+            this.initialRampUpRatio = initialRampUpRatio;
+            return this;
+        }
+
+        /**
+         * 调用量特别大的CircuitBreaker，失败率在统计上已经很稳定了，没必要每个成功调用都写窗口：
+         * 大于1时CLOSED状态下的成功调用只以1/successSamplingRate的概率记录，记录时权重为successSamplingRate，失败和慢调用总是记录，
+         * 失败率、慢调用率等都是基于加权计数的无偏估计，Metrics里的成功调用数也是估计值。HALF_OPEN状态下不采样。
+         * 取值范围是[1, MAX_SUCCESS_SAMPLING_RATE]
+         */
+        public Builder successSamplingRate(int successSamplingRate) {
+            if(successSamplingRate < 1 || successSamplingRate > MAX_SUCCESS_SAMPLING_RATE)
+                throw new IllegalArgumentException("successSamplingRate must be between 1 and " + MAX_SUCCESS_SAMPLING_RATE);
+            this.successSamplingRate = successSamplingRate;
+            return this;
+        }
+
+        /**
+         * 设置之后，同名的CircuitBreaker会通过sharedStateStore在节点间交换状态和窗口计数：
+         * 任意一个节点切换到OPEN，其它节点在下一次同步时也会切换到OPEN；CLOSED状态下按所有节点的计数合计来判断阈值。
+         * 同步由后台线程每隔sharedStateSyncInterval做一次，调用路径上没有任何额外开销
+         */
+        public Builder sharedStateStore(@Nullable SharedStateStore sharedStateStore) {
+            this.sharedStateStore = sharedStateStore;
+            return this;
+        }
+
+        public Builder sharedStateSyncInterval(Duration sharedStateSyncInterval) {
+            if(sharedStateSyncInterval.toMillis() < 1)
+                throw new IllegalArgumentException("sharedStateSyncInterval must be at least 1[ms]");
+            this.sharedStateSyncInterval = sharedStateSyncInterval;
+            return this;
+        }
+
+        /**
+         * 超过这个时间没有更新的节点快照会被忽略（例如节点已经下线），按本节点看到快照更新的时间计算，不依赖各节点的时钟，不能小于sharedStateSyncInterval
+         */
+        public Builder sharedStateMaxStaleness(Duration sharedStateMaxStaleness) {
+            if(sharedStateMaxStaleness.toMillis() < 1)
+                throw new IllegalArgumentException("sharedStateMaxStaleness must be at least 1[ms]");
+            this.sharedStateMaxStaleness = sharedStateMaxStaleness;
+            return this;
+        }
+
+        /**
+         * 从状态文件恢复时，基于次数的窗口（COUNT_BASED、PACKED_COUNT_BASED、EXPONENTIALLY_WEIGHTED）的汇总值如果比这个时间还旧，
+         * 就不再写回窗口，只恢复CircuitBreaker的状态；基于时间的窗口则以窗口长度（slidingWindowSize * slidingWindowBucketWidth）为准
+         */
+        public Builder persistedWindowMaxAge(Duration persistedWindowMaxAge) {
+            if(persistedWindowMaxAge.isNegative())
+                throw new IllegalArgumentException("persistedWindowMaxAge must not be negative");
+            this.persistedWindowMaxAge = persistedWindowMaxAge;
+            return this;
+        }
+
         public Builder permittedNumberOfCallsInHalfOpenState(int permittedNumberOfCallsInHalfOpenState) {
             if(permittedNumberOfCallsInHalfOpenState < 1)
                 throw new IllegalArgumentException("permittedNumberOfCallsInHalfOpenState must be greater than 0");
@@ -319,7 +576,7 @@ public class CircuitBreakerConfig implements Serializable {
             if(minimumNumberOfCalls < 1)
                 throw new IllegalArgumentException("minimumNumberOfCalls must be greater than 0");
 
-            if(slidingWindowType == SlidingWindowType.COUNT_BASED)
+            if(slidingWindowType.isCountBased())
                 this.minimumNumberOfCalls = Math.min(minimumNumberOfCalls, slidingWindowSize);
             else
                 this.minimumNumberOfCalls = minimumNumberOfCalls;
@@ -336,6 +593,17 @@ public class CircuitBreakerConfig implements Serializable {
             return this;
         }
 
+        /**
+         * 基于时间的滑动窗口中每个bucket的宽度，默认1秒，最小1毫秒，COUNT_BASED类型的窗口会忽略这个配置。
+         * 窗口长度 = slidingWindowSize * bucket宽度，例如slidingWindowSize为5、宽度为100毫秒，就是统计最近500毫秒
+         */
+        public Builder slidingWindowBucketWidth(Duration slidingWindowBucketWidth) {
+            if(slidingWindowBucketWidth.toMillis() < 1)
+                throw new IllegalArgumentException("slidingWindowBucketWidth must be at least 1[ms]");
+            this.slidingWindowBucketWidth = slidingWindowBucketWidth;
+            return this;
+        }
+
         public Builder minimumNumberOfCalls(int minimumNumberOfCalls) {
             if(minimumNumberOfCalls < 1)
                 throw new IllegalArgumentException("minimumNumberOfCalls must be greater than 0");
@@ -405,6 +673,7 @@ public class CircuitBreakerConfig implements Serializable {
             CircuitBreakerConfig config = new CircuitBreakerConfig();
             config.waitIntervalFunctionInOpenState = this.validateWaitIntervalFunctionInOpenState();
             config.slidingWindowType = slidingWindowType;
+            config.slidingWindowBucketWidth = slidingWindowBucketWidth;
             config.slowCallDurationThreshold = slowCallDurationThreshold;
             config.maxWaitDurationInHalfOpenState = maxWaitDurationInHalfOpenState;
             config.slowCallRateThreshold = slowCallRateThreshold;
@@ -416,11 +685,27 @@ public class CircuitBreakerConfig implements Serializable {
             config.ignoreExceptions = ignoreExceptions;
             config.automaticTransitionFromOpenToHalfOpenEnabled = automaticTransitionFromOpenToHalfOpenEnabled;
             config.writableStackTraceEnabled = writableStackTraceEnabled;
+            config.preallocatedExceptionEnabled = preallocatedExceptionEnabled;
             config.recordExceptionPredicate = this.createRecordExceptionPredicate();
             config.ignoreExceptionPredicate = this.createIgnoreFailurePredicate();
             config.currentTimestampFunction = currentTimestampFunction;
             config.timestampUnit = timestampUnit;
             config.recordResultPredicate = recordResultPredicate;
+            config.latencyPercentile = latencyPercentile;
+            config.rampUpDuration = rampUpDuration;
+            config.rampUpStrategy = rampUpStrategy;
+            config.initialRampUpRatio = initialRampUpRatio;
+            config.latencyPercentileThreshold = latencyPercentileThreshold;
+            config.successSamplingRate = successSamplingRate;
+            config.sharedStateStore = sharedStateStore;
+            config.sharedStateSyncInterval = sharedStateSyncInterval;
+            config.sharedStateMaxStaleness = sharedStateMaxStaleness;
+            config.persistedWindowMaxAge = persistedWindowMaxAge;
+            if(sharedStateMaxStaleness.compareTo(sharedStateSyncInterval) < 0)
+                throw new IllegalStateException("sharedStateMaxStaleness must not be less than sharedStateSyncInterval");
+            if(latencyPercentile > 0 && slidingWindowType != SlidingWindowType.COUNT_BASED
+                    && slidingWindowType != SlidingWindowType.TIME_BASED)
+                throw new IllegalStateException("latencyPercentileThreshold is not supported by the " + slidingWindowType + " sliding window");
             return config;
         }
 
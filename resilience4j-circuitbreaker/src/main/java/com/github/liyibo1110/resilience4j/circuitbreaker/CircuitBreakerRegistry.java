@@ -1,5 +1,6 @@
 package com.github.liyibo1110.resilience4j.circuitbreaker;
 
+import com.github.liyibo1110.resilience4j.circuitbreaker.internal.CircuitBreakerStateFile;
 import com.github.liyibo1110.resilience4j.circuitbreaker.internal.InMemoryCircuitBreakerRegistry;
 import com.github.liyibo1110.resilience4j.core.Registry;
 import com.github.liyibo1110.resilience4j.core.RegistryStore;
@@ -7,6 +8,8 @@ import com.github.liyibo1110.resilience4j.core.registry.RegistryEventConsumer;
 import io.vavr.collection.HashMap;
 import io.vavr.collection.Seq;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -17,7 +20,7 @@ import java.util.function.Supplier;
  * @author liyibo
  * @date 2026-02-05 16:22
  */
-public interface CircuitBreakerRegistry extends Registry<CircuitBreaker, CircuitBreakerConfig> {
+public interface CircuitBreakerRegistry extends Registry<CircuitBreaker, CircuitBreakerConfig>, AutoCloseable {
     static CircuitBreakerRegistry of(CircuitBreakerConfig config) {
         return new InMemoryCircuitBreakerRegistry(config);
     }
@@ -75,6 +78,15 @@ public interface CircuitBreakerRegistry extends Registry<CircuitBreaker, Circuit
     CircuitBreaker circuitBreaker(String name, Supplier<CircuitBreakerConfig> configSupplier,
                                   io.vavr.collection.Map<String, String> tags);
 
+    /**
+     * 释放registry持有的资源，开启了状态持久化时会最后写一次状态文件，然后停止定期写入线程并移除shutdown hook，
+     * 不调用的话这些资源会一直保留到JVM退出，所以同一个状态文件的registry被重复创建时，旧的registry要先close
+     */
+    @Override
+    default void close() {
+        // 默认没有需要释放的资源
+    }
+
     static Builder custom() {
         return new Builder();
     }
@@ -85,6 +97,9 @@ public interface CircuitBreakerRegistry extends Registry<CircuitBreaker, Circuit
         private Map<String, CircuitBreakerConfig> circuitBreakerConfigsMap;
         private List<RegistryEventConsumer<CircuitBreaker>> registryEventConsumers;
         private io.vavr.collection.Map<String, String> tags;
+        private Path stateFilePath;
+        private int maxPersistedCircuitBreakers = CircuitBreakerStateFile.DEFAULT_MAX_CIRCUIT_BREAKERS;
+        private Duration stateFlushInterval = CircuitBreakerStateFile.DEFAULT_FLUSH_INTERVAL;
 
         public Builder() {
             this.circuitBreakerConfigsMap = new java.util.HashMap<>();
@@ -118,8 +133,34 @@ public interface CircuitBreakerRegistry extends Registry<CircuitBreaker, Circuit
             return this;
         }
 
+        /**
+         * 把所有CircuitBreaker的状态、熔断周期数和窗口统计值定期写入内存映射文件stateFile，进程重启后按名字恢复
+         */
+        public Builder withStatePersistence(Path stateFile) {
+            this.stateFilePath = stateFile;
+            return this;
+        }
+
+        /**
+         * @param maxCircuitBreakers 文件最多能保存多少个CircuitBreaker的状态，每个占256字节
+         * @param flushInterval 写入文件的间隔，也是进程崩溃时最多丢失的时长
+         */
+        public Builder withStatePersistence(Path stateFile, int maxCircuitBreakers, Duration flushInterval) {
+            if(maxCircuitBreakers < 1)
+                throw new IllegalArgumentException("maxCircuitBreakers must be greater than 0");
+            if(flushInterval.toMillis() < 1)
+                throw new IllegalArgumentException("flushInterval must be at least 1[ms]");
+            this.stateFilePath = stateFile;
+            this.maxPersistedCircuitBreakers = maxCircuitBreakers;
+            this.stateFlushInterval = flushInterval;
+            return this;
+        }
+
         public CircuitBreakerRegistry build() {
-            return new InMemoryCircuitBreakerRegistry(circuitBreakerConfigsMap, registryEventConsumers, tags, registryStore);
+            if(stateFilePath == null)
+                return new InMemoryCircuitBreakerRegistry(circuitBreakerConfigsMap, registryEventConsumers, tags, registryStore);
+            return new InMemoryCircuitBreakerRegistry(circuitBreakerConfigsMap, registryEventConsumers, tags, registryStore,
+                    CircuitBreakerStateFile.open(stateFilePath, maxPersistedCircuitBreakers, stateFlushInterval));
         }
     }
 }
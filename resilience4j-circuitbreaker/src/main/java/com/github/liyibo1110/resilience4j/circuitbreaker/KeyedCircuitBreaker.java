@@ -0,0 +1,140 @@
+package com.github.liyibo1110.resilience4j.circuitbreaker;
+
+import com.github.liyibo1110.resilience4j.circuitbreaker.internal.KeyedCircuitBreakerStateMachine;
+import com.github.liyibo1110.resilience4j.core.lang.Nullable;
+import io.vavr.CheckedFunction0;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 按key区分的一组CircuitBreaker（例如每个(service, host)一个），共享同一个CircuitBreakerConfig和EventPublisher。
+ * 不会为每个key创建CircuitBreakerStateMachine，而是把每个key的状态和计数存在由原始类型数组组成的开放寻址表里，每个key只占几十个字节，
+ * key总数超过maxKeys时按近似LRU淘汰，超过keyIdleTtl没有访问的key被当作新key，所以10万级别的key也只需要几MB内存。
+ * 和CircuitBreaker相比做了简化：
+ * 1、每个key的窗口是衰减计数器，按次数统计的窗口类型在计数超过slidingWindowSize时全部减半，按时间统计的窗口类型每过slidingWindowSize秒减半一次。
+ * 2、只有CLOSED、OPEN、HALF_OPEN三种状态，OPEN到HALF_OPEN总是在等待时间过后的第一次调用时切换。
+ * 3、event里的CircuitBreaker名字是name[key]，没有消费者时不会创建任何event，也不会拼接名字。
+ * @author liyibo
+ * @date 2026-10-18 20:30
+ */
+public interface KeyedCircuitBreaker<K> {
+    int DEFAULT_MAX_KEYS = 100_000;
+    Duration DEFAULT_KEY_IDLE_TTL = Duration.ofMinutes(10);
+
+    static <K> KeyedCircuitBreaker<K> ofDefaults(String name) {
+        return new KeyedCircuitBreakerStateMachine<>(name, CircuitBreakerConfig.ofDefaults(), DEFAULT_MAX_KEYS, DEFAULT_KEY_IDLE_TTL);
+    }
+
+    static <K> KeyedCircuitBreaker<K> of(String name, CircuitBreakerConfig config) {
+        return new KeyedCircuitBreakerStateMachine<>(name, config, DEFAULT_MAX_KEYS, DEFAULT_KEY_IDLE_TTL);
+    }
+
+    /**
+     * @param maxKeys 最多同时保存多少个key的状态
+     * @param keyIdleTtl 超过这个时间没有访问的key会被当作新key（OPEN状态也一样，所以应该比OPEN状态的等待时间长）
+     */
+    static <K> KeyedCircuitBreaker<K> of(String name, CircuitBreakerConfig config, int maxKeys, Duration keyIdleTtl) {
+        return new KeyedCircuitBreakerStateMachine<>(name, config, maxKeys, keyIdleTtl);
+    }
+
+    static <K, T> Supplier<T> decorateSupplier(KeyedCircuitBreaker<K> cb, K key, Supplier<T> supplier) {
+        return () -> {
+            cb.acquirePermission(key);
+            final long start = cb.getCurrentTimestamp();
+            try {
+                T result = supplier.get();
+                long duration = cb.getCurrentTimestamp() - start;
+                cb.onResult(key, duration, cb.getTimestampUnit(), result);
+                return result;
+            } catch (Exception e) {
+                long duration = cb.getCurrentTimestamp() - start;
+                cb.onError(key, duration, cb.getTimestampUnit(), e);
+                throw e;
+            }
+        };
+    }
+
+    static <K, T> CheckedFunction0<T> decorateCheckedSupplier(KeyedCircuitBreaker<K> cb, K key, CheckedFunction0<T> supplier) {
+        return () -> {
+            cb.acquirePermission(key);
+            final long start = cb.getCurrentTimestamp();
+            try {
+                T result = supplier.apply();
+                long duration = cb.getCurrentTimestamp() - start;
+                cb.onResult(key, duration, cb.getTimestampUnit(), result);
+                return result;
+            } catch (Exception e) {
+                long duration = cb.getCurrentTimestamp() - start;
+                cb.onError(key, duration, cb.getTimestampUnit(), e);
+                throw e;
+            }
+        };
+    }
+
+    String getName();
+
+    CircuitBreakerConfig getCircuitBreakerConfig();
+
+    boolean tryAcquirePermission(K key);
+
+    /**
+     * 不允许调用时抛出CallNotPermittedException
+     */
+    void acquirePermission(K key);
+
+    void releasePermission(K key);
+
+    void onSuccess(K key, long duration, TimeUnit unit);
+
+    void onError(K key, long duration, TimeUnit unit, Throwable t);
+
+    void onResult(K key, long duration, TimeUnit unit, @Nullable Object result);
+
+    /**
+     * 返回key当前的状态，没有保存这个key时返回CLOSED
+     */
+    CircuitBreaker.State getState(K key);
+
+    void transitionToOpenState(K key);
+
+    void transitionToClosedState(K key);
+
+    /**
+     * 删除key的状态和计数
+     */
+    void reset(K key);
+
+    /**
+     * 当前保存了多少个key
+     */
+    int size();
+
+    /**
+     * 删除所有超过keyIdleTtl没有访问的key，不调用的话它们只会在被访问或者被淘汰时才释放
+     */
+    void cleanUp();
+
+    long getCurrentTimestamp();
+
+    TimeUnit getTimestampUnit();
+
+    CircuitBreaker.EventPublisher getEventPublisher();
+
+    /**
+     * 启用了preallocatedExceptionEnabled时使用的按状态缓存的实例（所有key共用），返回null表示不支持，每次都新建
+     */
+    @Nullable
+    default CallNotPermittedException getPreallocatedCallNotPermittedException(CircuitBreaker.State state) {
+        return null;
+    }
+
+    default <T> T executeSupplier(K key, Supplier<T> supplier) {
+        return decorateSupplier(this, key, supplier).get();
+    }
+
+    default <T> T executeCheckedSupplier(K key, CheckedFunction0<T> supplier) throws Throwable {
+        return decorateCheckedSupplier(this, key, supplier).apply();
+    }
+}
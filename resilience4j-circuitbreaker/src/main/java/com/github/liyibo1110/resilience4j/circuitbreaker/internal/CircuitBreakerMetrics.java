@@ -2,12 +2,19 @@ package com.github.liyibo1110.resilience4j.circuitbreaker.internal;
 
 import com.github.liyibo1110.resilience4j.circuitbreaker.CircuitBreaker;
 import com.github.liyibo1110.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import com.github.liyibo1110.resilience4j.core.metrics.ExponentiallyWeightedMetrics;
+import com.github.liyibo1110.resilience4j.core.metrics.FixedSizeSlidingWindowHistogramMetrics;
 import com.github.liyibo1110.resilience4j.core.metrics.FixedSizeSlidingWindowMetrics;
 import com.github.liyibo1110.resilience4j.core.metrics.Metrics;
+import com.github.liyibo1110.resilience4j.core.metrics.PackedFixedSizeSlidingWindowMetrics;
+import com.github.liyibo1110.resilience4j.core.metrics.SlidingTimeWindowHistogramMetrics;
 import com.github.liyibo1110.resilience4j.core.metrics.SlidingTimeWindowMetrics;
 import com.github.liyibo1110.resilience4j.core.metrics.Snapshot;
+import com.github.liyibo1110.resilience4j.core.metrics.StripedSlidingTimeWindowMetrics;
+import com.github.liyibo1110.resilience4j.core.metrics.Thresholds;
 
 import java.time.Clock;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.LongAdder;
 
@@ -29,23 +36,52 @@ public class CircuitBreakerMetrics implements CircuitBreaker.Metrics {
     private final LongAdder numberOfNotPermittedCalls;
     private int minimumNumberOfCalls;
 
+    /** 热点路径上的阈值判断参数，构造后不再变化 */
+    private final Thresholds thresholds;
+
+    /** 成功调用的采样率，1表示每次都记录 */
+    private final int successSamplingRate;
+
     private CircuitBreakerMetrics(int slidingWindowSize, CircuitBreakerConfig.SlidingWindowType slidingWindowType,
-                                  CircuitBreakerConfig config, Clock clock) {
-        if(slidingWindowType == CircuitBreakerConfig.SlidingWindowType.COUNT_BASED) {
-            this.metrics = new FixedSizeSlidingWindowMetrics(slidingWindowSize);
-            this.minimumNumberOfCalls = Math.min(config.getMinimumNumberOfCalls(), slidingWindowSize);
-        }else {
-            this.metrics = new SlidingTimeWindowMetrics(slidingWindowSize, clock);
-            this.minimumNumberOfCalls = config.getMinimumNumberOfCalls();
+                                  CircuitBreakerConfig config, Clock clock, int successSamplingRate) {
+        // 配置了延迟百分位阈值时，需要使用带直方图的窗口（零窗口不会记录任何调用，不需要）
+        boolean histogram = config.isLatencyPercentileThresholdEnabled() && slidingWindowSize > 0;
+        switch(slidingWindowType) {
+            case COUNT_BASED -> {
+                this.metrics = histogram ? new FixedSizeSlidingWindowHistogramMetrics(slidingWindowSize)
+                        : new FixedSizeSlidingWindowMetrics(slidingWindowSize);
+                this.minimumNumberOfCalls = Math.min(config.getMinimumNumberOfCalls(), slidingWindowSize);
+            }
+            case PACKED_COUNT_BASED -> {
+                this.metrics = new PackedFixedSizeSlidingWindowMetrics(slidingWindowSize);
+                this.minimumNumberOfCalls = Math.min(config.getMinimumNumberOfCalls(), slidingWindowSize);
+            }
+            case EXPONENTIALLY_WEIGHTED -> {
+                this.metrics = new ExponentiallyWeightedMetrics(slidingWindowSize);
+                this.minimumNumberOfCalls = Math.min(config.getMinimumNumberOfCalls(), slidingWindowSize);
+            }
+            case STRIPED_TIME_BASED -> {
+                this.metrics = new StripedSlidingTimeWindowMetrics(slidingWindowSize, config.getSlidingWindowBucketWidth(), clock);
+                this.minimumNumberOfCalls = config.getMinimumNumberOfCalls();
+            }
+            default -> {
+                this.metrics = histogram
+                        ? new SlidingTimeWindowHistogramMetrics(slidingWindowSize, config.getSlidingWindowBucketWidth(), clock)
+                        : new SlidingTimeWindowMetrics(slidingWindowSize, config.getSlidingWindowBucketWidth(), clock);
+                this.minimumNumberOfCalls = config.getMinimumNumberOfCalls();
+            }
         }
         this.failureRateThreshold = config.getFailureRateThreshold();
         this.slowCallRateThreshold = config.getSlowCallRateThreshold();
         this.slowCallDurationThresholdInNanos = config.getSlowCallDurationThreshold().toNanos();
         this.numberOfNotPermittedCalls = new LongAdder();
+        this.successSamplingRate = successSamplingRate;
+        this.thresholds = new Thresholds(this.minimumNumberOfCalls, this.failureRateThreshold, this.slowCallRateThreshold,
+                config.getLatencyPercentile(), config.getLatencyPercentileThreshold().toNanos());
     }
 
     private CircuitBreakerMetrics(int slidingWindowSize, CircuitBreakerConfig config, Clock clock) {
-        this(slidingWindowSize, config.getSlidingWindowType(), config, clock);
+        this(slidingWindowSize, config.getSlidingWindowType(), config, clock, config.getSuccessSamplingRate());
     }
 
     /**
@@ -56,25 +92,32 @@ public class CircuitBreakerMetrics implements CircuitBreaker.Metrics {
     }
 
     /**
-     * halfOpen状态时要使用的metric策略（小窗口，用于短期探测成功率）
+     * halfOpen状态时要使用的metric策略（小窗口，用于短期探测成功率，每个调用都会影响状态切换，所以不采样）
      */
     static CircuitBreakerMetrics forHalfOpen(int permittedNumberOfCallsInHalfOpenState, CircuitBreakerConfig config, Clock clock) {
         return new CircuitBreakerMetrics(permittedNumberOfCallsInHalfOpenState,
-                CircuitBreakerConfig.SlidingWindowType.COUNT_BASED, config, clock);
+                CircuitBreakerConfig.SlidingWindowType.COUNT_BASED, config, clock, 1);
+    }
+
+    /**
+     * ramping状态时要使用的metric策略（和closed一样的窗口，放量期间独立评估）
+     */
+    static CircuitBreakerMetrics forRamping(CircuitBreakerConfig config, Clock clock) {
+        return forClosed(config, clock);
     }
 
     /**
      * forcedOpen状态时要使用的metric策略（零窗口，不需要统计了）
      */
     static CircuitBreakerMetrics forForcedOpen(CircuitBreakerConfig config, Clock clock) {
-        return new CircuitBreakerMetrics(0, CircuitBreakerConfig.SlidingWindowType.COUNT_BASED, config, clock);
+        return new CircuitBreakerMetrics(0, CircuitBreakerConfig.SlidingWindowType.COUNT_BASED, config, clock, 1);
     }
 
     /**
      * disabled状态时要使用的metric策略（零窗口，不需要统计了）
      */
     static CircuitBreakerMetrics forDisabled(CircuitBreakerConfig config, Clock clock) {
-        return new CircuitBreakerMetrics(0, CircuitBreakerConfig.SlidingWindowType.COUNT_BASED, config, clock);
+        return new CircuitBreakerMetrics(0, CircuitBreakerConfig.SlidingWindowType.COUNT_BASED, config, clock, 1);
     }
 
     /**
@@ -88,44 +131,72 @@ public class CircuitBreakerMetrics implements CircuitBreaker.Metrics {
         numberOfNotPermittedCalls.increment();
     }
 
+    void onCallsNotPermitted(int numberOfCalls) {
+        numberOfNotPermittedCalls.add(numberOfCalls);
+    }
+
     public Result onSuccess(long duration, TimeUnit unit) {
-        Snapshot snapshot;
+        int result;
         if(unit.toNanos(duration) > slowCallDurationThresholdInNanos)
-            snapshot = metrics.record(duration, unit, Metrics.Outcome.SLOW_SUCCESS);
+            result = metrics.recordAndEvaluate(duration, unit, Metrics.Outcome.SLOW_SUCCESS, this.thresholds);
+        else if(this.successSamplingRate > 1)
+            return this.onSampledSuccess(duration, unit);
         else
-            snapshot = metrics.record(duration, unit, Metrics.Outcome.SUCCESS);
-        return this.checkIfThresholdsExceeded(snapshot);
+            result = metrics.recordAndEvaluate(duration, unit, Metrics.Outcome.SUCCESS, this.thresholds);
+        return Result.of(result);
+    }
+
+    /**
+     * 只以1/successSamplingRate的概率记录这次成功调用，记录时按successSamplingRate个调用计入窗口，所以窗口里的各项计数仍然是真实值的无偏估计。
+     * 一个样本是一条权重为successSamplingRate的batch记录，基于次数的窗口里只占用1个slot，不会把窗口里的失败调用挤出去。
+     * 没被采中的调用完全不碰窗口，成功调用也不会让失败率或慢调用率升高，所以直接返回BELOW_THRESHOLDS（只有CLOSED这类只关心超出阈值的状态才会采样）
+     */
+    private Result onSampledSuccess(long duration, TimeUnit unit) {
+        if(ThreadLocalRandom.current().nextInt(this.successSamplingRate) != 0)
+            return Result.BELOW_THRESHOLDS;
+        return Result.of(metrics.recordBatchAndEvaluate(this.successSamplingRate, 0, 0, 0,
+                weightedDurationInNanos(unit.toNanos(duration), this.successSamplingRate), TimeUnit.NANOSECONDS, this.thresholds));
+    }
+
+    /**
+     * 用时乘以权重，溢出时取Long.MAX_VALUE（toNanos本身也是这样饱和的）
+     */
+    private static long weightedDurationInNanos(long durationInNanos, int weight) {
+        if(durationInNanos > Long.MAX_VALUE / weight)
+            return Long.MAX_VALUE;
+        return durationInNanos * weight;
     }
 
     public Result onError(long duration, TimeUnit unit) {
-        Snapshot snapshot;
+        int result;
         if(unit.toNanos(duration) > slowCallDurationThresholdInNanos)
-            snapshot = metrics.record(duration, unit, Metrics.Outcome.SLOW_ERROR);
+            result = metrics.recordAndEvaluate(duration, unit, Metrics.Outcome.SLOW_ERROR, this.thresholds);
         else
-            snapshot = metrics.record(duration, unit, Metrics.Outcome.ERROR);
-        return this.checkIfThresholdsExceeded(snapshot);
+            result = metrics.recordAndEvaluate(duration, unit, Metrics.Outcome.ERROR, this.thresholds);
+        return Result.of(result);
     }
 
     /**
-     * 根据给定snapshot统计，来判断当前的健康结果
+     * 一次记录一批call的结果，只更新一次窗口，slow个慢调用优先算作成功的慢调用，超出successes的部分算作失败的慢调用
      */
-    private Result checkIfThresholdsExceeded(Snapshot snapshot) {
-        float failureRateInPercentage = this.getFailureRate(snapshot);
-        float slowCallsInPercentage = this.getSlowCallRate(snapshot);
-
-        if(failureRateInPercentage == -1 || slowCallsInPercentage == -1)
-            return Result.BELOW_MINIMUM_CALLS_THRESHOLD;
-
-        if(failureRateInPercentage >= failureRateThreshold && slowCallsInPercentage >= slowCallRateThreshold)
-            return Result.ABOVE_THRESHOLDS;
-
-        if(failureRateInPercentage >= failureRateThreshold)
-            return Result.FAILURE_RATE_ABOVE_THRESHOLDS;
+    public Result onResults(int successes, int failures, int slow, long totalDuration, TimeUnit unit) {
+        int slowFailures = Math.max(0, slow - successes);
+        return Result.of(metrics.recordBatchAndEvaluate(successes + failures, failures, slow, slowFailures,
+                totalDuration, unit, this.thresholds));
+    }
 
-        if(slowCallsInPercentage >= slowCallRateThreshold)
-            return Result.SLOW_CALL_RATE_ABOVE_THRESHOLDS;
+    /**
+     * 把持久化的窗口汇总值重新写进窗口，只用于恢复状态，不判断阈值
+     */
+    void restore(int numberOfCalls, int numberOfFailedCalls, int numberOfSlowCalls, int numberOfSlowFailedCalls,
+                 long totalDurationInNanos) {
+        if(numberOfCalls > 0)
+            metrics.recordBatchAndEvaluate(numberOfCalls, numberOfFailedCalls, numberOfSlowCalls, numberOfSlowFailedCalls,
+                    totalDurationInNanos, TimeUnit.NANOSECONDS, this.thresholds);
+    }
 
-        return Result.BELOW_THRESHOLDS;
+    Snapshot getSnapshot() {
+        return this.metrics.getSnapshot();
     }
 
     /**
@@ -195,10 +266,26 @@ public class CircuitBreakerMetrics implements CircuitBreaker.Metrics {
     enum Result {
         BELOW_THRESHOLDS,   // 失败率和慢调用率，都没有超过阈值
         FAILURE_RATE_ABOVE_THRESHOLDS,  // 只有失败率超出阈值
-        SLOW_CALL_RATE_ABOVE_THRESHOLDS,    // 只有慢调用率超出阈值
+        SLOW_CALL_RATE_ABOVE_THRESHOLDS,    // 只有慢调用率（或延迟百分位）超出阈值
         ABOVE_THRESHOLDS,   // 失败率和慢调用率，全部超出阈值
         BELOW_MINIMUM_CALLS_THRESHOLD;  // 调用次数过少（即样本过少）
 
+        /**
+         * 把Thresholds.evaluate返回的位标记转换成Result
+         */
+        static Result of(int evaluation) {
+            if(evaluation == Thresholds.BELOW_MINIMUM_CALLS)
+                return BELOW_MINIMUM_CALLS_THRESHOLD;
+            boolean failureRate = (evaluation & Thresholds.FAILURE_RATE_EXCEEDED) != 0;
+            // 延迟百分位超出阈值，和慢调用率超出阈值同等对待
+            boolean slowCall = (evaluation & (Thresholds.SLOW_CALL_RATE_EXCEEDED | Thresholds.LATENCY_PERCENTILE_EXCEEDED)) != 0;
+            if(failureRate && slowCall)
+                return ABOVE_THRESHOLDS;
+            if(failureRate)
+                return FAILURE_RATE_ABOVE_THRESHOLDS;
+            return slowCall ? SLOW_CALL_RATE_ABOVE_THRESHOLDS : BELOW_THRESHOLDS;
+        }
+
         public static boolean hasExceededThresholds(Result result) {
             return hasFailureRateExceededThreshold(result) || hasSlowCallRateExceededThreshold(result);
         }
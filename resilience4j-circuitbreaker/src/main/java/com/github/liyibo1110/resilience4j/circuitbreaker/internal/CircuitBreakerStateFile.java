@@ -0,0 +1,367 @@
+package com.github.liyibo1110.resilience4j.circuitbreaker.internal;
+
+import com.github.liyibo1110.resilience4j.circuitbreaker.CircuitBreaker;
+import com.github.liyibo1110.resilience4j.core.lang.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 把CircuitBreaker的状态、熔断周期数和滑动窗口的统计值持久化到一个内存映射文件，进程重启（例如滚动发布）之后由CircuitBreakerRegistry在创建时恢复，
+ * 这样新进程不会从一个空的CLOSED窗口开始，把已知不可用的下游再打一遍。
+ * 文件由固定大小的slot组成，按名字做开放寻址，每个slot带一个版本号（写之前变成奇数，写完变成偶数），进程在写到一半时被杀掉，读的时候也能识别出来并忽略。
+ * 写入只在后台线程里按flushInterval定期进行（进程正常退出时也会写一次），调用路径上没有任何开销，代价是最多丢失一个flushInterval的数据。
+ * 窗口只保存了汇总值（调用数、失败数、慢调用数和总耗时），恢复时按批量记录的方式重新写进新窗口，所以不会还原各个bucket的时间分布；
+ * 汇总值比窗口长度（基于次数的窗口是persistedWindowMaxAge）还旧时不会恢复，只恢复状态。
+ * @author liyibo
+ * @date 2026-10-18 19:40
+ */
+public class CircuitBreakerStateFile implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(CircuitBreakerStateFile.class);
+
+    public static final int DEFAULT_MAX_CIRCUIT_BREAKERS = 1024;
+    public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofSeconds(1);
+
+    private static final int MAGIC = 0x52344342;
+    private static final int FORMAT_VERSION = 1;
+
+    /** 文件头：magic、格式版本、slot数量、slot大小 */
+    private static final int HEADER_SIZE = 16;
+    private static final int SLOT_SIZE = 256;
+
+    /** slot内各字段的偏移量 */
+    private static final int VERSION_OFFSET = 0;
+    private static final int NAME_LENGTH_OFFSET = 4;
+    private static final int STATE_OFFSET = 6;
+    private static final int ATTEMPTS_OFFSET = 8;
+    private static final int BUFFERED_CALLS_OFFSET = 12;
+    private static final int FAILED_CALLS_OFFSET = 16;
+    private static final int SLOW_CALLS_OFFSET = 20;
+    private static final int SLOW_FAILED_CALLS_OFFSET = 24;
+    private static final int RETRY_AFTER_OFFSET = 32;
+    private static final int TOTAL_DURATION_OFFSET = 40;
+    private static final int PERSISTED_AT_OFFSET = 48;
+    private static final int NAME_OFFSET = 56;
+    private static final int MAX_NAME_BYTES = SLOT_SIZE - NAME_OFFSET;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int slotCount;
+    private final Duration flushInterval;
+
+    /** 名字到slot下标的缓存，只在持有this锁时访问 */
+    private final Map<String, Integer> slotIndexes;
+
+    @Nullable
+    private ScheduledExecutorService flushExecutor;
+    @Nullable
+    private ScheduledFuture<?> flushFuture;
+    @Nullable
+    private Thread shutdownHook;
+    @Nullable
+    private Supplier<? extends Iterable<CircuitBreaker>> circuitBreakers;
+    private boolean closed;
+
+    private CircuitBreakerStateFile(Path path, MappedByteBuffer buffer, int slotCount, Duration flushInterval) {
+        this.path = path;
+        this.buffer = buffer;
+        this.slotCount = slotCount;
+        this.flushInterval = flushInterval;
+        this.slotIndexes = new HashMap<>();
+    }
+
+    /**
+     * 打开（不存在时创建）状态文件，已有文件的slot数量和maxCircuitBreakers不一致时，以文件里的为准
+     */
+    public static CircuitBreakerStateFile open(Path path, int maxCircuitBreakers, Duration flushInterval) {
+        if(maxCircuitBreakers < 1)
+            throw new IllegalArgumentException("maxCircuitBreakers must be greater than 0");
+        if(flushInterval.toMillis() < 1)
+            throw new IllegalArgumentException("flushInterval must be at least 1[ms]");
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int slotCount = maxCircuitBreakers;
+            boolean valid = false;
+            if(channel.size() >= HEADER_SIZE) {
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+                int existingSlotCount = header.getInt(8);
+                valid = header.getInt(0) == MAGIC && header.getInt(4) == FORMAT_VERSION && header.getInt(12) == SLOT_SIZE
+                        && existingSlotCount > 0 && channel.size() == HEADER_SIZE + (long) existingSlotCount * SLOT_SIZE;
+                if(valid)
+                    slotCount = existingSlotCount;
+                else
+                    LOG.warn("CircuitBreaker state file {} has an unknown format and will be reinitialized", path);
+            }
+            if(!valid)
+                channel.truncate(0);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) slotCount * SLOT_SIZE);
+            if(!valid) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, FORMAT_VERSION);
+                buffer.putInt(8, slotCount);
+                buffer.putInt(12, SLOT_SIZE);
+            }
+            return new CircuitBreakerStateFile(path, buffer, slotCount, flushInterval);
+        }catch(IOException e) {
+            throw new UncheckedIOException("Failed to open CircuitBreaker state file " + path, e);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getMaxCircuitBreakers() {
+        return slotCount;
+    }
+
+    /**
+     * 开始定期把circuitBreakers的状态写入文件，并在进程正常退出时再写一次
+     */
+    public synchronized void startFlushing(Supplier<? extends Iterable<CircuitBreaker>> circuitBreakers) {
+        if(this.closed)
+            throw new IllegalStateException("CircuitBreaker state file " + this.path + " is already closed");
+        if(this.flushExecutor != null)
+            throw new IllegalStateException("CircuitBreaker state file " + this.path + " is already flushing");
+        this.circuitBreakers = circuitBreakers;
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(threadTask -> {
+            Thread t = new Thread(threadTask, "CircuitBreakerStateFlushThread");
+            t.setDaemon(true);
+            return t;
+        });
+        long intervalInMillis = this.flushInterval.toMillis();
+        this.flushFuture = this.flushExecutor.scheduleWithFixedDelay(() -> this.flushSafely(circuitBreakers),
+                intervalInMillis, intervalInMillis, TimeUnit.MILLISECONDS);
+        this.shutdownHook = new Thread(() -> this.flushSafely(circuitBreakers), "CircuitBreakerStateShutdownFlushThread");
+        Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+    }
+
+    private void flushSafely(Supplier<? extends Iterable<CircuitBreaker>> circuitBreakers) {
+        try {
+            this.flush(circuitBreakers.get());
+        }catch(Exception e) {
+            // 不能把异常抛出去，否则周期任务就不会再执行了
+            LOG.warn("Failed to flush CircuitBreaker state file {}", this.path, e);
+        }
+    }
+
+    /**
+     * 把所有CircuitBreaker的当前状态写入文件
+     */
+    public synchronized void flush(Iterable<CircuitBreaker> circuitBreakers) {
+        for(CircuitBreaker circuitBreaker : circuitBreakers) {
+            if(circuitBreaker instanceof CircuitBreakerStateMachine)
+                this.write(circuitBreaker.getName(), ((CircuitBreakerStateMachine) circuitBreaker).snapshotState());
+        }
+        this.buffer.force();
+    }
+
+    /**
+     * 如果文件里有同名CircuitBreaker的状态，恢复到circuitBreaker里，只能在circuitBreaker对外可见之前调用
+     */
+    public void restore(CircuitBreakerStateMachine circuitBreaker) {
+        StateRecord record = this.read(circuitBreaker.getName());
+        if(record != null)
+            circuitBreaker.restoreState(record);
+    }
+
+    /**
+     * 读取指定名字的状态，没有或者正在写入时返回null
+     */
+    @Nullable
+    public synchronized StateRecord read(String name) {
+        int index = this.findSlot(name, false);
+        if(index < 0)
+            return null;
+        int offset = this.slotOffset(index);
+        int version = this.buffer.getInt(offset + VERSION_OFFSET);
+        if((version & 1) != 0) {
+            LOG.warn("Ignored the partially written state of CircuitBreaker '{}' in {}", name, this.path);
+            return null;
+        }
+        int stateOrdinal = this.buffer.get(offset + STATE_OFFSET);
+        CircuitBreaker.State[] states = CircuitBreaker.State.values();
+        if(stateOrdinal < 0 || stateOrdinal >= states.length)
+            return null;
+        return new StateRecord(states[stateOrdinal],
+                this.buffer.getInt(offset + ATTEMPTS_OFFSET),
+                this.buffer.getLong(offset + RETRY_AFTER_OFFSET),
+                this.buffer.getInt(offset + BUFFERED_CALLS_OFFSET),
+                this.buffer.getInt(offset + FAILED_CALLS_OFFSET),
+                this.buffer.getInt(offset + SLOW_CALLS_OFFSET),
+                this.buffer.getInt(offset + SLOW_FAILED_CALLS_OFFSET),
+                this.buffer.getLong(offset + TOTAL_DURATION_OFFSET),
+                this.buffer.getLong(offset + PERSISTED_AT_OFFSET));
+    }
+
+    private void write(String name, StateRecord record) {
+        int index = this.findSlot(name, true);
+        if(index < 0)
+            return;
+        int offset = this.slotOffset(index);
+        int version = this.buffer.getInt(offset + VERSION_OFFSET);
+        this.buffer.putInt(offset + VERSION_OFFSET, version | 1);
+        this.buffer.put(offset + STATE_OFFSET, (byte) record.getState().ordinal());
+        this.buffer.putInt(offset + ATTEMPTS_OFFSET, record.getAttempts());
+        this.buffer.putLong(offset + RETRY_AFTER_OFFSET, record.getRetryAfterMillis());
+        this.buffer.putInt(offset + BUFFERED_CALLS_OFFSET, record.getNumberOfBufferedCalls());
+        this.buffer.putInt(offset + FAILED_CALLS_OFFSET, record.getNumberOfFailedCalls());
+        this.buffer.putInt(offset + SLOW_CALLS_OFFSET, record.getNumberOfSlowCalls());
+        this.buffer.putInt(offset + SLOW_FAILED_CALLS_OFFSET, record.getNumberOfSlowFailedCalls());
+        this.buffer.putLong(offset + TOTAL_DURATION_OFFSET, record.getTotalDurationInNanos());
+        this.buffer.putLong(offset + PERSISTED_AT_OFFSET, record.getPersistedAtMillis());
+        this.buffer.putInt(offset + VERSION_OFFSET, (version | 1) + 1);
+    }
+
+    /**
+     * 按名字做开放寻址（线性探测），返回slot下标，没找到（或者create为true但已经满了）时返回-1
+     */
+    private int findSlot(String name, boolean create) {
+        Integer cached = this.slotIndexes.get(name);
+        if(cached != null)
+            return cached;
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if(nameBytes.length == 0 || nameBytes.length > MAX_NAME_BYTES) {
+            if(create)
+                LOG.warn("The state of CircuitBreaker '{}' is not persisted because its name is longer than {} bytes", name, MAX_NAME_BYTES);
+            return -1;
+        }
+        int start = (name.hashCode() & Integer.MAX_VALUE) % this.slotCount;
+        for(int i = 0; i < this.slotCount; i++) {
+            int index = (start + i) % this.slotCount;
+            int offset = this.slotOffset(index);
+            int nameLength = this.buffer.getShort(offset + NAME_LENGTH_OFFSET);
+            if(nameLength == 0) {
+                if(!create)
+                    return -1;
+                // 先写名字再写长度，长度不为0就表示slot已经被占用
+                for(int j = 0; j < nameBytes.length; j++)
+                    this.buffer.put(offset + NAME_OFFSET + j, nameBytes[j]);
+                this.buffer.putShort(offset + NAME_LENGTH_OFFSET, (short) nameBytes.length);
+                this.slotIndexes.put(name, index);
+                return index;
+            }
+            if(nameLength == nameBytes.length && this.nameEquals(offset, nameBytes)) {
+                this.slotIndexes.put(name, index);
+                return index;
+            }
+        }
+        if(create)
+            LOG.warn("The state of CircuitBreaker '{}' is not persisted because {} is full", name, this.path);
+        return -1;
+    }
+
+    private boolean nameEquals(int offset, byte[] nameBytes) {
+        byte[] stored = new byte[nameBytes.length];
+        for(int j = 0; j < stored.length; j++)
+            stored[j] = this.buffer.get(offset + NAME_OFFSET + j);
+        return Arrays.equals(stored, nameBytes);
+    }
+
+    private int slotOffset(int index) {
+        return HEADER_SIZE + index * SLOT_SIZE;
+    }
+
+    /**
+     * 停止定期写入并移除shutdown hook，如果已经开始定期写入，关闭前会再写一次，重复调用没有影响
+     */
+    @Override
+    public synchronized void close() {
+        if(this.closed)
+            return;
+        this.closed = true;
+        if(this.flushFuture != null)
+            this.flushFuture.cancel(false);
+        if(this.flushExecutor != null)
+            this.flushExecutor.shutdown();
+        if(this.circuitBreakers != null)
+            this.flushSafely(this.circuitBreakers);
+        if(this.shutdownHook != null) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(this.shutdownHook);
+            }catch(IllegalStateException e) {
+                // 已经在退出过程中了
+            }
+        }
+    }
+
+    /**
+     * 一个CircuitBreaker持久化的内容，retryAfterMillis只对OPEN状态有意义，时间都是CircuitBreaker的clock的毫秒值
+     */
+    public static final class StateRecord {
+        private final CircuitBreaker.State state;
+        private final int attempts;
+        private final long retryAfterMillis;
+        private final int numberOfBufferedCalls;
+        private final int numberOfFailedCalls;
+        private final int numberOfSlowCalls;
+        private final int numberOfSlowFailedCalls;
+        private final long totalDurationInNanos;
+        private final long persistedAtMillis;
+
+        public StateRecord(CircuitBreaker.State state, int attempts, long retryAfterMillis,
+                           int numberOfBufferedCalls, int numberOfFailedCalls, int numberOfSlowCalls,
+                           int numberOfSlowFailedCalls, long totalDurationInNanos, long persistedAtMillis) {
+            this.state = state;
+            this.attempts = attempts;
+            this.retryAfterMillis = retryAfterMillis;
+            this.numberOfBufferedCalls = numberOfBufferedCalls;
+            this.numberOfFailedCalls = numberOfFailedCalls;
+            this.numberOfSlowCalls = numberOfSlowCalls;
+            this.numberOfSlowFailedCalls = numberOfSlowFailedCalls;
+            this.totalDurationInNanos = totalDurationInNanos;
+            this.persistedAtMillis = persistedAtMillis;
+        }
+
+        public CircuitBreaker.State getState() {
+            return state;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public long getRetryAfterMillis() {
+            return retryAfterMillis;
+        }
+
+        public int getNumberOfBufferedCalls() {
+            return numberOfBufferedCalls;
+        }
+
+        public int getNumberOfFailedCalls() {
+            return numberOfFailedCalls;
+        }
+
+        public int getNumberOfSlowCalls() {
+            return numberOfSlowCalls;
+        }
+
+        public int getNumberOfSlowFailedCalls() {
+            return numberOfSlowFailedCalls;
+        }
+
+        public long getTotalDurationInNanos() {
+            return totalDurationInNanos;
+        }
+
+        public long getPersistedAtMillis() {
+            return persistedAtMillis;
+        }
+    }
+}
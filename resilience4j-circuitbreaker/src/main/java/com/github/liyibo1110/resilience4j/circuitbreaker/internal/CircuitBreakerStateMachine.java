@@ -13,26 +13,37 @@ import com.github.liyibo1110.resilience4j.circuitbreaker.event.CircuitBreakerOnR
 import com.github.liyibo1110.resilience4j.circuitbreaker.event.CircuitBreakerOnSlowCallRateExceededEvent;
 import com.github.liyibo1110.resilience4j.circuitbreaker.event.CircuitBreakerOnStateTransitionEvent;
 import com.github.liyibo1110.resilience4j.circuitbreaker.event.CircuitBreakerOnSuccessEvent;
+import com.github.liyibo1110.resilience4j.circuitbreaker.shared.SharedState;
+import com.github.liyibo1110.resilience4j.circuitbreaker.shared.SharedStateStore;
 import com.github.liyibo1110.resilience4j.core.EventConsumer;
 import com.github.liyibo1110.resilience4j.core.EventProcessor;
 import com.github.liyibo1110.resilience4j.core.lang.Nullable;
+import com.github.liyibo1110.resilience4j.core.metrics.Snapshot;
 import io.vavr.collection.HashMap;
 import io.vavr.collection.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.ref.WeakReference;
 import java.time.Clock;
 import java.time.Duration;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -46,8 +57,25 @@ import java.util.function.UnaryOperator;
 public final class CircuitBreakerStateMachine implements CircuitBreaker {
     private static final Logger LOG = LoggerFactory.getLogger(CircuitBreakerStateMachine.class);
 
+    /**
+     * stateWord的格式：低2位是快速路径能处理的状态，其余位是OPEN状态下允许尝试半开的时间点（clock的毫秒值）
+     */
+    private static final int STATE_CODE_BITS = 2;
+    private static final long STATE_CODE_MASK = (1L << STATE_CODE_BITS) - 1;
+
+    /** 快速路径处理不了的状态（HALF_OPEN、DISABLED等），需要委托给State实例 */
+    private static final int SLOW_PATH_CODE = 0;
+    private static final int CLOSED_CODE = 1;
+    private static final int OPEN_CODE = 2;
+
     private final String name;
     private final AtomicReference<CircuitBreakerState> stateReference;
+
+    /**
+     * 当前状态的紧凑表示，总是跟随stateReference更新，
+     * 这样CLOSED和OPEN状态下的许可判断只需要一次volatile读，不需要经过stateReference再做虚方法调用，也不需要分配Instant
+     */
+    private volatile long stateWord;
     private final CircuitBreakerConfig circuitBreakerConfig;
     private final Map<String, String> tags;
     private final CircuitBreakerEventProcessor eventProcessor;
@@ -56,6 +84,16 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
     private final Function<Clock, Long> currentTimestampFunction;
     private final TimeUnit timestampUnit;
 
+    /** 按State的ordinal缓存的CallNotPermittedException，只在启用了preallocatedExceptionEnabled时才会创建 */
+    private final CallNotPermittedException[] preallocatedExceptions;
+
+    /** 配置了SharedStateStore时才有，负责在后台和其它节点同步状态 */
+    @Nullable
+    private final SharedStateSynchronizer sharedStateSynchronizer;
+
+    /** 状态转换的次数，0表示创建以来还没有转换过，发布到SharedStateStore，用来判断其它节点的OPEN是不是更新的 */
+    private final AtomicLong transitionEpoch = new AtomicLong();
+
     public CircuitBreakerStateMachine(String name) {
         this(name, CircuitBreakerConfig.ofDefaults());
     }
@@ -101,10 +139,17 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
         this.eventProcessor = new CircuitBreakerEventProcessor();
         this.clock = clock;
         this.stateReference = new AtomicReference<>(new ClosedState()); // 默认是CLOSED状态
+        this.stateWord = this.stateReference.get().stateWord();
         this.schedulerFactory = schedulerFactory;
         this.tags = Objects.requireNonNull(tags, "Tags must not be null");
         this.currentTimestampFunction = config.getCurrentTimestampFunction();
         this.timestampUnit = config.getTimestampUnit();
+        this.preallocatedExceptions = new CallNotPermittedException[State.values().length];
+        if(config.isPreallocatedExceptionEnabled()) {
+            for(State state : State.values())
+                this.preallocatedExceptions[state.ordinal()] = CallNotPermittedException.createPreallocatedCallNotPermittedException(this, state);
+        }
+        this.sharedStateSynchronizer = config.isSharedStateEnabled() ? SharedStateSynchronizer.start(this) : null;
     }
 
     @Override
@@ -119,20 +164,61 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
 
     @Override
     public boolean tryAcquirePermission() {
-        // 委托调用State实例的tryAcquirePermission
-        boolean callPermitted = stateReference.get().tryAcquirePermission();
+        long word = this.stateWord;
+        if((word & STATE_CODE_MASK) == CLOSED_CODE)
+            return true;
+        boolean callPermitted;
+        if(this.isRejectedWhileOpen(word)) {
+            this.stateReference.get().getMetrics().onCallNotPermitted();
+            callPermitted = false;
+        }else {
+            // 委托调用State实例的tryAcquirePermission
+            callPermitted = stateReference.get().tryAcquirePermission();
+        }
         if(!callPermitted)
             this.publishCallNotPermittedEvent();    // 发event
         return callPermitted;
     }
 
+    @Override
+    public boolean tryAcquirePermissions(int n) {
+        if(n < 1)
+            throw new IllegalArgumentException("n must be greater than 0");
+        long word = this.stateWord;
+        if((word & STATE_CODE_MASK) == CLOSED_CODE)
+            return true;
+        boolean callPermitted;
+        if(this.isRejectedWhileOpen(word)) {
+            this.stateReference.get().getMetrics().onCallsNotPermitted(n);
+            callPermitted = false;
+        }else {
+            callPermitted = stateReference.get().tryAcquirePermissions(n);
+        }
+        if(!callPermitted)
+            this.publishCallNotPermittedEvent();    // 整个batch只发一个event
+        return callPermitted;
+    }
+
     @Override
     public void releasePermission() {
         this.stateReference.get().releasePermission();
     }
 
+    @Override
+    public void releasePermissions(int n) {
+        this.stateReference.get().releasePermissions(n);
+    }
+
     @Override
     public void acquirePermission() {
+        long word = this.stateWord;
+        if((word & STATE_CODE_MASK) == CLOSED_CODE)
+            return;
+        if(this.isRejectedWhileOpen(word)) {
+            this.stateReference.get().getMetrics().onCallNotPermitted();
+            this.publishCallNotPermittedEvent();    // 发event
+            throw CallNotPermittedException.createCallNotPermittedException(this);
+        }
         try {
             this.stateReference.get().acquirePermission();
         } catch (Exception e) {
@@ -141,6 +227,33 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
         }
     }
 
+    /**
+     * 返回当前状态对应的缓存异常，只有启用了preallocatedExceptionEnabled时才可以调用
+     */
+    @Override
+    public CallNotPermittedException getPreallocatedCallNotPermittedException() {
+        return this.preallocatedExceptions[this.getState().ordinal()];
+    }
+
+    /**
+     * 判断是否处于OPEN状态，并且还没到尝试半开的时间点，这种情况可以直接拒绝，到了时间点则交给OpenState去切换状态
+     */
+    private boolean isRejectedWhileOpen(long word) {
+        return (word & STATE_CODE_MASK) == OPEN_CODE && this.clock.millis() <= (word >>> STATE_CODE_BITS);
+    }
+
+    /**
+     * 让stateWord跟上stateReference的最新值：写入之后再检查一次stateReference，
+     * 如果期间有别的线程完成了状态切换，就重新写入，保证最后留下的总是最新状态的stateWord
+     */
+    private void refreshStateWord() {
+        CircuitBreakerState state;
+        do {
+            state = this.stateReference.get();
+            this.stateWord = state.stateWord();
+        } while(state != this.stateReference.get());
+    }
+
     @Override
     public void onError(long duration, TimeUnit unit, Throwable t) {
         if(t instanceof CompletionException || t instanceof ExecutionException) {
@@ -174,6 +287,21 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
         this.stateReference.get().onSuccess(duration, unit);
     }
 
+    /**
+     * 批量记录不会为每个条目发布success/error event，只会发布阈值超出和状态转换的event
+     */
+    @Override
+    public void onResults(int successes, int failures, int slow, long totalDuration, TimeUnit unit) {
+        if(successes < 0 || failures < 0 || slow < 0)
+            throw new IllegalArgumentException("successes, failures and slow must not be negative");
+        if(slow > successes + failures)
+            throw new IllegalArgumentException("slow must not be greater than successes + failures");
+        if(successes + failures == 0)
+            return;
+        LOG.debug("CircuitBreaker '{}' recorded a batch of {} successes and {} failures", name, successes, failures);
+        this.stateReference.get().onResults(successes, failures, slow, totalDuration, unit);
+    }
+
     @Override
     public void onResult(long duration, TimeUnit unit, @Nullable Object result) {
         if(result != null && this.circuitBreakerConfig.getRecordResultPredicate().test(result)) {
@@ -219,6 +347,8 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
     @Override
     public void reset() {
         CircuitBreakerState previousState = stateReference.getAndUpdate(currentState -> new ClosedState());
+        this.transitionEpoch.incrementAndGet();
+        this.refreshStateWord();
         if(previousState.getState() != State.CLOSED)
             this.publishStateTransitionEvent(StateTransition.transitionBetween(this.getName(), previousState.getState(), State.CLOSED));
         this.publishResetEvent();
@@ -234,7 +364,124 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
             currentState.preTransitionHook();   // 切换之前调用一下钩子方法
             return newStateGenerator.apply(currentState);
         });
+        this.transitionEpoch.incrementAndGet();
+        this.refreshStateWord();
         this.publishStateTransitionEvent(StateTransition.transitionBetween(this.getName(), previousState.getState(), newState));
+        // 切换到OPEN时马上同步一次，不用等到下一个同步周期
+        if(newState == State.OPEN && this.sharedStateSynchronizer != null)
+            this.sharedStateSynchronizer.requestSynchronization();
+    }
+
+    /**
+     * 返回当前状态的快照，用于持久化
+     */
+    CircuitBreakerStateFile.StateRecord snapshotState() {
+        CircuitBreakerState currentState = this.stateReference.get();
+        Snapshot snapshot = currentState.getMetrics().getSnapshot();
+        long retryAfterMillis = currentState instanceof OpenState ? ((OpenState) currentState).retryAfterWaitMillis : 0;
+        return new CircuitBreakerStateFile.StateRecord(currentState.getState(), currentState.attempts(), retryAfterMillis,
+                snapshot.getTotalNumberOfCalls(), snapshot.getNumberOfFailedCalls(), snapshot.getTotalNumberOfSlowCalls(),
+                snapshot.getNumberOfSlowFailedCalls(), snapshot.getTotalDuration().toNanos(), this.clock.millis());
+    }
+
+    /**
+     * 用持久化的快照恢复状态，只能在CircuitBreaker对外可见之前调用，不会发布状态转换event。
+     * OPEN状态如果已经过了等待时间，以及HALF_OPEN和RAMPING状态，都恢复成HALF_OPEN，重新探测一次。
+     * 快照太旧时（见isPersistedWindowFresh）只恢复状态，窗口从空的开始
+     */
+    void restoreState(CircuitBreakerStateFile.StateRecord record) {
+        CircuitBreakerState restoredState = switch(record.getState()) {
+            case CLOSED -> new ClosedState();
+            case OPEN -> record.getRetryAfterMillis() > this.clock.millis()
+                    ? new OpenState(record.getAttempts(), CircuitBreakerMetrics.forClosed(this.circuitBreakerConfig, this.clock), record.getRetryAfterMillis())
+                    : new HalfOpenState(record.getAttempts());
+            case HALF_OPEN, RAMPING -> new HalfOpenState(record.getAttempts());
+            case FORCED_OPEN -> new ForcedOpenState(record.getAttempts());
+            case DISABLED -> new DisabledState();
+            case METRICS_ONLY -> new MetricsOnlyState();
+        };
+        State state = restoredState.getState();
+        if((state == State.CLOSED || state == State.OPEN || state == State.METRICS_ONLY) && this.isPersistedWindowFresh(record.getPersistedAtMillis()))
+            restoredState.getMetrics().restore(record.getNumberOfBufferedCalls(), record.getNumberOfFailedCalls(),
+                    record.getNumberOfSlowCalls(), record.getNumberOfSlowFailedCalls(), record.getTotalDurationInNanos());
+        this.stateReference.getAndSet(restoredState).preTransitionHook();
+        this.refreshStateWord();
+        LOG.debug("CircuitBreaker '{}' restored the persisted state {}", name, state);
+    }
+
+    /**
+     * 持久化的窗口汇总值是否还能用：基于时间的窗口过了窗口长度，里面的调用就已经全部过期了；
+     * 基于次数的窗口没有时间概念，超过persistedWindowMaxAge就认为不再代表下游现在的情况
+     */
+    private boolean isPersistedWindowFresh(long persistedAtMillis) {
+        long ageInMillis = Math.max(0, this.clock.millis() - persistedAtMillis);
+        long maxAgeInMillis = this.circuitBreakerConfig.getSlidingWindowType().isCountBased()
+                ? this.circuitBreakerConfig.getPersistedWindowMaxAge().toMillis()
+                : this.circuitBreakerConfig.getSlidingWindowSize() * this.circuitBreakerConfig.getSlidingWindowBucketWidth().toMillis();
+        return ageInMillis <= maxAgeInMillis;
+    }
+
+    /**
+     * 把本节点的快照写入SharedStateStore，再根据其它节点的快照判断是否要切换到OPEN，只会在后台同步线程里调用
+     */
+    private void synchronizeSharedState(SharedStateSynchronizer synchronizer) {
+        CircuitBreakerState currentState = this.stateReference.get();
+        CircuitBreakerMetrics metrics = currentState.getMetrics();
+        long localEpoch = this.transitionEpoch.get();
+        synchronizer.store.publish(new SharedState(this.name, synchronizer.nodeId, currentState.getState(), localEpoch,
+                metrics.getNumberOfBufferedCalls(), metrics.getNumberOfFailedCalls(), metrics.getNumberOfSlowCalls(),
+                ++synchronizer.sequence));
+        List<SharedState> sharedStates = synchronizer.store.read(this.name);
+        synchronizer.observe(sharedStates, localEpoch, this.clock.millis());
+        this.applySharedStates(currentState, sharedStates, synchronizer, localEpoch);
+    }
+
+    /**
+     * 其它节点在本节点最近一次状态转换之后切换到了OPEN，本节点也切换到OPEN；
+     * 否则在CLOSED状态下，把所有CLOSED节点的窗口计数加起来判断阈值，这样整个集群的调用数达到minimumNumberOfCalls就可以一起熔断
+     */
+    private void applySharedStates(CircuitBreakerState currentState, List<SharedState> sharedStates,
+                                   SharedStateSynchronizer synchronizer, long localEpoch) {
+        State state = currentState.getState();
+        if(state != State.CLOSED && state != State.HALF_OPEN && state != State.RAMPING)
+            return;
+        long maxStalenessMillis = this.circuitBreakerConfig.getSharedStateMaxStaleness().toMillis();
+        long now = this.clock.millis();
+        CircuitBreakerMetrics metrics = currentState.getMetrics();
+        int bufferedCalls = metrics.getNumberOfBufferedCalls();
+        int failedCalls = metrics.getNumberOfFailedCalls();
+        int slowCalls = metrics.getNumberOfSlowCalls();
+        for(SharedState sharedState : sharedStates) {
+            // 跳过自己，以及太久没有更新的节点（例如已经下线了）
+            SharedStateSynchronizer.RemoteNode node = synchronizer.remoteNodes.get(sharedState.getNodeId());
+            if(node == null || now - node.receivedMillis > maxStalenessMillis)
+                continue;
+            // 对方的这次OPEN是在本节点进入当前状态之后才看到的，说明比本节点的状态更新
+            if(sharedState.getState() == State.OPEN && node.observedAtLocalEpoch == localEpoch) {
+                LOG.debug("CircuitBreaker '{}' follows node '{}' to OPEN", name, sharedState.getNodeId());
+                currentState.openFromSharedState();
+                return;
+            }
+            if(sharedState.getState() == State.CLOSED) {
+                bufferedCalls += sharedState.getNumberOfBufferedCalls();
+                failedCalls += sharedState.getNumberOfFailedCalls();
+                slowCalls += sharedState.getNumberOfSlowCalls();
+            }
+        }
+        if(state != State.CLOSED || bufferedCalls == 0 || bufferedCalls < this.circuitBreakerConfig.getMinimumNumberOfCalls())
+            return;
+        float failureRate = failedCalls * 100.0f / bufferedCalls;
+        float slowCallRate = slowCalls * 100.0f / bufferedCalls;
+        boolean failureRateExceeded = failureRate >= this.circuitBreakerConfig.getFailureRateThreshold();
+        boolean slowCallRateExceeded = slowCallRate >= this.circuitBreakerConfig.getSlowCallRateThreshold();
+        if((failureRateExceeded || slowCallRateExceeded) && currentState.openFromSharedState()) {
+            LOG.debug("CircuitBreaker '{}' opened by the aggregated window of the cluster: {} calls, failureRate {}, slowCallRate {}",
+                    name, bufferedCalls, failureRate, slowCallRate);
+            if(failureRateExceeded)
+                this.publishCircuitFailureRateExceededEvent(this.name, failureRate);
+            if(slowCallRateExceeded)
+                this.publishCircuitSlowCallRateExceededEvent(this.name, slowCallRate);
+        }
     }
 
     @Override
@@ -267,6 +514,13 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
         this.stateTransition(State.HALF_OPEN, currentState -> new HalfOpenState(currentState.attempts()));
     }
 
+    /**
+     * 只能从HALF_OPEN切换过来，所以不对外公开
+     */
+    private void transitionToRampingState() {
+        this.stateTransition(State.RAMPING, currentState -> new RampingState(currentState.attempts()));
+    }
+
     /**
      * 判断event是否应该发出（就是检查event实例自身内部的forcePublish开关，以及CircuitBreaker.State的开关，有1个开就要发）
      */
@@ -312,7 +566,9 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
     }
 
     private void publishCallNotPermittedEvent() {
-        this.publishEventIfHasConsumer(new CircuitBreakerOnCallNotPermittedEvent(this.name));
+        // 先判断再创建event，没有消费者时拒绝调用不会分配任何对象
+        if(this.eventProcessor.hasConsumers())
+            this.publishEvent(new CircuitBreakerOnCallNotPermittedEvent(this.name));
     }
 
     private void publishSuccessEvent(final long duration, TimeUnit unit) {
@@ -369,6 +625,18 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
 
         void onError(long duration, TimeUnit unit, Throwable t);
 
+        /**
+         * 获取n个permission，要么全部获得，要么一个都不获得
+         */
+        boolean tryAcquirePermissions(int n);
+
+        default void releasePermissions(int n) {
+            for(int i = 0; i < n; i++)
+                this.releasePermission();
+        }
+
+        void onResults(int successes, int failures, int slow, long totalDuration, TimeUnit unit);
+
         int attempts();
 
         CircuitBreaker.State getState();
@@ -382,12 +650,132 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
             return event.getEventType().forcePublish || this.getState().allowPublish;
         }
 
+        /**
+         * 返回这个状态对应的stateWord，默认表示需要走State实例的慢路径
+         */
+        default long stateWord() {
+            return SLOW_PATH_CODE;
+        }
+
         /**
          * 在状态转换之前的钩子方法，可以做一些事情
          */
         default void preTransitionHook() {
             // nothing to do
         }
+
+        /**
+         * 根据其它节点的共享状态切换到OPEN，返回是否由这次调用完成了切换，默认不切换
+         */
+        default boolean openFromSharedState() {
+            return false;
+        }
+    }
+
+    /**
+     * 定期调用synchronizeSharedState的后台任务，所有CircuitBreaker共用一个同步线程，不占用状态迁移用的scheduler。
+     * 只持有CircuitBreaker的弱引用，CircuitBreaker被回收之后删除本节点的快照并停止调度
+     */
+    private static final class SharedStateSynchronizer implements Runnable {
+        private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(threadTask -> {
+            Thread t = new Thread(threadTask, "CircuitBreakerSharedStateSyncThread");
+            t.setDaemon(true);
+            return t;
+        });
+
+        private final WeakReference<CircuitBreakerStateMachine> reference;
+        private final String name;
+        private final String nodeId;
+        private final SharedStateStore store;
+
+        /** 本节点发布的次数，只在同步线程里访问 */
+        private long sequence;
+
+        /** 按nodeId记录其它节点的快照是什么时候更新的，只在同步线程里访问 */
+        private final ConcurrentMap<String, RemoteNode> remoteNodes = new ConcurrentHashMap<>();
+
+        @Nullable
+        private volatile ScheduledFuture<?> future;
+
+        private SharedStateSynchronizer(CircuitBreakerStateMachine circuitBreaker) {
+            this.reference = new WeakReference<>(circuitBreaker);
+            this.name = circuitBreaker.getName();
+            this.nodeId = UUID.randomUUID().toString();
+            this.store = circuitBreaker.getCircuitBreakerConfig().getSharedStateStore();
+        }
+
+        static SharedStateSynchronizer start(CircuitBreakerStateMachine circuitBreaker) {
+            SharedStateSynchronizer synchronizer = new SharedStateSynchronizer(circuitBreaker);
+            long intervalInMillis = circuitBreaker.getCircuitBreakerConfig().getSharedStateSyncInterval().toMillis();
+            synchronizer.future = SCHEDULER.scheduleWithFixedDelay(synchronizer, intervalInMillis, intervalInMillis, TimeUnit.MILLISECONDS);
+            return synchronizer;
+        }
+
+        void requestSynchronization() {
+            SCHEDULER.execute(this);
+        }
+
+        /**
+         * 用本地clock记录每个节点的sequence最后一次变化的时间，以及它最近一次状态转换是在本节点的第几次转换期间第一次看到的；
+         * 已经从store里消失的节点一起清理掉
+         */
+        void observe(List<SharedState> sharedStates, long localEpoch, long now) {
+            Set<String> present = new HashSet<>();
+            for(SharedState sharedState : sharedStates) {
+                if(this.nodeId.equals(sharedState.getNodeId()))
+                    continue;
+                present.add(sharedState.getNodeId());
+                RemoteNode node = this.remoteNodes.get(sharedState.getNodeId());
+                if(node == null) {
+                    node = new RemoteNode(sharedState.getSequence(), sharedState.getTransitionEpoch(), localEpoch, now);
+                    this.remoteNodes.put(sharedState.getNodeId(), node);
+                    continue;
+                }
+                if(node.sequence != sharedState.getSequence()) {
+                    node.sequence = sharedState.getSequence();
+                    node.receivedMillis = now;
+                }
+                if(node.transitionEpoch != sharedState.getTransitionEpoch()) {
+                    node.transitionEpoch = sharedState.getTransitionEpoch();
+                    node.observedAtLocalEpoch = localEpoch;
+                }
+            }
+            this.remoteNodes.keySet().retainAll(present);
+        }
+
+        @Override
+        public void run() {
+            CircuitBreakerStateMachine circuitBreaker = this.reference.get();
+            try {
+                if(circuitBreaker != null) {
+                    circuitBreaker.synchronizeSharedState(this);
+                }else if(this.future != null && this.future.cancel(false)) {
+                    this.store.remove(this.name, this.nodeId);
+                }
+            }catch(Exception e) {
+                // 不能把异常抛出去，否则周期任务就不会再执行了
+                LOG.warn("CircuitBreaker '{}' failed to synchronize the shared state", this.name, e);
+            }
+        }
+
+        /**
+         * 其它节点的快照在本节点看来的状态，都是本地的值，不和对方的时钟比较
+         */
+        private static final class RemoteNode {
+            private long sequence;
+            private long transitionEpoch;
+            /** 第一次看到当前transitionEpoch时本节点的transitionEpoch */
+            private long observedAtLocalEpoch;
+            /** 本地clock上最后一次看到sequence变化的时间 */
+            private long receivedMillis;
+
+            private RemoteNode(long sequence, long transitionEpoch, long observedAtLocalEpoch, long receivedMillis) {
+                this.sequence = sequence;
+                this.transitionEpoch = transitionEpoch;
+                this.observedAtLocalEpoch = observedAtLocalEpoch;
+                this.receivedMillis = receivedMillis;
+            }
+        }
     }
 
     /**
@@ -487,6 +875,16 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
             this.checkIfThresholdsExceeded(metrics.onError(duration, unit));
         }
 
+        @Override
+        public boolean tryAcquirePermissions(int n) {
+            return this.isClosed.get();
+        }
+
+        @Override
+        public void onResults(int successes, int failures, int slow, long totalDuration, TimeUnit unit) {
+            this.checkIfThresholdsExceeded(metrics.onResults(successes, failures, slow, totalDuration, unit));
+        }
+
         @Override
         public int attempts() {
             return 0;
@@ -497,11 +895,24 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
             return CircuitBreaker.State.CLOSED;
         }
 
+        @Override
+        public long stateWord() {
+            return CLOSED_CODE;
+        }
+
         @Override
         public CircuitBreakerMetrics getMetrics() {
             return this.metrics;
         }
 
+        @Override
+        public boolean openFromSharedState() {
+            if(!this.isClosed.compareAndSet(true, false))
+                return false;
+            transitionToOpenState();
+            return true;
+        }
+
         /**
          * 根据metrics的统计结果返回的Result，判断是否要切换状态
          */
@@ -521,8 +932,8 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
         /** 当前第几个熔断周期，不是spring retry里面的调用次数 */
         private final int attempts;
 
-        /** 下次尝试半开运行的时间点 */
-        private final Instant retryAfterWaitDuration;
+        /** 下次尝试半开运行的时间点（clock的毫秒值） */
+        private final long retryAfterWaitMillis;
         private final CircuitBreakerMetrics metrics;
 
         /** 状态是否为打开 */
@@ -533,10 +944,17 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
         private final ScheduledFuture<?> transitionToHalfOpenFuture;
 
         OpenState(final int attempts, CircuitBreakerMetrics metrics) {
-            this.attempts = attempts;
             // 下一次尝试的时间间隔长度
-            final long waitDurationInMillis = circuitBreakerConfig.getWaitIntervalFunctionInOpenState().apply(attempts);
-            this.retryAfterWaitDuration = clock.instant().plus(waitDurationInMillis, ChronoUnit.MILLIS);
+            this(attempts, metrics, clock.millis() + circuitBreakerConfig.getWaitIntervalFunctionInOpenState().apply(attempts));
+        }
+
+        /**
+         * 指定尝试半开的时间点，恢复持久化的状态时使用
+         */
+        OpenState(final int attempts, CircuitBreakerMetrics metrics, long retryAfterWaitMillis) {
+            this.attempts = attempts;
+            this.retryAfterWaitMillis = retryAfterWaitMillis;
+            final long waitDurationInMillis = Math.max(0, retryAfterWaitMillis - clock.millis());
             this.metrics = metrics;
 
             // 尝试调度一个延迟线程，切换到HALF_OPEN状态
@@ -551,7 +969,7 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
 
         @Override
         public boolean tryAcquirePermission() {
-            if(clock.instant().isAfter(this.retryAfterWaitDuration)) {
+            if(clock.millis() > this.retryAfterWaitMillis) {
                 this.toHalfOpenState();
                 // 注意这里的tryAcquirePermission()，调用的已经是半开状态的方法实现了
                 boolean callPermitted = stateReference.get().tryAcquirePermission();
@@ -587,6 +1005,26 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
             this.metrics.onError(duration, unit);
         }
 
+        @Override
+        public boolean tryAcquirePermissions(int n) {
+            if(clock.millis() > this.retryAfterWaitMillis) {
+                this.toHalfOpenState();
+                boolean callPermitted = stateReference.get().tryAcquirePermissions(n);
+                if(!callPermitted) {
+                    publishCallNotPermittedEvent();
+                    this.metrics.onCallsNotPermitted(n);
+                }
+                return callPermitted;
+            }
+            this.metrics.onCallsNotPermitted(n);
+            return false;
+        }
+
+        @Override
+        public void onResults(int successes, int failures, int slow, long totalDuration, TimeUnit unit) {
+            this.metrics.onResults(successes, failures, slow, totalDuration, unit);
+        }
+
         @Override
         public int attempts() {
             return this.attempts;
@@ -597,6 +1035,14 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
             return CircuitBreaker.State.OPEN;
         }
 
+        @Override
+        public long stateWord() {
+            // 时间点放不进剩余的位时（例如测试用的Clock返回负数），退回到慢路径
+            if(this.retryAfterWaitMillis < 0 || this.retryAfterWaitMillis > (Long.MAX_VALUE >>> STATE_CODE_BITS))
+                return SLOW_PATH_CODE;
+            return (this.retryAfterWaitMillis << STATE_CODE_BITS) | OPEN_CODE;
+        }
+
         @Override
         public CircuitBreakerMetrics getMetrics() {
             return this.metrics;
@@ -653,6 +1099,16 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
             // nothing to do
         }
 
+        @Override
+        public boolean tryAcquirePermissions(int n) {
+            return true;
+        }
+
+        @Override
+        public void onResults(int successes, int failures, int slow, long totalDuration, TimeUnit unit) {
+            // nothing to do
+        }
+
         @Override
         public int attempts() {
             return 0;
@@ -705,6 +1161,16 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
             this.checkIfThresholdsExceeded(this.metrics.onError(duration, unit));
         }
 
+        @Override
+        public boolean tryAcquirePermissions(int n) {
+            return true;
+        }
+
+        @Override
+        public void onResults(int successes, int failures, int slow, long totalDuration, TimeUnit unit) {
+            this.checkIfThresholdsExceeded(this.metrics.onResults(successes, failures, slow, totalDuration, unit));
+        }
+
         private void checkIfThresholdsExceeded(CircuitBreakerMetrics.Result result) {
             if(!CircuitBreakerMetrics.Result.hasExceededThresholds(result)) // 都没超过阈值
                 return;
@@ -777,6 +1243,17 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
             // nothing to do
         }
 
+        @Override
+        public boolean tryAcquirePermissions(int n) {
+            this.metrics.onCallsNotPermitted(n);
+            return false;
+        }
+
+        @Override
+        public void onResults(int successes, int failures, int slow, long totalDuration, TimeUnit unit) {
+            // nothing to do
+        }
+
         @Override
         public int attempts() {
             return this.attempts;
@@ -798,6 +1275,9 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
         /** 允许的调用次数 */
         private final AtomicInteger permittedNumberOfCalls;
 
+        /** 允许的调用次数的初始值，批量释放permission时不会超过它 */
+        private final int maxPermittedNumberOfCalls;
+
         /** 状态是否为半开 */
         private final AtomicBoolean isHalfOpen;
 
@@ -814,6 +1294,7 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
             int permittedNumberOfCallsInHalfOpenState = circuitBreakerConfig.getPermittedNumberOfCallsInHalfOpenState();
             this.metrics = CircuitBreakerMetrics.forHalfOpen(permittedNumberOfCallsInHalfOpenState, getCircuitBreakerConfig(), clock);
             this.permittedNumberOfCalls = new AtomicInteger(permittedNumberOfCallsInHalfOpenState);
+            this.maxPermittedNumberOfCalls = permittedNumberOfCallsInHalfOpenState;
             this.isHalfOpen = new AtomicBoolean(true);
             this.attempts = attempts;
 
@@ -869,6 +1350,28 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
             this.checkIfThresholdsExceeded(this.metrics.onError(duration, unit));
         }
 
+        /**
+         * 只要还剩至少1个permission，就允许整个batch通过，并消耗掉剩余的permission（最多n个），
+         * 否则条目数大于permittedNumberOfCallsInHalfOpenState的batch永远无法通过半开状态
+         */
+        @Override
+        public boolean tryAcquirePermissions(int n) {
+            if(this.permittedNumberOfCalls.getAndUpdate(current -> current == 0 ? current : Math.max(0, current - n)) > 0)
+                return true;
+            this.metrics.onCallsNotPermitted(n);
+            return false;
+        }
+
+        @Override
+        public void releasePermissions(int n) {
+            this.permittedNumberOfCalls.updateAndGet(current -> Math.min(this.maxPermittedNumberOfCalls, current + n));
+        }
+
+        @Override
+        public void onResults(int successes, int failures, int slow, long totalDuration, TimeUnit unit) {
+            this.checkIfThresholdsExceeded(this.metrics.onResults(successes, failures, slow, totalDuration, unit));
+        }
+
         private void checkIfThresholdsExceeded(CircuitBreakerMetrics.Result result) {
             if(CircuitBreakerMetrics.Result.hasExceededThresholds(result)) {
                 if(isHalfOpen.compareAndSet(true, false))
@@ -876,9 +1379,13 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
             }
 
             if(result == CircuitBreakerMetrics.Result.BELOW_THRESHOLDS) {
-                // 注意是在这里切换到了CLOSED状态了
-                if(isHalfOpen.compareAndSet(true, false))
-                    transitionToClosedState();
+                // 注意是在这里切换到了CLOSED状态了，配置了放量时长则先进入RAMPING状态
+                if(isHalfOpen.compareAndSet(true, false)) {
+                    if(circuitBreakerConfig.isRampUpEnabled())
+                        transitionToRampingState();
+                    else
+                        transitionToClosedState();
+                }
             }
         }
 
@@ -897,6 +1404,14 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
             return this.metrics;
         }
 
+        @Override
+        public boolean openFromSharedState() {
+            if(!this.isHalfOpen.compareAndSet(true, false))
+                return false;
+            transitionToOpenState();
+            return true;
+        }
+
         /**
          * 切换到HALF_OPEN状态
          */
@@ -905,4 +1420,148 @@ public final class CircuitBreakerStateMachine implements CircuitBreaker {
                 transitionToOpenState();
         }
     }
+
+    /**
+     * 半开探测成功之后的逐步放量状态，避免刚恢复的后端一下子承受全部流量：
+     * 放行比例从initialRampUpRatio开始，在rampUpDuration内按RampUpStrategy增长到1，之后切换到CLOSED。
+     * 放行判断只是用ThreadLocalRandom做一次概率比较，不需要任何锁或CAS。
+     * 使用自己的CircuitBreakerMetrics窗口判断阈值，放量期间超过阈值时回到OPEN状态。
+     */
+    private class RampingState implements CircuitBreakerState {
+        /** 当前第几个熔断周期，不是spring retry里面的调用次数 */
+        private final int attempts;
+        private final CircuitBreakerMetrics metrics;
+
+        /** 状态是否为放量中 */
+        private final AtomicBoolean isRamping;
+
+        /** 进入放量状态的时间点（clock的毫秒值） */
+        private final long rampUpStartMillis;
+        private final long rampUpDurationInMillis;
+        private final float initialRatio;
+        private final CircuitBreakerConfig.RampUpStrategy strategy;
+
+        /** 放量结束时切换到CLOSED状态的延迟线程调用结果 */
+        @Nullable
+        private final ScheduledFuture<?> transitionToClosedFuture;
+
+        RampingState(int attempts) {
+            this.attempts = attempts;
+            this.metrics = CircuitBreakerMetrics.forRamping(circuitBreakerConfig, clock);
+            this.isRamping = new AtomicBoolean(true);
+            this.rampUpStartMillis = clock.millis();
+            this.rampUpDurationInMillis = Math.max(1, circuitBreakerConfig.getRampUpDuration().toMillis());
+            this.initialRatio = circuitBreakerConfig.getInitialRampUpRatio();
+            this.strategy = circuitBreakerConfig.getRampUpStrategy();
+            ScheduledExecutorService service = schedulerFactory.getScheduler();
+            this.transitionToClosedFuture = service.schedule(this::toClosedState, this.rampUpDurationInMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public boolean tryAcquirePermission() {
+            return this.tryAcquirePermissions(1);
+        }
+
+        @Override
+        public boolean tryAcquirePermissions(int n) {
+            float ratio = this.admissionRatio();
+            if(ratio >= 1.0f) {
+                // 放量已经结束，调度的任务可能还没来得及执行
+                this.toClosedState();
+                return stateReference.get().tryAcquirePermissions(n);
+            }
+            // 整个batch一起放行或者拒绝
+            if(ThreadLocalRandom.current().nextFloat() < ratio)
+                return true;
+            this.metrics.onCallsNotPermitted(n);
+            return false;
+        }
+
+        /**
+         * 根据已经放量的时长，算出当前的放行比例
+         */
+        private float admissionRatio() {
+            long elapsed = clock.millis() - this.rampUpStartMillis;
+            if(elapsed >= this.rampUpDurationInMillis)
+                return 1.0f;
+            float progress = Math.max(0, elapsed) / (float) this.rampUpDurationInMillis;
+            return switch(this.strategy) {
+                case LINEAR -> this.initialRatio + (1.0f - this.initialRatio) * progress;
+                // initialRatio * (1 / initialRatio)^progress
+                case EXPONENTIAL -> (float) Math.pow(this.initialRatio, 1.0f - progress);
+            };
+        }
+
+        @Override
+        public void acquirePermission() {
+            if(!this.tryAcquirePermission())
+                throw CallNotPermittedException.createCallNotPermittedException(CircuitBreakerStateMachine.this);
+        }
+
+        @Override
+        public void releasePermission() {
+            // nothing to do
+        }
+
+        @Override
+        public void onSuccess(long duration, TimeUnit unit) {
+            this.checkIfThresholdsExceeded(this.metrics.onSuccess(duration, unit));
+        }
+
+        @Override
+        public void onError(long duration, TimeUnit unit, Throwable t) {
+            this.checkIfThresholdsExceeded(this.metrics.onError(duration, unit));
+        }
+
+        @Override
+        public void onResults(int successes, int failures, int slow, long totalDuration, TimeUnit unit) {
+            this.checkIfThresholdsExceeded(this.metrics.onResults(successes, failures, slow, totalDuration, unit));
+        }
+
+        private void checkIfThresholdsExceeded(CircuitBreakerMetrics.Result result) {
+            if(CircuitBreakerMetrics.Result.hasExceededThresholds(result)) {
+                if(this.isRamping.compareAndSet(true, false)) {
+                    publishCircuitThresholdsExceededEvent(result, this.metrics);
+                    transitionToOpenState();
+                }
+            }
+        }
+
+        @Override
+        public int attempts() {
+            return this.attempts;
+        }
+
+        @Override
+        public State getState() {
+            return CircuitBreaker.State.RAMPING;
+        }
+
+        @Override
+        public CircuitBreakerMetrics getMetrics() {
+            return this.metrics;
+        }
+
+        @Override
+        public void preTransitionHook() {
+            if(this.transitionToClosedFuture != null && !this.transitionToClosedFuture.isDone())
+                this.transitionToClosedFuture.cancel(true);
+        }
+
+        @Override
+        public boolean openFromSharedState() {
+            if(!this.isRamping.compareAndSet(true, false))
+                return false;
+            transitionToOpenState();
+            return true;
+        }
+
+        /**
+         * 切换到CLOSED状态
+         */
+        private synchronized void toClosedState() {
+            if(this.isRamping.compareAndSet(true, false))
+                transitionToClosedState();
+        }
+    }
 }
@@ -5,6 +5,7 @@ import com.github.liyibo1110.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import com.github.liyibo1110.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import com.github.liyibo1110.resilience4j.core.ConfigurationNotFoundException;
 import com.github.liyibo1110.resilience4j.core.RegistryStore;
+import com.github.liyibo1110.resilience4j.core.lang.Nullable;
 import com.github.liyibo1110.resilience4j.core.registry.AbstractRegistry;
 import com.github.liyibo1110.resilience4j.core.registry.InMemoryRegistryStore;
 import com.github.liyibo1110.resilience4j.core.registry.RegistryEventConsumer;
@@ -24,6 +25,11 @@ import java.util.function.Supplier;
  * @date 2026-02-05 16:23
  */
 public final class InMemoryCircuitBreakerRegistry extends AbstractRegistry<CircuitBreaker, CircuitBreakerConfig> implements CircuitBreakerRegistry {
+
+    /** 配置了状态持久化时才有，新建的CircuitBreaker会先从这里恢复状态 */
+    @Nullable
+    private CircuitBreakerStateFile stateFile;
+
     public InMemoryCircuitBreakerRegistry() {
         this(HashMap.empty());
     }
@@ -62,6 +68,16 @@ public final class InMemoryCircuitBreakerRegistry extends AbstractRegistry<Circu
         this.configurations.putAll(configs);
     }
 
+    public InMemoryCircuitBreakerRegistry(Map<String, CircuitBreakerConfig> configs,
+                                          List<RegistryEventConsumer<CircuitBreaker>> registryEventConsumers,
+                                          io.vavr.collection.Map<String, String> tags, RegistryStore<CircuitBreaker> registryStore,
+                                          @Nullable CircuitBreakerStateFile stateFile) {
+        this(configs, registryEventConsumers, tags, registryStore);
+        this.stateFile = stateFile;
+        if(stateFile != null)
+            stateFile.startFlushing(this::getAllCircuitBreakers);
+    }
+
     public InMemoryCircuitBreakerRegistry(Map<String, CircuitBreakerConfig> configs,
                                           List<RegistryEventConsumer<CircuitBreaker>> registryEventConsumers) {
         this(configs.getOrDefault(DEFAULT_CONFIG, CircuitBreakerConfig.ofDefaults()), registryEventConsumers);
@@ -111,7 +127,7 @@ public final class InMemoryCircuitBreakerRegistry extends AbstractRegistry<Circu
 
     @Override
     public CircuitBreaker circuitBreaker(String name, CircuitBreakerConfig config, io.vavr.collection.Map<String, String> tags) {
-        return computeIfAbsent(name, () -> CircuitBreaker.of(name, Objects.requireNonNull(config, CONFIG_MUST_NOT_BE_NULL), getAllTags(tags)));
+        return computeIfAbsent(name, () -> this.restoreState(CircuitBreaker.of(name, Objects.requireNonNull(config, CONFIG_MUST_NOT_BE_NULL), getAllTags(tags))));
     }
 
     @Override
@@ -122,8 +138,8 @@ public final class InMemoryCircuitBreakerRegistry extends AbstractRegistry<Circu
     @Override
     public CircuitBreaker circuitBreaker(String name, String configName,
                                          io.vavr.collection.Map<String, String> tags) {
-        return computeIfAbsent(name, () -> CircuitBreaker.of(name, getConfiguration(configName)
-                .orElseThrow(() -> new ConfigurationNotFoundException(configName)), getAllTags(tags)));
+        return computeIfAbsent(name, () -> this.restoreState(CircuitBreaker.of(name, getConfiguration(configName)
+                .orElseThrow(() -> new ConfigurationNotFoundException(configName)), getAllTags(tags))));
     }
 
     @Override
@@ -134,8 +150,23 @@ public final class InMemoryCircuitBreakerRegistry extends AbstractRegistry<Circu
     @Override
     public CircuitBreaker circuitBreaker(String name, Supplier<CircuitBreakerConfig> configSupplier,
                                          io.vavr.collection.Map<String, String> tags) {
-        return computeIfAbsent(name, () -> CircuitBreaker.of(name, Objects.requireNonNull(
+        return computeIfAbsent(name, () -> this.restoreState(CircuitBreaker.of(name, Objects.requireNonNull(
                 Objects.requireNonNull(configSupplier, SUPPLIER_MUST_NOT_BE_NULL).get(),
-                CONFIG_MUST_NOT_BE_NULL), getAllTags(tags)));
+                CONFIG_MUST_NOT_BE_NULL), getAllTags(tags))));
+    }
+
+    @Override
+    public void close() {
+        if(this.stateFile != null)
+            this.stateFile.close();
+    }
+
+    /**
+     * 新建的CircuitBreaker在放进registry之前，先恢复持久化的状态
+     */
+    private CircuitBreaker restoreState(CircuitBreaker circuitBreaker) {
+        if(this.stateFile != null && circuitBreaker instanceof CircuitBreakerStateMachine)
+            this.stateFile.restore((CircuitBreakerStateMachine) circuitBreaker);
+        return circuitBreaker;
     }
 }
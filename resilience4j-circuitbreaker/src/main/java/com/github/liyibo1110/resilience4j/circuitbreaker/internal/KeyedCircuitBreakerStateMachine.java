@@ -0,0 +1,764 @@
+package com.github.liyibo1110.resilience4j.circuitbreaker.internal;
+
+import com.github.liyibo1110.resilience4j.circuitbreaker.CallNotPermittedException;
+import com.github.liyibo1110.resilience4j.circuitbreaker.CircuitBreaker;
+import com.github.liyibo1110.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import com.github.liyibo1110.resilience4j.circuitbreaker.KeyedCircuitBreaker;
+import com.github.liyibo1110.resilience4j.circuitbreaker.ResultRecordedAsFailureException;
+import com.github.liyibo1110.resilience4j.circuitbreaker.event.CircuitBreakerEvent;
+import com.github.liyibo1110.resilience4j.circuitbreaker.event.CircuitBreakerOnCallNotPermittedEvent;
+import com.github.liyibo1110.resilience4j.circuitbreaker.event.CircuitBreakerOnErrorEvent;
+import com.github.liyibo1110.resilience4j.circuitbreaker.event.CircuitBreakerOnFailureRateExceededEvent;
+import com.github.liyibo1110.resilience4j.circuitbreaker.event.CircuitBreakerOnIgnoredErrorEvent;
+import com.github.liyibo1110.resilience4j.circuitbreaker.event.CircuitBreakerOnResetEvent;
+import com.github.liyibo1110.resilience4j.circuitbreaker.event.CircuitBreakerOnSlowCallRateExceededEvent;
+import com.github.liyibo1110.resilience4j.circuitbreaker.event.CircuitBreakerOnStateTransitionEvent;
+import com.github.liyibo1110.resilience4j.circuitbreaker.event.CircuitBreakerOnSuccessEvent;
+import com.github.liyibo1110.resilience4j.core.EventConsumer;
+import com.github.liyibo1110.resilience4j.core.EventProcessor;
+import com.github.liyibo1110.resilience4j.core.lang.Nullable;
+import com.github.liyibo1110.resilience4j.core.metrics.Thresholds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * KeyedCircuitBreaker的实现类，key被分散到若干个segment里，每个segment是一个线性探测的开放寻址表，
+ * 每个key只占一个引用和三个long：stateWord（状态、熔断周期数，以及OPEN时尝试半开的时间点或HALF_OPEN时已发出的许可数）、
+ * counters（调用数、失败数、慢调用数各21位）、times（最近一次访问时间和窗口开始时间，都是秒数）。
+ * 每个segment用自己的锁保护，锁内只做数组读写，event在释放锁之后才发布。
+ * @author liyibo
+ * @date 2026-10-18 20:30
+ */
+public final class KeyedCircuitBreakerStateMachine<K> implements KeyedCircuitBreaker<K> {
+    private static final Logger LOG = LoggerFactory.getLogger(KeyedCircuitBreakerStateMachine.class);
+
+    /** stateWord的格式：低2位是状态，接下来6位是熔断周期数，剩下的位OPEN时是尝试半开的时间点（clock的毫秒值），HALF_OPEN时是已经发出的许可数 */
+    private static final long STATE_MASK = 0x3;
+    private static final int ATTEMPTS_SHIFT = 2;
+    private static final int MAX_ATTEMPTS = 0x3F;
+    private static final int PAYLOAD_SHIFT = 8;
+
+    private static final int CLOSED = 0;
+    private static final int OPEN = 1;
+    private static final int HALF_OPEN = 2;
+    private static final CircuitBreaker.State[] STATES = {CircuitBreaker.State.CLOSED, CircuitBreaker.State.OPEN, CircuitBreaker.State.HALF_OPEN};
+
+    /** counters的格式：调用数、失败数、慢调用数依次各占21位 */
+    private static final int COUNTER_BITS = 21;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+    private static final int MAX_WINDOW_SIZE = 1 << (COUNTER_BITS - 1);
+
+    /** segment内部操作的返回值，低位是标记和状态码，高32位是阈值超出时的失败率和慢调用率（乘以100之后各占16位） */
+    private static final long PERMITTED = 1;
+    private static final long TRANSITION = 1 << 1;
+    private static final int CURRENT_STATE_SHIFT = 2;
+    private static final int FROM_STATE_SHIFT = 4;
+    private static final int TO_STATE_SHIFT = 6;
+    private static final int EXCEEDED_SHIFT = 8;
+    private static final long EXCEEDED_MASK = Thresholds.FAILURE_RATE_EXCEEDED | Thresholds.SLOW_CALL_RATE_EXCEEDED;
+    private static final int FAILURE_RATE_SHIFT = 32;
+    private static final int SLOW_CALL_RATE_SHIFT = 48;
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+    /** 插入新key但segment已满时，最多抽样多少个key来找淘汰对象 */
+    private static final int EVICTION_SAMPLES = 8;
+
+    private final String name;
+    private final CircuitBreakerConfig circuitBreakerConfig;
+    private final Clock clock;
+    private final long baseMillis;
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final int maxKeys;
+    private final long keyIdleTtlInSeconds;
+
+    private final int windowSize;
+    private final boolean timeBasedWindow;
+    private final long slowCallDurationThresholdInNanos;
+    private final int permittedNumberOfCallsInHalfOpenState;
+    private final Thresholds closedThresholds;
+    private final Thresholds halfOpenThresholds;
+    private final Function<Clock, Long> currentTimestampFunction;
+    private final TimeUnit timestampUnit;
+
+    private final KeyedCircuitBreakerEventProcessor eventProcessor;
+
+    /** 按State的ordinal缓存的CallNotPermittedException，只在启用了preallocatedExceptionEnabled时才会创建 */
+    private final CallNotPermittedException[] preallocatedExceptions;
+
+    public KeyedCircuitBreakerStateMachine(String name, CircuitBreakerConfig config, int maxKeys, Duration keyIdleTtl) {
+        this(name, config, maxKeys, keyIdleTtl, Clock.systemUTC());
+    }
+
+    public KeyedCircuitBreakerStateMachine(String name, CircuitBreakerConfig config, int maxKeys, Duration keyIdleTtl, Clock clock) {
+        if(maxKeys < 1)
+            throw new IllegalArgumentException("maxKeys must be greater than 0");
+        if(keyIdleTtl.getSeconds() < 1)
+            throw new IllegalArgumentException("keyIdleTtl must be at least 1[s]");
+        this.name = name;
+        this.circuitBreakerConfig = Objects.requireNonNull(config, "Config must not be null");
+        this.clock = clock;
+        this.baseMillis = clock.millis();
+        this.maxKeys = maxKeys;
+        this.keyIdleTtlInSeconds = keyIdleTtl.getSeconds();
+
+        // key比较少时减少segment数量，避免每个segment的上限被平均得太小
+        int segmentCount = Math.min(MAX_SEGMENTS, Integer.highestOneBit(Math.max(1, maxKeys / INITIAL_SEGMENT_CAPACITY)));
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+        this.segments = newSegments(segmentCount);
+        int maxKeysPerSegment = Math.max(1, maxKeys / segmentCount);
+        for(int i = 0; i < segmentCount; i++)
+            this.segments[i] = new Segment(maxKeysPerSegment);
+
+        this.windowSize = Math.min(config.getSlidingWindowSize(), MAX_WINDOW_SIZE);
+        this.timeBasedWindow = !config.getSlidingWindowType().isCountBased();
+        this.slowCallDurationThresholdInNanos = config.getSlowCallDurationThreshold().toNanos();
+        this.permittedNumberOfCallsInHalfOpenState = Math.min(config.getPermittedNumberOfCallsInHalfOpenState(), MAX_WINDOW_SIZE);
+        // 按次数衰减的窗口，计数在slidingWindowSize/2到slidingWindowSize之间，所以minimumNumberOfCalls最多取slidingWindowSize/2
+        int minimumNumberOfCalls = this.timeBasedWindow ? config.getMinimumNumberOfCalls()
+                : Math.min(config.getMinimumNumberOfCalls(), Math.max(1, this.windowSize / 2));
+        this.closedThresholds = new Thresholds(minimumNumberOfCalls, config.getFailureRateThreshold(), config.getSlowCallRateThreshold());
+        this.halfOpenThresholds = new Thresholds(this.permittedNumberOfCallsInHalfOpenState, config.getFailureRateThreshold(),
+                config.getSlowCallRateThreshold());
+        this.currentTimestampFunction = config.getCurrentTimestampFunction();
+        this.timestampUnit = config.getTimestampUnit();
+        this.eventProcessor = new KeyedCircuitBreakerEventProcessor();
+        this.preallocatedExceptions = new CallNotPermittedException[CircuitBreaker.State.values().length];
+        if(config.isPreallocatedExceptionEnabled()) {
+            for(CircuitBreaker.State state : STATES)
+                this.preallocatedExceptions[state.ordinal()] = CallNotPermittedException.createPreallocatedCallNotPermittedException(this, state);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Segment[] newSegments(int segmentCount) {
+        // Segment是泛型类的内部类，不能直接创建数组
+        return new KeyedCircuitBreakerStateMachine.Segment[segmentCount];
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public CircuitBreakerConfig getCircuitBreakerConfig() {
+        return this.circuitBreakerConfig;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    @Override
+    public long getCurrentTimestamp() {
+        return this.currentTimestampFunction.apply(clock);
+    }
+
+    @Override
+    public TimeUnit getTimestampUnit() {
+        return this.timestampUnit;
+    }
+
+    @Override
+    public boolean tryAcquirePermission(K key) {
+        long result = this.acquire(key);
+        return (result & PERMITTED) != 0;
+    }
+
+    @Override
+    public void acquirePermission(K key) {
+        long result = this.acquire(key);
+        if((result & PERMITTED) == 0)
+            throw CallNotPermittedException.createCallNotPermittedException(this, key, stateOf(result, CURRENT_STATE_SHIFT));
+    }
+
+    private long acquire(K key) {
+        int hash = hash(key);
+        long result = this.segmentFor(hash).acquire(key, hash, this.clock.millis(), this.now());
+        if((result & (PERMITTED | TRANSITION)) != PERMITTED)
+            this.publishEvents(key, result);
+        return result;
+    }
+
+    @Override
+    public void releasePermission(K key) {
+        int hash = hash(key);
+        this.segmentFor(hash).release(key, hash);
+    }
+
+    @Override
+    public void onSuccess(K key, long duration, TimeUnit unit) {
+        this.publishSuccessEvent(key, duration, unit);
+        this.record(key, false, duration, unit);
+    }
+
+    @Override
+    public void onError(K key, long duration, TimeUnit unit, Throwable t) {
+        if(t instanceof CompletionException || t instanceof ExecutionException)
+            t = t.getCause();
+        if(this.circuitBreakerConfig.getIgnoreExceptionPredicate().test(t)) {   // 是否在ignore名单
+            this.releasePermission(key);
+            if(this.eventProcessor.hasConsumers())
+                this.publishEvent(new CircuitBreakerOnIgnoredErrorEvent(keyName(key), elapsedDuration(duration, unit), t));
+        }else if(this.circuitBreakerConfig.getRecordExceptionPredicate().test(t)) { // 是否在record名单
+            this.publishErrorEvent(key, duration, unit, t);
+            this.record(key, true, duration, unit);
+        }else {
+            this.onSuccess(key, duration, unit);
+        }
+    }
+
+    @Override
+    public void onResult(K key, long duration, TimeUnit unit, @Nullable Object result) {
+        if(result != null && this.circuitBreakerConfig.getRecordResultPredicate().test(result)) {
+            this.publishErrorEvent(key, duration, unit, new ResultRecordedAsFailureException(keyName(key), result));
+            this.record(key, true, duration, unit);
+        }else {
+            this.onSuccess(key, duration, unit);
+        }
+    }
+
+    private void record(K key, boolean failed, long duration, TimeUnit unit) {
+        int hash = hash(key);
+        boolean slow = unit.toNanos(duration) > this.slowCallDurationThresholdInNanos;
+        long result = this.segmentFor(hash).record(key, hash, failed, slow, this.clock.millis(), this.now());
+        if((result & (TRANSITION | (EXCEEDED_MASK << EXCEEDED_SHIFT))) != 0)
+            this.publishEvents(key, result);
+    }
+
+    @Override
+    public CircuitBreaker.State getState(K key) {
+        int hash = hash(key);
+        return STATES[this.segmentFor(hash).stateCode(key, hash)];
+    }
+
+    @Override
+    public void transitionToOpenState(K key) {
+        int hash = hash(key);
+        this.publishEvents(key, this.segmentFor(hash).transition(key, hash, OPEN, this.clock.millis(), this.now()));
+    }
+
+    @Override
+    public void transitionToClosedState(K key) {
+        int hash = hash(key);
+        this.publishEvents(key, this.segmentFor(hash).transition(key, hash, CLOSED, this.clock.millis(), this.now()));
+    }
+
+    @Override
+    public void reset(K key) {
+        int hash = hash(key);
+        int previousState = this.segmentFor(hash).remove(key, hash);
+        if(!this.eventProcessor.hasConsumers())
+            return;
+        if(previousState != CLOSED)
+            this.publishEvent(new CircuitBreakerOnStateTransitionEvent(keyName(key),
+                    CircuitBreaker.StateTransition.transitionBetween(keyName(key), STATES[previousState], CircuitBreaker.State.CLOSED)));
+        this.publishEvent(new CircuitBreakerOnResetEvent(keyName(key)));
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for(Segment segment : this.segments)
+            size += segment.size();
+        return size;
+    }
+
+    @Override
+    public void cleanUp() {
+        int now = this.now();
+        for(Segment segment : this.segments)
+            segment.removeExpired(now);
+    }
+
+    @Override
+    public CircuitBreaker.EventPublisher getEventPublisher() {
+        return this.eventProcessor;
+    }
+
+    /**
+     * 返回按状态缓存的异常，只有启用了preallocatedExceptionEnabled时才可以调用
+     */
+    @Override
+    public CallNotPermittedException getPreallocatedCallNotPermittedException(CircuitBreaker.State state) {
+        return this.preallocatedExceptions[state.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("KeyedCircuitBreaker '%s'", this.name);
+    }
+
+    /**
+     * 当前时间，相对于创建时间的秒数
+     */
+    private int now() {
+        return (int) ((this.clock.millis() - this.baseMillis) / 1000);
+    }
+
+    private Segment segmentFor(int hash) {
+        return this.segments.length == 1 ? this.segments[0] : this.segments[hash >>> this.segmentShift];
+    }
+
+    private static int hash(Object key) {
+        // 乘以黄金分割数打散，只有高位混合了hashCode的所有位，所以segment和slot都从高位取（见Segment.homeOf）
+        return key.hashCode() * 0x9E3779B9;
+    }
+
+    private String keyName(K key) {
+        return this.name + "[" + key + "]";
+    }
+
+    private static CircuitBreaker.State stateOf(long result, int shift) {
+        return STATES[(int) ((result >>> shift) & STATE_MASK)];
+    }
+
+    private static Duration elapsedDuration(long duration, TimeUnit unit) {
+        return Duration.ofNanos(unit.toNanos(duration));
+    }
+
+    private void publishSuccessEvent(K key, long duration, TimeUnit unit) {
+        if(this.eventProcessor.hasConsumers())
+            this.publishEvent(new CircuitBreakerOnSuccessEvent(keyName(key), elapsedDuration(duration, unit)));
+    }
+
+    private void publishErrorEvent(K key, long duration, TimeUnit unit, Throwable t) {
+        if(this.eventProcessor.hasConsumers())
+            this.publishEvent(new CircuitBreakerOnErrorEvent(keyName(key), elapsedDuration(duration, unit), t));
+    }
+
+    /**
+     * 根据segment操作的返回值发布拒绝调用、阈值超出和状态转换event
+     */
+    private void publishEvents(K key, long result) {
+        if(!this.eventProcessor.hasConsumers())
+            return;
+        String keyName = keyName(key);
+        if((result & PERMITTED) == 0 && (result & TRANSITION) == 0)
+            this.publishEvent(new CircuitBreakerOnCallNotPermittedEvent(keyName));
+        long exceeded = (result >>> EXCEEDED_SHIFT) & EXCEEDED_MASK;
+        if((exceeded & Thresholds.FAILURE_RATE_EXCEEDED) != 0)
+            this.publishEvent(new CircuitBreakerOnFailureRateExceededEvent(keyName,
+                    ((result >>> FAILURE_RATE_SHIFT) & 0xFFFF) / 100.0f));
+        if((exceeded & Thresholds.SLOW_CALL_RATE_EXCEEDED) != 0)
+            this.publishEvent(new CircuitBreakerOnSlowCallRateExceededEvent(keyName,
+                    ((result >>> SLOW_CALL_RATE_SHIFT) & 0xFFFF) / 100.0f));
+        if((result & TRANSITION) != 0) {
+            CircuitBreaker.State fromState = stateOf(result, FROM_STATE_SHIFT);
+            CircuitBreaker.State toState = stateOf(result, TO_STATE_SHIFT);
+            if(fromState != toState)
+                this.publishEvent(new CircuitBreakerOnStateTransitionEvent(keyName,
+                        CircuitBreaker.StateTransition.transitionBetween(keyName, fromState, toState)));
+        }
+    }
+
+    private void publishEvent(CircuitBreakerEvent event) {
+        try {
+            this.eventProcessor.consumeEvent(event);
+            LOG.debug("Event {} published: {}", event.getEventType(), event);
+        } catch (Throwable t) {
+            LOG.warn("Failed to handle event {}", event.getEventType(), t);
+        }
+    }
+
+    private static long stateWord(int state, int attempts, long payload) {
+        return (payload << PAYLOAD_SHIFT) | ((long) attempts << ATTEMPTS_SHIFT) | state;
+    }
+
+    private static long transitionResult(int fromState, int toState) {
+        return TRANSITION | ((long) fromState << FROM_STATE_SHIFT) | ((long) toState << TO_STATE_SHIFT)
+                | ((long) toState << CURRENT_STATE_SHIFT);
+    }
+
+    /**
+     * 一个segment：线性探测的开放寻址表，删除时用backward shift，不需要墓碑
+     */
+    private final class Segment {
+        private final int maxSize;
+        private Object[] keys;
+        private long[] stateWords;
+        private long[] counters;
+
+        /** 高32位是最近一次访问时间，低32位是窗口开始时间 */
+        private long[] times;
+        private int size;
+
+        Segment(int maxSize) {
+            this.maxSize = maxSize;
+            this.allocate(Math.min(INITIAL_SEGMENT_CAPACITY, tableSizeFor(maxSize)));
+        }
+
+        private void allocate(int capacity) {
+            this.keys = new Object[capacity];
+            this.stateWords = new long[capacity];
+            this.counters = new long[capacity];
+            this.times = new long[capacity];
+        }
+
+        /**
+         * 装载因子不超过0.75时能放下maxSize个key的容量
+         */
+        private int tableSizeFor(int size) {
+            int capacity = Integer.highestOneBit(Math.max(1, size * 4 / 3 + 1) - 1) << 1;
+            return Math.max(2, capacity);
+        }
+
+        synchronized int size() {
+            return this.size;
+        }
+
+        synchronized long acquire(Object key, int hash, long nowMillis, int now) {
+            int index = this.find(key, hash, now);
+            if(index < 0)
+                return PERMITTED;   // 没有保存的key就是CLOSED
+            long word = this.stateWords[index];
+            int state = (int) (word & STATE_MASK);
+            int attempts = (int) ((word >>> ATTEMPTS_SHIFT) & MAX_ATTEMPTS);
+            long payload = word >>> PAYLOAD_SHIFT;
+            switch(state) {
+                case OPEN -> {
+                    if(nowMillis < payload)
+                        return (long) OPEN << CURRENT_STATE_SHIFT;
+                    // 等待时间已经过了，切换到HALF_OPEN，这次调用就是第一个探测请求
+                    this.stateWords[index] = stateWord(HALF_OPEN, attempts, 1);
+                    this.counters[index] = 0;
+                    return PERMITTED | transitionResult(OPEN, HALF_OPEN);
+                }
+                case HALF_OPEN -> {
+                    if(payload >= permittedNumberOfCallsInHalfOpenState)
+                        return (long) HALF_OPEN << CURRENT_STATE_SHIFT;
+                    this.stateWords[index] = stateWord(HALF_OPEN, attempts, payload + 1);
+                    return PERMITTED | ((long) HALF_OPEN << CURRENT_STATE_SHIFT);
+                }
+                default -> {
+                    return PERMITTED;
+                }
+            }
+        }
+
+        synchronized void release(Object key, int hash) {
+            int index = this.indexOf(key, hash);
+            if(index < 0)
+                return;
+            long word = this.stateWords[index];
+            long payload = word >>> PAYLOAD_SHIFT;
+            if((word & STATE_MASK) == HALF_OPEN && payload > 0)
+                this.stateWords[index] = stateWord(HALF_OPEN, (int) ((word >>> ATTEMPTS_SHIFT) & MAX_ATTEMPTS), payload - 1);
+        }
+
+        synchronized long record(Object key, int hash, boolean failed, boolean slow, long nowMillis, int now) {
+            int index = this.findOrCreate(key, hash, now);
+            long word = this.stateWords[index];
+            int state = (int) (word & STATE_MASK);
+            if(state == OPEN)
+                return (long) OPEN << CURRENT_STATE_SHIFT;  // OPEN状态下完成的调用不再统计
+            long c = this.counters[index];
+            long calls = c & COUNTER_MASK;
+            long failures = (c >>> COUNTER_BITS) & COUNTER_MASK;
+            long slows = (c >>> (2 * COUNTER_BITS)) & COUNTER_MASK;
+            if(state == CLOSED && timeBasedWindow) {
+                // 每过slidingWindowSize秒，计数减半一次
+                int windowStart = (int) this.times[index];
+                int periods = (now - windowStart) / windowSize;
+                if(periods > 0) {
+                    int shift = Math.min(periods, COUNTER_BITS);
+                    calls >>>= shift;
+                    failures >>>= shift;
+                    slows >>>= shift;
+                    this.times[index] = (this.times[index] & 0xFFFFFFFF00000000L) | ((windowStart + periods * windowSize) & 0xFFFFFFFFL);
+                }
+            }
+            calls++;
+            if(failed)
+                failures++;
+            if(slow)
+                slows++;
+            Thresholds thresholds = state == CLOSED ? closedThresholds : halfOpenThresholds;
+            int evaluation = thresholds.evaluate(calls, failures, slows);
+            int attempts = (int) ((word >>> ATTEMPTS_SHIFT) & MAX_ATTEMPTS);
+            if(evaluation > 0) {
+                // 超出阈值，切换到OPEN，HALF_OPEN探测失败时熔断周期数加1
+                int nextAttempts = Math.min(MAX_ATTEMPTS, state == CLOSED ? 1 : attempts + 1);
+                long waitDurationInMillis = circuitBreakerConfig.getWaitIntervalFunctionInOpenState().apply(nextAttempts);
+                this.stateWords[index] = stateWord(OPEN, nextAttempts, nowMillis + waitDurationInMillis);
+                this.counters[index] = 0;
+                long failureRate = Math.round(failures * 10000.0 / calls);
+                long slowCallRate = Math.round(slows * 10000.0 / calls);
+                return transitionResult(state, OPEN) | ((long) evaluation << EXCEEDED_SHIFT)
+                        | (failureRate << FAILURE_RATE_SHIFT) | (slowCallRate << SLOW_CALL_RATE_SHIFT);
+            }
+            if(state == HALF_OPEN && evaluation == Thresholds.BELOW_THRESHOLDS) {
+                // 探测请求都完成了并且没有超出阈值，切换到CLOSED，从新的窗口开始
+                this.stateWords[index] = stateWord(CLOSED, 0, 0);
+                this.counters[index] = 0;
+                this.times[index] = ((long) now << 32) | (now & 0xFFFFFFFFL);
+                return transitionResult(HALF_OPEN, CLOSED);
+            }
+            if(state == CLOSED && !timeBasedWindow && calls > windowSize) {
+                // 按次数统计的窗口，超过slidingWindowSize时全部减半
+                calls >>>= 1;
+                failures >>>= 1;
+                slows >>>= 1;
+            }else if(calls == COUNTER_MASK) {
+                calls >>>= 1;
+                failures >>>= 1;
+                slows >>>= 1;
+            }
+            this.counters[index] = calls | (failures << COUNTER_BITS) | (slows << (2 * COUNTER_BITS));
+            return (long) state << CURRENT_STATE_SHIFT;
+        }
+
+        synchronized int stateCode(Object key, int hash) {
+            int index = this.indexOf(key, hash);
+            if(index < 0 || this.isExpired(index, now()))
+                return CLOSED;
+            return (int) (this.stateWords[index] & STATE_MASK);
+        }
+
+        synchronized long transition(Object key, int hash, int toState, long nowMillis, int now) {
+            int index = this.findOrCreate(key, hash, now);
+            long word = this.stateWords[index];
+            int fromState = (int) (word & STATE_MASK);
+            int attempts = (int) ((word >>> ATTEMPTS_SHIFT) & MAX_ATTEMPTS);
+            if(toState == OPEN) {
+                int nextAttempts = Math.min(MAX_ATTEMPTS, attempts + 1);
+                long waitDurationInMillis = circuitBreakerConfig.getWaitIntervalFunctionInOpenState().apply(nextAttempts);
+                this.stateWords[index] = stateWord(OPEN, nextAttempts, nowMillis + waitDurationInMillis);
+            }else {
+                this.stateWords[index] = stateWord(CLOSED, 0, 0);
+                this.times[index] = ((long) now << 32) | (now & 0xFFFFFFFFL);
+            }
+            this.counters[index] = 0;
+            return transitionResult(fromState, toState);
+        }
+
+        /**
+         * 删除key，返回它原来的状态
+         */
+        synchronized int remove(Object key, int hash) {
+            int index = this.indexOf(key, hash);
+            if(index < 0)
+                return CLOSED;
+            int state = (int) (this.stateWords[index] & STATE_MASK);
+            this.removeAt(index);
+            return state;
+        }
+
+        synchronized void removeExpired(int now) {
+            int index = 0;
+            while(index < this.keys.length) {
+                // 删除之后后面的key可能被移到当前位置，所以要再检查一次当前位置
+                if(this.keys[index] != null && this.isExpired(index, now))
+                    this.removeAt(index);
+                else
+                    index++;
+            }
+        }
+
+        /**
+         * 找到key所在的slot并刷新访问时间，过期的key当作新key重置，没有时返回-1
+         */
+        private int find(Object key, int hash, int now) {
+            int index = this.indexOf(key, hash);
+            if(index >= 0)
+                this.touch(index, now);
+            return index;
+        }
+
+        private int findOrCreate(Object key, int hash, int now) {
+            int index = this.find(key, hash, now);
+            if(index >= 0)
+                return index;
+            if(this.size >= this.maxSize) {
+                this.evictOne(now);
+            }else if(this.size + 1 > this.keys.length * 3 / 4) {
+                this.resize(this.keys.length * 2);
+            }
+            int mask = this.keys.length - 1;
+            index = this.homeOf(hash, mask);
+            while(this.keys[index] != null)
+                index = (index + 1) & mask;
+            this.keys[index] = key;
+            this.stateWords[index] = stateWord(CLOSED, 0, 0);
+            this.counters[index] = 0;
+            this.times[index] = ((long) now << 32) | (now & 0xFFFFFFFFL);
+            this.size++;
+            return index;
+        }
+
+        /**
+         * key在表里的起始位置：乘法的低k位只取决于hashCode的低k位，结构化的hashCode（例如步长为64的Integer）会全部落在同一个位置，
+         * 所以取紧跟在segment位之后的高位，循环左移之后再用mask截取
+         */
+        private int homeOf(int hash, int mask) {
+            return Integer.rotateLeft(hash, 32 - segmentShift + Integer.bitCount(mask)) & mask;
+        }
+
+        private int indexOf(Object key, int hash) {
+            int mask = this.keys.length - 1;
+            for(int index = this.homeOf(hash, mask); ; index = (index + 1) & mask) {
+                Object k = this.keys[index];
+                if(k == null)
+                    return -1;
+                if(k.equals(key))
+                    return index;
+            }
+        }
+
+        private void touch(int index, int now) {
+            if(this.isExpired(index, now)) {
+                this.stateWords[index] = stateWord(CLOSED, 0, 0);
+                this.counters[index] = 0;
+                this.times[index] = ((long) now << 32) | (now & 0xFFFFFFFFL);
+            }else {
+                this.times[index] = ((long) now << 32) | (this.times[index] & 0xFFFFFFFFL);
+            }
+        }
+
+        private boolean isExpired(int index, int now) {
+            return now - (int) (this.times[index] >>> 32) > keyIdleTtlInSeconds;
+        }
+
+        /**
+         * 从随机位置开始抽样几个key，淘汰其中最久没有访问的一个（近似LRU）
+         */
+        private void evictOne(int now) {
+            int mask = this.keys.length - 1;
+            int index = ThreadLocalRandom.current().nextInt(this.keys.length);
+            int victim = -1;
+            int oldestAccess = Integer.MAX_VALUE;
+            for(int sampled = 0, scanned = 0; sampled < EVICTION_SAMPLES && scanned < this.keys.length; scanned++, index = (index + 1) & mask) {
+                if(this.keys[index] == null)
+                    continue;
+                sampled++;
+                int lastAccess = (int) (this.times[index] >>> 32);
+                if(lastAccess < oldestAccess) {
+                    oldestAccess = lastAccess;
+                    victim = index;
+                }
+            }
+            if(victim >= 0)
+                this.removeAt(victim);
+        }
+
+        private void removeAt(int index) {
+            int mask = this.keys.length - 1;
+            int hole = index;
+            int next = index;
+            while(true) {
+                next = (next + 1) & mask;
+                Object k = this.keys[next];
+                if(k == null)
+                    break;
+                int home = this.homeOf(hash(k), mask);
+                // home不在(hole, next]这个环形区间里，说明这个key可以前移到hole的位置
+                boolean movable = hole <= next ? (home <= hole || home > next) : (home <= hole && home > next);
+                if(movable) {
+                    this.keys[hole] = k;
+                    this.stateWords[hole] = this.stateWords[next];
+                    this.counters[hole] = this.counters[next];
+                    this.times[hole] = this.times[next];
+                    hole = next;
+                }
+            }
+            this.keys[hole] = null;
+            this.stateWords[hole] = 0;
+            this.counters[hole] = 0;
+            this.times[hole] = 0;
+            this.size--;
+        }
+
+        private void resize(int capacity) {
+            Object[] oldKeys = this.keys;
+            long[] oldStateWords = this.stateWords;
+            long[] oldCounters = this.counters;
+            long[] oldTimes = this.times;
+            this.allocate(capacity);
+            int mask = capacity - 1;
+            for(int i = 0; i < oldKeys.length; i++) {
+                Object k = oldKeys[i];
+                if(k == null)
+                    continue;
+                int index = this.homeOf(hash(k), mask);
+                while(this.keys[index] != null)
+                    index = (index + 1) & mask;
+                this.keys[index] = k;
+                this.stateWords[index] = oldStateWords[i];
+                this.counters[index] = oldCounters[i];
+                this.times[index] = oldTimes[i];
+            }
+        }
+    }
+
+    /**
+     * 所有key共用的event处理器
+     */
+    private static class KeyedCircuitBreakerEventProcessor extends EventProcessor<CircuitBreakerEvent>
+                implements EventConsumer<CircuitBreakerEvent>, CircuitBreaker.EventPublisher {
+
+        @Override
+        public CircuitBreaker.EventPublisher onSuccess(EventConsumer<CircuitBreakerOnSuccessEvent> eventConsumer) {
+            this.registerConsumer(CircuitBreakerOnSuccessEvent.class.getName(), eventConsumer);
+            return this;
+        }
+
+        @Override
+        public CircuitBreaker.EventPublisher onError(EventConsumer<CircuitBreakerOnErrorEvent> eventConsumer) {
+            this.registerConsumer(CircuitBreakerOnErrorEvent.class.getName(), eventConsumer);
+            return this;
+        }
+
+        @Override
+        public CircuitBreaker.EventPublisher onStateTransition(EventConsumer<CircuitBreakerOnStateTransitionEvent> eventConsumer) {
+            this.registerConsumer(CircuitBreakerOnStateTransitionEvent.class.getName(), eventConsumer);
+            return this;
+        }
+
+        @Override
+        public CircuitBreaker.EventPublisher onReset(EventConsumer<CircuitBreakerOnResetEvent> eventConsumer) {
+            this.registerConsumer(CircuitBreakerOnResetEvent.class.getName(), eventConsumer);
+            return this;
+        }
+
+        @Override
+        public CircuitBreaker.EventPublisher onIgnoredError(EventConsumer<CircuitBreakerOnIgnoredErrorEvent> eventConsumer) {
+            this.registerConsumer(CircuitBreakerOnIgnoredErrorEvent.class.getName(), eventConsumer);
+            return this;
+        }
+
+        @Override
+        public CircuitBreaker.EventPublisher onCallNotPermitted(EventConsumer<CircuitBreakerOnCallNotPermittedEvent> eventConsumer) {
+            this.registerConsumer(CircuitBreakerOnCallNotPermittedEvent.class.getName(), eventConsumer);
+            return this;
+        }
+
+        @Override
+        public CircuitBreaker.EventPublisher onFailureRateExceeded(EventConsumer<CircuitBreakerOnFailureRateExceededEvent> eventConsumer) {
+            this.registerConsumer(CircuitBreakerOnFailureRateExceededEvent.class.getName(), eventConsumer);
+            return this;
+        }
+
+        @Override
+        public CircuitBreaker.EventPublisher onSlowCallRateExceeded(EventConsumer<CircuitBreakerOnSlowCallRateExceededEvent> eventConsumer) {
+            this.registerConsumer(CircuitBreakerOnSlowCallRateExceededEvent.class.getName(), eventConsumer);
+            return this;
+        }
+
+        @Override
+        public void consumeEvent(CircuitBreakerEvent event) {
+            super.processEvent(event);
+        }
+    }
+}
@@ -1,31 +1,48 @@
 package com.github.liyibo1110.resilience4j.circuitbreaker.internal;
 
+import com.github.liyibo1110.resilience4j.core.HashedWheelScheduler;
 import io.vavr.Lazy;
 
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
 
 /**
- * 一个单线程的Schedule线程池的构造工厂（单例并且延迟生成），用来执行特定的守护线程（负责CircuitBreaker状态迁移）
+ * Schedule线程池的构造工厂（单例并且延迟生成），用来执行CircuitBreaker的自动状态迁移。
+ * 默认使用一个CircuitBreaker专用的HashedWheelScheduler，大量CircuitBreaker同时OPEN时调度和取消都是O(1)的，代价是最多一个tick（10毫秒）的延迟；
+ * 状态迁移会同步发布事件，所以不和TimeLimiter、RateLimiter共用进程内共享的时间轮，事件消费者慢的时候只会影响状态迁移本身；
+ * 需要精确迁移时间的话，可以用getSingleThreadInstance换回原来的单线程ScheduledExecutorService。
  * @author liyibo
  * @date 2026-02-05 14:40
  */
 public class SchedulerFactory {
-    private static Lazy<SchedulerFactory> lazyInstance = Lazy.of(SchedulerFactory::new);
+    private static Lazy<SchedulerFactory> lazyInstance = Lazy.of(() -> new SchedulerFactory(
+            () -> new HashedWheelScheduler("CircuitBreakerAutoTransitionWheel")));
 
-    private Lazy<ScheduledExecutorService> lazyScheduler = Lazy
-            .of(() -> Executors.newSingleThreadScheduledExecutor(threadTask -> {
+    private static Lazy<SchedulerFactory> lazySingleThreadInstance = Lazy.of(() -> new SchedulerFactory(
+            () -> Executors.newSingleThreadScheduledExecutor(threadTask -> {
                 Thread t = new Thread(threadTask, "CircuitBreakerAutoTransitionThread");
                 t.setDaemon(true);
                 return t;
-            }));
+            })));
 
-    private SchedulerFactory() {}
+    private Lazy<ScheduledExecutorService> lazyScheduler;
+
+    private SchedulerFactory(Supplier<ScheduledExecutorService> schedulerSupplier) {
+        this.lazyScheduler = Lazy.of(schedulerSupplier);
+    }
 
     public static SchedulerFactory getInstance() {
         return lazyInstance.get();
     }
 
+    /**
+     * 返回使用独立单线程ScheduledExecutorService的工厂
+     */
+    public static SchedulerFactory getSingleThreadInstance() {
+        return lazySingleThreadInstance.get();
+    }
+
     public ScheduledExecutorService getScheduler() {
         return lazyScheduler.get();
     }
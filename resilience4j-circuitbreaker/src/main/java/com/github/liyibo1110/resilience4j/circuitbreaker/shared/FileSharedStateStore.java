@@ -0,0 +1,129 @@
+package com.github.liyibo1110.resilience4j.circuitbreaker.shared;
+
+import com.github.liyibo1110.resilience4j.circuitbreaker.CircuitBreaker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于文件的SharedStateStore实现，每个节点的快照是目录下的一个小文件：{directory}/{circuitBreakerName}/{nodeId}.state，
+ * 写入时先写临时文件再原子rename，所以读的一方不会看到写了一半的内容。
+ * 同一台机器上的多个进程（例如把目录放在/dev/shm上，相当于共享内存），或者挂载了同一个共享目录的多台机器都可以用，
+ * 主要用于测试和小规模部署，节点多了之后每次read都要列目录、读文件，开销比较大。
+ * @author liyibo
+ * @date 2026-10-18 19:00
+ */
+public class FileSharedStateStore implements SharedStateStore {
+    private static final Logger LOG = LoggerFactory.getLogger(FileSharedStateStore.class);
+
+    private static final String FILE_SUFFIX = ".state";
+    private static final String SEPARATOR = ",";
+
+    private final Path directory;
+
+    public FileSharedStateStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void publish(SharedState state) {
+        String content = state.getState().name() + SEPARATOR
+                + state.getTransitionEpoch() + SEPARATOR
+                + state.getNumberOfBufferedCalls() + SEPARATOR
+                + state.getNumberOfFailedCalls() + SEPARATOR
+                + state.getNumberOfSlowCalls() + SEPARATOR
+                + state.getSequence();
+        try {
+            Path dir = Files.createDirectories(this.circuitBreakerDirectory(state.getCircuitBreakerName()));
+            Path tempFile = Files.createTempFile(dir, encode(state.getNodeId()), ".tmp");
+            try {
+                Files.write(tempFile, content.getBytes(StandardCharsets.UTF_8));
+                Files.move(tempFile, dir.resolve(encode(state.getNodeId()) + FILE_SUFFIX),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }finally {
+                Files.deleteIfExists(tempFile);
+            }
+        }catch(IOException e) {
+            throw new UncheckedIOException("Failed to publish shared state of CircuitBreaker '" + state.getCircuitBreakerName() + "'", e);
+        }
+    }
+
+    @Override
+    public List<SharedState> read(String circuitBreakerName) {
+        List<SharedState> states = new ArrayList<>();
+        Path dir = this.circuitBreakerDirectory(circuitBreakerName);
+        if(!Files.isDirectory(dir))
+            return states;
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + FILE_SUFFIX)) {
+            for(Path file : files) {
+                String fileName = file.getFileName().toString();
+                String nodeId = decode(fileName.substring(0, fileName.length() - FILE_SUFFIX.length()));
+                try {
+                    String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+                    states.add(parse(circuitBreakerName, nodeId, content));
+                }catch(NoSuchFileException e) {
+                    // 列目录之后被删掉了，忽略即可
+                }catch(IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                    LOG.debug("Ignored malformed shared state file {}", file, e);
+                }
+            }
+        }catch(IOException e) {
+            throw new UncheckedIOException("Failed to read shared state of CircuitBreaker '" + circuitBreakerName + "'", e);
+        }
+        return states;
+    }
+
+    @Override
+    public void remove(String circuitBreakerName, String nodeId) {
+        try {
+            Files.deleteIfExists(this.circuitBreakerDirectory(circuitBreakerName).resolve(encode(nodeId) + FILE_SUFFIX));
+        }catch(IOException e) {
+            throw new UncheckedIOException("Failed to remove shared state of CircuitBreaker '" + circuitBreakerName + "'", e);
+        }
+    }
+
+    private Path circuitBreakerDirectory(String circuitBreakerName) {
+        return this.directory.resolve(encode(circuitBreakerName));
+    }
+
+    private static SharedState parse(String circuitBreakerName, String nodeId, String content) {
+        String[] fields = content.trim().split(SEPARATOR);
+        return new SharedState(circuitBreakerName, nodeId,
+                CircuitBreaker.State.valueOf(fields[0]),
+                Long.parseLong(fields[1]),
+                Integer.parseInt(fields[2]),
+                Integer.parseInt(fields[3]),
+                Integer.parseInt(fields[4]),
+                Long.parseLong(fields[5]));
+    }
+
+    /**
+     * 名字里可能有路径分隔符之类的字符，编码之后再作为文件名；
+     * URLEncoder不会编码'.'，只由'.'组成的名字（"."、".."）会被解析成当前目录或者上级目录，所以这种名字里的'.'要再转义成%2E，
+     * decode时URLDecoder会还原回来
+     */
+    private static String encode(String name) {
+        String encoded = URLEncoder.encode(name, StandardCharsets.UTF_8);
+        return encoded.chars().allMatch(c -> c == '.') ? encoded.replace(".", "%2E") : encoded;
+    }
+
+    private static String decode(String fileName) {
+        return URLDecoder.decode(fileName, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.liyibo1110.resilience4j.circuitbreaker.shared;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 基于ConcurrentHashMap的进程内SharedStateStore实现，共享同一个实例的CircuitBreaker就相当于同一个集群里的不同节点，
+ * 主要用于测试和单进程内多实例的场景，也可以作为其它实现的参考。
+ * @author liyibo
+ * @date 2026-10-18 19:00
+ */
+public class LoopbackSharedStateStore implements SharedStateStore {
+    private final ConcurrentMap<String, ConcurrentMap<String, SharedState>> states;
+
+    public LoopbackSharedStateStore() {
+        this.states = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void publish(SharedState state) {
+        this.states.computeIfAbsent(state.getCircuitBreakerName(), name -> new ConcurrentHashMap<>())
+                .put(state.getNodeId(), state);
+    }
+
+    @Override
+    public List<SharedState> read(String circuitBreakerName) {
+        Map<String, SharedState> nodes = this.states.get(circuitBreakerName);
+        return nodes == null ? new ArrayList<>() : new ArrayList<>(nodes.values());
+    }
+
+    @Override
+    public void remove(String circuitBreakerName, String nodeId) {
+        Map<String, SharedState> nodes = this.states.get(circuitBreakerName);
+        if(nodes != null)
+            nodes.remove(nodeId);
+    }
+}
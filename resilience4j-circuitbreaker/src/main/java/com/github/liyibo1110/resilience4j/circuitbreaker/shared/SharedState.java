@@ -0,0 +1,83 @@
+package com.github.liyibo1110.resilience4j.circuitbreaker.shared;
+
+import com.github.liyibo1110.resilience4j.circuitbreaker.CircuitBreaker;
+
+/**
+ * 一个节点上某个CircuitBreaker发布到SharedStateStore的快照：当前状态、状态转换的次数，以及CLOSED状态下窗口内的计数。
+ * 快照里不带时间，transitionEpoch和sequence都是发布节点自己的单调计数，只在同一个节点的前后两次快照之间比较，
+ * 接收方用自己的clock记录看到sequence变化的时间来判断staleness，所以节点间的时钟偏差不会影响同步。
+ * @author liyibo
+ * @date 2026-10-18 19:00
+ */
+public final class SharedState {
+    private final String circuitBreakerName;
+    private final String nodeId;
+    private final CircuitBreaker.State state;
+
+    /** 状态转换的次数，每次转换加1，0表示从创建以来还没有转换过 */
+    private final long transitionEpoch;
+    private final int numberOfBufferedCalls;
+    private final int numberOfFailedCalls;
+    private final int numberOfSlowCalls;
+
+    /** 发布的次数，每次发布加1，接收方据此判断快照有没有更新 */
+    private final long sequence;
+
+    public SharedState(String circuitBreakerName, String nodeId, CircuitBreaker.State state, long transitionEpoch,
+                       int numberOfBufferedCalls, int numberOfFailedCalls, int numberOfSlowCalls, long sequence) {
+        this.circuitBreakerName = circuitBreakerName;
+        this.nodeId = nodeId;
+        this.state = state;
+        this.transitionEpoch = transitionEpoch;
+        this.numberOfBufferedCalls = numberOfBufferedCalls;
+        this.numberOfFailedCalls = numberOfFailedCalls;
+        this.numberOfSlowCalls = numberOfSlowCalls;
+        this.sequence = sequence;
+    }
+
+    public String getCircuitBreakerName() {
+        return circuitBreakerName;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public CircuitBreaker.State getState() {
+        return state;
+    }
+
+    public long getTransitionEpoch() {
+        return transitionEpoch;
+    }
+
+    public int getNumberOfBufferedCalls() {
+        return numberOfBufferedCalls;
+    }
+
+    public int getNumberOfFailedCalls() {
+        return numberOfFailedCalls;
+    }
+
+    public int getNumberOfSlowCalls() {
+        return numberOfSlowCalls;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public String toString() {
+        return "SharedState{" +
+                "circuitBreakerName='" + circuitBreakerName + '\'' +
+                ", nodeId='" + nodeId + '\'' +
+                ", state=" + state +
+                ", transitionEpoch=" + transitionEpoch +
+                ", numberOfBufferedCalls=" + numberOfBufferedCalls +
+                ", numberOfFailedCalls=" + numberOfFailedCalls +
+                ", numberOfSlowCalls=" + numberOfSlowCalls +
+                ", sequence=" + sequence +
+                '}';
+    }
+}
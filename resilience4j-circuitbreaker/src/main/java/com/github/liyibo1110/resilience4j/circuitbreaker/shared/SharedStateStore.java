@@ -0,0 +1,27 @@
+package com.github.liyibo1110.resilience4j.circuitbreaker.shared;
+
+import java.util.List;
+
+/**
+ * 多个节点之间共享CircuitBreaker状态的存储SPI，每个节点只写自己的那一份SharedState，读的时候拿到所有节点的。
+ * 只会在后台同步线程里调用，不在调用路径上，所以实现可以是有网络开销的（例如Redis、etcd），但不应该长时间阻塞。
+ * @author liyibo
+ * @date 2026-10-18 19:00
+ */
+public interface SharedStateStore {
+
+    /**
+     * 写入（覆盖）state.nodeId这个节点的快照
+     */
+    void publish(SharedState state);
+
+    /**
+     * 返回指定CircuitBreaker在所有节点上的快照，包括调用方自己的
+     */
+    List<SharedState> read(String circuitBreakerName);
+
+    /**
+     * 删除指定节点的快照，节点上的CircuitBreaker不再使用时调用
+     */
+    void remove(String circuitBreakerName, String nodeId);
+}
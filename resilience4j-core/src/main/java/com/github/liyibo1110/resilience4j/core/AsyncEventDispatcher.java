@@ -0,0 +1,237 @@
+package com.github.liyibo1110.resilience4j.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * EventProcessor的异步分发器：调用线程只负责把事件放进一个有界的无锁MPSC环形队列，
+ * 由唯一的一个后台daemon线程按顺序取出并调用各个消费者，这样慢消费者（例如Micrometer、日志）就不会增加业务调用的延迟。
+ * 一个分发器可以被任意多个EventProcessor共享，通过EventPublisher.dispatchAsync启用。
+ * 队列满时的处理方式由OverflowPolicy决定，被丢弃的事件数可以通过getNumberOfDroppedEvents查询。
+ * 队列的实现参考了Vyukov的有界队列：每个slot有一个序号，生产者CAS抢占tail后写入数据，再发布序号，消费者只有一个，不需要CAS。
+ * close之后才写入成功的事件（生产者和close并发时），会在分发线程退出后由生产者自己同步分发掉，不会滞留在队列里。
+ * @author liyibo
+ * @date 2026-10-18 16:30
+ */
+public class AsyncEventDispatcher implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncEventDispatcher.class);
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int DEFAULT_SAMPLE_RATE = 10;
+
+    /**
+     * 队列满（或接近满）时的处理方式
+     */
+    public enum OverflowPolicy {
+        /** 队列满时直接丢弃新事件 */
+        DROP,
+        /** 队列满时调用线程等待，直到有空位（不会丢事件，但慢消费者会反压到调用线程） */
+        BLOCK,
+        /** 队列超过一半时只保留每sampleRate个事件中的1个，队列满时丢弃 */
+        SAMPLE
+    }
+
+    private final int mask;
+    private final int capacity;
+    private final Object[] events;
+    private final EventProcessor<?>[] processors;
+
+    /** 每个slot的序号，等于写入位置时表示可写，等于写入位置+1时表示可读 */
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail;
+
+    /** 只有分发线程（或者分发线程退出后持有drainLock的生产者）会修改 */
+    private volatile long head;
+
+    /** 分发线程退出后，保证同一时刻只有一个生产者在补发剩余事件 */
+    private final Object drainLock = new Object();
+
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final AtomicLong sampleCounter;
+    private final LongAdder droppedEvents;
+
+    private final Thread dispatcherThread;
+    private volatile boolean dispatcherParked;
+    private volatile boolean running;
+
+    public AsyncEventDispatcher(String name) {
+        this(name, DEFAULT_CAPACITY, OverflowPolicy.DROP, DEFAULT_SAMPLE_RATE);
+    }
+
+    public AsyncEventDispatcher(String name, int capacity, OverflowPolicy overflowPolicy) {
+        this(name, capacity, overflowPolicy, DEFAULT_SAMPLE_RATE);
+    }
+
+    /**
+     * @param capacity 队列容量，会向上取到2的幂
+     * @param sampleRate SAMPLE策略下，队列超过一半时每多少个事件保留1个
+     */
+    public AsyncEventDispatcher(String name, int capacity, OverflowPolicy overflowPolicy, int sampleRate) {
+        if(capacity < 2)
+            throw new IllegalArgumentException("capacity must be greater than 1");
+        if(sampleRate < 1)
+            throw new IllegalArgumentException("sampleRate must be greater than 0");
+        this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.events = new Object[this.capacity];
+        this.processors = new EventProcessor<?>[this.capacity];
+        this.sequences = new AtomicLongArray(this.capacity);
+        for(int i = 0; i < this.capacity; i++)
+            this.sequences.set(i, i);
+        this.tail = new AtomicLong();
+        this.overflowPolicy = overflowPolicy;
+        this.sampleRate = sampleRate;
+        this.sampleCounter = new AtomicLong();
+        this.droppedEvents = new LongAdder();
+        this.running = true;
+        this.dispatcherThread = new Thread(this::dispatchLoop, name);
+        this.dispatcherThread.setDaemon(true);
+        this.dispatcherThread.start();
+    }
+
+    /**
+     * 把事件放入队列，返回false表示事件被丢弃了
+     */
+    <T> boolean submit(EventProcessor<T> processor, T event) {
+        if(!this.running) {
+            this.droppedEvents.increment();
+            return false;
+        }
+        if(this.overflowPolicy == OverflowPolicy.SAMPLE && this.size() > (this.capacity >> 1)
+                && this.sampleCounter.getAndIncrement() % this.sampleRate != 0) {
+            this.droppedEvents.increment();
+            return false;
+        }
+        while(true) {
+            long position = this.tail.get();
+            int index = (int) position & this.mask;
+            long sequence = this.sequences.get(index);
+            if(sequence == position) {
+                if(this.tail.compareAndSet(position, position + 1)) {
+                    this.events[index] = event;
+                    this.processors[index] = processor;
+                    // 发布序号，之前写入的数据对读到这个序号的分发线程可见
+                    this.sequences.lazySet(index, position + 1);
+                    if(this.dispatcherParked)
+                        LockSupport.unpark(this.dispatcherThread);
+                    // 检查running之后、写入之前可能已经close了，分发线程也许已经退出，这时要自己把剩余事件分发掉
+                    if(!this.running)
+                        this.drainAfterClose();
+                    return true;
+                }
+            }else if(sequence < position) {
+                // 队列已满
+                if(this.overflowPolicy != OverflowPolicy.BLOCK || !this.running) {
+                    this.droppedEvents.increment();
+                    return false;
+                }
+                // 消费者在分发线程里又发布了事件，等待只会等到自己，直接同步分发
+                if(Thread.currentThread() == this.dispatcherThread) {
+                    this.dispatchSafely(processor, event);
+                    return true;
+                }
+                LockSupport.unpark(this.dispatcherThread);
+                Thread.onSpinWait();
+            }
+            // sequence > position说明别的生产者已经抢先，重新读取tail即可
+        }
+    }
+
+    private void dispatchLoop() {
+        while(this.running || this.size() > 0) {
+            if(!this.dispatchOne()) {
+                this.dispatcherParked = true;
+                // 设置标记后再检查一次，避免和生产者的unpark错过
+                if(this.size() == 0 && this.running)
+                    LockSupport.parkNanos(this, 1_000_000L);
+                this.dispatcherParked = false;
+            }
+        }
+    }
+
+    /**
+     * 等分发线程退出后，把队列里剩余的事件在当前线程分发掉；分发线程自己调用时什么都不用做，它退出前会分发完
+     */
+    private void drainAfterClose() {
+        if(Thread.currentThread() == this.dispatcherThread)
+            return;
+        boolean interrupted = false;
+        while(this.dispatcherThread.isAlive()) {
+            try {
+                this.dispatcherThread.join();
+            }catch(InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        synchronized(this.drainLock) {
+            while(this.size() > 0) {
+                if(!this.dispatchOne())
+                    Thread.onSpinWait();    // 别的生产者抢到了tail但还没发布序号
+            }
+        }
+        if(interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean dispatchOne() {
+        long position = this.head;
+        int index = (int) position & this.mask;
+        if(this.sequences.get(index) != position + 1)
+            return false;
+        Object event = this.events[index];
+        EventProcessor<Object> processor = (EventProcessor<Object>) this.processors[index];
+        this.events[index] = null;
+        this.processors[index] = null;
+        // 释放slot给下一圈的生产者
+        this.sequences.lazySet(index, position + this.capacity);
+        this.head = position + 1;
+        this.dispatchSafely(processor, event);
+        return true;
+    }
+
+    private <T> void dispatchSafely(EventProcessor<T> processor, T event) {
+        try {
+            processor.dispatch(event);
+        }catch(Throwable t) {
+            LOG.warn("Event consumer failed while dispatching {}", event, t);
+        }
+    }
+
+    /**
+     * 返回队列里还没分发的事件数（近似值）
+     */
+    public int size() {
+        return (int) Math.max(0, this.tail.get() - this.head);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * 返回因为队列满（或采样）而被丢弃的事件数
+     */
+    public long getNumberOfDroppedEvents() {
+        return this.droppedEvents.sum();
+    }
+
+    /**
+     * 停止接收新事件，分发线程会把队列里剩余的事件分发完后退出
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        LockSupport.unpark(this.dispatcherThread);
+    }
+}
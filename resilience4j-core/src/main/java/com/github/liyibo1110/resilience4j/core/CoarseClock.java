@@ -0,0 +1,148 @@
+package com.github.liyibo1110.resilience4j.core;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 低开销的粗粒度时钟：由一个后台daemon线程按固定间隔（默认1毫秒）刷新当前的毫秒值和纳秒值，
+ * 读取时只是一次volatile读，不会调用系统时钟，也不会分配对象（instant()除外，这是Clock接口的要求）。
+ * 本身就是一个Clock，所以可以直接传给需要Clock的组件（例如基于时间的滑动窗口、CircuitBreakerStateMachine），
+ * 另外提供了epochSecond()和单调递增的nanoTime()，供AtomicRateLimiter和StopWatch这类热点路径使用。
+ * 精度就是刷新间隔，所以只适用于能接受毫秒级误差的场景。
+ * create创建的实例各自有一个后台线程，不再使用时要调用close停止它；getInstance返回的共享实例整个进程都在用，close会被忽略。
+ * @author liyibo
+ * @date 2026-10-18 15:05
+ */
+public final class CoarseClock extends Clock implements AutoCloseable {
+    /** 默认的刷新间隔 */
+    public static final long DEFAULT_TICK_INTERVAL_IN_MILLIS = 1;
+
+    private final Ticker ticker;
+    private final ZoneId zone;
+
+    /** 是否是getInstance返回的共享实例 */
+    private final boolean shared;
+
+    private CoarseClock(Ticker ticker, ZoneId zone, boolean shared) {
+        this.ticker = ticker;
+        this.zone = zone;
+        this.shared = shared;
+    }
+
+    /**
+     * 返回进程内共享的实例（UTC时区，1毫秒刷新一次），后台线程在第一次调用时才会启动
+     */
+    public static CoarseClock getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    /**
+     * 创建使用独立后台线程的实例，一般只有需要不同刷新间隔时才需要，不再使用时要调用close
+     */
+    public static CoarseClock create(long tickInterval, TimeUnit unit) {
+        if(tickInterval < 1)
+            throw new IllegalArgumentException("tickInterval must be greater than 0");
+        return new CoarseClock(new Ticker(unit.toNanos(tickInterval)), ZoneOffset.UTC, false);
+    }
+
+    /**
+     * 停止后台线程，之后读到的时间不再前进；withZone得到的实例共享同一个后台线程，会一起停止。共享实例调用会被忽略
+     */
+    @Override
+    public void close() {
+        if(!this.shared)
+            this.ticker.stop();
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return this.zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        if(this.zone.equals(zone))
+            return this;
+        // 共享同一个后台线程，只是时区不同
+        return new CoarseClock(this.ticker, zone, this.shared);
+    }
+
+    @Override
+    public long millis() {
+        return this.ticker.currentTimeMillis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(this.ticker.currentTimeMillis);
+    }
+
+    /**
+     * 返回当前的秒值（从纪元开始）
+     */
+    public long epochSecond() {
+        return this.ticker.currentEpochSecond;
+    }
+
+    /**
+     * 返回缓存的System.nanoTime()值，和System.nanoTime()一样只能用来计算时间差
+     */
+    public long nanoTime() {
+        return this.ticker.currentNanoTime;
+    }
+
+    @Override
+    public String toString() {
+        return "CoarseClock[" + this.zone + ", tick=" + this.ticker.tickIntervalInNanos + "ns]";
+    }
+
+    private static class InstanceHolder {
+        private static final CoarseClock INSTANCE = new CoarseClock(
+                new Ticker(TimeUnit.MILLISECONDS.toNanos(DEFAULT_TICK_INTERVAL_IN_MILLIS)), ZoneOffset.UTC, true);
+    }
+
+    /**
+     * 后台刷新线程和缓存的时间值
+     */
+    private static final class Ticker implements Runnable {
+        private final long tickIntervalInNanos;
+        private volatile long currentTimeMillis;
+        private volatile long currentEpochSecond;
+        private volatile long currentNanoTime;
+        private volatile boolean running = true;
+        private final Thread thread;
+
+        Ticker(long tickIntervalInNanos) {
+            this.tickIntervalInNanos = tickIntervalInNanos;
+            // 先同步刷新一次，保证线程启动前读到的也是有效值
+            this.tick();
+            this.thread = new Thread(this, "resilience4j-coarse-clock");
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        void stop() {
+            this.running = false;
+            LockSupport.unpark(this.thread);
+        }
+
+        private void tick() {
+            long millis = System.currentTimeMillis();
+            this.currentNanoTime = System.nanoTime();
+            this.currentEpochSecond = Math.floorDiv(millis, 1000L);
+            this.currentTimeMillis = millis;
+        }
+
+        @Override
+        public void run() {
+            while(this.running && !Thread.currentThread().isInterrupted()) {
+                LockSupport.parkNanos(this, this.tickIntervalInNanos);
+                this.tick();
+            }
+        }
+    }
+}
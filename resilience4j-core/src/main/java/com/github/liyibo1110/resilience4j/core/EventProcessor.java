@@ -37,6 +37,10 @@ public class EventProcessor<T> implements EventPublisher<T> {
     /** 快速路径优化（fast path），主要用来判断是否为false，即没有消费者，这样就不用再做诸如构造Event实例的事情了 */
     private boolean consumerRegistered;
 
+    /** 异步分发器，为null时在调用线程上同步调用各消费者（默认行为） */
+    @Nullable
+    private volatile AsyncEventDispatcher asyncEventDispatcher;
+
     public boolean hasConsumers() {
         return consumerRegistered;
     }
@@ -62,9 +66,20 @@ public class EventProcessor<T> implements EventPublisher<T> {
     }
 
     /**
-     * 处理传来的事件，只要2种集合内有1个消费者被发送出去了，即返回true
+     * 处理传来的事件，只要2种集合内有1个消费者被发送出去了，即返回true。
+     * 启用了异步分发时只负责把事件放进分发器的队列，返回的是事件是否被接收（没有消费者或者被丢弃时返回false）
      */
     public <E extends T> boolean processEvent(E event) {
+        AsyncEventDispatcher dispatcher = this.asyncEventDispatcher;
+        if(dispatcher != null)
+            return this.consumerRegistered && dispatcher.submit(this, event);
+        return this.dispatch(event);
+    }
+
+    /**
+     * 在当前线程上依次调用各消费者
+     */
+    boolean dispatch(T event) {
         boolean consumed = false;
         final List<EventConsumer<T>> onEventConsumers = this.onEventConsumers;
         // 事件来了，先用onEventConsumers发一圈
@@ -85,6 +100,14 @@ public class EventProcessor<T> implements EventPublisher<T> {
         return consumed;
     }
 
+    /**
+     * 启用（或传null关闭）异步分发，之后的事件都由dispatcher的后台线程调用消费者
+     */
+    @Override
+    public void dispatchAsync(@Nullable AsyncEventDispatcher dispatcher) {
+        this.asyncEventDispatcher = dispatcher;
+    }
+
     @Override
     public synchronized void onEvent(@Nullable EventConsumer<T> onEventConsumer) {
         // 只有在这里才会给onEventConsumers列表增加EventConsumer
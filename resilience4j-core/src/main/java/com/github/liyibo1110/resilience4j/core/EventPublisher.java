@@ -1,5 +1,7 @@
 package com.github.liyibo1110.resilience4j.core;
 
+import com.github.liyibo1110.resilience4j.core.lang.Nullable;
+
 /**
  * 核心事件模型（消费者绑定器）
  * @author liyibo
@@ -8,4 +10,10 @@ package com.github.liyibo1110.resilience4j.core;
 public interface EventPublisher<T> {
 
     void onEvent(EventConsumer<T> onEventConsumer);
+
+    /**
+     * 把事件改为通过AsyncEventDispatcher异步分发给消费者，传null则恢复为在调用线程上同步分发。
+     * 一般直接继承EventProcessor即可，不是基于EventProcessor的实现要自己把事件交给dispatcher（见EventProcessor.processEvent）
+     */
+    void dispatchAsync(@Nullable AsyncEventDispatcher dispatcher);
 }
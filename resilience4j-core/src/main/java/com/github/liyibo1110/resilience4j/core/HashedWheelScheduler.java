@@ -0,0 +1,372 @@
+package com.github.liyibo1110.resilience4j.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于哈希时间轮（hashed timing wheel）的ScheduledExecutorService实现，适合大量短任务、且经常被取消的延迟调度，
+ * 例如成千上万个CircuitBreaker的OPEN -> HALF_OPEN状态迁移，以及TimeLimiter的超时检测。
+ * 和ScheduledThreadPoolExecutor的堆相比，schedule和cancel都是O(1)的：
+ * 新任务先进入一个无锁队列，由唯一的worker线程在每个tick把它们挂到对应的槽位上，取消的任务也是交给worker线程从槽位链表上摘除，
+ * 所以槽位链表只有worker线程会访问，不需要任何锁。
+ * 代价是精度：任务最多会延迟一个tick（默认10毫秒）才执行，并且所有任务都在worker线程上执行，所以任务本身必须足够短。
+ * shutdown之后不再接收新任务，尚未到期的任务也不会再执行；getSharedInstance返回的共享实例整个进程都在用，它的shutdown会被忽略。
+ * 任务里如果要完成CompletableFuture、发布事件之类可能跑很久的操作，应该交给别的Executor去做，worker线程上只做判断和转交。
+ * @author liyibo
+ * @date 2026-10-18 17:00
+ */
+public class HashedWheelScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+    private static final Logger LOG = LoggerFactory.getLogger(HashedWheelScheduler.class);
+
+    public static final long DEFAULT_TICK_DURATION_IN_MILLIS = 10;
+    public static final int DEFAULT_TICKS_PER_WHEEL = 512;
+
+    /** 每个tick最多转移的新任务数，避免worker线程被大量新任务拖住 */
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickDurationInNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+
+    /** 所有deadline都是相对于startTime的纳秒值 */
+    private final long startTime;
+
+    private final Queue<WheelTask<?>> pendingTasks = new ConcurrentLinkedQueue<>();
+    private final Queue<WheelTask<?>> cancelledTasks = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private volatile boolean shutdown;
+
+    /** 是否是getSharedInstance返回的共享实例 */
+    private final boolean shared;
+
+    /** 只有worker线程访问：下一个要处理的tick */
+    private long tick;
+
+    public HashedWheelScheduler(String name) {
+        this(name, DEFAULT_TICK_DURATION_IN_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_TICKS_PER_WHEEL);
+    }
+
+    /**
+     * @param tickDuration 每个tick的时长，也就是调度精度
+     * @param ticksPerWheel 时间轮的槽位数，会向上取到2的幂
+     */
+    public HashedWheelScheduler(String name, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        this(name, tickDuration, unit, ticksPerWheel, false);
+    }
+
+    private HashedWheelScheduler(String name, long tickDuration, TimeUnit unit, int ticksPerWheel, boolean shared) {
+        if(tickDuration < 1)
+            throw new IllegalArgumentException("tickDuration must be greater than 0");
+        if(ticksPerWheel < 1 || ticksPerWheel > (1 << 30))
+            throw new IllegalArgumentException("ticksPerWheel must be between 1 and 2^30");
+        this.tickDurationInNanos = unit.toNanos(tickDuration);
+        int size = ticksPerWheel == 1 ? 1 : Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        this.wheel = new Bucket[size];
+        for(int i = 0; i < size; i++)
+            this.wheel[i] = new Bucket();
+        this.mask = size - 1;
+        this.shared = shared;
+        this.startTime = System.nanoTime();
+        this.worker = new Thread(this::workerLoop, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * 返回进程内共享的实例（10毫秒一个tick），worker线程在第一次调用时才会启动
+     */
+    public static HashedWheelScheduler getSharedInstance() {
+        return SharedInstanceHolder.INSTANCE;
+    }
+
+    public long getTickDurationInNanos() {
+        return tickDurationInNanos;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return this.enqueue(new WheelTask<Void>(command, null, this.deadlineOf(delay, unit), 0));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return this.enqueue(new WheelTask<>(callable, this.deadlineOf(delay, unit)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        if(period <= 0)
+            throw new IllegalArgumentException("period must be greater than 0");
+        return this.enqueue(new WheelTask<Void>(command, null, this.deadlineOf(initialDelay, unit), unit.toNanos(period)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        if(delay <= 0)
+            throw new IllegalArgumentException("delay must be greater than 0");
+        // 负数的period表示fixed delay，和ScheduledThreadPoolExecutor的约定一样
+        return this.enqueue(new WheelTask<Void>(command, null, this.deadlineOf(initialDelay, unit), -unit.toNanos(delay)));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        this.schedule(command, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 共享实例不能被某一个使用者关掉，调用会被忽略
+     */
+    @Override
+    public void shutdown() {
+        if(this.shared) {
+            LOG.warn("Ignored shutdown of the shared HashedWheelScheduler");
+            return;
+        }
+        this.shutdown = true;
+        LockSupport.unpark(this.worker);
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        this.shutdown();
+        if(!this.shutdown)
+            return new ArrayList<>();
+        List<Runnable> unprocessed = new ArrayList<>();
+        WheelTask<?> task;
+        while((task = this.pendingTasks.poll()) != null) {
+            if(!task.isCancelled())
+                unprocessed.add(task);
+        }
+        return unprocessed;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return this.shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return this.shutdown && !this.worker.isAlive();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        this.worker.join(Math.max(1, unit.toMillis(timeout)));
+        return this.isTerminated();
+    }
+
+    private long deadlineOf(long delay, TimeUnit unit) {
+        return System.nanoTime() - this.startTime + Math.max(0, unit.toNanos(delay));
+    }
+
+    private <V> WheelTask<V> enqueue(WheelTask<V> task) {
+        if(this.shutdown)
+            throw new RejectedExecutionException("HashedWheelScheduler " + this.worker.getName() + " has been shut down");
+        this.pendingTasks.add(task);
+        return task;
+    }
+
+    private void workerLoop() {
+        while(!this.shutdown) {
+            long now = this.waitForNextTick();
+            if(now < 0)
+                break;
+            this.removeCancelledTasks();
+            this.transferPendingTasks();
+            this.wheel[(int) (this.tick & this.mask)].expire(now);
+            this.tick++;
+        }
+        // 停止后清理掉所有槽位，让任务可以被回收
+        for(Bucket bucket : this.wheel)
+            bucket.clear();
+        this.pendingTasks.clear();
+        this.cancelledTasks.clear();
+    }
+
+    /**
+     * 睡到下一个tick的时间点，返回当前的相对时间，被shutdown时返回-1
+     */
+    private long waitForNextTick() {
+        long deadline = this.tickDurationInNanos * (this.tick + 1);
+        while(true) {
+            long now = System.nanoTime() - this.startTime;
+            if(now >= deadline)
+                return now;
+            if(this.shutdown)
+                return -1;
+            LockSupport.parkNanos(this, deadline - now);
+        }
+    }
+
+    private void removeCancelledTasks() {
+        WheelTask<?> task;
+        while((task = this.cancelledTasks.poll()) != null) {
+            if(task.bucket != null)
+                task.bucket.remove(task);
+        }
+    }
+
+    private void transferPendingTasks() {
+        for(int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            WheelTask<?> task = this.pendingTasks.poll();
+            if(task == null)
+                return;
+            if(task.isCancelled())
+                continue;
+            long calculated = task.deadline / this.tickDurationInNanos;
+            task.remainingRounds = (calculated - this.tick) / this.wheel.length;
+            // 已经过期的任务放到当前tick的槽位上，马上就会执行
+            long ticks = Math.max(calculated, this.tick);
+            this.wheel[(int) (ticks & this.mask)].add(task);
+        }
+    }
+
+    private static class SharedInstanceHolder {
+        private static final HashedWheelScheduler INSTANCE = new HashedWheelScheduler("resilience4j-hashed-wheel-scheduler",
+                DEFAULT_TICK_DURATION_IN_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_TICKS_PER_WHEEL, true);
+    }
+
+    /**
+     * 时间轮的一个槽位，双向链表，只有worker线程访问
+     */
+    private static final class Bucket {
+        private WheelTask<?> head;
+        private WheelTask<?> tail;
+
+        void add(WheelTask<?> task) {
+            task.bucket = this;
+            if(this.head == null) {
+                this.head = this.tail = task;
+            }else {
+                this.tail.next = task;
+                task.prev = this.tail;
+                this.tail = task;
+            }
+        }
+
+        void expire(long now) {
+            WheelTask<?> task = this.head;
+            while(task != null) {
+                WheelTask<?> next = task.next;
+                if(task.isCancelled()) {
+                    this.remove(task);
+                }else if(task.remainingRounds <= 0) {
+                    this.remove(task);
+                    try {
+                        task.run();
+                    }catch(Throwable t) {
+                        LOG.warn("A task raised an exception in HashedWheelScheduler", t);
+                    }
+                    // 任务在执行中被cancel(true)时会中断worker线程（例如状态迁移时取消自己的Future），清掉中断标记
+                    Thread.interrupted();
+                }else {
+                    task.remainingRounds--;
+                }
+                task = next;
+            }
+        }
+
+        void remove(WheelTask<?> task) {
+            if(task.bucket != this)
+                return;
+            WheelTask<?> next = task.next;
+            if(task.prev != null)
+                task.prev.next = next;
+            if(next != null)
+                next.prev = task.prev;
+            if(task == this.head)
+                this.head = next;
+            if(task == this.tail)
+                this.tail = task.prev;
+            task.prev = null;
+            task.next = null;
+            task.bucket = null;
+        }
+
+        void clear() {
+            while(this.head != null)
+                this.remove(this.head);
+        }
+    }
+
+    /**
+     * 时间轮上的任务，结果和取消语义由FutureTask提供
+     */
+    private final class WheelTask<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+        /** 相对于startTime的纳秒值 */
+        private long deadline;
+
+        /** 0表示一次性任务，正数表示fixed rate，负数表示fixed delay */
+        private final long period;
+
+        /** 以下字段只有worker线程访问 */
+        private long remainingRounds;
+        private Bucket bucket;
+        private WheelTask<?> prev;
+        private WheelTask<?> next;
+
+        WheelTask(Runnable runnable, V result, long deadline, long period) {
+            super(runnable, result);
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        WheelTask(Callable<V> callable, long deadline) {
+            super(callable);
+            this.deadline = deadline;
+            this.period = 0;
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return this.period != 0;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(this.deadline - (System.nanoTime() - startTime), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if(other == this)
+                return 0;
+            return Long.compare(this.getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public void run() {
+            if(!this.isPeriodic()) {
+                super.run();
+            }else if(super.runAndReset() && !shutdown) {
+                this.deadline = this.period > 0 ? this.deadline + this.period : System.nanoTime() - startTime - this.period;
+                pendingTasks.add(this);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            // 交给worker线程从槽位上摘除，这样取消的任务不会一直占着内存直到它的deadline
+            if(cancelled && !shutdown)
+                cancelledTasks.add(this);
+            return cancelled;
+        }
+    }
+}
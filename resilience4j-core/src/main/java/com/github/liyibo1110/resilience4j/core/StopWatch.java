@@ -2,27 +2,43 @@ package com.github.liyibo1110.resilience4j.core;
 
 import java.time.Clock;
 import java.time.Duration;
-import java.time.Instant;
+import java.util.function.LongSupplier;
 
 /**
- * 简单的计时工具，只能统计开始和停止之间的时间段值，内部使用的是JDK自带的Clock组件
+ * 简单的计时工具，只能统计开始和停止之间的时间段值。
+ * 默认使用System.nanoTime()计时（单调递增，不受系统时间调整影响，也不分配Instant），
+ * 如果传入的是CoarseClock，则使用它缓存的nanoTime，其余Clock实现则退化为毫秒精度。
  * @author liyibo
  * @date 2026-02-02 17:46
  */
 public class StopWatch {
-    private final Instant startTime;
-    private Clock clock;
+    private final long startTimeInNanos;
+    private final LongSupplier nanoTime;
 
     StopWatch(Clock clock) {
-        this.startTime = clock.instant();
-        this.clock = clock;
+        this(nanoTimeOf(clock));
+    }
+
+    private StopWatch(LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        this.startTimeInNanos = nanoTime.getAsLong();
     }
 
     public static StopWatch start() {
-        return new StopWatch(Clock.systemUTC());
+        return new StopWatch(System::nanoTime);
+    }
+
+    public static StopWatch start(Clock clock) {
+        return new StopWatch(clock);
     }
 
     public Duration stop() {
-        return Duration.between(this.startTime, this.clock.instant());
+        return Duration.ofNanos(this.nanoTime.getAsLong() - this.startTimeInNanos);
+    }
+
+    private static LongSupplier nanoTimeOf(Clock clock) {
+        if(clock instanceof CoarseClock coarseClock)
+            return coarseClock::nanoTime;
+        return () -> clock.millis() * 1_000_000L;
     }
 }
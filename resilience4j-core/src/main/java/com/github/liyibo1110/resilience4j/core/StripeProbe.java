@@ -0,0 +1,43 @@
+package com.github.liyibo1110.resilience4j.core;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 每个线程一个探针值，用来选择分段（stripe）结构里自己要写入的stripe，作用和LongAdder（Striped64）里的probe一样：
+ * 平时一直使用同一个stripe，在某个stripe上CAS失败（说明和别的线程撞上了）时调用advance换一个，
+ * 这样两个热点线程即使一开始落在同一个stripe上，也不会永远互相竞争。
+ * @author liyibo
+ * @date 2026-10-18 23:40
+ */
+public final class StripeProbe {
+
+    /** 用int[]包一层，advance时不需要重新set */
+    private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(() -> new int[] {initialProbe()});
+
+    private StripeProbe() {}
+
+    /**
+     * 当前线程的探针值，总是非0
+     */
+    public static int get() {
+        return PROBE.get()[0];
+    }
+
+    /**
+     * CAS失败后调用，用xorshift换一个探针值并返回
+     */
+    public static int advance() {
+        int[] holder = PROBE.get();
+        int probe = holder[0];
+        probe ^= probe << 13;
+        probe ^= probe >>> 17;
+        probe ^= probe << 5;
+        holder[0] = probe;
+        return probe;
+    }
+
+    private static int initialProbe() {
+        int probe = ThreadLocalRandom.current().nextInt();
+        return probe == 0 ? 1 : probe;
+    }
+}
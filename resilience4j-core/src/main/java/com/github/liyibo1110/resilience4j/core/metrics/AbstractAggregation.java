@@ -3,12 +3,20 @@ package com.github.liyibo1110.resilience4j.core.metrics;
 import java.util.concurrent.TimeUnit;
 
 /**
- * 统计值聚合器的骨架
+ * 统计值聚合器的骨架。
+ * 用时按纳秒精度累加，为了不溢出，总用时拆成了秒 + 纳秒余数两部分保存（和Duration的表示方式一样），
+ * 同时记录最短和最长用时，没有调用时二者分别为Long.MAX_VALUE和Long.MIN_VALUE。
  * @author liyibo
  * @date 2026-02-04 18:06
  */
 class AbstractAggregation {
-    long totalDurationInMillis = 0;
+    static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    long totalDurationInSeconds = 0;
+    /** 总用时不足1秒的部分，范围是[0, NANOS_PER_SECOND) */
+    long totalDurationNanoAdjustment = 0;
+    long minDurationInNanos = Long.MAX_VALUE;
+    long maxDurationInNanos = Long.MIN_VALUE;
     int numberOfSlowCalls = 0;
     int numberOfSlowFailedCalls = 0;
     int numberOfFailedCalls = 0;
@@ -19,7 +27,12 @@ class AbstractAggregation {
      */
     void record(long duration, TimeUnit unit, Metrics.Outcome outcome) {
         this.numberOfCalls++;
-        this.totalDurationInMillis += unit.toMillis(duration);
+        long durationInNanos = unit.toNanos(duration);
+        this.addDuration(durationInNanos);
+        if(durationInNanos < this.minDurationInNanos)
+            this.minDurationInNanos = durationInNanos;
+        if(durationInNanos > this.maxDurationInNanos)
+            this.maxDurationInNanos = durationInNanos;
         switch(outcome) {
             case SLOW_SUCCESS -> this.numberOfSlowCalls++;
             case SLOW_ERROR -> {
@@ -30,4 +43,49 @@ class AbstractAggregation {
             case ERROR -> numberOfFailedCalls++;
         }
     }
+
+    /**
+     * 记录一批call，最短/最长用时按这批call的平均用时计算
+     */
+    void recordBatch(int numberOfCalls, int numberOfFailedCalls, int numberOfSlowCalls, int numberOfSlowFailedCalls,
+                     long totalDurationInNanos) {
+        if(numberOfCalls == 0)
+            return;
+        this.numberOfCalls += numberOfCalls;
+        this.numberOfFailedCalls += numberOfFailedCalls;
+        this.numberOfSlowCalls += numberOfSlowCalls;
+        this.numberOfSlowFailedCalls += numberOfSlowFailedCalls;
+        this.addDuration(totalDurationInNanos);
+        long averageDurationInNanos = totalDurationInNanos / numberOfCalls;
+        if(averageDurationInNanos < this.minDurationInNanos)
+            this.minDurationInNanos = averageDurationInNanos;
+        if(averageDurationInNanos > this.maxDurationInNanos)
+            this.maxDurationInNanos = averageDurationInNanos;
+    }
+
+    /**
+     * 累加用时，纳秒余数满1秒时进位
+     */
+    void addDuration(long durationInNanos) {
+        this.totalDurationInSeconds += Math.floorDiv(durationInNanos, NANOS_PER_SECOND);
+        this.totalDurationNanoAdjustment += Math.floorMod(durationInNanos, NANOS_PER_SECOND);
+        if(this.totalDurationNanoAdjustment >= NANOS_PER_SECOND) {
+            this.totalDurationNanoAdjustment -= NANOS_PER_SECOND;
+            this.totalDurationInSeconds++;
+        }
+    }
+
+    /**
+     * 清空所有统计值
+     */
+    void clear() {
+        this.totalDurationInSeconds = 0;
+        this.totalDurationNanoAdjustment = 0;
+        this.minDurationInNanos = Long.MAX_VALUE;
+        this.maxDurationInNanos = Long.MIN_VALUE;
+        this.numberOfSlowCalls = 0;
+        this.numberOfFailedCalls = 0;
+        this.numberOfSlowFailedCalls = 0;
+        this.numberOfCalls = 0;
+    }
 }
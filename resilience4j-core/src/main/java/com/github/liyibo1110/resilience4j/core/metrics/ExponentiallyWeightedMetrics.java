@@ -0,0 +1,156 @@
+package com.github.liyibo1110.resilience4j.core.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于指数加权移动平均（EWMA）的Metrics实现，不保存任何bucket，每个实例只占用几个long，适合breaker数量非常多的场景。
+ * 失败率、慢调用率、慢调用失败率和平均用时都是EWMA，权重alpha = 2 / (windowSize + 1)，即和windowSize次调用的窗口有相近的记忆长度。
+ * 调用次数不足时，权重取1/n，也就是退化为精确的算术平均，避免冷启动时被初始值0拉低。
+ * 4个EWMA两两打包成float存放在AtomicLong的高低32位里，更新全部是无锁的CAS，不需要加锁也不会分配对象。
+ * 调用次数最多只统计到windowSize，和FixedSizeSlidingWindowMetrics的语义保持一致。
+ * 注意EWMA只有平均值，Snapshot里的各计数都是由比率 * 调用次数换算出来的近似值，最短/最长用时也都近似为平均用时。
+ * @author liyibo
+ * @date 2026-10-18 15:40
+ */
+public class ExponentiallyWeightedMetrics implements Metrics {
+    private final int windowSize;
+
+    /** 稳定状态下每次调用的权重 */
+    private final float alpha;
+
+    /** 调用次数，达到windowSize后不再增加 */
+    private final AtomicLong numberOfCalls;
+
+    /** 高32位：失败率，低32位：慢调用率（都是0-1之间的float） */
+    private final AtomicLong failureAndSlowCallRate;
+
+    /** 高32位：慢调用失败率（0-1之间的float），低32位：平均用时（纳秒，float） */
+    private final AtomicLong slowFailureRateAndLatency;
+
+    public ExponentiallyWeightedMetrics(int windowSize) {
+        if(windowSize < 1)
+            throw new IllegalArgumentException("windowSize must be greater than 0");
+        this.windowSize = windowSize;
+        this.alpha = 2.0f / (windowSize + 1);
+        this.numberOfCalls = new AtomicLong();
+        this.failureAndSlowCallRate = new AtomicLong();
+        this.slowFailureRateAndLatency = new AtomicLong();
+    }
+
+    @Override
+    public Snapshot record(long duration, TimeUnit unit, Outcome outcome) {
+        this.update(duration, unit, outcome);
+        return this.getSnapshot();
+    }
+
+    @Override
+    public int recordAndEvaluate(long duration, TimeUnit unit, Outcome outcome, Thresholds thresholds) {
+        long calls = this.update(duration, unit, outcome);
+        long rates = this.failureAndSlowCallRate.get();
+        return thresholds.evaluateRates(calls, high(rates) * 100.0f, low(rates) * 100.0f);
+    }
+
+    /**
+     * 一批call合起来只做一次EWMA更新：样本取这批call的各比率和平均用时，权重取连续更新n次的等效权重1 - (1 - alpha)^n
+     */
+    @Override
+    public int recordBatchAndEvaluate(int numberOfCalls, int numberOfFailedCalls, int numberOfSlowCalls,
+                                      int numberOfSlowFailedCalls, long totalDuration, TimeUnit unit, Thresholds thresholds) {
+        long calls;
+        if(numberOfCalls > 0) {
+            calls = this.incrementNumberOfCalls(numberOfCalls);
+            float weight = Math.min(1.0f, Math.max(1.0f - (float) Math.pow(1.0f - this.alpha, numberOfCalls),
+                    (float) numberOfCalls / calls));
+            update(this.failureAndSlowCallRate, weight, (float) numberOfFailedCalls / numberOfCalls,
+                    (float) numberOfSlowCalls / numberOfCalls);
+            update(this.slowFailureRateAndLatency, weight, (float) numberOfSlowFailedCalls / numberOfCalls,
+                    (float) unit.toNanos(totalDuration) / numberOfCalls);
+        }else {
+            calls = this.numberOfCalls.get();
+        }
+        long rates = this.failureAndSlowCallRate.get();
+        return thresholds.evaluateRates(calls, high(rates) * 100.0f, low(rates) * 100.0f);
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        int calls = (int) this.numberOfCalls.get();
+        long rates = this.failureAndSlowCallRate.get();
+        long slowFailureRateAndLatency = this.slowFailureRateAndLatency.get();
+        long averageDurationInNanos = (long) low(slowFailureRateAndLatency);
+        // 平均用时 * 调用次数可能超出long的纳秒范围，所以拆成秒 + 纳秒余数来乘
+        long averageSeconds = averageDurationInNanos / AbstractAggregation.NANOS_PER_SECOND;
+        long averageNanos = averageDurationInNanos % AbstractAggregation.NANOS_PER_SECOND;
+        long totalNanos = averageNanos * calls;
+        long totalSeconds = averageSeconds * calls + totalNanos / AbstractAggregation.NANOS_PER_SECOND;
+        return new SnapshotImpl(totalSeconds, totalNanos % AbstractAggregation.NANOS_PER_SECOND,
+                averageDurationInNanos, averageDurationInNanos,
+                Math.round(low(rates) * calls), Math.round(high(slowFailureRateAndLatency) * calls),
+                Math.round(high(rates) * calls), calls);
+    }
+
+    /**
+     * 更新各EWMA，返回更新后的调用次数
+     */
+    private long update(long duration, TimeUnit unit, Outcome outcome) {
+        long calls = this.incrementNumberOfCalls();
+        // 冷启动阶段用1/n作为权重，等价于算术平均
+        float weight = Math.max(this.alpha, 1.0f / calls);
+        float failed = 0;
+        float slow = 0;
+        float slowFailed = 0;
+        switch(outcome) {
+            case ERROR -> failed = 1;
+            case SLOW_SUCCESS -> slow = 1;
+            case SLOW_ERROR -> {
+                failed = 1;
+                slow = 1;
+                slowFailed = 1;
+            }
+        }
+        update(this.failureAndSlowCallRate, weight, failed, slow);
+        update(this.slowFailureRateAndLatency, weight, slowFailed, (float) unit.toNanos(duration));
+        return calls;
+    }
+
+    private long incrementNumberOfCalls() {
+        return this.incrementNumberOfCalls(1);
+    }
+
+    private long incrementNumberOfCalls(int delta) {
+        long current;
+        while((current = this.numberOfCalls.get()) < this.windowSize) {
+            long updated = Math.min(this.windowSize, current + delta);
+            if(this.numberOfCalls.compareAndSet(current, updated))
+                return updated;
+        }
+        return current;
+    }
+
+    /**
+     * 用CAS同时更新打包在一起的2个EWMA
+     */
+    private static void update(AtomicLong packed, float weight, float highSample, float lowSample) {
+        while(true) {
+            long current = packed.get();
+            float high = high(current);
+            float low = low(current);
+            long updated = pack(high + weight * (highSample - high), low + weight * (lowSample - low));
+            if(packed.compareAndSet(current, updated))
+                return;
+        }
+    }
+
+    private static long pack(float high, float low) {
+        return ((long) Float.floatToRawIntBits(high) << 32) | (Float.floatToRawIntBits(low) & 0xFFFFFFFFL);
+    }
+
+    private static float high(long packed) {
+        return Float.intBitsToFloat((int) (packed >>> 32));
+    }
+
+    private static float low(long packed) {
+        return Float.intBitsToFloat((int) packed);
+    }
+}
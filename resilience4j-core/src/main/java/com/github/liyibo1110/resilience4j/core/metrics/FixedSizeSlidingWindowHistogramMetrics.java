@@ -0,0 +1,78 @@
+package com.github.liyibo1110.resilience4j.core.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在FixedSizeSlidingWindowMetrics的基础上，额外维护窗口内调用的延迟直方图，Snapshot可以返回p50/p90/p99/p999。
+ * 每个bucket只对应1次调用（或者1个batch），所以不需要每个bucket一份直方图，只记录该次调用落在哪个直方图桶即可，
+ * bucket被顶替时从总直方图里减掉对应的次数，record的开销仍然是O(1)。batch里的所有条目都按平均用时计入同一个直方图桶。
+ * @author liyibo
+ * @date 2026-10-18 14:30
+ */
+public class FixedSizeSlidingWindowHistogramMetrics extends FixedSizeSlidingWindowMetrics {
+    /** 每个bucket对应调用所在的直方图桶下标，-1表示bucket还没被用过 */
+    private final int[] latencyIndexes;
+
+    /** 每个bucket对应的条目数，单次调用是1，batch是它的条目数 */
+    private final int[] latencyCounts;
+
+    /** 窗口内所有调用的延迟直方图 */
+    private final LatencyHistogram totalHistogram;
+
+    public FixedSizeSlidingWindowHistogramMetrics(int windowSize) {
+        super(windowSize);
+        this.latencyIndexes = new int[windowSize];
+        for(int i = 0; i < windowSize; i++)
+            this.latencyIndexes[i] = -1;
+        this.latencyCounts = new int[windowSize];
+        this.totalHistogram = new LatencyHistogram();
+    }
+
+    @Override
+    public synchronized Snapshot record(long duration, TimeUnit unit, Outcome outcome) {
+        this.recordWithLatency(duration, unit, outcome);
+        return new HistogramSnapshot(this.refreshedAggregation(), this.totalHistogram);
+    }
+
+    @Override
+    public synchronized int recordAndEvaluate(long duration, TimeUnit unit, Outcome outcome, Thresholds thresholds) {
+        this.recordWithLatency(duration, unit, outcome);
+        return this.totalAggregation.evaluate(thresholds, this.totalHistogram);
+    }
+
+    @Override
+    public synchronized int recordBatchAndEvaluate(int numberOfCalls, int numberOfFailedCalls, int numberOfSlowCalls,
+                                                   int numberOfSlowFailedCalls, long totalDuration, TimeUnit unit, Thresholds thresholds) {
+        if(numberOfCalls > 0) {
+            long totalDurationInNanos = unit.toNanos(totalDuration);
+            this.recordBatchInWindow(numberOfCalls, numberOfFailedCalls, numberOfSlowCalls, numberOfSlowFailedCalls, totalDurationInNanos);
+            int index = LatencyHistogram.indexOf(totalDurationInNanos / numberOfCalls);
+            this.latencyIndexes[this.headIndex] = index;
+            this.latencyCounts[this.headIndex] = numberOfCalls;
+            this.totalHistogram.record(index, numberOfCalls);
+        }
+        return this.totalAggregation.evaluate(thresholds, this.totalHistogram);
+    }
+
+    @Override
+    public synchronized Snapshot getSnapshot() {
+        return new HistogramSnapshot(this.refreshedAggregation(), this.totalHistogram);
+    }
+
+    private void recordWithLatency(long duration, TimeUnit unit, Outcome outcome) {
+        this.recordInWindow(duration, unit, outcome);
+        int index = LatencyHistogram.indexOf(unit.toNanos(duration));
+        this.latencyIndexes[this.headIndex] = index;
+        this.latencyCounts[this.headIndex] = 1;
+        this.totalHistogram.record(index);
+    }
+
+    @Override
+    void onBucketEvicted(int index) {
+        int latencyIndex = this.latencyIndexes[index];
+        if(latencyIndex >= 0) {
+            this.totalHistogram.remove(latencyIndex, this.latencyCounts[index]);
+            this.latencyIndexes[index] = -1;
+        }
+    }
+}
@@ -8,6 +8,8 @@ import java.util.concurrent.TimeUnit;
  * 以增量方式更新总聚合值，当record新的结果时，总聚合值会进行增量更新。
  * 当最旧的测量值被移除时，测量值会从总测量值减去。
  * 由于snapshot时预先聚合的，并且与窗口大小无关，因此检索snapshot的时间是O(1)，空间需求是O(n)。
+ * 批量记录（recordBatchAndEvaluate）时整个batch只占用1个bucket，所以窗口保存的是最近N次记录（单次call或者一个batch），
+ * 而各计数和比率仍然是按条目计算的。
  * @author liyibo
  * @date 2026-02-04 21:41
  */
@@ -16,7 +18,7 @@ public class FixedSizeSlidingWindowMetrics implements Metrics {
     private final int windowSize;
 
     /** 总统计器（注意是统计windowSize次数的总和，不是无限累加） */
-    private final TotalAggregation totalAggregation;
+    final TotalAggregation totalAggregation;
 
     /** 环形数组（bucket），新值会顶替最老的值，每个Measurement就是这个bucket的累加统计 */
     private final Measurement[] measurements;
@@ -35,15 +37,60 @@ public class FixedSizeSlidingWindowMetrics implements Metrics {
 
     @Override
     public Snapshot record(long duration, TimeUnit unit, Outcome outcome) {
+        this.recordInWindow(duration, unit, outcome);
+        return new SnapshotImpl(this.refreshedAggregation());
+    }
+
+    @Override
+    public int recordAndEvaluate(long duration, TimeUnit unit, Outcome outcome, Thresholds thresholds) {
+        this.recordInWindow(duration, unit, outcome);
+        return this.totalAggregation.evaluate(thresholds);
+    }
+
+    @Override
+    public int recordBatchAndEvaluate(int numberOfCalls, int numberOfFailedCalls, int numberOfSlowCalls,
+                                      int numberOfSlowFailedCalls, long totalDuration, TimeUnit unit, Thresholds thresholds) {
+        if(numberOfCalls > 0)
+            this.recordBatchInWindow(numberOfCalls, numberOfFailedCalls, numberOfSlowCalls, numberOfSlowFailedCalls, unit.toNanos(totalDuration));
+        return this.totalAggregation.evaluate(thresholds);
+    }
+
+    /**
+     * 把一次call计入窗口，执行完后headIndex指向的就是这次写入的bucket
+     */
+    void recordInWindow(long duration, TimeUnit unit, Outcome outcome) {
         // 先计入总统计器
         this.totalAggregation.record(duration, unit, outcome);
         // 切换到下一个bucket，清理后记录新统计
         this.moveWindowByOne().record(duration, unit, outcome);
-        return new SnapshotImpl(this.totalAggregation);
+    }
+
+    /**
+     * 把一批call计入窗口，整个batch只占用1个bucket
+     */
+    void recordBatchInWindow(int numberOfCalls, int numberOfFailedCalls, int numberOfSlowCalls, int numberOfSlowFailedCalls,
+                             long totalDurationInNanos) {
+        this.totalAggregation.recordBatch(numberOfCalls, numberOfFailedCalls, numberOfSlowCalls, numberOfSlowFailedCalls, totalDurationInNanos);
+        this.moveWindowByOne().recordBatch(numberOfCalls, numberOfFailedCalls, numberOfSlowCalls, numberOfSlowFailedCalls, totalDurationInNanos);
+    }
+
+    /**
+     * 返回最值已经刷新过的总统计器，用于创建Snapshot
+     */
+    TotalAggregation refreshedAggregation() {
+        this.totalAggregation.refreshExtrema(this.measurements);
+        return this.totalAggregation;
+    }
+
+    /**
+     * bucket即将被清理时的钩子方法，子类可以同步清理自己额外维护的统计
+     */
+    void onBucketEvicted(int index) {
+        // nothing to do
     }
 
     public synchronized Snapshot getSnapshot() {
-        return new SnapshotImpl(this.totalAggregation);
+        return new SnapshotImpl(this.refreshedAggregation());
     }
 
     /**
@@ -57,6 +104,7 @@ public class FixedSizeSlidingWindowMetrics implements Metrics {
          */
         Measurement bucket = this.getLatestMeasurement();
         this.totalAggregation.removeBucket(bucket);
+        this.onBucketEvicted(this.headIndex);
         bucket.reset();
         return bucket;
     }
@@ -0,0 +1,41 @@
+package com.github.liyibo1110.resilience4j.core.metrics;
+
+import java.time.Duration;
+
+/**
+ * 带延迟百分位的Snapshot，创建时已经从直方图算好了p50/p90/p99/p999，其余百分位需要保留直方图副本现算
+ * @author liyibo
+ * @date 2026-10-18 14:20
+ */
+class HistogramSnapshot extends SnapshotImpl {
+
+    private final long p50InNanos;
+    private final long p90InNanos;
+    private final long p99InNanos;
+    private final long p999InNanos;
+    private final LatencyHistogram histogram;
+
+    HistogramSnapshot(TotalAggregation totalAggregation, LatencyHistogram histogram) {
+        super(totalAggregation);
+        this.p50InNanos = histogram.percentileInNanos(50.0);
+        this.p90InNanos = histogram.percentileInNanos(90.0);
+        this.p99InNanos = histogram.percentileInNanos(99.0);
+        this.p999InNanos = histogram.percentileInNanos(99.9);
+        // 窗口里的直方图会继续变化，这里复制一份保证快照不可变
+        this.histogram = new LatencyHistogram();
+        this.histogram.add(histogram);
+    }
+
+    @Override
+    public Duration getPercentileDuration(double percentile) {
+        if(percentile == 50.0)
+            return Duration.ofNanos(p50InNanos);
+        if(percentile == 90.0)
+            return Duration.ofNanos(p90InNanos);
+        if(percentile == 99.0)
+            return Duration.ofNanos(p99InNanos);
+        if(percentile == 99.9)
+            return Duration.ofNanos(p999InNanos);
+        return Duration.ofNanos(histogram.percentileInNanos(percentile));
+    }
+}
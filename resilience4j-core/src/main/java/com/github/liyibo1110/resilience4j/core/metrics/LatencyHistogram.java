@@ -0,0 +1,117 @@
+package com.github.liyibo1110.resilience4j.core.metrics;
+
+import java.util.Arrays;
+
+/**
+ * 对数-线性分桶的延迟直方图（思路和HdrHistogram一致），计数全部存放在一个long[]里。
+ * 值以微秒为单位：小于8的值每个值一个桶，之后每个2的幂区间再线性分成8个子桶，所以相对误差不超过12.5%，
+ * 最大可以表示约2^40微秒（约12天），超过的值全部计入最后一个桶。
+ * 和TotalAggregation一样支持增量地加上/减去另一个直方图，所以窗口轮转时总直方图只需要O(桶数)的减法。
+ * @author liyibo
+ * @date 2026-10-18 14:10
+ */
+class LatencyHistogram {
+    /** 每个2的幂区间被线性切成的子桶数 = 2^SUB_BUCKET_BITS */
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+
+    /** 最大的指数，值超过2^(MAX_EXPONENT+1)微秒时计入最后一个桶 */
+    private static final int MAX_EXPONENT = 39;
+
+    static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final long[] counts;
+    private long totalCount;
+
+    LatencyHistogram() {
+        this.counts = new long[BUCKET_COUNT];
+    }
+
+    /**
+     * 计算纳秒值所属的桶下标
+     */
+    static int indexOf(long nanos) {
+        long micros = nanos <= 0 ? 0 : nanos / 1000;
+        if(micros < SUB_BUCKET_COUNT)
+            return (int) micros;
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if(exponent > MAX_EXPONENT)
+            return BUCKET_COUNT - 1;
+        int shift = exponent - SUB_BUCKET_BITS;
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + (int) ((micros >>> shift) & SUB_BUCKET_MASK);
+    }
+
+    /**
+     * 返回桶能表示的最大值（纳秒），即百分位数的保守估计值
+     */
+    static long highestValueInNanos(int index) {
+        if(index < SUB_BUCKET_COUNT)
+            return index * 1000L;
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        long subBucket = SUB_BUCKET_COUNT + (index & SUB_BUCKET_MASK);
+        return (((subBucket + 1) << shift) - 1) * 1000L;
+    }
+
+    void record(int index) {
+        this.counts[index]++;
+        this.totalCount++;
+    }
+
+    void record(int index, long count) {
+        this.counts[index] += count;
+        this.totalCount += count;
+    }
+
+    void remove(int index, long count) {
+        this.counts[index] -= count;
+        this.totalCount -= count;
+    }
+
+    /**
+     * 加上另一个直方图的各计数
+     */
+    void add(LatencyHistogram other) {
+        for(int i = 0; i < BUCKET_COUNT; i++)
+            this.counts[i] += other.counts[i];
+        this.totalCount += other.totalCount;
+    }
+
+    /**
+     * 减去另一个直方图的各计数
+     */
+    void remove(LatencyHistogram other) {
+        if(other.totalCount == 0)
+            return;
+        for(int i = 0; i < BUCKET_COUNT; i++)
+            this.counts[i] -= other.counts[i];
+        this.totalCount -= other.totalCount;
+    }
+
+    void reset() {
+        if(this.totalCount == 0)
+            return;
+        Arrays.fill(this.counts, 0L);
+        this.totalCount = 0;
+    }
+
+    long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * 返回指定百分位（0-100）的延迟，单位纳秒，没有样本时返回0
+     */
+    long percentileInNanos(double percentile) {
+        if(this.totalCount == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * this.totalCount));
+        long cumulative = 0;
+        for(int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += this.counts[i];
+            if(cumulative >= rank)
+                return highestValueInNanos(i);
+        }
+        return highestValueInNanos(BUCKET_COUNT - 1);
+    }
+}
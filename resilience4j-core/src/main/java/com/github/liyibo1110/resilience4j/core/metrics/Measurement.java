@@ -8,10 +8,6 @@ package com.github.liyibo1110.resilience4j.core.metrics;
 class Measurement extends AbstractAggregation{
 
     void reset() {
-        this.totalDurationInMillis = 0;
-        this.numberOfSlowCalls = 0;
-        this.numberOfFailedCalls = 0;
-        this.numberOfSlowFailedCalls = 0;
-        this.numberOfCalls = 0;
+        this.clear();
     }
 }
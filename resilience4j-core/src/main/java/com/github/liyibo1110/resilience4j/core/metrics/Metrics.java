@@ -15,6 +15,55 @@ public interface Metrics {
 
     Snapshot getSnapshot();
 
+    /**
+     * 记录一次call，并直接返回阈值判断结果（见Thresholds里的常量），用于热点路径上代替record + Snapshot，
+     * 默认实现仍然会创建Snapshot，各个窗口实现会直接从聚合值计算，不分配任何对象。
+     */
+    default int recordAndEvaluate(long duration, TimeUnit unit, Outcome outcome, Thresholds thresholds) {
+        Snapshot snapshot = this.record(duration, unit, outcome);
+        return thresholds.evaluate(snapshot.getTotalNumberOfCalls(), snapshot.getNumberOfFailedCalls(),
+                snapshot.getTotalNumberOfSlowCalls());
+    }
+
+    /**
+     * 一次记录一批call（例如一次下游调用里包含的多个条目），并直接返回阈值判断结果，各计数都按条目计算。
+     * numberOfSlowCalls和numberOfFailedCalls都包含了numberOfSlowFailedCalls，totalDuration是所有条目用时的总和。
+     * 默认实现会逐个调用recordAndEvaluate（每个条目取平均用时），各窗口实现会一次性更新当前bucket。
+     */
+    default int recordBatchAndEvaluate(int numberOfCalls, int numberOfFailedCalls, int numberOfSlowCalls,
+                                       int numberOfSlowFailedCalls, long totalDuration, TimeUnit unit, Thresholds thresholds) {
+        if(numberOfCalls == 0) {
+            Snapshot snapshot = this.getSnapshot();
+            return thresholds.evaluate(snapshot.getTotalNumberOfCalls(), snapshot.getNumberOfFailedCalls(),
+                    snapshot.getTotalNumberOfSlowCalls());
+        }
+        long averageDuration = totalDuration / numberOfCalls;
+        int numberOfSuccessfulCalls = numberOfCalls - numberOfFailedCalls;
+        int numberOfSlowSuccessfulCalls = numberOfSlowCalls - numberOfSlowFailedCalls;
+        int failed = 0;
+        int succeeded = 0;
+        int result = Thresholds.BELOW_MINIMUM_CALLS;
+        for(int i = 0; i < numberOfCalls; i++) {
+            Outcome outcome;
+            // 按比例把失败和慢调用均匀地穿插在整个batch里，这样batch比窗口还大时，留在窗口里的条目也能保持原来的比例
+            if(spread(i, numberOfFailedCalls, numberOfCalls)) {
+                outcome = spread(failed++, numberOfSlowFailedCalls, numberOfFailedCalls) ? Outcome.SLOW_ERROR : Outcome.ERROR;
+            }else {
+                outcome = spread(succeeded++, numberOfSlowSuccessfulCalls, numberOfSuccessfulCalls)
+                        ? Outcome.SLOW_SUCCESS : Outcome.SUCCESS;
+            }
+            result = this.recordAndEvaluate(averageDuration, unit, outcome, thresholds);
+        }
+        return result;
+    }
+
+    /**
+     * 把count个元素均匀地分布在total个位置上，判断第index个位置是否应该放一个
+     */
+    private static boolean spread(int index, int count, int total) {
+        return (long) (index + 1) * count / total > (long) index * count / total;
+    }
+
     /**
      * 统计结果类型
      */
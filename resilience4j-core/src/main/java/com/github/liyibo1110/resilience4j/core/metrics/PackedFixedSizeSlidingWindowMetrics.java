@@ -0,0 +1,232 @@
+package com.github.liyibo1110.resilience4j.core.metrics;
+
+import com.github.liyibo1110.resilience4j.core.lang.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 和FixedSizeSlidingWindowMetrics语义相同的基于次数的滑动窗口，但是不再为每次调用分配一个Measurement对象：
+ * 每次调用的结果只需要2个bit（是否失败、是否慢调用），打包存放在long[]里（每个long存32次调用），
+ * 用时则存放在一个long[]里（纳秒），所以每次调用大约只占8.25字节，而Measurement加上数组引用要60多字节。
+ * 各计数和总用时仍然是增量维护的，record和snapshot都是O(1)；
+ * 最短/最长用时和TotalAggregation的做法一样，被顶替的调用持有最值时才标记过期，等创建Snapshot时再扫描一遍用时数组。
+ * 和FixedSizeSlidingWindowMetrics一样，一个batch（recordBatchAndEvaluate）只占用1个slot，
+ * batch的4个计数打包存放在另外2个long[]里（第一次记录batch时才分配），slot上的用时是整个batch的总用时，最值按平均用时计算。
+ * @author liyibo
+ * @date 2026-10-18 16:05
+ */
+public class PackedFixedSizeSlidingWindowMetrics implements Metrics {
+    private static final int FAILED = 1;
+    private static final int SLOW = 1 << 1;
+
+    /** 每次调用的结果占用的bit数，以及每个long能存放的调用数 */
+    private static final int BITS_PER_OUTCOME = 2;
+    private static final int OUTCOMES_PER_WORD = Long.SIZE / BITS_PER_OUTCOME;
+    private static final long OUTCOME_MASK = (1L << BITS_PER_OUTCOME) - 1;
+
+    private final int windowSize;
+
+    /** 每次调用的结果，2bit一个 */
+    private final long[] outcomes;
+
+    /** 每次调用的用时（纳秒） */
+    private final long[] durations;
+
+    /** 这一次要写入新统计值的slot下标 */
+    private int headIndex;
+
+    /** 已经写入过的slot数量，窗口填满之前，新调用不会顶替任何旧调用 */
+    private int filledSlots;
+
+    /** batch占用的slot上的[调用次数|失败次数]，单次调用的slot上是0 */
+    @Nullable
+    private long[] batchCallsAndFailed;
+
+    /** batch占用的slot上的[慢调用次数|慢调用失败次数] */
+    @Nullable
+    private long[] batchSlowAndSlowFailed;
+
+    private int numberOfCalls;
+    private int numberOfFailedCalls;
+    private int numberOfSlowCalls;
+    private int numberOfSlowFailedCalls;
+    private long totalDurationInSeconds;
+    private long totalDurationNanoAdjustment;
+    private long minDurationInNanos = Long.MAX_VALUE;
+    private long maxDurationInNanos = Long.MIN_VALUE;
+    private boolean extremaStale;
+
+    public PackedFixedSizeSlidingWindowMetrics(int windowSize) {
+        if(windowSize < 1)
+            throw new IllegalArgumentException("windowSize must be greater than 0");
+        this.windowSize = windowSize;
+        this.outcomes = new long[(windowSize + OUTCOMES_PER_WORD - 1) / OUTCOMES_PER_WORD];
+        this.durations = new long[windowSize];
+    }
+
+    @Override
+    public synchronized Snapshot record(long duration, TimeUnit unit, Outcome outcome) {
+        this.recordInWindow(unit.toNanos(duration), outcome);
+        return this.createSnapshot();
+    }
+
+    @Override
+    public synchronized int recordAndEvaluate(long duration, TimeUnit unit, Outcome outcome, Thresholds thresholds) {
+        this.recordInWindow(unit.toNanos(duration), outcome);
+        return thresholds.evaluate(this.numberOfCalls, this.numberOfFailedCalls, this.numberOfSlowCalls);
+    }
+
+    @Override
+    public synchronized int recordBatchAndEvaluate(int numberOfCalls, int numberOfFailedCalls, int numberOfSlowCalls,
+                                                   int numberOfSlowFailedCalls, long totalDuration, TimeUnit unit, Thresholds thresholds) {
+        if(numberOfCalls > 0)
+            this.recordBatchInWindow(numberOfCalls, numberOfFailedCalls, numberOfSlowCalls, numberOfSlowFailedCalls, unit.toNanos(totalDuration));
+        return thresholds.evaluate(this.numberOfCalls, this.numberOfFailedCalls, this.numberOfSlowCalls);
+    }
+
+    @Override
+    public synchronized Snapshot getSnapshot() {
+        return this.createSnapshot();
+    }
+
+    private void recordInWindow(long durationInNanos, Outcome outcome) {
+        int index = this.claimHeadSlot();
+        if(this.batchCallsAndFailed != null)
+            this.batchCallsAndFailed[index] = 0;
+
+        int bits = switch(outcome) {
+            case SUCCESS -> 0;
+            case ERROR -> FAILED;
+            case SLOW_SUCCESS -> SLOW;
+            case SLOW_ERROR -> FAILED | SLOW;
+        };
+        int word = index / OUTCOMES_PER_WORD;
+        int shift = (index % OUTCOMES_PER_WORD) * BITS_PER_OUTCOME;
+        this.outcomes[word] = (this.outcomes[word] & ~(OUTCOME_MASK << shift)) | ((long) bits << shift);
+        this.durations[index] = durationInNanos;
+
+        this.numberOfCalls++;
+        if((bits & FAILED) != 0)
+            this.numberOfFailedCalls++;
+        if((bits & SLOW) != 0) {
+            this.numberOfSlowCalls++;
+            if((bits & FAILED) != 0)
+                this.numberOfSlowFailedCalls++;
+        }
+        this.addDuration(durationInNanos);
+        if(durationInNanos < this.minDurationInNanos)
+            this.minDurationInNanos = durationInNanos;
+        if(durationInNanos > this.maxDurationInNanos)
+            this.maxDurationInNanos = durationInNanos;
+    }
+
+    /**
+     * 把一批call计入窗口，整个batch只占用1个slot
+     */
+    private void recordBatchInWindow(int numberOfCalls, int numberOfFailedCalls, int numberOfSlowCalls, int numberOfSlowFailedCalls,
+                                     long totalDurationInNanos) {
+        int index = this.claimHeadSlot();
+        if(this.batchCallsAndFailed == null) {
+            this.batchCallsAndFailed = new long[this.windowSize];
+            this.batchSlowAndSlowFailed = new long[this.windowSize];
+        }
+        this.batchCallsAndFailed[index] = ((long) numberOfCalls << 32) | numberOfFailedCalls;
+        this.batchSlowAndSlowFailed[index] = ((long) numberOfSlowCalls << 32) | numberOfSlowFailedCalls;
+        this.durations[index] = totalDurationInNanos;
+
+        this.numberOfCalls += numberOfCalls;
+        this.numberOfFailedCalls += numberOfFailedCalls;
+        this.numberOfSlowCalls += numberOfSlowCalls;
+        this.numberOfSlowFailedCalls += numberOfSlowFailedCalls;
+        this.addDuration(totalDurationInNanos);
+        long averageDurationInNanos = totalDurationInNanos / numberOfCalls;
+        if(averageDurationInNanos < this.minDurationInNanos)
+            this.minDurationInNanos = averageDurationInNanos;
+        if(averageDurationInNanos > this.maxDurationInNanos)
+            this.maxDurationInNanos = averageDurationInNanos;
+    }
+
+    /**
+     * 返回这一次要写入的slot并把headIndex后移，窗口已满时先把要被顶替的旧记录从总计数里减掉
+     */
+    private int claimHeadSlot() {
+        int index = this.headIndex;
+        if(this.filledSlots == this.windowSize)
+            this.remove(index);
+        else
+            this.filledSlots++;
+        this.headIndex = index + 1 == this.windowSize ? 0 : index + 1;
+        return index;
+    }
+
+    /**
+     * 从总计数里减掉slot上的旧记录（单次调用或者一个batch）
+     */
+    private void remove(int index) {
+        long callsAndFailed = this.batchCallsAndFailed != null ? this.batchCallsAndFailed[index] : 0;
+        if(callsAndFailed != 0) {
+            long slowAndSlowFailed = this.batchSlowAndSlowFailed[index];
+            this.numberOfCalls -= (int) (callsAndFailed >>> 32);
+            this.numberOfFailedCalls -= (int) callsAndFailed;
+            this.numberOfSlowCalls -= (int) (slowAndSlowFailed >>> 32);
+            this.numberOfSlowFailedCalls -= (int) slowAndSlowFailed;
+        }else {
+            int bits = (int) ((this.outcomes[index / OUTCOMES_PER_WORD] >>> ((index % OUTCOMES_PER_WORD) * BITS_PER_OUTCOME)) & OUTCOME_MASK);
+            this.numberOfCalls--;
+            if((bits & FAILED) != 0)
+                this.numberOfFailedCalls--;
+            if((bits & SLOW) != 0) {
+                this.numberOfSlowCalls--;
+                if((bits & FAILED) != 0)
+                    this.numberOfSlowFailedCalls--;
+            }
+        }
+        long durationInNanos = this.durations[index];
+        this.totalDurationInSeconds -= Math.floorDiv(durationInNanos, AbstractAggregation.NANOS_PER_SECOND);
+        this.totalDurationNanoAdjustment -= Math.floorMod(durationInNanos, AbstractAggregation.NANOS_PER_SECOND);
+        if(this.totalDurationNanoAdjustment < 0) {
+            this.totalDurationNanoAdjustment += AbstractAggregation.NANOS_PER_SECOND;
+            this.totalDurationInSeconds--;
+        }
+        long extremum = this.extremumAt(index);
+        if(extremum <= this.minDurationInNanos || extremum >= this.maxDurationInNanos)
+            this.extremaStale = true;
+    }
+
+    /**
+     * slot参与最值计算的用时：单次调用就是它的用时，batch是平均用时
+     */
+    private long extremumAt(int index) {
+        long callsAndFailed = this.batchCallsAndFailed != null ? this.batchCallsAndFailed[index] : 0;
+        if(callsAndFailed != 0)
+            return this.durations[index] / (callsAndFailed >>> 32);
+        return this.durations[index];
+    }
+
+    private void addDuration(long durationInNanos) {
+        this.totalDurationInSeconds += Math.floorDiv(durationInNanos, AbstractAggregation.NANOS_PER_SECOND);
+        this.totalDurationNanoAdjustment += Math.floorMod(durationInNanos, AbstractAggregation.NANOS_PER_SECOND);
+        if(this.totalDurationNanoAdjustment >= AbstractAggregation.NANOS_PER_SECOND) {
+            this.totalDurationNanoAdjustment -= AbstractAggregation.NANOS_PER_SECOND;
+            this.totalDurationInSeconds++;
+        }
+    }
+
+    private Snapshot createSnapshot() {
+        if(this.extremaStale) {
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for(int i = 0; i < this.filledSlots; i++) {
+                long extremum = this.extremumAt(i);
+                min = Math.min(min, extremum);
+                max = Math.max(max, extremum);
+            }
+            this.minDurationInNanos = min;
+            this.maxDurationInNanos = max;
+            this.extremaStale = false;
+        }
+        return new SnapshotImpl(this.totalDurationInSeconds, this.totalDurationNanoAdjustment,
+                this.minDurationInNanos, this.maxDurationInNanos, this.numberOfSlowCalls, this.numberOfSlowFailedCalls,
+                this.numberOfFailedCalls, this.numberOfCalls);
+    }
+}
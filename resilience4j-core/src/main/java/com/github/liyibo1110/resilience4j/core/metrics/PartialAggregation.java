@@ -8,22 +8,30 @@ package com.github.liyibo1110.resilience4j.core.metrics;
  */
 public class PartialAggregation extends AbstractAggregation {
 
-    private long epochSecond;
+    /** 时间片序号（纪元毫秒 / bucket宽度），bucket宽度为1秒时就是秒值 */
+    private long epochBucket;
 
-    PartialAggregation(long epochSecond) {
-        this.epochSecond = epochSecond;
+    PartialAggregation(long epochBucket) {
+        this.epochBucket = epochBucket;
     }
 
-    void reset(long epochSecond) {
-        this.epochSecond = epochSecond;
-        this.totalDurationInMillis = 0;
-        this.numberOfSlowCalls = 0;
-        this.numberOfFailedCalls = 0;
-        this.numberOfSlowFailedCalls = 0;
-        this.numberOfCalls = 0;
+    void reset(long epochBucket) {
+        this.epochBucket = epochBucket;
+        this.clear();
     }
 
+    /**
+     * 返回bucket的时间片序号，bucket宽度为1秒时就是秒值
+     */
+    public long getEpochBucket() {
+        return epochBucket;
+    }
+
+    /**
+     * 改名之前的方法，保留给外部调用方，bucket宽度不是1秒时返回的并不是秒值，请改用getEpochBucket
+     */
+    @Deprecated
     public long getEpochSecond() {
-        return epochSecond;
+        return this.getEpochBucket();
     }
 }
@@ -0,0 +1,78 @@
+package com.github.liyibo1110.resilience4j.core.metrics;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在SlidingTimeWindowMetrics的基础上，额外维护窗口内调用的延迟直方图，Snapshot可以返回p50/p90/p99/p999。
+ * 每个bucket都有自己的直方图，另外有一个总直方图，和TotalAggregation一样增量维护：
+ * record时同时计入当前bucket和总直方图，bucket过期时把它的直方图从总直方图里整体减掉。
+ * @author liyibo
+ * @date 2026-10-18 14:40
+ */
+public class SlidingTimeWindowHistogramMetrics extends SlidingTimeWindowMetrics {
+    /** 和partialAggregations一一对应的直方图 */
+    private final LatencyHistogram[] histograms;
+
+    /** 窗口内所有调用的延迟直方图 */
+    private final LatencyHistogram totalHistogram;
+
+    public SlidingTimeWindowHistogramMetrics(int timeWindowSizeInSeconds, Clock clock) {
+        this(timeWindowSizeInSeconds, Duration.ofSeconds(1), clock);
+    }
+
+    public SlidingTimeWindowHistogramMetrics(int numberOfBuckets, Duration bucketWidth, Clock clock) {
+        super(numberOfBuckets, bucketWidth, clock);
+        this.histograms = new LatencyHistogram[numberOfBuckets];
+        for(int i = 0; i < numberOfBuckets; i++)
+            this.histograms[i] = new LatencyHistogram();
+        this.totalHistogram = new LatencyHistogram();
+    }
+
+    @Override
+    public synchronized Snapshot record(long duration, TimeUnit unit, Outcome outcome) {
+        this.recordWithLatency(duration, unit, outcome);
+        return new HistogramSnapshot(this.refreshedAggregation(), this.totalHistogram);
+    }
+
+    @Override
+    public synchronized int recordAndEvaluate(long duration, TimeUnit unit, Outcome outcome, Thresholds thresholds) {
+        this.recordWithLatency(duration, unit, outcome);
+        return this.totalAggregation.evaluate(thresholds, this.totalHistogram);
+    }
+
+    @Override
+    public synchronized int recordBatchAndEvaluate(int numberOfCalls, int numberOfFailedCalls, int numberOfSlowCalls,
+                                                   int numberOfSlowFailedCalls, long totalDuration, TimeUnit unit, Thresholds thresholds) {
+        long totalDurationInNanos = unit.toNanos(totalDuration);
+        this.recordBatchInWindow(numberOfCalls, numberOfFailedCalls, numberOfSlowCalls, numberOfSlowFailedCalls, totalDurationInNanos);
+        if(numberOfCalls > 0) {
+            // 一批call都按平均用时计入直方图
+            int index = LatencyHistogram.indexOf(totalDurationInNanos / numberOfCalls);
+            this.histograms[this.headIndex].record(index, numberOfCalls);
+            this.totalHistogram.record(index, numberOfCalls);
+        }
+        return this.totalAggregation.evaluate(thresholds, this.totalHistogram);
+    }
+
+    @Override
+    public synchronized Snapshot getSnapshot() {
+        this.moveWindowToCurrentEpochBucket();
+        return new HistogramSnapshot(this.refreshedAggregation(), this.totalHistogram);
+    }
+
+    private void recordWithLatency(long duration, TimeUnit unit, Outcome outcome) {
+        this.recordInWindow(duration, unit, outcome);
+        int index = LatencyHistogram.indexOf(unit.toNanos(duration));
+        this.histograms[this.headIndex].record(index);
+        this.totalHistogram.record(index);
+    }
+
+    @Override
+    void onBucketEvicted(int index) {
+        LatencyHistogram histogram = this.histograms[index];
+        this.totalHistogram.remove(histogram);
+        histogram.reset();
+    }
+}
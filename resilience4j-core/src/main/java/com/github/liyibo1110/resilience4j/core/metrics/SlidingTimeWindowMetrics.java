@@ -1,24 +1,32 @@
 package com.github.liyibo1110.resilience4j.core.metrics;
 
+import com.github.liyibo1110.resilience4j.core.CoarseClock;
+
 import java.time.Clock;
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 /**
- * 基于一定时间的滑动窗口的Metrics实现，会聚合最近N秒调用。
- * 通过一个由n个聚合bucket组成的环形数组来实现的，如果时间窗口大小为10秒，则会有10个bucket。
- * 每个bucket发生在某个时间秒内的所有调用的结果（剩余细节和FixedSizeSlidingWindowMetrics是类似的）。
+ * 基于一定时间的滑动窗口的Metrics实现，会聚合最近N个时间片内的调用。
+ * 通过一个由n个聚合bucket组成的环形数组来实现的，每个bucket统计发生在某一个时间片内的所有调用的结果
+ * （剩余细节和FixedSizeSlidingWindowMetrics是类似的）。
+ * 时间片的宽度就是bucket宽度，默认是1秒，也可以指定为更短的毫秒值（例如100毫秒），窗口长度 = bucket数量 * bucket宽度；
+ * 时间片序号 = 纪元毫秒 / bucket宽度，bucket宽度为1秒时就是秒值。
  * @author liyibo
  * @date 2026-02-04 23:06
  */
 public class SlidingTimeWindowMetrics implements Metrics {
-    /** 时间窗口，每个bucket代表这1秒间 */
+    /** 时间窗口，每个bucket代表一个时间片 */
     final PartialAggregation[] partialAggregations;
 
-    /** bucket的总量（即最多要统计多少秒） */
-    private final int timeWindowSizeInSeconds;
+    /** bucket的总量（即最多要统计多少个时间片） */
+    private final int numberOfBuckets;
+
+    /** 每个bucket的宽度（毫秒） */
+    private final long bucketWidthInMillis;
 
-    /** 总统计器（注意是统计n秒的总和，不是无限累加） */
-    private final TotalAggregation totalAggregation;
+    /** 总统计器（注意是统计n个时间片的总和，不是无限累加） */
+    final TotalAggregation totalAggregation;
 
     private final Clock clock;
 
@@ -26,53 +34,127 @@ public class SlidingTimeWindowMetrics implements Metrics {
     int headIndex;
 
     public SlidingTimeWindowMetrics(int timeWindowSizeInSeconds, Clock clock) {
+        this(timeWindowSizeInSeconds, Duration.ofSeconds(1), clock);
+    }
+
+    /**
+     * @param numberOfBuckets bucket数量
+     * @param bucketWidth 每个bucket的宽度，最小1毫秒
+     */
+    public SlidingTimeWindowMetrics(int numberOfBuckets, Duration bucketWidth, Clock clock) {
+        if(bucketWidth.toMillis() < 1)
+            throw new IllegalArgumentException("bucketWidth must be at least 1[ms]");
         this.clock = clock;
-        this.timeWindowSizeInSeconds = timeWindowSizeInSeconds;
-        this.partialAggregations = new PartialAggregation[timeWindowSizeInSeconds];
+        this.numberOfBuckets = numberOfBuckets;
+        this.bucketWidthInMillis = bucketWidth.toMillis();
+        this.partialAggregations = new PartialAggregation[numberOfBuckets];
         this.headIndex = 0;
-        // 应该是秒单位的时间戳
-        long epochSecond = clock.instant().getEpochSecond();
-        for(int i = 0; i < timeWindowSizeInSeconds; i++) {
-            partialAggregations[i] = new PartialAggregation(epochSecond);
-            epochSecond++;
+        // 时间片序号，bucket宽度为1秒时就是秒单位的时间戳
+        long epochBucket = this.currentEpochBucket();
+        for(int i = 0; i < numberOfBuckets; i++) {
+            partialAggregations[i] = new PartialAggregation(epochBucket);
+            epochBucket++;
         }
         this.totalAggregation = new TotalAggregation();
     }
 
     @Override
     public Snapshot record(long duration, TimeUnit unit, Outcome outcome) {
+        this.recordInWindow(duration, unit, outcome);
+        return new SnapshotImpl(this.refreshedAggregation());
+    }
+
+    @Override
+    public int recordAndEvaluate(long duration, TimeUnit unit, Outcome outcome, Thresholds thresholds) {
+        this.recordInWindow(duration, unit, outcome);
+        return this.totalAggregation.evaluate(thresholds);
+    }
+
+    @Override
+    public int recordBatchAndEvaluate(int numberOfCalls, int numberOfFailedCalls, int numberOfSlowCalls,
+                                      int numberOfSlowFailedCalls, long totalDuration, TimeUnit unit, Thresholds thresholds) {
+        this.recordBatchInWindow(numberOfCalls, numberOfFailedCalls, numberOfSlowCalls, numberOfSlowFailedCalls, unit.toNanos(totalDuration));
+        return this.totalAggregation.evaluate(thresholds);
+    }
+
+    /**
+     * 把一次call计入窗口，执行完后headIndex指向的就是这次写入的bucket
+     */
+    void recordInWindow(long duration, TimeUnit unit, Outcome outcome) {
         this.totalAggregation.record(duration, unit, outcome);
-        this.moveWindowToCurrentEpochSecond(this.getLatestPartialAggregation()).record(duration, unit, outcome);
-        return new SnapshotImpl(this.totalAggregation);
+        this.moveWindowToCurrentEpochBucket(this.getLatestPartialAggregation()).record(duration, unit, outcome);
+    }
+
+    /**
+     * 把一批call一次性计入当前bucket
+     */
+    void recordBatchInWindow(int numberOfCalls, int numberOfFailedCalls, int numberOfSlowCalls, int numberOfSlowFailedCalls,
+                             long totalDurationInNanos) {
+        this.totalAggregation.recordBatch(numberOfCalls, numberOfFailedCalls, numberOfSlowCalls, numberOfSlowFailedCalls, totalDurationInNanos);
+        this.moveWindowToCurrentEpochBucket(this.getLatestPartialAggregation())
+                .recordBatch(numberOfCalls, numberOfFailedCalls, numberOfSlowCalls, numberOfSlowFailedCalls, totalDurationInNanos);
+    }
+
+    /**
+     * 移动窗口到当前时间片，供子类在getSnapshot之前刷新窗口使用
+     */
+    void moveWindowToCurrentEpochBucket() {
+        this.moveWindowToCurrentEpochBucket(this.getLatestPartialAggregation());
+    }
+
+    /**
+     * 返回最值已经刷新过的总统计器，用于创建Snapshot
+     */
+    TotalAggregation refreshedAggregation() {
+        this.totalAggregation.refreshExtrema(this.partialAggregations);
+        return this.totalAggregation;
+    }
+
+    /**
+     * 返回当前时间所在的时间片序号（bucket宽度为1秒时就是秒值），用millis而不是instant()，避免每次调用都分配Instant，
+     * bucket宽度为1秒的CoarseClock则直接读取它缓存的秒值
+     */
+    private long currentEpochBucket() {
+        if(this.bucketWidthInMillis == 1000L && this.clock instanceof CoarseClock coarseClock)
+            return coarseClock.epochSecond();
+        return Math.floorDiv(this.clock.millis(), this.bucketWidthInMillis);
+    }
+
+    /**
+     * bucket即将被清理时的钩子方法，子类可以同步清理自己额外维护的统计
+     */
+    void onBucketEvicted(int index) {
+        // nothing to do
     }
 
     public synchronized Snapshot getSnapshot() {
         // 非常重要的调用，和基于次数的那个实现不同，这里因为时间是自动流逝的，所以当进入这个方法时，也要刷新一轮桶信息
-        this.moveWindowToCurrentEpochSecond(getLatestPartialAggregation());
-        return new SnapshotImpl(this.totalAggregation);
+        this.moveWindowToCurrentEpochBucket(getLatestPartialAggregation());
+        return new SnapshotImpl(this.refreshedAggregation());
     }
 
     /**
      * 尝试移动一格窗口，并且尝试清理，并返回等待这一轮使用
      */
-    private PartialAggregation moveWindowToCurrentEpochSecond(PartialAggregation latest) {
-        long currentEpochSecond = clock.instant().getEpochSecond();
-        long differenceInSeconds = currentEpochSecond - latest.getEpochSecond();
-        // 如果还是在这1秒，则继续使用当前的bucket
-        if(differenceInSeconds == 0)
+    private PartialAggregation moveWindowToCurrentEpochBucket(PartialAggregation latest) {
+        long currentEpochBucket = this.currentEpochBucket();
+        long differenceInBuckets = currentEpochBucket - latest.getEpochBucket();
+        // 如果还是在这个时间片，则继续使用当前的bucket（时钟回拨时也继续使用，直到时间追上来）
+        if(differenceInBuckets <= 0)
             return latest;
-        // 算出实际经过的秒数，如果超过总统计秒数了，则清空所有bucket
-        long secondsToMoveTheWindow = Math.min(differenceInSeconds, this.timeWindowSizeInSeconds);
+        // 算出实际经过的时间片数，如果超过bucket总量了，则清空所有bucket，所以空闲很久之后的追赶最多也只需要O(bucket数量)
+        long bucketsToMoveTheWindow = Math.min(differenceInBuckets, this.numberOfBuckets);
         PartialAggregation currentPartialAggregation;
-        // 到这里已经至少过1秒了，先无条件清理1个bucket
+        // 到这里已经至少过了1个时间片，先无条件清理1个bucket
         do {
-            secondsToMoveTheWindow--;
+            bucketsToMoveTheWindow--;
             this.moveHeadIndexByOne();
             currentPartialAggregation = this.getLatestPartialAggregation();
             this.totalAggregation.removeBucket(currentPartialAggregation);
-            // 非常重要同时稍微有点难以理解的计算，其实就是把特定桶，生成特定属于它那个秒值
-            currentPartialAggregation.reset(currentEpochSecond - secondsToMoveTheWindow);
-        } while(secondsToMoveTheWindow > 0);
+            this.onBucketEvicted(this.headIndex);
+            // 非常重要同时稍微有点难以理解的计算，其实就是把特定桶，生成特定属于它那个时间片序号
+            currentPartialAggregation.reset(currentEpochBucket - bucketsToMoveTheWindow);
+        } while(bucketsToMoveTheWindow > 0);
         return currentPartialAggregation;
     }
 
@@ -81,6 +163,6 @@ public class SlidingTimeWindowMetrics implements Metrics {
     }
 
     void moveHeadIndexByOne() {
-        this.headIndex = (this.headIndex + 1) % this.timeWindowSizeInSeconds;
+        this.headIndex = (this.headIndex + 1) % this.numberOfBuckets;
     }
 }
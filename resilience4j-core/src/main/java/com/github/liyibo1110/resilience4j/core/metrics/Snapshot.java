@@ -15,10 +15,20 @@ public interface Snapshot {
     Duration getTotalDuration();
 
     /**
-     * 返回所有call的平均用时
+     * 返回所有call的平均用时（纳秒精度）
      */
     Duration getAverageDuration();
 
+    /**
+     * 返回所有call中的最短用时，没有call时返回Duration.ZERO
+     */
+    Duration getMinDuration();
+
+    /**
+     * 返回所有call中的最长用时，没有call时返回Duration.ZERO
+     */
+    Duration getMaxDuration();
+
     /**
      * 返回慢于特定阈值call总次数
      */
@@ -58,4 +68,27 @@ public interface Snapshot {
      * 返回call的失败率
      */
     float getFailureRate();
+
+    /**
+     * 返回指定百分位（0-100）的call用时，只有带延迟直方图的Metrics实现才支持，其余实现返回Duration.ZERO
+     */
+    default Duration getPercentileDuration(double percentile) {
+        return Duration.ZERO;
+    }
+
+    default Duration getP50Duration() {
+        return this.getPercentileDuration(50.0);
+    }
+
+    default Duration getP90Duration() {
+        return this.getPercentileDuration(90.0);
+    }
+
+    default Duration getP99Duration() {
+        return this.getPercentileDuration(99.0);
+    }
+
+    default Duration getP999Duration() {
+        return this.getPercentileDuration(99.9);
+    }
 }
@@ -9,23 +9,58 @@ import java.time.Duration;
  */
 public class SnapshotImpl implements Snapshot {
 
-    private final long totalDurationInMillis;
+    private final long totalDurationInSeconds;
+    private final long totalDurationNanoAdjustment;
+    private final long minDurationInNanos;
+    private final long maxDurationInNanos;
     private final int totalNumberOfSlowCalls;
     private final int totalNumberOfSlowFailedCalls;
     private final int totalNumberOfFailedCalls;
     private final int totalNumberOfCalls;
 
     SnapshotImpl(TotalAggregation totalAggregation) {
-        this.totalDurationInMillis = totalAggregation.totalDurationInMillis;
+        this.totalDurationInSeconds = totalAggregation.totalDurationInSeconds;
+        this.totalDurationNanoAdjustment = totalAggregation.totalDurationNanoAdjustment;
+        this.minDurationInNanos = totalAggregation.minDurationInNanos;
+        this.maxDurationInNanos = totalAggregation.maxDurationInNanos;
         this.totalNumberOfSlowCalls = totalAggregation.numberOfSlowCalls;
         this.totalNumberOfSlowFailedCalls = totalAggregation.numberOfSlowFailedCalls;
         this.totalNumberOfFailedCalls = totalAggregation.numberOfFailedCalls;
         this.totalNumberOfCalls = totalAggregation.numberOfCalls;
     }
 
+    /**
+     * 直接由各统计值构建，给不基于TotalAggregation的Metrics实现使用
+     */
+    SnapshotImpl(long totalDurationInSeconds, long totalDurationNanoAdjustment, long minDurationInNanos, long maxDurationInNanos,
+                 int totalNumberOfSlowCalls, int totalNumberOfSlowFailedCalls, int totalNumberOfFailedCalls, int totalNumberOfCalls) {
+        this.totalDurationInSeconds = totalDurationInSeconds;
+        this.totalDurationNanoAdjustment = totalDurationNanoAdjustment;
+        this.minDurationInNanos = minDurationInNanos;
+        this.maxDurationInNanos = maxDurationInNanos;
+        this.totalNumberOfSlowCalls = totalNumberOfSlowCalls;
+        this.totalNumberOfSlowFailedCalls = totalNumberOfSlowFailedCalls;
+        this.totalNumberOfFailedCalls = totalNumberOfFailedCalls;
+        this.totalNumberOfCalls = totalNumberOfCalls;
+    }
+
     @Override
     public Duration getTotalDuration() {
-        return Duration.ofMillis(totalDurationInMillis);
+        return Duration.ofSeconds(totalDurationInSeconds, totalDurationNanoAdjustment);
+    }
+
+    @Override
+    public Duration getMinDuration() {
+        if(totalNumberOfCalls == 0)
+            return Duration.ZERO;
+        return Duration.ofNanos(minDurationInNanos);
+    }
+
+    @Override
+    public Duration getMaxDuration() {
+        if(totalNumberOfCalls == 0)
+            return Duration.ZERO;
+        return Duration.ofNanos(maxDurationInNanos);
     }
 
     @Override
@@ -76,6 +111,10 @@ public class SnapshotImpl implements Snapshot {
     public Duration getAverageDuration() {
         if(totalNumberOfCalls == 0)
             return Duration.ZERO;
-        return Duration.ofMillis(totalDurationInMillis / totalNumberOfCalls);
+        // 先把秒数的余数折算进纳秒部分再除，结果精确到纳秒且不会溢出
+        long seconds = totalDurationInSeconds / totalNumberOfCalls;
+        long remainder = totalDurationInSeconds % totalNumberOfCalls;
+        long nanos = (remainder * AbstractAggregation.NANOS_PER_SECOND + totalDurationNanoAdjustment) / totalNumberOfCalls;
+        return Duration.ofSeconds(seconds, nanos);
     }
 }
@@ -0,0 +1,344 @@
+package com.github.liyibo1110.resilience4j.core.metrics;
+
+import com.github.liyibo1110.resilience4j.core.CoarseClock;
+import com.github.liyibo1110.resilience4j.core.StripeProbe;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 基于时间滑动窗口的无锁Metrics实现，语义和SlidingTimeWindowMetrics一致（聚合最近N个时间片内的调用），但是可以被多线程并发record。
+ * 每个bucket内部按CPU数分成多个stripe（类似LongAdder的cell），不同线程根据自己的探针（StripeProbe）写入不同的stripe，
+ * 在stripe上CAS失败时换一个探针，所以两个热点线程不会一直挤在同一个stripe上，
+ * 每个stripe用5个long保存统计值：[调用次数|失败次数]、[慢调用次数|慢调用失败次数]、总用时（纳秒）、最短用时、最长用时，
+ * 前两个是高低32位打包的，一次原子add就能更新2个计数。
+ * bucket的轮转也是无锁的：发现bucket过期的线程会创建一个新bucket并通过CAS替换掉旧的，CAS失败的线程直接使用胜出者的bucket。
+ * 为了不在每次record时都扫描整个窗口，除当前bucket以外的部分会每个时间片缓存一份汇总（sealedWindow），
+ * 所以record返回的snapshot，在跨时间片边界时可能会漏掉极少量迟到的写入，而getSnapshot总是完整扫描，结果是精确的。
+ * 和SlidingTimeWindowMetrics一样，时间片的宽度就是bucket宽度，默认1秒，也可以指定为更短的毫秒值。
+ * @author liyibo
+ * @date 2026-10-18 10:12
+ */
+public class StripedSlidingTimeWindowMetrics implements Metrics {
+    /** stripe内各统计值的偏移量 */
+    private static final int CALLS_AND_FAILED = 0;
+    private static final int SLOW_AND_SLOW_FAILED = 1;
+    private static final int DURATION = 2;
+    /** 最短/最长用时都用「取最大值」来更新，这样0就可以表示没有值：最短用时存Long.MAX_VALUE - 用时，最长用时存用时 + 1 */
+    private static final int MIN_DURATION = 3;
+    private static final int MAX_DURATION = 4;
+
+    /** 每个stripe占8个long（64字节），避免不同stripe之间的伪共享 */
+    private static final int STRIPE_SHIFT = 3;
+
+    private static final int MAX_STRIPES = 64;
+
+    /** 时间窗口，每个bucket代表一个时间片，过期的bucket会被整个替换掉 */
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    /** bucket的总量（即最多要统计多少个时间片） */
+    private final int numberOfBuckets;
+
+    /** 每个bucket的宽度（毫秒） */
+    private final long bucketWidthInMillis;
+
+    /** stripe数量-1，stripe数量一定是2的幂 */
+    private final int stripeMask;
+
+    /** 除当前时间片以外，窗口内其余bucket的汇总缓存 */
+    private final AtomicReference<WindowSum> sealedWindow;
+
+    private final Clock clock;
+
+    public StripedSlidingTimeWindowMetrics(int timeWindowSizeInSeconds, Clock clock) {
+        this(timeWindowSizeInSeconds, clock, Runtime.getRuntime().availableProcessors());
+    }
+
+    public StripedSlidingTimeWindowMetrics(int timeWindowSizeInSeconds, Clock clock, int concurrencyLevel) {
+        this(timeWindowSizeInSeconds, Duration.ofSeconds(1), clock, concurrencyLevel);
+    }
+
+    public StripedSlidingTimeWindowMetrics(int numberOfBuckets, Duration bucketWidth, Clock clock) {
+        this(numberOfBuckets, bucketWidth, clock, Runtime.getRuntime().availableProcessors());
+    }
+
+    public StripedSlidingTimeWindowMetrics(int numberOfBuckets, Duration bucketWidth, Clock clock, int concurrencyLevel) {
+        if(numberOfBuckets < 1)
+            throw new IllegalArgumentException("numberOfBuckets must be greater than 0");
+        if(bucketWidth.toMillis() < 1)
+            throw new IllegalArgumentException("bucketWidth must be at least 1[ms]");
+        if(concurrencyLevel < 1)
+            throw new IllegalArgumentException("concurrencyLevel must be greater than 0");
+        this.clock = clock;
+        this.bucketWidthInMillis = bucketWidth.toMillis();
+        this.numberOfBuckets = numberOfBuckets;
+        this.stripeMask = stripesFor(concurrencyLevel) - 1;
+        this.buckets = new AtomicReferenceArray<>(numberOfBuckets);
+        this.sealedWindow = new AtomicReference<>(new WindowSum(Long.MIN_VALUE));
+    }
+
+    @Override
+    public Snapshot record(long duration, TimeUnit unit, Outcome outcome) {
+        long epochBucket = this.currentEpochBucket();
+        Bucket bucket = this.currentBucket(epochBucket);
+        bucket.record(this.stripeIndex(), unit.toNanos(duration), outcome);
+        // 当前bucket实时汇总，其余部分走每个时间片一次的缓存
+        WindowSum sum = new WindowSum(epochBucket);
+        sum.add(this.sealedWindow(epochBucket));
+        bucket.sumInto(sum);
+        return sum.toSnapshot();
+    }
+
+    @Override
+    public int recordAndEvaluate(long duration, TimeUnit unit, Outcome outcome, Thresholds thresholds) {
+        long epochBucket = this.currentEpochBucket();
+        Bucket bucket = this.currentBucket(epochBucket);
+        bucket.record(this.stripeIndex(), unit.toNanos(duration), outcome);
+        return this.evaluate(epochBucket, bucket, thresholds);
+    }
+
+    @Override
+    public int recordBatchAndEvaluate(int numberOfCalls, int numberOfFailedCalls, int numberOfSlowCalls,
+                                      int numberOfSlowFailedCalls, long totalDuration, TimeUnit unit, Thresholds thresholds) {
+        long epochBucket = this.currentEpochBucket();
+        Bucket bucket = this.currentBucket(epochBucket);
+        if(numberOfCalls > 0)
+            bucket.recordBatch(this.stripeIndex(), numberOfCalls, numberOfFailedCalls, numberOfSlowCalls,
+                    numberOfSlowFailedCalls, unit.toNanos(totalDuration));
+        return this.evaluate(epochBucket, bucket, thresholds);
+    }
+
+    /**
+     * 和record一样的汇总方式，但只累加到局部变量里，除了每个时间片一次的sealedWindow刷新以外不分配对象
+     */
+    private int evaluate(long epochBucket, Bucket bucket, Thresholds thresholds) {
+        WindowSum sealed = this.sealedWindow(epochBucket);
+        long numberOfCalls = sealed.numberOfCalls;
+        long numberOfFailedCalls = sealed.numberOfFailedCalls;
+        long numberOfSlowCalls = sealed.numberOfSlowCalls;
+        AtomicLongArray cells = bucket.cells;
+        for(int base = 0; base < cells.length(); base += 1 << STRIPE_SHIFT) {
+            long callsAndFailed = cells.get(base + CALLS_AND_FAILED);
+            numberOfCalls += callsAndFailed >>> 32;
+            numberOfFailedCalls += callsAndFailed & 0xFFFFFFFFL;
+            numberOfSlowCalls += cells.get(base + SLOW_AND_SLOW_FAILED) >>> 32;
+        }
+        return thresholds.evaluate(numberOfCalls, numberOfFailedCalls, numberOfSlowCalls);
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        long epochBucket = this.currentEpochBucket();
+        WindowSum sum = new WindowSum(epochBucket);
+        this.sumBuckets(sum, epochBucket - this.numberOfBuckets, epochBucket);
+        return sum.toSnapshot();
+    }
+
+    /**
+     * 返回当前时间片对应的bucket，如果这个位置上的bucket已经过期了，则尝试用一个新bucket替换它
+     */
+    private Bucket currentBucket(long epochBucket) {
+        int index = (int) Math.floorMod(epochBucket, (long) this.numberOfBuckets);
+        while(true) {
+            Bucket bucket = this.buckets.get(index);
+            // 时钟回拨的情况下bucket的时间片序号可能比当前还大，直接继续用即可
+            if(bucket != null && bucket.epochBucket >= epochBucket)
+                return bucket;
+            Bucket fresh = new Bucket(epochBucket, this.stripeMask + 1);
+            if(this.buckets.compareAndSet(index, bucket, fresh))
+                return fresh;
+            // 到这里说明别的线程抢先完成了轮转，重新读取即可
+        }
+    }
+
+    /**
+     * 返回(epochBucket - 窗口大小, epochBucket)区间内bucket的汇总，每个时间片只会真正计算一次
+     */
+    private WindowSum sealedWindow(long epochBucket) {
+        WindowSum sealed = this.sealedWindow.get();
+        if(sealed.epochBucket == epochBucket)
+            return sealed;
+        WindowSum fresh = new WindowSum(epochBucket);
+        this.sumBuckets(fresh, epochBucket - this.numberOfBuckets, epochBucket - 1);
+        // 失败说明别的线程已经算好了，结果是一样的，不需要重试
+        this.sealedWindow.compareAndSet(sealed, fresh);
+        return fresh;
+    }
+
+    /**
+     * 汇总时间片序号在(fromExclusive, toInclusive]区间内的所有bucket
+     */
+    private void sumBuckets(WindowSum sum, long fromExclusive, long toInclusive) {
+        for(int i = 0; i < this.numberOfBuckets; i++) {
+            Bucket bucket = this.buckets.get(i);
+            if(bucket != null && bucket.epochBucket > fromExclusive && bucket.epochBucket <= toInclusive)
+                bucket.sumInto(sum);
+        }
+    }
+
+    private long currentEpochBucket() {
+        // 用millis而不是instant()，避免每次调用都分配Instant，bucket宽度为1秒的CoarseClock则直接读取它缓存的秒值
+        if(this.bucketWidthInMillis == 1000L && this.clock instanceof CoarseClock coarseClock)
+            return coarseClock.epochSecond();
+        return Math.floorDiv(this.clock.millis(), this.bucketWidthInMillis);
+    }
+
+    /**
+     * 根据当前线程的探针算出要写入的stripe
+     */
+    private int stripeIndex() {
+        return StripeProbe.get() & this.stripeMask;
+    }
+
+    /**
+     * 向上取到2的幂，并限制最大值
+     */
+    private static int stripesFor(int concurrencyLevel) {
+        int stripes = 1;
+        while(stripes < concurrencyLevel && stripes < MAX_STRIPES)
+            stripes <<= 1;
+        return stripes;
+    }
+
+    /**
+     * 一个时间片的统计bucket，创建后只会累加，不会被reset，过期后整个被替换
+     */
+    private static final class Bucket {
+        private final long epochBucket;
+        private final AtomicLongArray cells;
+
+        Bucket(long epochBucket, int stripes) {
+            this.epochBucket = epochBucket;
+            this.cells = new AtomicLongArray(stripes << STRIPE_SHIFT);
+        }
+
+        void record(int stripe, long durationInNanos, Outcome outcome) {
+            int base = stripe << STRIPE_SHIFT;
+            switch(outcome) {
+                case SUCCESS -> this.addContended(base + CALLS_AND_FAILED, 1L << 32);
+                case ERROR -> this.addContended(base + CALLS_AND_FAILED, (1L << 32) | 1L);
+                case SLOW_SUCCESS -> {
+                    this.addContended(base + CALLS_AND_FAILED, 1L << 32);
+                    this.cells.getAndAdd(base + SLOW_AND_SLOW_FAILED, 1L << 32);
+                }
+                case SLOW_ERROR -> {
+                    this.addContended(base + CALLS_AND_FAILED, (1L << 32) | 1L);
+                    this.cells.getAndAdd(base + SLOW_AND_SLOW_FAILED, (1L << 32) | 1L);
+                }
+            }
+            if(durationInNanos != 0)
+                this.cells.getAndAdd(base + DURATION, durationInNanos);
+            long nanos = Math.max(0, Math.min(durationInNanos, Long.MAX_VALUE - 1));
+            this.accumulateMax(base + MIN_DURATION, Long.MAX_VALUE - nanos);
+            this.accumulateMax(base + MAX_DURATION, nanos + 1);
+        }
+
+        void recordBatch(int stripe, int numberOfCalls, int numberOfFailedCalls, int numberOfSlowCalls,
+                         int numberOfSlowFailedCalls, long totalDurationInNanos) {
+            int base = stripe << STRIPE_SHIFT;
+            this.addContended(base + CALLS_AND_FAILED, ((long) numberOfCalls << 32) | numberOfFailedCalls);
+            if(numberOfSlowCalls != 0)
+                this.cells.getAndAdd(base + SLOW_AND_SLOW_FAILED, ((long) numberOfSlowCalls << 32) | numberOfSlowFailedCalls);
+            if(totalDurationInNanos != 0)
+                this.cells.getAndAdd(base + DURATION, totalDurationInNanos);
+            // 最短/最长用时按平均用时计算
+            long nanos = Math.max(0, Math.min(totalDurationInNanos / numberOfCalls, Long.MAX_VALUE - 1));
+            this.accumulateMax(base + MIN_DURATION, Long.MAX_VALUE - nanos);
+            this.accumulateMax(base + MAX_DURATION, nanos + 1);
+        }
+
+        /**
+         * 每次record都会更新的计数先尝试一次CAS，失败说明和别的线程撞在了同一个stripe上，
+         * 换一个探针（下次写入别的stripe）之后再用getAndAdd完成这次累加
+         */
+        private void addContended(int index, long delta) {
+            long current = this.cells.get(index);
+            if(!this.cells.compareAndSet(index, current, current + delta)) {
+                StripeProbe.advance();
+                this.cells.getAndAdd(index, delta);
+            }
+        }
+
+        /**
+         * 先读一次再决定是否CAS，大部分调用不会刷新最值，只需要一次volatile读
+         */
+        private void accumulateMax(int index, long value) {
+            long current;
+            while(value > (current = this.cells.get(index))) {
+                if(this.cells.compareAndSet(index, current, value))
+                    return;
+            }
+        }
+
+        void sumInto(WindowSum sum) {
+            for(int base = 0; base < this.cells.length(); base += 1 << STRIPE_SHIFT) {
+                long callsAndFailed = this.cells.get(base + CALLS_AND_FAILED);
+                long slowAndSlowFailed = this.cells.get(base + SLOW_AND_SLOW_FAILED);
+                sum.numberOfCalls += callsAndFailed >>> 32;
+                sum.numberOfFailedCalls += callsAndFailed & 0xFFFFFFFFL;
+                sum.numberOfSlowCalls += slowAndSlowFailed >>> 32;
+                sum.numberOfSlowFailedCalls += slowAndSlowFailed & 0xFFFFFFFFL;
+                sum.addDuration(this.cells.get(base + DURATION));
+                long min = this.cells.get(base + MIN_DURATION);
+                if(min != 0)
+                    sum.minDurationInNanos = Math.min(sum.minDurationInNanos, Long.MAX_VALUE - min);
+                long max = this.cells.get(base + MAX_DURATION);
+                if(max != 0)
+                    sum.maxDurationInNanos = Math.max(sum.maxDurationInNanos, max - 1);
+            }
+        }
+    }
+
+    /**
+     * 多个bucket的汇总结果
+     */
+    private static final class WindowSum {
+        private final long epochBucket;
+        long totalDurationInSeconds;
+        long totalDurationNanoAdjustment;
+        long minDurationInNanos = Long.MAX_VALUE;
+        long maxDurationInNanos = Long.MIN_VALUE;
+        long numberOfSlowCalls;
+        long numberOfSlowFailedCalls;
+        long numberOfFailedCalls;
+        long numberOfCalls;
+
+        WindowSum(long epochBucket) {
+            this.epochBucket = epochBucket;
+        }
+
+        void add(WindowSum other) {
+            this.totalDurationInSeconds += other.totalDurationInSeconds;
+            this.addDuration(other.totalDurationNanoAdjustment);
+            this.minDurationInNanos = Math.min(this.minDurationInNanos, other.minDurationInNanos);
+            this.maxDurationInNanos = Math.max(this.maxDurationInNanos, other.maxDurationInNanos);
+            this.numberOfSlowCalls += other.numberOfSlowCalls;
+            this.numberOfSlowFailedCalls += other.numberOfSlowFailedCalls;
+            this.numberOfFailedCalls += other.numberOfFailedCalls;
+            this.numberOfCalls += other.numberOfCalls;
+        }
+
+        void addDuration(long durationInNanos) {
+            this.totalDurationInSeconds += durationInNanos / AbstractAggregation.NANOS_PER_SECOND;
+            this.totalDurationNanoAdjustment += durationInNanos % AbstractAggregation.NANOS_PER_SECOND;
+            if(this.totalDurationNanoAdjustment >= AbstractAggregation.NANOS_PER_SECOND) {
+                this.totalDurationNanoAdjustment -= AbstractAggregation.NANOS_PER_SECOND;
+                this.totalDurationInSeconds++;
+            }
+        }
+
+        Snapshot toSnapshot() {
+            return new SnapshotImpl(this.totalDurationInSeconds, this.totalDurationNanoAdjustment,
+                    this.minDurationInNanos, this.maxDurationInNanos, toInt(this.numberOfSlowCalls),
+                    toInt(this.numberOfSlowFailedCalls), toInt(this.numberOfFailedCalls), toInt(this.numberOfCalls));
+        }
+
+        private static int toInt(long value) {
+            return (int) Math.min(value, Integer.MAX_VALUE);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.liyibo1110.resilience4j.core.metrics;
+
+/**
+ * 阈值判断的参数（最小调用数、失败率阈值、慢调用率阈值，以及可选的延迟百分位阈值），配合Metrics.recordAndEvaluate使用，
+ * 直接用聚合器里的原始计数做判断，判断结果是int类型的位标记，整个过程不需要创建Snapshot。
+ * @author liyibo
+ * @date 2026-10-18 13:02
+ */
+public final class Thresholds {
+    /** 调用次数过少（即样本过少） */
+    public static final int BELOW_MINIMUM_CALLS = -1;
+
+    /** 失败率和慢调用率，都没有超过阈值 */
+    public static final int BELOW_THRESHOLDS = 0;
+
+    /** 失败率超出阈值的标记位 */
+    public static final int FAILURE_RATE_EXCEEDED = 1;
+
+    /** 慢调用率超出阈值的标记位 */
+    public static final int SLOW_CALL_RATE_EXCEEDED = 1 << 1;
+
+    /** 延迟百分位超出阈值的标记位 */
+    public static final int LATENCY_PERCENTILE_EXCEEDED = 1 << 2;
+
+    private final int minimumNumberOfCalls;
+    private final float failureRateThreshold;
+    private final float slowCallRateThreshold;
+
+    /** 要检查的延迟百分位（0-100），为0表示不启用 */
+    private final double latencyPercentile;
+    private final long latencyThresholdInNanos;
+
+    public Thresholds(int minimumNumberOfCalls, float failureRateThreshold, float slowCallRateThreshold) {
+        this(minimumNumberOfCalls, failureRateThreshold, slowCallRateThreshold, 0, Long.MAX_VALUE);
+    }
+
+    public Thresholds(int minimumNumberOfCalls, float failureRateThreshold, float slowCallRateThreshold,
+                      double latencyPercentile, long latencyThresholdInNanos) {
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.latencyPercentile = latencyPercentile;
+        this.latencyThresholdInNanos = latencyThresholdInNanos;
+    }
+
+    /**
+     * 根据原始计数判断，计算方式和SnapshotImpl里的failureRate/slowCallRate保持一致
+     */
+    public int evaluate(long numberOfCalls, long numberOfFailedCalls, long numberOfSlowCalls) {
+        if(numberOfCalls == 0 || numberOfCalls < this.minimumNumberOfCalls)
+            return BELOW_MINIMUM_CALLS;
+        int result = BELOW_THRESHOLDS;
+        if(numberOfFailedCalls * 100.0f / numberOfCalls >= this.failureRateThreshold)
+            result |= FAILURE_RATE_EXCEEDED;
+        if(numberOfSlowCalls * 100.0f / numberOfCalls >= this.slowCallRateThreshold)
+            result |= SLOW_CALL_RATE_EXCEEDED;
+        return result;
+    }
+
+    /**
+     * 直接用比率（0-100）做判断，给不保留原始计数的Metrics实现（例如EWMA）使用
+     */
+    public int evaluateRates(long numberOfCalls, float failureRate, float slowCallRate) {
+        if(numberOfCalls == 0 || numberOfCalls < this.minimumNumberOfCalls)
+            return BELOW_MINIMUM_CALLS;
+        int result = BELOW_THRESHOLDS;
+        if(failureRate >= this.failureRateThreshold)
+            result |= FAILURE_RATE_EXCEEDED;
+        if(slowCallRate >= this.slowCallRateThreshold)
+            result |= SLOW_CALL_RATE_EXCEEDED;
+        return result;
+    }
+
+    /**
+     * 在evaluate的基础上，再检查延迟百分位，percentileLatencyInNanos由带直方图的Metrics实现算出
+     */
+    public int evaluate(long numberOfCalls, long numberOfFailedCalls, long numberOfSlowCalls, long percentileLatencyInNanos) {
+        int result = this.evaluate(numberOfCalls, numberOfFailedCalls, numberOfSlowCalls);
+        if(result != BELOW_MINIMUM_CALLS && percentileLatencyInNanos > this.latencyThresholdInNanos)
+            result |= LATENCY_PERCENTILE_EXCEEDED;
+        return result;
+    }
+
+    public boolean isLatencyPercentileEnabled() {
+        return latencyPercentile > 0;
+    }
+
+    public int getMinimumNumberOfCalls() {
+        return minimumNumberOfCalls;
+    }
+
+    public float getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public float getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public double getLatencyPercentile() {
+        return latencyPercentile;
+    }
+
+    public long getLatencyThresholdInNanos() {
+        return latencyThresholdInNanos;
+    }
+}
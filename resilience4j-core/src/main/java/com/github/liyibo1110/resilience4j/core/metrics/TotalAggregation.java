@@ -1,19 +1,73 @@
 package com.github.liyibo1110.resilience4j.core.metrics;
 
 /**
- * AbstractAggregation的扩展，增加了removeBucket
+ * AbstractAggregation的扩展，增加了removeBucket。
+ * 总用时和计数都可以直接减掉，但最短/最长用时不行，所以被移除的bucket如果正好持有最值，
+ * 只会把最值标记为过期，等到真正要创建Snapshot时，再通过refreshExtrema扫描一遍窗口内的bucket重新计算。
  * @author liyibo
  * @date 2026-02-04 18:08
  */
 class TotalAggregation extends AbstractAggregation {
+    /** 最短/最长用时是否需要重新计算 */
+    private boolean extremaStale = false;
+
     /**
      * 减少对应的各统计值
      */
     void removeBucket(AbstractAggregation bucket) {
-        this.totalDurationInMillis -= bucket.totalDurationInMillis;
+        this.totalDurationInSeconds -= bucket.totalDurationInSeconds;
+        this.totalDurationNanoAdjustment -= bucket.totalDurationNanoAdjustment;
+        if(this.totalDurationNanoAdjustment < 0) {
+            this.totalDurationNanoAdjustment += NANOS_PER_SECOND;
+            this.totalDurationInSeconds--;
+        }
         this.numberOfSlowCalls -= bucket.numberOfSlowCalls;
         this.numberOfSlowFailedCalls -= bucket.numberOfSlowFailedCalls;
         this.numberOfFailedCalls -= bucket.numberOfFailedCalls;
         this.numberOfCalls -= bucket.numberOfCalls;
+        if(this.numberOfCalls == 0) {
+            this.minDurationInNanos = Long.MAX_VALUE;
+            this.maxDurationInNanos = Long.MIN_VALUE;
+            this.extremaStale = false;
+        }else if(bucket.numberOfCalls > 0
+                && (bucket.minDurationInNanos <= this.minDurationInNanos || bucket.maxDurationInNanos >= this.maxDurationInNanos)) {
+            this.extremaStale = true;
+        }
+    }
+
+    /**
+     * 如果最值已经过期，则根据窗口内现存的bucket重新计算
+     */
+    void refreshExtrema(AbstractAggregation[] buckets) {
+        if(!this.extremaStale)
+            return;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for(AbstractAggregation bucket : buckets) {
+            if(bucket.numberOfCalls == 0)
+                continue;
+            min = Math.min(min, bucket.minDurationInNanos);
+            max = Math.max(max, bucket.maxDurationInNanos);
+        }
+        this.minDurationInNanos = min;
+        this.maxDurationInNanos = max;
+        this.extremaStale = false;
+    }
+
+    /**
+     * 直接用当前的总计数做阈值判断，不需要创建Snapshot
+     */
+    int evaluate(Thresholds thresholds) {
+        return thresholds.evaluate(this.numberOfCalls, this.numberOfFailedCalls, this.numberOfSlowCalls);
+    }
+
+    /**
+     * 同上，额外用直方图算出的延迟百分位做判断
+     */
+    int evaluate(Thresholds thresholds, LatencyHistogram histogram) {
+        if(!thresholds.isLatencyPercentileEnabled())
+            return this.evaluate(thresholds);
+        return thresholds.evaluate(this.numberOfCalls, this.numberOfFailedCalls, this.numberOfSlowCalls,
+                histogram.percentileInNanos(thresholds.getLatencyPercentile()));
     }
 }
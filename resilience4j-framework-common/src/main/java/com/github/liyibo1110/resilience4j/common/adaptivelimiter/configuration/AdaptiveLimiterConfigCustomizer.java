@@ -0,0 +1,31 @@
+package com.github.liyibo1110.resilience4j.common.adaptivelimiter.configuration;
+
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiterConfig;
+import com.github.liyibo1110.resilience4j.common.CustomizerWithName;
+import com.github.liyibo1110.resilience4j.core.lang.NonNull;
+
+import java.util.function.Consumer;
+
+/**
+ * @author liyibo
+ * @date 2026-10-18 23:59
+ */
+public interface AdaptiveLimiterConfigCustomizer extends CustomizerWithName {
+
+    void customize(AdaptiveLimiterConfig.Builder configBuilder);
+
+    static AdaptiveLimiterConfigCustomizer of(@NonNull String instanceName,
+                                              @NonNull Consumer<AdaptiveLimiterConfig.Builder> consumer) {
+        return new AdaptiveLimiterConfigCustomizer() {
+            @Override
+            public void customize(AdaptiveLimiterConfig.Builder configBuilder) {
+                consumer.accept(configBuilder);
+            }
+
+            @Override
+            public String name() {
+                return instanceName;
+            }
+        };
+    }
+}
@@ -0,0 +1,253 @@
+package com.github.liyibo1110.resilience4j.common.adaptivelimiter.configuration;
+
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiterConfig;
+import com.github.liyibo1110.resilience4j.common.CommonProperties;
+import com.github.liyibo1110.resilience4j.common.CompositeCustomizer;
+import com.github.liyibo1110.resilience4j.common.utils.ConfigUtils;
+import com.github.liyibo1110.resilience4j.core.ConfigurationNotFoundException;
+import com.github.liyibo1110.resilience4j.core.StringUtils;
+import com.github.liyibo1110.resilience4j.core.lang.Nullable;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * @author liyibo
+ * @date 2026-10-18 23:59
+ */
+public class AdaptiveLimiterConfigurationProperties extends CommonProperties {
+    private Map<String, InstanceProperties> instances = new HashMap<>();
+    private Map<String, InstanceProperties> configs = new HashMap<>();
+
+    public AdaptiveLimiterConfig createAdaptiveLimiterConfig(InstanceProperties instanceProperties,
+                                                             CompositeCustomizer<AdaptiveLimiterConfigCustomizer> customizer,
+                                                             String instanceName) {
+        if(StringUtils.isNotEmpty(instanceProperties.getBaseConfig())) {
+            InstanceProperties baseProperties = configs.get(instanceProperties.getBaseConfig());
+            if(baseProperties == null)
+                throw new ConfigurationNotFoundException(instanceProperties.getBaseConfig());
+            return buildConfigFromBaseConfig(baseProperties, instanceProperties, customizer, instanceName);
+        }
+        return buildAdaptiveLimiterConfig(AdaptiveLimiterConfig.custom(), instanceProperties, customizer, instanceName);
+    }
+
+    private AdaptiveLimiterConfig buildConfigFromBaseConfig(InstanceProperties baseProperties,
+                                                            InstanceProperties instanceProperties,
+                                                            CompositeCustomizer<AdaptiveLimiterConfigCustomizer> customizer,
+                                                            String instanceName) {
+        ConfigUtils.mergePropertiesIfAny(baseProperties, instanceProperties);
+        AdaptiveLimiterConfig baseConfig = createAdaptiveLimiterConfig(baseProperties, customizer, instanceName);
+        return buildAdaptiveLimiterConfig(AdaptiveLimiterConfig.from(baseConfig), instanceProperties, customizer, instanceName);
+    }
+
+    private AdaptiveLimiterConfig buildAdaptiveLimiterConfig(AdaptiveLimiterConfig.Builder builder,
+                                                             InstanceProperties instanceProperties,
+                                                             CompositeCustomizer<AdaptiveLimiterConfigCustomizer> customizer,
+                                                             String instanceName) {
+        if(instanceProperties.getAlgorithm() != null)
+            builder.algorithm(instanceProperties.getAlgorithm());
+
+        if(instanceProperties.getInitialLimit() != null)
+            builder.initialLimit(instanceProperties.getInitialLimit());
+
+        if(instanceProperties.getMinLimit() != null)
+            builder.minLimit(instanceProperties.getMinLimit());
+
+        if(instanceProperties.getMaxLimit() != null)
+            builder.maxLimit(instanceProperties.getMaxLimit());
+
+        if(instanceProperties.getBackoffRatio() != null)
+            builder.backoffRatio(instanceProperties.getBackoffRatio());
+
+        if(instanceProperties.getDropLatencyThreshold() != null)
+            builder.dropLatencyThreshold(instanceProperties.getDropLatencyThreshold());
+
+        if(instanceProperties.getSmoothing() != null)
+            builder.smoothing(instanceProperties.getSmoothing());
+
+        if(instanceProperties.getRttTolerance() != null)
+            builder.rttTolerance(instanceProperties.getRttTolerance());
+
+        if(instanceProperties.getLongWindowSize() != null)
+            builder.longWindowSize(instanceProperties.getLongWindowSize());
+
+        if(instanceProperties.getDropExceptions() != null)
+            builder.dropExceptions(instanceProperties.getDropExceptions());
+
+        if(instanceProperties.isWritableStackTraceEnabled() != null)
+            builder.writableStackTraceEnabled(instanceProperties.isWritableStackTraceEnabled());
+
+        customizer.getCustomizer(instanceName).ifPresent(c -> c.customize(builder));
+        return builder.build();
+    }
+
+    @Nullable
+    public InstanceProperties getBackendProperties(String backend) {
+        return instances.get(backend);
+    }
+
+    public Map<String, InstanceProperties> getInstances() {
+        return instances;
+    }
+
+    public Map<String, InstanceProperties> getBackends() {
+        return instances;
+    }
+
+    public Map<String, InstanceProperties> getConfigs() {
+        return configs;
+    }
+
+    public static class InstanceProperties {
+        private AdaptiveLimiterConfig.Algorithm algorithm;
+        private Integer initialLimit;
+        private Integer minLimit;
+        private Integer maxLimit;
+        private Double backoffRatio;
+        private Duration dropLatencyThreshold;
+        private Double smoothing;
+        private Double rttTolerance;
+        private Integer longWindowSize;
+        private Boolean writableStackTraceEnabled;
+        @Nullable
+        private Class<? extends Throwable>[] dropExceptions;
+        @Nullable
+        private String baseConfig;
+        @Nullable
+        private Integer eventConsumerBufferSize;
+
+        public AdaptiveLimiterConfig.Algorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        public InstanceProperties setAlgorithm(AdaptiveLimiterConfig.Algorithm algorithm) {
+            this.algorithm = Objects.requireNonNull(algorithm);
+            return this;
+        }
+
+        public Integer getInitialLimit() {
+            return initialLimit;
+        }
+
+        public InstanceProperties setInitialLimit(Integer initialLimit) {
+            Objects.requireNonNull(initialLimit);
+            if(initialLimit < 1)
+                throw new IllegalArgumentException("initialLimit must be greater than or equal to 1.");
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        public Integer getMinLimit() {
+            return minLimit;
+        }
+
+        public InstanceProperties setMinLimit(Integer minLimit) {
+            Objects.requireNonNull(minLimit);
+            if(minLimit < 1)
+                throw new IllegalArgumentException("minLimit must be greater than or equal to 1.");
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        public Integer getMaxLimit() {
+            return maxLimit;
+        }
+
+        public InstanceProperties setMaxLimit(Integer maxLimit) {
+            Objects.requireNonNull(maxLimit);
+            if(maxLimit < 1)
+                throw new IllegalArgumentException("maxLimit must be greater than or equal to 1.");
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        public Double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        public InstanceProperties setBackoffRatio(Double backoffRatio) {
+            this.backoffRatio = Objects.requireNonNull(backoffRatio);
+            return this;
+        }
+
+        public Duration getDropLatencyThreshold() {
+            return dropLatencyThreshold;
+        }
+
+        public InstanceProperties setDropLatencyThreshold(Duration dropLatencyThreshold) {
+            this.dropLatencyThreshold = Objects.requireNonNull(dropLatencyThreshold);
+            return this;
+        }
+
+        public Double getSmoothing() {
+            return smoothing;
+        }
+
+        public InstanceProperties setSmoothing(Double smoothing) {
+            this.smoothing = Objects.requireNonNull(smoothing);
+            return this;
+        }
+
+        public Double getRttTolerance() {
+            return rttTolerance;
+        }
+
+        public InstanceProperties setRttTolerance(Double rttTolerance) {
+            this.rttTolerance = Objects.requireNonNull(rttTolerance);
+            return this;
+        }
+
+        public Integer getLongWindowSize() {
+            return longWindowSize;
+        }
+
+        public InstanceProperties setLongWindowSize(Integer longWindowSize) {
+            this.longWindowSize = Objects.requireNonNull(longWindowSize);
+            return this;
+        }
+
+        public Boolean isWritableStackTraceEnabled() {
+            return writableStackTraceEnabled;
+        }
+
+        public InstanceProperties setWritableStackTraceEnabled(Boolean writableStackTraceEnabled) {
+            this.writableStackTraceEnabled = Objects.requireNonNull(writableStackTraceEnabled);
+            return this;
+        }
+
+        @Nullable
+        public Class<? extends Throwable>[] getDropExceptions() {
+            return dropExceptions;
+        }
+
+        public InstanceProperties setDropExceptions(Class<? extends Throwable>[] dropExceptions) {
+            this.dropExceptions = dropExceptions;
+            return this;
+        }
+
+        @Nullable
+        public String getBaseConfig() {
+            return baseConfig;
+        }
+
+        public InstanceProperties setBaseConfig(String baseConfig) {
+            this.baseConfig = baseConfig;
+            return this;
+        }
+
+        @Nullable
+        public Integer getEventConsumerBufferSize() {
+            return eventConsumerBufferSize;
+        }
+
+        public InstanceProperties setEventConsumerBufferSize(Integer eventConsumerBufferSize) {
+            Objects.requireNonNull(eventConsumerBufferSize);
+            if(eventConsumerBufferSize < 1)
+                throw new IllegalArgumentException("eventConsumerBufferSize must be greater than or equal to 1.");
+            this.eventConsumerBufferSize = eventConsumerBufferSize;
+            return this;
+        }
+    }
+}
@@ -55,6 +55,9 @@ public class BulkheadConfigurationProperties extends CommonProperties {
         if(instanceProperties.isWritableStackTraceEnabled() != null)
             builder.writableStackTraceEnabled(instanceProperties.isWritableStackTraceEnabled());
 
+        if(instanceProperties.isPreallocatedExceptionEnabled() != null)
+            builder.preallocatedExceptionEnabled(instanceProperties.isPreallocatedExceptionEnabled());
+
         customizer.getCustomizer(instanceName).ifPresent(c -> c.customize(builder));
         return builder.build();
     }
@@ -80,6 +83,7 @@ public class BulkheadConfigurationProperties extends CommonProperties {
         private Integer maxConcurrentCalls;
         private Duration maxWaitDuration;
         private Boolean writableStackTraceEnabled;
+        private Boolean preallocatedExceptionEnabled;
         @Nullable
         private String baseConfig;
         @Nullable
@@ -107,6 +111,16 @@ public class BulkheadConfigurationProperties extends CommonProperties {
             return this;
         }
 
+        public Boolean isPreallocatedExceptionEnabled() {
+            return preallocatedExceptionEnabled;
+        }
+
+        public InstanceProperties setPreallocatedExceptionEnabled(Boolean preallocatedExceptionEnabled) {
+            Objects.requireNonNull(preallocatedExceptionEnabled);
+            this.preallocatedExceptionEnabled = preallocatedExceptionEnabled;
+            return this;
+        }
+
         public Duration getMaxWaitDuration() {
             return maxWaitDuration;
         }
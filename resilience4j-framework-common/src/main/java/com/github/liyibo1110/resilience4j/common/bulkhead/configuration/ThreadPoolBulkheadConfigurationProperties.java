@@ -84,6 +84,9 @@ public class ThreadPoolBulkheadConfigurationProperties extends CommonProperties
         if(properties.getWritableStackTraceEnabled() != null)
             builder.writableStackTraceEnabled(properties.getWritableStackTraceEnabled());
 
+        if(properties.getPreallocatedExceptionEnabled() != null)
+            builder.preallocatedExceptionEnabled(properties.getPreallocatedExceptionEnabled());
+
         if(properties.getContextPropagators() != null)
             builder.contextPropagator(properties.getContextPropagators());
 
@@ -101,6 +104,9 @@ public class ThreadPoolBulkheadConfigurationProperties extends CommonProperties
         @Nullable
         private Boolean writableStackTraceEnabled;
 
+        @Nullable
+        private Boolean preallocatedExceptionEnabled;
+
         private int maxThreadPoolSize;
         private int coreThreadPoolSize;
         private int queueCapacity;
@@ -167,6 +173,15 @@ public class ThreadPoolBulkheadConfigurationProperties extends CommonProperties
             return this;
         }
 
+        public Boolean getPreallocatedExceptionEnabled() {
+            return preallocatedExceptionEnabled;
+        }
+
+        public InstanceProperties setPreallocatedExceptionEnabled(boolean preallocatedExceptionEnabled) {
+            this.preallocatedExceptionEnabled = preallocatedExceptionEnabled;
+            return this;
+        }
+
         @Nullable
         public String getBaseConfig() {
             return baseConfig;
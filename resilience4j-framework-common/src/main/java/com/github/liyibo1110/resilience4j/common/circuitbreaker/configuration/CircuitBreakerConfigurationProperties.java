@@ -77,6 +77,9 @@ public class CircuitBreakerConfigurationProperties extends CommonProperties {
         if(properties.getWritableStackTraceEnabled() != null)
             builder.writableStackTraceEnabled(properties.getWritableStackTraceEnabled());
 
+        if(properties.getPreallocatedExceptionEnabled() != null)
+            builder.preallocatedExceptionEnabled(properties.getPreallocatedExceptionEnabled());
+
         if(properties.getSlowCallRateThreshold() != null)
             builder.slowCallRateThreshold(properties.getSlowCallRateThreshold());
 
@@ -86,12 +89,27 @@ public class CircuitBreakerConfigurationProperties extends CommonProperties {
         if(properties.getMaxWaitDurationInHalfOpenState() != null)
             builder.maxWaitDurationInHalfOpenState(properties.getMaxWaitDurationInHalfOpenState());
 
+        if(properties.getRampUpDuration() != null)
+            builder.rampUpDuration(properties.getRampUpDuration());
+
+        if(properties.getRampUpStrategy() != null)
+            builder.rampUpStrategy(properties.getRampUpStrategy());
+
+        if(properties.getInitialRampUpRatio() != null)
+            builder.initialRampUpRatio(properties.getInitialRampUpRatio());
+
+        if(properties.getSuccessSamplingRate() != null)
+            builder.successSamplingRate(properties.getSuccessSamplingRate());
+
         if(properties.getRingBufferSizeInClosedState() != null)
             builder.ringBufferSizeInClosedState(properties.getRingBufferSizeInClosedState());
 
         if(properties.getSlidingWindowSize() != null)
             builder.slidingWindowSize(properties.getSlidingWindowSize());
 
+        if(properties.getSlidingWindowBucketWidth() != null)
+            builder.slidingWindowBucketWidth(properties.getSlidingWindowBucketWidth());
+
         if(properties.getMinimumNumberOfCalls() != null)
             builder.minimumNumberOfCalls(properties.getMinimumNumberOfCalls());
 
@@ -195,6 +213,18 @@ public class CircuitBreakerConfigurationProperties extends CommonProperties {
         @Nullable
         private Duration maxWaitDurationInHalfOpenState;
 
+        @Nullable
+        private Duration rampUpDuration;
+
+        @Nullable
+        private CircuitBreakerConfig.RampUpStrategy rampUpStrategy;
+
+        @Nullable
+        private Float initialRampUpRatio;
+
+        @Nullable
+        private Integer successSamplingRate;
+
         @Nullable
         private Float failureRateThreshold;
 
@@ -212,6 +242,9 @@ public class CircuitBreakerConfigurationProperties extends CommonProperties {
         @Nullable
         private Integer slidingWindowSize;
 
+        @Nullable
+        private Duration slidingWindowBucketWidth;
+
         @Nullable
         private Integer minimumNumberOfCalls;
 
@@ -229,6 +262,9 @@ public class CircuitBreakerConfigurationProperties extends CommonProperties {
         @Nullable
         private Boolean writableStackTraceEnabled;
 
+        @Nullable
+        private Boolean preallocatedExceptionEnabled;
+
         @Nullable
         private Boolean allowHealthIndicatorToFail;
 
@@ -335,6 +371,16 @@ public class CircuitBreakerConfigurationProperties extends CommonProperties {
             return this;
         }
 
+        @Nullable
+        public Boolean getPreallocatedExceptionEnabled() {
+            return this.preallocatedExceptionEnabled;
+        }
+
+        public InstanceProperties setPreallocatedExceptionEnabled(Boolean preallocatedExceptionEnabled) {
+            this.preallocatedExceptionEnabled = preallocatedExceptionEnabled;
+            return this;
+        }
+
         @Nullable
         public Integer getEventConsumerBufferSize() {
             return eventConsumerBufferSize;
@@ -447,6 +493,19 @@ public class CircuitBreakerConfigurationProperties extends CommonProperties {
             return this;
         }
 
+        @Nullable
+        public Duration getSlidingWindowBucketWidth() {
+            return slidingWindowBucketWidth;
+        }
+
+        public InstanceProperties setSlidingWindowBucketWidth(Duration slidingWindowBucketWidth) {
+            Objects.requireNonNull(slidingWindowBucketWidth);
+            if(slidingWindowBucketWidth.toMillis() < 1)
+                throw new IllegalArgumentException("slidingWindowBucketWidth must be greater than or equal to 1 ms.");
+            this.slidingWindowBucketWidth = slidingWindowBucketWidth;
+            return this;
+        }
+
         @Nullable
         public Float getSlowCallRateThreshold() {
             return slowCallRateThreshold;
@@ -486,6 +545,55 @@ public class CircuitBreakerConfigurationProperties extends CommonProperties {
             return this;
         }
 
+        @Nullable
+        public Duration getRampUpDuration() {
+            return rampUpDuration;
+        }
+
+        public InstanceProperties setRampUpDuration(Duration rampUpDuration) {
+            Objects.requireNonNull(rampUpDuration);
+            if(rampUpDuration.isNegative())
+                throw new IllegalArgumentException("rampUpDuration must not be negative.");
+            this.rampUpDuration = rampUpDuration;
+            return this;
+        }
+
+        @Nullable
+        public CircuitBreakerConfig.RampUpStrategy getRampUpStrategy() {
+            return rampUpStrategy;
+        }
+
+        public InstanceProperties setRampUpStrategy(CircuitBreakerConfig.RampUpStrategy rampUpStrategy) {
+            this.rampUpStrategy = rampUpStrategy;
+            return this;
+        }
+
+        @Nullable
+        public Float getInitialRampUpRatio() {
+            return initialRampUpRatio;
+        }
+
+        public InstanceProperties setInitialRampUpRatio(Float initialRampUpRatio) {
+            Objects.requireNonNull(initialRampUpRatio);
+            if(initialRampUpRatio <= 0 || initialRampUpRatio > 1)
+                throw new IllegalArgumentException("initialRampUpRatio must be greater than 0 and not greater than 1.");
+            this.initialRampUpRatio = initialRampUpRatio;
+            return this;
+        }
+
+        @Nullable
+        public Integer getSuccessSamplingRate() {
+            return successSamplingRate;
+        }
+
+        public InstanceProperties setSuccessSamplingRate(Integer successSamplingRate) {
+            Objects.requireNonNull(successSamplingRate);
+            if(successSamplingRate < 1 || successSamplingRate > CircuitBreakerConfig.MAX_SUCCESS_SAMPLING_RATE)
+                throw new IllegalArgumentException("successSamplingRate must be between 1 and " + CircuitBreakerConfig.MAX_SUCCESS_SAMPLING_RATE + ".");
+            this.successSamplingRate = successSamplingRate;
+            return this;
+        }
+
         @Nullable
         public CircuitBreakerConfig.SlidingWindowType getSlidingWindowType() {
             return slidingWindowType;
@@ -67,6 +67,18 @@ public class RateLimiterConfigurationProperties extends CommonProperties {
         if(instanceProperties.getWritableStackTraceEnabled() != null)
             builder.writableStackTraceEnabled(instanceProperties.getWritableStackTraceEnabled());
 
+        if(instanceProperties.getPreallocatedExceptionEnabled() != null)
+            builder.preallocatedExceptionEnabled(instanceProperties.getPreallocatedExceptionEnabled());
+
+        if(instanceProperties.getRateLimiterType() != null)
+            builder.rateLimiterType(instanceProperties.getRateLimiterType());
+
+        if(instanceProperties.getSustainedRate() != null)
+            builder.sustainedRate(instanceProperties.getSustainedRate());
+
+        if(instanceProperties.getBurstSize() != null)
+            builder.burstSize(instanceProperties.getBurstSize());
+
         customizer.getCustomizer(instanceName).ifPresent(c -> c.customize(builder));
         return builder.build();
     }
@@ -113,6 +125,14 @@ public class RateLimiterConfigurationProperties extends CommonProperties {
         @Nullable
         private Boolean writableStackTraceEnabled;
         @Nullable
+        private Boolean preallocatedExceptionEnabled;
+        @Nullable
+        private RateLimiterConfig.RateLimiterType rateLimiterType;
+        @Nullable
+        private Double sustainedRate;
+        @Nullable
+        private Integer burstSize;
+        @Nullable
         private String baseConfig;
 
         @Nullable
@@ -154,6 +174,45 @@ public class RateLimiterConfigurationProperties extends CommonProperties {
             return this;
         }
 
+        public Boolean getPreallocatedExceptionEnabled() {
+            return this.preallocatedExceptionEnabled;
+        }
+
+        public InstanceProperties setPreallocatedExceptionEnabled(Boolean preallocatedExceptionEnabled) {
+            this.preallocatedExceptionEnabled = preallocatedExceptionEnabled;
+            return this;
+        }
+
+        @Nullable
+        public RateLimiterConfig.RateLimiterType getRateLimiterType() {
+            return rateLimiterType;
+        }
+
+        public InstanceProperties setRateLimiterType(RateLimiterConfig.RateLimiterType rateLimiterType) {
+            this.rateLimiterType = rateLimiterType;
+            return this;
+        }
+
+        @Nullable
+        public Double getSustainedRate() {
+            return sustainedRate;
+        }
+
+        public InstanceProperties setSustainedRate(Double sustainedRate) {
+            this.sustainedRate = sustainedRate;
+            return this;
+        }
+
+        @Nullable
+        public Integer getBurstSize() {
+            return burstSize;
+        }
+
+        public InstanceProperties setBurstSize(Integer burstSize) {
+            this.burstSize = burstSize;
+            return this;
+        }
+
         public Boolean getSubscribeForEvents() {
             return subscribeForEvents;
         }
@@ -1,5 +1,6 @@
 package com.github.liyibo1110.resilience4j.common.utils;
 
+import com.github.liyibo1110.resilience4j.common.adaptivelimiter.configuration.AdaptiveLimiterConfigurationProperties;
 import com.github.liyibo1110.resilience4j.common.bulkhead.configuration.BulkheadConfigurationProperties;
 import com.github.liyibo1110.resilience4j.common.circuitbreaker.configuration.CircuitBreakerConfigurationProperties;
 import com.github.liyibo1110.resilience4j.common.ratelimiter.configuration.RateLimiterConfigurationProperties;
@@ -39,6 +40,15 @@ public final class ConfigUtils {
             instanceProperties.setEventConsumerBufferSize(baseProperties.getEventConsumerBufferSize());
     }
 
+    /**
+     * 合并AdaptiveLimiter组件相关的属性
+     */
+    public static void mergePropertiesIfAny(AdaptiveLimiterConfigurationProperties.InstanceProperties baseProperties,
+                                            AdaptiveLimiterConfigurationProperties.InstanceProperties instanceProperties) {
+        if(instanceProperties.getEventConsumerBufferSize() == null && baseProperties.getEventConsumerBufferSize() != null)
+            instanceProperties.setEventConsumerBufferSize(baseProperties.getEventConsumerBufferSize());
+    }
+
     /**
      * 合并RateLimiter组件相关的属性
      */
@@ -0,0 +1,53 @@
+package com.github.liyibo1110.resilience4j.micrometer.tagged;
+
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author liyibo
+ * @date 2026-10-18 23:56
+ */
+abstract class AbstractAdaptiveLimiterMetrics extends AbstractMetrics {
+    protected final AdaptiveLimiterMetricNames names;
+
+    protected AbstractAdaptiveLimiterMetrics(AdaptiveLimiterMetricNames names) {
+        this.names = requireNonNull(names);
+    }
+
+    protected void addMetrics(MeterRegistry meterRegistry, AdaptiveLimiter adaptiveLimiter) {
+        List<Tag> customTags = mapToTagsList(adaptiveLimiter.getTags().toJavaMap());
+        registerMetrics(meterRegistry, adaptiveLimiter, customTags);
+    }
+
+    private void registerMetrics(MeterRegistry meterRegistry, AdaptiveLimiter adaptiveLimiter, List<Tag> customTags) {
+        removeMetrics(meterRegistry, adaptiveLimiter.getName());
+
+        Set<Meter.Id> idSet = new HashSet<>();
+        idSet.add(Gauge.builder(names.getLimitMetricName(), adaptiveLimiter, al -> al.getMetrics().getLimit())
+                .description("The current concurrency limit")
+                .tag(TagNames.NAME, adaptiveLimiter.getName())
+                .tags(customTags)
+                .register(meterRegistry).getId());
+        idSet.add(Gauge.builder(names.getInFlightCallsMetricName(), adaptiveLimiter, al -> al.getMetrics().getNumberOfInFlightCalls())
+                .description("The number of in-flight calls")
+                .tag(TagNames.NAME, adaptiveLimiter.getName())
+                .tags(customTags)
+                .register(meterRegistry).getId());
+        idSet.add(Gauge.builder(names.getAvailablePermissionsMetricName(), adaptiveLimiter, al -> al.getMetrics().getAvailablePermissions())
+                .description("The number of available permissions")
+                .tag(TagNames.NAME, adaptiveLimiter.getName())
+                .tags(customTags)
+                .register(meterRegistry).getId());
+
+        meterIdMap.put(adaptiveLimiter.getName(), idSet);
+    }
+}
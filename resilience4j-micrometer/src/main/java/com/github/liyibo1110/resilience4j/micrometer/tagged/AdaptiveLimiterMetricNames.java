@@ -0,0 +1,63 @@
+package com.github.liyibo1110.resilience4j.micrometer.tagged;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author liyibo
+ * @date 2026-10-18 23:55
+ */
+public class AdaptiveLimiterMetricNames {
+    private static final String DEFAULT_PREFIX = "resilience4j.adaptivelimiter";
+
+    public static final String DEFAULT_ADAPTIVE_LIMITER_LIMIT_METRIC_NAME = DEFAULT_PREFIX + ".limit";
+    public static final String DEFAULT_ADAPTIVE_LIMITER_IN_FLIGHT_CALLS_METRIC_NAME = DEFAULT_PREFIX + ".in.flight.calls";
+    public static final String DEFAULT_ADAPTIVE_LIMITER_AVAILABLE_PERMISSIONS_METRIC_NAME = DEFAULT_PREFIX + ".available.permissions";
+    private String limitMetricName = DEFAULT_ADAPTIVE_LIMITER_LIMIT_METRIC_NAME;
+    private String inFlightCallsMetricName = DEFAULT_ADAPTIVE_LIMITER_IN_FLIGHT_CALLS_METRIC_NAME;
+    private String availablePermissionsMetricName = DEFAULT_ADAPTIVE_LIMITER_AVAILABLE_PERMISSIONS_METRIC_NAME;
+
+    protected AdaptiveLimiterMetricNames() {}
+
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    public static AdaptiveLimiterMetricNames ofDefaults() {
+        return new AdaptiveLimiterMetricNames();
+    }
+
+    public String getLimitMetricName() {
+        return limitMetricName;
+    }
+
+    public String getInFlightCallsMetricName() {
+        return inFlightCallsMetricName;
+    }
+
+    public String getAvailablePermissionsMetricName() {
+        return availablePermissionsMetricName;
+    }
+
+    public static class Builder {
+        private final AdaptiveLimiterMetricNames metricNames = new AdaptiveLimiterMetricNames();
+
+        public Builder limitMetricName(String limitMetricName) {
+            metricNames.limitMetricName = requireNonNull(limitMetricName);
+            return this;
+        }
+
+        public Builder inFlightCallsMetricName(String inFlightCallsMetricName) {
+            metricNames.inFlightCallsMetricName = requireNonNull(inFlightCallsMetricName);
+            return this;
+        }
+
+        public Builder availablePermissionsMetricName(String availablePermissionsMetricName) {
+            metricNames.availablePermissionsMetricName = requireNonNull(availablePermissionsMetricName);
+            return this;
+        }
+
+        public AdaptiveLimiterMetricNames build() {
+            return metricNames;
+        }
+    }
+}
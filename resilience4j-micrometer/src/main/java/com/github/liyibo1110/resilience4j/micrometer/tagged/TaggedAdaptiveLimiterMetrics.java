@@ -0,0 +1,42 @@
+package com.github.liyibo1110.resilience4j.micrometer.tagged;
+
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiter;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author liyibo
+ * @date 2026-10-18 23:57
+ */
+public class TaggedAdaptiveLimiterMetrics extends AbstractAdaptiveLimiterMetrics implements MeterBinder {
+    private final AdaptiveLimiterRegistry adaptiveLimiterRegistry;
+
+    private TaggedAdaptiveLimiterMetrics(AdaptiveLimiterMetricNames names, AdaptiveLimiterRegistry adaptiveLimiterRegistry) {
+        super(names);
+        this.adaptiveLimiterRegistry = requireNonNull(adaptiveLimiterRegistry);
+    }
+
+    public static TaggedAdaptiveLimiterMetrics ofAdaptiveLimiterRegistry(AdaptiveLimiterRegistry adaptiveLimiterRegistry) {
+        return new TaggedAdaptiveLimiterMetrics(AdaptiveLimiterMetricNames.ofDefaults(), adaptiveLimiterRegistry);
+    }
+
+    public static TaggedAdaptiveLimiterMetrics ofAdaptiveLimiterRegistry(AdaptiveLimiterMetricNames names, AdaptiveLimiterRegistry adaptiveLimiterRegistry) {
+        return new TaggedAdaptiveLimiterMetrics(names, adaptiveLimiterRegistry);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for(AdaptiveLimiter adaptiveLimiter : adaptiveLimiterRegistry.getAllAdaptiveLimiters())
+            addMetrics(registry, adaptiveLimiter);
+
+        adaptiveLimiterRegistry.getEventPublisher().onEntryAdded(event -> addMetrics(registry, event.getAddedEntry()));
+        adaptiveLimiterRegistry.getEventPublisher().onEntryRemoved(event -> removeMetrics(registry, event.getRemovedEntry().getName()));
+        adaptiveLimiterRegistry.getEventPublisher().onEntryReplaced(event -> {
+            removeMetrics(registry, event.getOldEntry().getName());
+            addMetrics(registry, event.getNewEntry());
+        });
+    }
+}
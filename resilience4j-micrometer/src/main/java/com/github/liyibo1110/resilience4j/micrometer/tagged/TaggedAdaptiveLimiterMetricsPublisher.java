@@ -0,0 +1,35 @@
+package com.github.liyibo1110.resilience4j.micrometer.tagged;
+
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiter;
+import com.github.liyibo1110.resilience4j.core.metrics.MetricsPublisher;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * @author liyibo
+ * @date 2026-10-18 23:58
+ */
+public class TaggedAdaptiveLimiterMetricsPublisher extends AbstractAdaptiveLimiterMetrics implements MetricsPublisher<AdaptiveLimiter> {
+    private final MeterRegistry meterRegistry;
+
+    public TaggedAdaptiveLimiterMetricsPublisher(MeterRegistry meterRegistry) {
+        super(AdaptiveLimiterMetricNames.ofDefaults());
+        this.meterRegistry = requireNonNull(meterRegistry);
+    }
+
+    public TaggedAdaptiveLimiterMetricsPublisher(AdaptiveLimiterMetricNames names, MeterRegistry meterRegistry) {
+        super(names);
+        this.meterRegistry = requireNonNull(meterRegistry);
+    }
+
+    @Override
+    public void publishMetrics(AdaptiveLimiter entry) {
+        addMetrics(meterRegistry, entry);
+    }
+
+    @Override
+    public void removeMetrics(AdaptiveLimiter entry) {
+        removeMetrics(meterRegistry, entry.getName());
+    }
+}
@@ -1,12 +1,17 @@
 package com.github.liyibo1110.resilience4j.ratelimiter;
 
 import com.github.liyibo1110.resilience4j.core.EventConsumer;
+import com.github.liyibo1110.resilience4j.core.HashedWheelScheduler;
 import com.github.liyibo1110.resilience4j.core.exception.AcquirePermissionCancelledException;
+import com.github.liyibo1110.resilience4j.core.lang.Nullable;
 import com.github.liyibo1110.resilience4j.core.metrics.Metrics;
 import com.github.liyibo1110.resilience4j.ratelimiter.event.RateLimiterEvent;
 import com.github.liyibo1110.resilience4j.ratelimiter.event.RateLimiterOnFailureEvent;
 import com.github.liyibo1110.resilience4j.ratelimiter.event.RateLimiterOnSuccessEvent;
 import com.github.liyibo1110.resilience4j.ratelimiter.internal.AtomicRateLimiter;
+import com.github.liyibo1110.resilience4j.ratelimiter.internal.GcraRateLimiter;
+import com.github.liyibo1110.resilience4j.ratelimiter.internal.PackedAtomicRateLimiter;
+import com.github.liyibo1110.resilience4j.ratelimiter.internal.StripedRateLimiter;
 import io.vavr.CheckedFunction0;
 import io.vavr.CheckedFunction1;
 import io.vavr.CheckedRunnable;
@@ -19,7 +24,11 @@ import java.time.Duration;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -35,8 +44,16 @@ public interface RateLimiter {
         return of(name, config, HashMap.empty());
     }
 
+    /**
+     * 根据config里的rateLimiterType创建对应的实现
+     */
     static RateLimiter of(String name, RateLimiterConfig config, Map<String, String> tags) {
-        return new AtomicRateLimiter(name, config, tags);
+        return switch(config.getRateLimiterType()) {
+            case PACKED_ATOMIC -> new PackedAtomicRateLimiter(name, config, tags);
+            case STRIPED -> new StripedRateLimiter(name, config, tags);
+            case GCRA -> new GcraRateLimiter(name, config, tags);
+            default -> new AtomicRateLimiter(name, config, tags);
+        };
     }
 
     static RateLimiter of(String name, Supplier<RateLimiterConfig> configSupplier) {
@@ -45,7 +62,7 @@ public interface RateLimiter {
 
     static RateLimiter of(String name, Supplier<RateLimiterConfig> configSupplier,
                           Map<String, String> tags) {
-        return new AtomicRateLimiter(name, configSupplier.get(), tags);
+        return of(name, configSupplier.get(), tags);
     }
 
     static RateLimiter ofDefaults(String name) {
@@ -57,29 +74,41 @@ public interface RateLimiter {
         return decorateCompletionStage(rateLimiter, 1, supplier);
     }
 
+    /**
+     * 使用共享的HashedWheelScheduler等待许可，不会阻塞调用线程，但等待时间最多会晚一个tick（10毫秒），
+     * 拿到许可之后supplier在ForkJoinPool.commonPool()上调用，不占用时间轮的线程
+     */
     static <T> Supplier<CompletionStage<T>> decorateCompletionStage(RateLimiter rateLimiter,
                                                                     int permits, Supplier<CompletionStage<T>> supplier) {
-        return () -> {
-            final CompletableFuture<T> promise = new CompletableFuture<>();
+        return decorateCompletionStage(rateLimiter, permits, HashedWheelScheduler.getSharedInstance(), supplier);
+    }
+
+    static <T> Supplier<CompletionStage<T>> decorateCompletionStage(RateLimiter rateLimiter, int permits,
+                                                                    ScheduledExecutorService scheduler,
+                                                                    Supplier<CompletionStage<T>> supplier) {
+        return decorateCompletionStage(rateLimiter, permits, scheduler, ForkJoinPool.commonPool(), supplier);
+    }
+
+    /**
+     * 通过acquirePermissionAsync等待许可，等待期间不占用任何线程，scheduler只负责完成许可的CompletionStage，
+     * 拿到许可之后在executor上调用supplier，所以supplier和之后的回调都不会跑在scheduler的线程上
+     */
+    static <T> Supplier<CompletionStage<T>> decorateCompletionStage(RateLimiter rateLimiter, int permits,
+                                                                    ScheduledExecutorService scheduler, Executor executor,
+                                                                    Supplier<CompletionStage<T>> supplier) {
+        return () -> rateLimiter.acquirePermissionAsync(permits, scheduler, executor).thenComposeAsync(permitted -> {
             try {
-                waitForPermission(rateLimiter, permits);
-                supplier.get().whenComplete((result, t) -> {
-                    if(t == null) {
+                return supplier.get().whenComplete((result, t) -> {
+                    if(t == null)
                         rateLimiter.onResult(result);
-                        promise.complete(result);
-                    }else {
+                    else
                         rateLimiter.onError(t);
-                        promise.completeExceptionally(t);
-                    }
                 });
-            } catch (RequestNotPermitted requestNotPermitted) {
-                promise.completeExceptionally(requestNotPermitted);
             } catch (Exception e) {
                 rateLimiter.onError(e);
-                promise.completeExceptionally(e);
+                throw e;
             }
-            return promise;
-        };
+        }, executor);
     }
 
     static <T, F extends Future<T>> Supplier<F> decorateFuture(RateLimiter rateLimiter, Supplier<? extends F> supplier) {
@@ -302,6 +331,67 @@ public interface RateLimiter {
      */
     long reservePermission(int permits);
 
+    default CompletionStage<Void> acquirePermissionAsync(ScheduledExecutorService scheduler) {
+        return this.acquirePermissionAsync(1, scheduler);
+    }
+
+    default CompletionStage<Void> acquirePermissionAsync(int permits, ScheduledExecutorService scheduler) {
+        return this.acquirePermissionAsync(permits, scheduler, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 异步请求n个许可：先用reservePermission预定，需要等待时由scheduler在到期后完成返回的CompletionStage，等待期间不占用线程。
+     * 在timeoutDuration内拿不到许可时以RequestNotPermitted异常完成，scheduler拒绝任务时以它抛出的异常完成（已经预定的许可不会归还）。
+     * 不支持预定的实现（supportsReservation返回false）：timeoutDuration为0时在调用线程上直接尝试一次，不会阻塞，
+     * 否则在executor上同步调用acquirePermission等待。
+     */
+    default CompletionStage<Void> acquirePermissionAsync(int permits, ScheduledExecutorService scheduler, Executor executor) {
+        final CompletableFuture<Void> promise = new CompletableFuture<>();
+        if(!this.supportsReservation()) {
+            if(this.getRateLimiterConfig().getTimeoutDuration().isZero()) {
+                completePermission(this, promise, this.acquirePermission(permits));
+                return promise;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        completePermission(this, promise, this.acquirePermission(permits));
+                    } catch (Throwable t) {
+                        promise.completeExceptionally(t);
+                    }
+                });
+            } catch (RuntimeException e) {
+                promise.completeExceptionally(e);
+            }
+            return promise;
+        }
+        long nanosToWait = this.reservePermission(permits);
+        if(nanosToWait <= 0) {
+            completePermission(this, promise, nanosToWait == 0);
+        }else {
+            try {
+                scheduler.schedule(() -> promise.complete(null), nanosToWait, TimeUnit.NANOSECONDS);
+            } catch (RuntimeException e) {
+                promise.completeExceptionally(e);
+            }
+        }
+        return promise;
+    }
+
+    private static void completePermission(RateLimiter rateLimiter, CompletableFuture<Void> promise, boolean permitted) {
+        if(permitted)
+            promise.complete(null);
+        else
+            promise.completeExceptionally(RequestNotPermitted.createRequestNotPermitted(rateLimiter));
+    }
+
+    /**
+     * 是否支持reservePermission，不支持的实现（SemaphoreBasedRateLimiter）只能同步等待许可
+     */
+    default boolean supportsReservation() {
+        return true;
+    }
+
     /**
      * 清空当前period的所有剩余的许可
      */
@@ -334,6 +424,15 @@ public interface RateLimiter {
     Metrics getMetrics();
     EventPublisher getEventPublisher();
 
+    /**
+     * 启用了preallocatedExceptionEnabled时RequestNotPermitted.createRequestNotPermitted会使用这个缓存的实例，
+     * 返回null表示不支持，每次都新建
+     */
+    @Nullable
+    default RequestNotPermitted getPreallocatedRequestNotPermitted() {
+        return null;
+    }
+
     default <T> T executeSupplier(Supplier<T> supplier) {
         return executeSupplier(1, supplier);
     }
@@ -19,6 +19,9 @@ public class RateLimiterConfig implements Serializable {
     private static final String LIMIT_REFRESH_PERIOD_MUST_NOT_BE_NULL = "LimitRefreshPeriod must not be null";
     private static final Duration ACCEPTABLE_REFRESH_PERIOD = Duration.ofNanos(1L);
     private static final boolean DEFAULT_WRITABLE_STACK_TRACE_ENABLED = true;
+    private static final boolean DEFAULT_PREALLOCATED_EXCEPTION_ENABLED = false;
+    private static final RateLimiterType DEFAULT_RATE_LIMITER_TYPE = RateLimiterType.ATOMIC;
+    private static final int DEFAULT_BURST_SIZE = 1;
 
     /** 核心参数：如果没有可用的许可，会等待多久 */
     private final Duration timeoutDuration;
@@ -31,15 +34,30 @@ public class RateLimiterConfig implements Serializable {
 
     private final Predicate<Either<? extends Throwable, ?>> drainPermissionsOnResult;
     private final boolean writableStackTraceEnabled;
+    private final boolean preallocatedExceptionEnabled;
+
+    /** RateLimiter.of和RateLimiterRegistry根据它来选择实现类 */
+    private final RateLimiterType rateLimiterType;
+
+    /** GCRA专用：每秒的平均许可数，为0表示按limitForPeriod / limitRefreshPeriod换算 */
+    private final double sustainedRate;
+
+    /** GCRA专用：空闲之后最多可以连续立即放行多少个许可，为1时许可之间的间隔总是均匀的 */
+    private final int burstSize;
 
     private RateLimiterConfig(Duration timeoutDuration, Duration limitRefreshPeriod, int limitForPeriod,
                               Predicate<Either<? extends Throwable, ?>> drainPermissionsOnResult,
-                              boolean writableStackTraceEnabled) {
+                              boolean writableStackTraceEnabled, boolean preallocatedExceptionEnabled,
+                              RateLimiterType rateLimiterType, double sustainedRate, int burstSize) {
         this.timeoutDuration = timeoutDuration;
         this.limitRefreshPeriod = limitRefreshPeriod;
         this.limitForPeriod = limitForPeriod;
         this.drainPermissionsOnResult = drainPermissionsOnResult;
         this.writableStackTraceEnabled = writableStackTraceEnabled;
+        this.preallocatedExceptionEnabled = preallocatedExceptionEnabled;
+        this.rateLimiterType = rateLimiterType;
+        this.sustainedRate = sustainedRate;
+        this.burstSize = burstSize;
     }
 
     public static Builder custom() {
@@ -92,6 +110,36 @@ public class RateLimiterConfig implements Serializable {
         return writableStackTraceEnabled;
     }
 
+    public boolean isPreallocatedExceptionEnabled() {
+        return preallocatedExceptionEnabled;
+    }
+
+    public RateLimiterType getRateLimiterType() {
+        return rateLimiterType;
+    }
+
+    /**
+     * 每秒的平均许可数，没有单独配置时按limitForPeriod / limitRefreshPeriod换算（这时changeLimitForPeriod也会改变它）
+     */
+    public double getSustainedRate() {
+        if(sustainedRate > 0)
+            return sustainedRate;
+        return limitForPeriod * 1_000_000_000d / limitRefreshPeriod.toNanos();
+    }
+
+    public int getBurstSize() {
+        return burstSize;
+    }
+
+    /**
+     * RateLimiter的实现类型：ATOMIC是AtomicRateLimiter，PACKED_ATOMIC是状态打包成long、不分配对象的PackedAtomicRateLimiter，
+     * STRIPED是把许可分散到多个stripe上的StripedRateLimiter，这三种都是每个周期开始时补满limitForPeriod个许可；
+     * GCRA是GcraRateLimiter，按sustainedRate均匀放行，空闲之后最多连续放行burstSize个，不会在周期开始时集中放行
+     */
+    public enum RateLimiterType {
+        ATOMIC, PACKED_ATOMIC, STRIPED, GCRA
+    }
+
     @Override
     public String toString() {
         return "RateLimiterConfig{" +
@@ -99,6 +147,10 @@ public class RateLimiterConfig implements Serializable {
                 ", limitRefreshPeriod=" + limitRefreshPeriod +
                 ", limitForPeriod=" + limitForPeriod +
                 ", writableStackTraceEnabled=" + writableStackTraceEnabled +
+                ", preallocatedExceptionEnabled=" + preallocatedExceptionEnabled +
+                ", rateLimiterType=" + rateLimiterType +
+                ", sustainedRate=" + sustainedRate +
+                ", burstSize=" + burstSize +
                 '}';
     }
 
@@ -108,6 +160,10 @@ public class RateLimiterConfig implements Serializable {
         private int limitForPeriod = 50;    // 50个并发许可
         private Predicate<Either<? extends Throwable, ?>> drainPermissionsOnResult = any -> false;  // 默认都是false
         private boolean writableStackTraceEnabled = DEFAULT_WRITABLE_STACK_TRACE_ENABLED;
+        private boolean preallocatedExceptionEnabled = DEFAULT_PREALLOCATED_EXCEPTION_ENABLED;
+        private RateLimiterType rateLimiterType = DEFAULT_RATE_LIMITER_TYPE;
+        private double sustainedRate = 0;
+        private int burstSize = DEFAULT_BURST_SIZE;
 
         public Builder() {}
 
@@ -117,11 +173,41 @@ public class RateLimiterConfig implements Serializable {
             this.limitForPeriod = prototype.limitForPeriod;
             this.drainPermissionsOnResult = prototype.drainPermissionsOnResult;
             this.writableStackTraceEnabled = prototype.writableStackTraceEnabled;
+            this.preallocatedExceptionEnabled = prototype.preallocatedExceptionEnabled;
+            this.rateLimiterType = prototype.rateLimiterType;
+            this.sustainedRate = prototype.sustainedRate;
+            this.burstSize = prototype.burstSize;
         }
 
         public RateLimiterConfig build() {
             return new RateLimiterConfig(timeoutDuration, limitRefreshPeriod, limitForPeriod,
-                    drainPermissionsOnResult, writableStackTraceEnabled);
+                    drainPermissionsOnResult, writableStackTraceEnabled, preallocatedExceptionEnabled,
+                    rateLimiterType, sustainedRate, burstSize);
+        }
+
+        public Builder rateLimiterType(RateLimiterType rateLimiterType) {
+            this.rateLimiterType = requireNonNull(rateLimiterType, "RateLimiterType must not be null");
+            return this;
+        }
+
+        /**
+         * GCRA专用：每秒的平均许可数，可以是小数（例如0.5表示每2秒1个）
+         */
+        public Builder sustainedRate(double sustainedRate) {
+            if(!(sustainedRate > 0) || Double.isInfinite(sustainedRate))
+                throw new IllegalArgumentException("SustainedRate should be greater than 0");
+            this.sustainedRate = sustainedRate;
+            return this;
+        }
+
+        /**
+         * GCRA专用：空闲之后最多可以连续立即放行多少个许可
+         */
+        public Builder burstSize(int burstSize) {
+            if(burstSize < 1)
+                throw new IllegalArgumentException("BurstSize should be greater than 0");
+            this.burstSize = burstSize;
+            return this;
         }
 
         public Builder writableStackTraceEnabled(boolean writableStackTraceEnabled) {
@@ -129,6 +215,14 @@ public class RateLimiterConfig implements Serializable {
             return this;
         }
 
+        /**
+         * 启用后，每个RateLimiter缓存一个没有堆栈的RequestNotPermitted，拿不到许可时直接抛出同一个实例
+         */
+        public Builder preallocatedExceptionEnabled(boolean preallocatedExceptionEnabled) {
+            this.preallocatedExceptionEnabled = preallocatedExceptionEnabled;
+            return this;
+        }
+
         public Builder drainPermissionsOnResult(Predicate<Either<? extends Throwable, ?>> drainPermissionsOnResult) {
             this.drainPermissionsOnResult = drainPermissionsOnResult;
             return this;
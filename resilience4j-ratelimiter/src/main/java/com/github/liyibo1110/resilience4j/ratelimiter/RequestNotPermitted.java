@@ -11,9 +11,25 @@ public class RequestNotPermitted extends RuntimeException {
         super(message, null, false, writableStackTrace);
     }
 
+    /**
+     * 启用了preallocatedExceptionEnabled时，返回RateLimiter实例缓存的实例（实例不支持缓存时仍然新建）
+     */
     public static RequestNotPermitted createRequestNotPermitted(RateLimiter rateLimiter) {
+        if(rateLimiter.getRateLimiterConfig().isPreallocatedExceptionEnabled()) {
+            RequestNotPermitted preallocated = rateLimiter.getPreallocatedRequestNotPermitted();
+            if(preallocated != null)
+                return preallocated;
+        }
         boolean writableStackTraceEnabled = rateLimiter.getRateLimiterConfig().isWritableStackTraceEnabled();
         String message = String.format("RateLimiter '%s' does not permit further calls", rateLimiter.getName());
         return new RequestNotPermitted(message, writableStackTraceEnabled);
     }
+
+    /**
+     * 创建用于缓存的实例，会被反复抛出，所以总是不带堆栈
+     */
+    public static RequestNotPermitted createPreallocatedRequestNotPermitted(String rateLimiterName) {
+        String message = String.format("RateLimiter '%s' does not permit further calls", rateLimiterName);
+        return new RequestNotPermitted(message, false);
+    }
 }
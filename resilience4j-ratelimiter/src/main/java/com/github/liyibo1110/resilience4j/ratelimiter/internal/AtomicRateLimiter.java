@@ -1,7 +1,10 @@
 package com.github.liyibo1110.resilience4j.ratelimiter.internal;
 
+import com.github.liyibo1110.resilience4j.core.CoarseClock;
+import com.github.liyibo1110.resilience4j.core.lang.Nullable;
 import com.github.liyibo1110.resilience4j.ratelimiter.RateLimiter;
 import com.github.liyibo1110.resilience4j.ratelimiter.RateLimiterConfig;
+import com.github.liyibo1110.resilience4j.ratelimiter.RequestNotPermitted;
 import com.github.liyibo1110.resilience4j.ratelimiter.event.RateLimiterOnDrainedEvent;
 import com.github.liyibo1110.resilience4j.ratelimiter.event.RateLimiterOnFailureEvent;
 import com.github.liyibo1110.resilience4j.ratelimiter.event.RateLimiterOnSuccessEvent;
@@ -9,6 +12,7 @@ import io.vavr.collection.HashMap;
 import io.vavr.collection.Map;
 
 import java.time.Duration;
+import java.util.function.LongSupplier;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.LockSupport;
@@ -25,6 +29,9 @@ import java.util.concurrent.locks.LockSupport;
 public class AtomicRateLimiter implements RateLimiter {
     /** AtomicRateLimiter实例的生成时间点 */
     private final long nanoTimeStart;
+
+    /** 纳秒时间源，默认是System.nanoTime()，也可以是CoarseClock缓存的nanoTime */
+    private final LongSupplier nanoTime;
     private final String name;
 
     /** 等候许可的线程总数，只用来做统计 */
@@ -35,19 +42,48 @@ public class AtomicRateLimiter implements RateLimiter {
     private final Map<String, String> tags;
     private final RateLimiterEventProcessor eventProcessor;
 
+    /** 缓存的RequestNotPermitted，启用了preallocatedExceptionEnabled后第一次拒绝时才创建 */
+    @Nullable
+    private volatile RequestNotPermitted preallocatedException;
+
     public AtomicRateLimiter(String name, RateLimiterConfig config) {
         this(name, config, HashMap.empty());
     }
 
     public AtomicRateLimiter(String name, RateLimiterConfig config, Map<String, String> tags) {
+        this(name, config, tags, System::nanoTime);
+    }
+
+    /**
+     * 使用CoarseClock作为时间源，每次获取许可都只需要一次volatile读，但周期的计算精度会降低到CoarseClock的刷新间隔
+     */
+    public AtomicRateLimiter(String name, RateLimiterConfig config, Map<String, String> tags, CoarseClock clock) {
+        this(name, config, tags, clock::nanoTime);
+    }
+
+    private AtomicRateLimiter(String name, RateLimiterConfig config, Map<String, String> tags, LongSupplier nanoTime) {
         this.name = name;
         this.tags = tags;
-        this.nanoTimeStart = System.nanoTime();
+        this.nanoTime = nanoTime;
+        this.nanoTimeStart = nanoTime.getAsLong();
         this.waitingThreads = new AtomicInteger(0);
         this.state = new AtomicReference<>(new State(config, 0, config.getLimitForPeriod(), 0));
         this.eventProcessor = new RateLimiterEventProcessor();
     }
 
+    /**
+     * 返回缓存的RequestNotPermitted（并发创建了多个也没关系，都是等价的实例）
+     */
+    @Override
+    public RequestNotPermitted getPreallocatedRequestNotPermitted() {
+        RequestNotPermitted exception = this.preallocatedException;
+        if(exception == null) {
+            exception = RequestNotPermitted.createPreallocatedRequestNotPermitted(this.name);
+            this.preallocatedException = exception;
+        }
+        return exception;
+    }
+
     @Override
     public void changeTimeoutDuration(Duration timeoutDuration) {
         RateLimiterConfig newConfig = RateLimiterConfig.from(state.get().config)
@@ -70,7 +106,7 @@ public class AtomicRateLimiter implements RateLimiter {
      * 计算从AtomicRateLimiter实例创建后，经过了多少时间
      */
     private long currentNanoTime() {
-        return System.nanoTime() - this.nanoTimeStart;
+        return this.nanoTime.getAsLong() - this.nanoTimeStart;
     }
 
     long getNanoTimeStart() {
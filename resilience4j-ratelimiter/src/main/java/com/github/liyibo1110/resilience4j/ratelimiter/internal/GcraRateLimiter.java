@@ -0,0 +1,283 @@
+package com.github.liyibo1110.resilience4j.ratelimiter.internal;
+
+import com.github.liyibo1110.resilience4j.core.lang.Nullable;
+import com.github.liyibo1110.resilience4j.ratelimiter.RateLimiter;
+import com.github.liyibo1110.resilience4j.ratelimiter.RateLimiterConfig;
+import com.github.liyibo1110.resilience4j.ratelimiter.RequestNotPermitted;
+import com.github.liyibo1110.resilience4j.ratelimiter.event.RateLimiterOnDrainedEvent;
+import com.github.liyibo1110.resilience4j.ratelimiter.event.RateLimiterOnFailureEvent;
+import com.github.liyibo1110.resilience4j.ratelimiter.event.RateLimiterOnSuccessEvent;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.Map;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于GCRA（Generic Cell Rate Algorithm，等价于漏桶）的RateLimiter，整个状态只有一个long：理论到达时间TAT（theoretical arrival time）。
+ * 每个许可占用emissionInterval（1 / sustainedRate）的时间，申请n个许可时TAT推进n * emissionInterval，
+ * 只要推进后的TAT不超过当前时间 + burstSize * emissionInterval就可以立即放行，否则需要等到满足为止。
+ * 和AtomicRateLimiter在每个周期开始时补满limitForPeriod个许可不同，这里的许可是均匀放出的，
+ * 空闲之后最多只能连续立即放行burstSize个，所以不会在每个周期开始的瞬间把下游打满。
+ * @author liyibo
+ * @date 2026-10-18 22:20
+ */
+public class GcraRateLimiter implements RateLimiter {
+
+    /** burstSize * emissionInterval的上限，避免极小的sustainedRate导致溢出 */
+    private static final long MAX_TOLERANCE_IN_NANOS = Long.MAX_VALUE / 4;
+
+    /** GcraRateLimiter实例的生成时间点 */
+    private final long nanoTimeStart;
+    private final String name;
+
+    /** 等候许可的线程总数，只用来做统计 */
+    private final AtomicInteger waitingThreads;
+
+    /** 理论到达时间（相对于nanoTimeStart的纳秒数），不大于当前时间时表示可以连续放行burstSize个许可 */
+    private final AtomicLong theoreticalArrivalTime;
+
+    private final AtomicReference<RateLimiterConfig> config;
+    private final Map<String, String> tags;
+    private final RateLimiterEventProcessor eventProcessor;
+    private final GcraRateLimiterMetrics metrics;
+
+    /** 缓存的RequestNotPermitted，启用了preallocatedExceptionEnabled后第一次拒绝时才创建 */
+    @Nullable
+    private volatile RequestNotPermitted preallocatedException;
+
+    public GcraRateLimiter(String name, RateLimiterConfig config) {
+        this(name, config, HashMap.empty());
+    }
+
+    public GcraRateLimiter(String name, RateLimiterConfig config, Map<String, String> tags) {
+        this.name = name;
+        this.tags = tags;
+        this.nanoTimeStart = System.nanoTime();
+        this.waitingThreads = new AtomicInteger(0);
+        this.theoreticalArrivalTime = new AtomicLong(0);
+        this.config = new AtomicReference<>(config);
+        this.eventProcessor = new RateLimiterEventProcessor();
+        this.metrics = new GcraRateLimiterMetrics();
+    }
+
+    /**
+     * 返回缓存的RequestNotPermitted（并发创建了多个也没关系，都是等价的实例）
+     */
+    @Override
+    public RequestNotPermitted getPreallocatedRequestNotPermitted() {
+        RequestNotPermitted exception = this.preallocatedException;
+        if(exception == null) {
+            exception = RequestNotPermitted.createPreallocatedRequestNotPermitted(this.name);
+            this.preallocatedException = exception;
+        }
+        return exception;
+    }
+
+    @Override
+    public void changeTimeoutDuration(Duration timeoutDuration) {
+        this.config.updateAndGet(current -> RateLimiterConfig.from(current)
+                .timeoutDuration(timeoutDuration)
+                .build());
+    }
+
+    /**
+     * 只有没有单独配置sustainedRate时才会改变放行速率
+     */
+    @Override
+    public void changeLimitForPeriod(int limitForPeriod) {
+        this.config.updateAndGet(current -> RateLimiterConfig.from(current)
+                .limitForPeriod(limitForPeriod)
+                .build());
+    }
+
+    private long currentNanoTime() {
+        return System.nanoTime() - this.nanoTimeStart;
+    }
+
+    /**
+     * 两个许可之间的间隔
+     */
+    private static long emissionIntervalInNanos(RateLimiterConfig config) {
+        return Math.max(1L, Math.round(1_000_000_000d / config.getSustainedRate()));
+    }
+
+    /**
+     * 允许TAT超前当前时间多少纳秒，即burstSize个许可占用的时间
+     */
+    private static long toleranceInNanos(RateLimiterConfig config, long emissionIntervalInNanos) {
+        if(emissionIntervalInNanos > MAX_TOLERANCE_IN_NANOS / config.getBurstSize())
+            return MAX_TOLERANCE_IN_NANOS;
+        return emissionIntervalInNanos * config.getBurstSize();
+    }
+
+    @Override
+    public boolean acquirePermission(int permits) {
+        long timeoutInNanos = this.config.get().getTimeoutDuration().toNanos();
+        long nanosToWait = this.updateStateWithBackOff(permits, timeoutInNanos);
+        boolean result = this.waitForPermissionIfNecessary(timeoutInNanos, nanosToWait);
+        this.publishRateLimiterAcquisitionEvent(result, permits);
+        return result;
+    }
+
+    @Override
+    public long reservePermission(int permits) {
+        long timeoutInNanos = this.config.get().getTimeoutDuration().toNanos();
+        long nanosToWait = this.updateStateWithBackOff(permits, timeoutInNanos);
+
+        if(nanosToWait <= 0) {
+            this.publishRateLimiterAcquisitionEvent(true, permits);
+            return 0;
+        }
+        if(timeoutInNanos >= nanosToWait) {
+            this.publishRateLimiterAcquisitionEvent(true, permits);
+            return nanosToWait;
+        }
+        this.publishRateLimiterAcquisitionEvent(false, permits);
+        return -1;
+    }
+
+    /**
+     * 推进TAT，返回这次申请需要等待的纳秒数，超过timeoutInNanos时不修改TAT
+     */
+    private long updateStateWithBackOff(final int permits, final long timeoutInNanos) {
+        long prev;
+        long next;
+        long nanosToWait;
+        do {
+            prev = this.theoreticalArrivalTime.get();
+            RateLimiterConfig currentConfig = this.config.get();
+            long emissionInterval = emissionIntervalInNanos(currentConfig);
+            long tolerance = toleranceInNanos(currentConfig, emissionInterval);
+            long currentNanos = this.currentNanoTime();
+            next = Math.max(prev, currentNanos) + emissionInterval * permits;
+            nanosToWait = Math.max(0L, next - currentNanos - tolerance);
+            if(nanosToWait > timeoutInNanos)
+                return nanosToWait; // 等不到，不用修改状态
+        } while(!this.compareAndSet(prev, next));
+        return nanosToWait;
+    }
+
+    private boolean compareAndSet(final long current, final long next) {
+        if(this.theoreticalArrivalTime.compareAndSet(current, next))
+            return true;
+        LockSupport.parkNanos(1);   // 和AtomicRateLimiter一样的微退避
+        return false;
+    }
+
+    /**
+     * 把TAT推到当前时间 + burstSize * emissionInterval，即用掉当前所有可以立即放行的许可
+     */
+    @Override
+    public void drainPermissions() {
+        long prev;
+        long next;
+        int available;
+        do {
+            prev = this.theoreticalArrivalTime.get();
+            RateLimiterConfig currentConfig = this.config.get();
+            long emissionInterval = emissionIntervalInNanos(currentConfig);
+            long tolerance = toleranceInNanos(currentConfig, emissionInterval);
+            long currentNanos = this.currentNanoTime();
+            available = availablePermissions(prev, currentNanos, emissionInterval, tolerance);
+            next = Math.max(prev, currentNanos + tolerance);
+        } while(!this.compareAndSet(prev, next));
+        if(this.eventProcessor.hasConsumers())
+            this.eventProcessor.consumeEvent(new RateLimiterOnDrainedEvent(this.name, Math.min(available, 0)));
+    }
+
+    /**
+     * 当前可以立即放行的许可数，有许可被预约时是负数
+     */
+    private static int availablePermissions(long theoreticalArrivalTime, long currentNanos, long emissionInterval, long tolerance) {
+        long available = Math.floorDiv(currentNanos + tolerance - Math.max(theoreticalArrivalTime, currentNanos), emissionInterval);
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, available));
+    }
+
+    private boolean waitForPermissionIfNecessary(final long timeoutInNanos, final long nanosToWait) {
+        if(nanosToWait <= 0)
+            return true;
+        if(timeoutInNanos >= nanosToWait)
+            return this.waitForPermission(nanosToWait);
+        this.waitForPermission(timeoutInNanos);
+        return false;
+    }
+
+    private boolean waitForPermission(final long nanosToWait) {
+        this.waitingThreads.incrementAndGet();
+        long deadline = currentNanoTime() + nanosToWait;
+        boolean wasInterrupted = false;
+        while(currentNanoTime() < deadline && !wasInterrupted) {
+            long sleepBlockDuration = deadline - currentNanoTime();
+            LockSupport.parkNanos(sleepBlockDuration);
+            wasInterrupted = Thread.interrupted();
+        }
+        this.waitingThreads.decrementAndGet();
+        if(wasInterrupted)
+            Thread.currentThread().interrupt();
+        return !wasInterrupted;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public RateLimiterConfig getRateLimiterConfig() {
+        return this.config.get();
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return this.metrics;
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return this.eventProcessor;
+    }
+
+    @Override
+    public String toString() {
+        return "GcraRateLimiter{" +
+                "name='" + name + '\'' +
+                ", rateLimiterConfig=" + this.config.get() +
+                '}';
+    }
+
+    private void publishRateLimiterAcquisitionEvent(boolean permissionAcquired, int permits) {
+        if(!this.eventProcessor.hasConsumers())
+            return;
+        if(permissionAcquired) {
+            this.eventProcessor.consumeEvent(new RateLimiterOnSuccessEvent(this.name, permits));
+            return;
+        }
+        this.eventProcessor.consumeEvent(new RateLimiterOnFailureEvent(this.name, permits));
+    }
+
+    private class GcraRateLimiterMetrics implements Metrics {
+
+        @Override
+        public int getNumberOfWaitingThreads() {
+            return waitingThreads.get();
+        }
+
+        @Override
+        public int getAvailablePermissions() {
+            long currentState = theoreticalArrivalTime.get();
+            RateLimiterConfig currentConfig = config.get();
+            long emissionInterval = emissionIntervalInNanos(currentConfig);
+            return availablePermissions(currentState, currentNanoTime(), emissionInterval,
+                    toleranceInNanos(currentConfig, emissionInterval));
+        }
+    }
+}
@@ -108,6 +108,33 @@ public class InMemoryRateLimiterRegistry extends AbstractRegistry<RateLimiter, R
         this.configurations.putAll(configs);
     }
 
+    /**
+     * 移除的RateLimiter如果持有后台任务（例如SemaphoreBasedRateLimiter的刷新任务），顺便close掉
+     */
+    @Override
+    public Optional<RateLimiter> remove(String name) {
+        Optional<RateLimiter> removed = super.remove(name);
+        removed.ifPresent(InMemoryRateLimiterRegistry::closeQuietly);
+        return removed;
+    }
+
+    @Override
+    public Optional<RateLimiter> replace(String name, RateLimiter newEntry) {
+        Optional<RateLimiter> replaced = super.replace(name, newEntry);
+        replaced.filter(oldEntry -> oldEntry != newEntry).ifPresent(InMemoryRateLimiterRegistry::closeQuietly);
+        return replaced;
+    }
+
+    private static void closeQuietly(RateLimiter rateLimiter) {
+        if(rateLimiter instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            }catch(Exception e) {
+                // 只是为了释放后台任务，关闭失败不影响remove/replace的结果
+            }
+        }
+    }
+
     @Override
     public Seq<RateLimiter> getAllRateLimiters() {
         return Array.ofAll(entryMap.values());
@@ -130,7 +157,7 @@ public class InMemoryRateLimiterRegistry extends AbstractRegistry<RateLimiter, R
 
     @Override
     public RateLimiter rateLimiter(String name, RateLimiterConfig config, Map<String, String> tags) {
-        return computeIfAbsent(name, () -> new AtomicRateLimiter(name,
+        return computeIfAbsent(name, () -> RateLimiter.of(name,
                 Objects.requireNonNull(config, CONFIG_MUST_NOT_BE_NULL), getAllTags(tags)));
     }
 
@@ -141,7 +168,7 @@ public class InMemoryRateLimiterRegistry extends AbstractRegistry<RateLimiter, R
 
     @Override
     public RateLimiter rateLimiter(String name, Supplier<RateLimiterConfig> configSupplier, Map<String, String> tags) {
-        return computeIfAbsent(name, () -> new AtomicRateLimiter(name, Objects.requireNonNull(
+        return computeIfAbsent(name, () -> RateLimiter.of(name, Objects.requireNonNull(
                 Objects.requireNonNull(configSupplier, SUPPLIER_MUST_NOT_BE_NULL).get(),
                 CONFIG_MUST_NOT_BE_NULL), getAllTags(tags)));
     }
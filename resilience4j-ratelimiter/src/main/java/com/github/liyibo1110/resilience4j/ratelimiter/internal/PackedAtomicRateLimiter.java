@@ -0,0 +1,341 @@
+package com.github.liyibo1110.resilience4j.ratelimiter.internal;
+
+import com.github.liyibo1110.resilience4j.core.CoarseClock;
+import com.github.liyibo1110.resilience4j.core.lang.Nullable;
+import com.github.liyibo1110.resilience4j.ratelimiter.RateLimiter;
+import com.github.liyibo1110.resilience4j.ratelimiter.RateLimiterConfig;
+import com.github.liyibo1110.resilience4j.ratelimiter.RequestNotPermitted;
+import com.github.liyibo1110.resilience4j.ratelimiter.event.RateLimiterOnDrainedEvent;
+import com.github.liyibo1110.resilience4j.ratelimiter.event.RateLimiterOnFailureEvent;
+import com.github.liyibo1110.resilience4j.ratelimiter.event.RateLimiterOnSuccessEvent;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.Map;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * 算法和AtomicRateLimiter完全一样，区别是状态的保存方式：AtomicRateLimiter每次CAS（包括失败的）都要创建一个新的State对象，
+ * 这里把周期数和剩余许可数打包进一个long（高32位是周期数，低32位是许可数），配置单独保存，
+ * 所以获取许可和读取metrics的路径都不会分配对象，nanosToWait也不再保存在状态里，而是作为CAS循环的结果直接返回。
+ * 周期数只保留低32位，跨过的周期数按32位取模计算，只有空闲时间恰好是2^32个周期的整数倍时才会少补一次许可。
+ * @author liyibo
+ * @date 2026-10-18 21:10
+ */
+public class PackedAtomicRateLimiter implements RateLimiter {
+    private static final long PERMISSIONS_MASK = 0xFFFFFFFFL;
+
+    /** PackedAtomicRateLimiter实例的生成时间点 */
+    private final long nanoTimeStart;
+
+    /** 纳秒时间源，默认是System.nanoTime()，也可以是CoarseClock缓存的nanoTime */
+    private final LongSupplier nanoTime;
+    private final String name;
+
+    /** 等候许可的线程总数，只用来做统计 */
+    private final AtomicInteger waitingThreads;
+
+    /** 高32位是上一次使用的周期数，低32位是剩余的许可数（可能为负数） */
+    private final AtomicLong state;
+
+    /** 配置只在changeTimeoutDuration和changeLimitForPeriod时才会改变，所以和state分开保存 */
+    private final AtomicReference<RateLimiterConfig> config;
+    private final Map<String, String> tags;
+    private final RateLimiterEventProcessor eventProcessor;
+    private final PackedAtomicRateLimiterMetrics metrics;
+
+    /** 缓存的RequestNotPermitted，启用了preallocatedExceptionEnabled后第一次拒绝时才创建 */
+    @Nullable
+    private volatile RequestNotPermitted preallocatedException;
+
+    public PackedAtomicRateLimiter(String name, RateLimiterConfig config) {
+        this(name, config, HashMap.empty());
+    }
+
+    public PackedAtomicRateLimiter(String name, RateLimiterConfig config, Map<String, String> tags) {
+        this(name, config, tags, System::nanoTime);
+    }
+
+    /**
+     * 使用CoarseClock作为时间源，每次获取许可都只需要一次volatile读，但周期的计算精度会降低到CoarseClock的刷新间隔
+     */
+    public PackedAtomicRateLimiter(String name, RateLimiterConfig config, Map<String, String> tags, CoarseClock clock) {
+        this(name, config, tags, clock::nanoTime);
+    }
+
+    private PackedAtomicRateLimiter(String name, RateLimiterConfig config, Map<String, String> tags, LongSupplier nanoTime) {
+        this.name = name;
+        this.tags = tags;
+        this.nanoTime = nanoTime;
+        this.nanoTimeStart = nanoTime.getAsLong();
+        this.waitingThreads = new AtomicInteger(0);
+        this.config = new AtomicReference<>(config);
+        this.state = new AtomicLong(pack(0, config.getLimitForPeriod()));
+        this.eventProcessor = new RateLimiterEventProcessor();
+        this.metrics = new PackedAtomicRateLimiterMetrics();
+    }
+
+    /**
+     * 返回缓存的RequestNotPermitted（并发创建了多个也没关系，都是等价的实例）
+     */
+    @Override
+    public RequestNotPermitted getPreallocatedRequestNotPermitted() {
+        RequestNotPermitted exception = this.preallocatedException;
+        if(exception == null) {
+            exception = RequestNotPermitted.createPreallocatedRequestNotPermitted(this.name);
+            this.preallocatedException = exception;
+        }
+        return exception;
+    }
+
+    @Override
+    public void changeTimeoutDuration(Duration timeoutDuration) {
+        this.config.updateAndGet(current -> RateLimiterConfig.from(current)
+                .timeoutDuration(timeoutDuration)
+                .build());
+    }
+
+    @Override
+    public void changeLimitForPeriod(int limitForPeriod) {
+        this.config.updateAndGet(current -> RateLimiterConfig.from(current)
+                .limitForPeriod(limitForPeriod)
+                .build());
+    }
+
+    private long currentNanoTime() {
+        return this.nanoTime.getAsLong() - this.nanoTimeStart;
+    }
+
+    long getNanoTimeStart() {
+        return this.nanoTimeStart;
+    }
+
+    @Override
+    public boolean acquirePermission(int permits) {
+        long timeoutInNanos = this.config.get().getTimeoutDuration().toNanos();
+        long nanosToWait = this.updateStateWithBackOff(permits, timeoutInNanos);
+        boolean result = this.waitForPermissionIfNecessary(timeoutInNanos, nanosToWait);
+        this.publishRateLimiterAcquisitionEvent(result, permits);
+        return result;
+    }
+
+    @Override
+    public long reservePermission(int permits) {
+        long timeoutInNanos = this.config.get().getTimeoutDuration().toNanos();
+        long nanosToWait = this.updateStateWithBackOff(permits, timeoutInNanos);
+
+        if(nanosToWait <= 0) {
+            this.publishRateLimiterAcquisitionEvent(true, permits);
+            return 0;
+        }
+        if(timeoutInNanos >= nanosToWait) {
+            this.publishRateLimiterAcquisitionEvent(true, permits);
+            return nanosToWait;
+        }
+        this.publishRateLimiterAcquisitionEvent(false, permits);
+        return -1;
+    }
+
+    @Override
+    public void drainPermissions() {
+        long prev;
+        long next;
+        do {
+            prev = this.state.get();
+            // 和AtomicRateLimiter一样，申请上一个状态里剩余的全部许可，timeout为0表示只扣除立即可用的许可
+            RateLimiterConfig config = this.config.get();
+            long cyclePeriodInNanos = config.getLimitRefreshPeriod().toNanos();
+            long currentNanos = this.currentNanoTime();
+            long currentCycle = currentNanos / cyclePeriodInNanos;
+            int permits = permissionsOf(prev);
+            int permissions = refill(prev, currentCycle, config.getLimitForPeriod());
+            long nanosToWait = nanosToWaitForPermission(permits, cyclePeriodInNanos, config.getLimitForPeriod(),
+                    permissions, currentNanos, currentCycle);
+            next = pack(currentCycle, nanosToWait <= 0 ? permissions - permits : permissions);
+        } while(!this.compareAndSet(prev, next));
+        if(this.eventProcessor.hasConsumers())
+            this.eventProcessor.consumeEvent(new RateLimiterOnDrainedEvent(this.name, Math.min(permissionsOf(prev), 0)));
+    }
+
+    /**
+     * 原子性地更新状态，返回这次申请需要等待的纳秒数（超过timeoutInNanos时许可没有被扣除）
+     */
+    private long updateStateWithBackOff(final int permits, final long timeoutInNanos) {
+        long prev;
+        long next;
+        long nanosToWait;
+        do {
+            prev = this.state.get();
+            RateLimiterConfig config = this.config.get();
+            long cyclePeriodInNanos = config.getLimitRefreshPeriod().toNanos();
+            int permissionsPerCycle = config.getLimitForPeriod();
+            long currentNanos = this.currentNanoTime();
+            long currentCycle = currentNanos / cyclePeriodInNanos;
+            int permissions = refill(prev, currentCycle, permissionsPerCycle);
+            nanosToWait = nanosToWaitForPermission(permits, cyclePeriodInNanos, permissionsPerCycle, permissions,
+                    currentNanos, currentCycle);
+            if(timeoutInNanos >= nanosToWait)
+                permissions -= permits;
+            next = pack(currentCycle, permissions);
+        } while(!this.compareAndSet(prev, next));
+        return nanosToWait;
+    }
+
+    private boolean compareAndSet(final long current, final long next) {
+        if(this.state.compareAndSet(current, next))
+            return true;
+        LockSupport.parkNanos(1);   // 和AtomicRateLimiter一样的微退避
+        return false;
+    }
+
+    static long pack(long cycle, int permissions) {
+        return (cycle << 32) | (permissions & PERMISSIONS_MASK);
+    }
+
+    static int permissionsOf(long state) {
+        return (int) state;
+    }
+
+    /**
+     * 根据跨过的周期数补发许可，返回当前周期可用的许可数。
+     * 必须先读state再读当前时间，这样currentCycle不会小于state里的周期数，差值才可以按无符号数计算
+     */
+    static int refill(long state, long currentCycle, int permissionsPerCycle) {
+        int permissions = permissionsOf(state);
+        // 周期数只保存了低32位，按无符号32位计算跨过了多少个周期
+        long elapsedCycles = ((int) currentCycle - (int) (state >>> 32)) & PERMISSIONS_MASK;
+        if(elapsedCycles == 0)
+            return permissions;
+        long accumulatedPermissions = elapsedCycles * permissionsPerCycle;
+        return (int) Math.min(permissions + accumulatedPermissions, permissionsPerCycle);
+    }
+
+    /**
+     * 和AtomicRateLimiter.nanosToWaitForPermission相同
+     */
+    static long nanosToWaitForPermission(final int permits, final long cyclePeriodInNanos, final int permissionsPerCycle,
+                                          final int availablePermissions, final long currentNanos, final long currentCycle) {
+        if(availablePermissions >= permits)
+            return 0L;
+        long nextCycleTimeInNanos = (currentCycle + 1) * cyclePeriodInNanos;
+        long nanosToNextCycle = nextCycleTimeInNanos - currentNanos;
+        int permissionsAtTheStartOfNextCycle = availablePermissions + permissionsPerCycle;
+        int fullCyclesToWait = divCeil(-(permissionsAtTheStartOfNextCycle - permits), permissionsPerCycle);
+        return (fullCyclesToWait * cyclePeriodInNanos) + nanosToNextCycle;
+    }
+
+    private static int divCeil(int x, int y) {
+        return (x + y - 1) / y;
+    }
+
+    private boolean waitForPermissionIfNecessary(final long timeoutInNanos, final long nanosToWait) {
+        if(nanosToWait <= 0)
+            return true;
+        if(timeoutInNanos >= nanosToWait)
+            return this.waitForPermission(nanosToWait);
+        this.waitForPermission(timeoutInNanos);
+        return false;
+    }
+
+    private boolean waitForPermission(final long nanosToWait) {
+        this.waitingThreads.incrementAndGet();
+        long deadline = currentNanoTime() + nanosToWait;
+        boolean wasInterrupted = false;
+        while(currentNanoTime() < deadline && !wasInterrupted) {
+            long sleepBlockDuration = deadline - currentNanoTime();
+            LockSupport.parkNanos(sleepBlockDuration);
+            wasInterrupted = Thread.interrupted();
+        }
+        this.waitingThreads.decrementAndGet();
+        if(wasInterrupted)
+            Thread.currentThread().interrupt();
+        return !wasInterrupted;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public RateLimiterConfig getRateLimiterConfig() {
+        return this.config.get();
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return this.metrics;
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return this.eventProcessor;
+    }
+
+    @Override
+    public String toString() {
+        return "PackedAtomicRateLimiter{" +
+                "name='" + name + '\'' +
+                ", rateLimiterConfig=" + this.config.get() +
+                '}';
+    }
+
+    public PackedAtomicRateLimiterMetrics getDetailedMetrics() {
+        return this.metrics;
+    }
+
+    private void publishRateLimiterAcquisitionEvent(boolean permissionAcquired, int permits) {
+        if(!this.eventProcessor.hasConsumers())
+            return;
+        if(permissionAcquired) {
+            this.eventProcessor.consumeEvent(new RateLimiterOnSuccessEvent(this.name, permits));
+            return;
+        }
+        this.eventProcessor.consumeEvent(new RateLimiterOnFailureEvent(this.name, permits));
+    }
+
+    /**
+     * 只读取当前状态推算出来的值，不会修改状态，也不会分配对象
+     */
+    public class PackedAtomicRateLimiterMetrics implements Metrics {
+
+        private PackedAtomicRateLimiterMetrics() {}
+
+        @Override
+        public int getNumberOfWaitingThreads() {
+            return waitingThreads.get();
+        }
+
+        @Override
+        public int getAvailablePermissions() {
+            long currentState = state.get();
+            RateLimiterConfig currentConfig = config.get();
+            long currentCycle = currentNanoTime() / currentConfig.getLimitRefreshPeriod().toNanos();
+            return refill(currentState, currentCycle, currentConfig.getLimitForPeriod());
+        }
+
+        public long getNanosToWait() {
+            long currentState = state.get();
+            RateLimiterConfig currentConfig = config.get();
+            long cyclePeriodInNanos = currentConfig.getLimitRefreshPeriod().toNanos();
+            long currentNanos = currentNanoTime();
+            long currentCycle = currentNanos / cyclePeriodInNanos;
+            int permissions = refill(currentState, currentCycle, currentConfig.getLimitForPeriod());
+            return nanosToWaitForPermission(1, cyclePeriodInNanos, currentConfig.getLimitForPeriod(), permissions,
+                    currentNanos, currentCycle);
+        }
+
+        public long getCycle() {
+            return currentNanoTime() / config.get().getLimitRefreshPeriod().toNanos();
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.github.liyibo1110.resilience4j.ratelimiter.internal;
 
+import com.github.liyibo1110.resilience4j.core.HashedWheelScheduler;
 import com.github.liyibo1110.resilience4j.core.lang.Nullable;
 import com.github.liyibo1110.resilience4j.ratelimiter.RateLimiter;
 import com.github.liyibo1110.resilience4j.ratelimiter.RateLimiterConfig;
+import com.github.liyibo1110.resilience4j.ratelimiter.RequestNotPermitted;
 import com.github.liyibo1110.resilience4j.ratelimiter.event.RateLimiterOnDrainedEvent;
 import com.github.liyibo1110.resilience4j.ratelimiter.event.RateLimiterOnFailureEvent;
 import com.github.liyibo1110.resilience4j.ratelimiter.event.RateLimiterOnSuccessEvent;
@@ -15,6 +17,7 @@ import java.time.Duration;
 import java.util.Objects;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
@@ -22,21 +25,32 @@ import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 由Semaphore和Scheduler组成的RateLimiter实现，将在每次limitRefreshPeriod之后刷新权限。
+ * 刷新任务跑在共享的scheduler上，不再使用时要调用close取消它（从InMemoryRateLimiterRegistry里remove或者replace时会自动close）。
  * @author liyibo
  * @date 2026-02-06 23:32
  */
-public class SemaphoreBasedRateLimiter implements RateLimiter {
+public class SemaphoreBasedRateLimiter implements RateLimiter, AutoCloseable {
     private static final String NAME_MUST_NOT_BE_NULL = "Name must not be null";
     private static final String CONFIG_MUST_NOT_BE_NULL = "Config must not be null";
 
     private final String name;
     private final AtomicReference<RateLimiterConfig> rateLimiterConfig;
     private final ScheduledExecutorService scheduler;
+
+    /** scheduler是否由自己创建（而不是外部传入或者共享的时间轮），是的话close时要一起shutdown */
+    private final boolean ownsScheduler;
+
+    /** 定期刷新许可的任务 */
+    private final ScheduledFuture<?> limitRefreshFuture;
     private final Semaphore semaphore;
     private final SemaphoreBasedRateLimiterMetrics metrics;
     private final Map<String, String> tags;
     private final RateLimiterEventProcessor eventProcessor;
 
+    /** 缓存的RequestNotPermitted，启用了preallocatedExceptionEnabled后第一次拒绝时才创建 */
+    @Nullable
+    private volatile RequestNotPermitted preallocatedException;
+
     public SemaphoreBasedRateLimiter(final String name, final RateLimiterConfig rateLimiterConfig) {
         this(name, rateLimiterConfig, HashMap.empty());
     }
@@ -56,17 +70,22 @@ public class SemaphoreBasedRateLimiter implements RateLimiter {
         this.name = Objects.requireNonNull(name, NAME_MUST_NOT_BE_NULL);
         this.rateLimiterConfig = new AtomicReference<>(Objects.requireNonNull(rateLimiterConfig, CONFIG_MUST_NOT_BE_NULL));
         this.scheduler = Option.of(scheduler).getOrElse(this::configureScheduler);
+        this.ownsScheduler = scheduler == null && !(this.scheduler instanceof HashedWheelScheduler);
         this.tags = tags;
         this.semaphore = new Semaphore(this.rateLimiterConfig.get().getLimitForPeriod(), true);
         this.metrics = new SemaphoreBasedRateLimiterMetrics();
         this.eventProcessor = new RateLimiterEventProcessor();
-        this.scheduleLimitRefresh();
+        this.limitRefreshFuture = this.scheduleLimitRefresh();
     }
 
     /**
-     * 生成默认的延迟线程连接池
+     * 生成默认的延迟线程连接池：刷新周期不小于时间轮的tick时，共享HashedWheelScheduler，不再为每个实例单独启动一个线程，
+     * 否则时间轮的精度不够，仍然使用独立的单线程连接池
      */
     private ScheduledExecutorService configureScheduler() {
+        HashedWheelScheduler wheelScheduler = HashedWheelScheduler.getSharedInstance();
+        if(this.rateLimiterConfig.get().getLimitRefreshPeriod().toNanos() >= wheelScheduler.getTickDurationInNanos())
+            return wheelScheduler;
         ThreadFactory factory = r -> {
             Thread thread = new Thread(r, "SchedulerForSemaphoreBasedRateLimiterImpl-" + name);
             thread.setDaemon(true);
@@ -78,8 +97,8 @@ public class SemaphoreBasedRateLimiter implements RateLimiter {
     /**
      * 定期运行refreshLimit方法
      */
-    private void scheduleLimitRefresh() {
-        this.scheduler.scheduleAtFixedRate(
+    private ScheduledFuture<?> scheduleLimitRefresh() {
+        return this.scheduler.scheduleAtFixedRate(
             this::refreshLimit,
             this.rateLimiterConfig.get().getLimitRefreshPeriod().toNanos(),
             this.rateLimiterConfig.get().getLimitRefreshPeriod().toNanos(),
@@ -94,6 +113,19 @@ public class SemaphoreBasedRateLimiter implements RateLimiter {
         this.semaphore.release(permissionsToRelease);
     }
 
+    /**
+     * 返回缓存的RequestNotPermitted（并发创建了多个也没关系，都是等价的实例）
+     */
+    @Override
+    public RequestNotPermitted getPreallocatedRequestNotPermitted() {
+        RequestNotPermitted exception = this.preallocatedException;
+        if(exception == null) {
+            exception = RequestNotPermitted.createPreallocatedRequestNotPermitted(this.name);
+            this.preallocatedException = exception;
+        }
+        return exception;
+    }
+
     @Override
     public void changeTimeoutDuration(Duration timeoutDuration) {
         RateLimiterConfig newConfig = RateLimiterConfig.from(this.rateLimiterConfig.get())
@@ -126,6 +158,11 @@ public class SemaphoreBasedRateLimiter implements RateLimiter {
         }
     }
 
+    @Override
+    public boolean supportsReservation() {
+        return false;
+    }
+
     @Override
     public long reservePermission() {
         throw new UnsupportedOperationException("Reserving permissions is not supported in the semaphore based implementation");
@@ -144,6 +181,16 @@ public class SemaphoreBasedRateLimiter implements RateLimiter {
             this.eventProcessor.consumeEvent(new RateLimiterOnDrainedEvent(this.name, permits));
     }
 
+    /**
+     * 取消定期刷新任务，自己创建的scheduler也会被shutdown，之后许可不会再恢复
+     */
+    @Override
+    public void close() {
+        this.limitRefreshFuture.cancel(false);
+        if(this.ownsScheduler)
+            this.scheduler.shutdown();
+    }
+
     @Override
     public String getName() {
         return this.name;
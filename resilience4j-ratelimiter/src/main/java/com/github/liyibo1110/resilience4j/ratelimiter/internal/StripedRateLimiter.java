@@ -0,0 +1,383 @@
+package com.github.liyibo1110.resilience4j.ratelimiter.internal;
+
+import com.github.liyibo1110.resilience4j.core.StripeProbe;
+import com.github.liyibo1110.resilience4j.core.lang.Nullable;
+import com.github.liyibo1110.resilience4j.ratelimiter.RateLimiter;
+import com.github.liyibo1110.resilience4j.ratelimiter.RateLimiterConfig;
+import com.github.liyibo1110.resilience4j.ratelimiter.RequestNotPermitted;
+import com.github.liyibo1110.resilience4j.ratelimiter.event.RateLimiterOnDrainedEvent;
+import com.github.liyibo1110.resilience4j.ratelimiter.event.RateLimiterOnFailureEvent;
+import com.github.liyibo1110.resilience4j.ratelimiter.event.RateLimiterOnSuccessEvent;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.Map;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 把每个周期的许可（limitForPeriod）平均分给多个stripe（类似LongAdder的cell），每个stripe的状态和PackedAtomicRateLimiter一样打包成一个long，
+ * 不同线程根据自己的探针（StripeProbe）先在自己的stripe里取许可，不够时依次到其它stripe里取（work stealing），
+ * 所以高并发时CAS竞争被分散到多个stripe上，而每个stripe的许可每周期最多补到自己的份额，所有stripe加起来每个周期仍然不会超过limitForPeriod。
+ * 所有stripe都没有立即可用的许可时，在自己的stripe上按AtomicRateLimiter的算法预约之后周期的许可，等待时间按这个stripe的份额计算，
+ * 所以和AtomicRateLimiter相比，许可不足时的等待时间可能偏长，适合许可很多、并发很高的场景。
+ * @author liyibo
+ * @date 2026-10-18 21:40
+ */
+public class StripedRateLimiter implements RateLimiter {
+
+    /** 每个stripe占8个long（64字节），避免不同stripe之间的伪共享 */
+    private static final int STRIPE_SHIFT = 3;
+
+    private static final int MAX_STRIPES = 64;
+
+    /** StripedRateLimiter实例的生成时间点 */
+    private final long nanoTimeStart;
+    private final String name;
+
+    /** 等候许可的线程总数，只用来做统计 */
+    private final AtomicInteger waitingThreads;
+
+    /** 每个stripe一个long，格式和PackedAtomicRateLimiter的state一样 */
+    private final AtomicLongArray stripes;
+
+    /** stripe数量-1，stripe数量一定是2的幂 */
+    private final int stripeMask;
+
+    private final AtomicReference<RateLimiterConfig> config;
+    private final Map<String, String> tags;
+    private final RateLimiterEventProcessor eventProcessor;
+    private final StripedRateLimiterMetrics metrics;
+
+    /** 缓存的RequestNotPermitted，启用了preallocatedExceptionEnabled后第一次拒绝时才创建 */
+    @Nullable
+    private volatile RequestNotPermitted preallocatedException;
+
+    public StripedRateLimiter(String name, RateLimiterConfig config) {
+        this(name, config, HashMap.empty());
+    }
+
+    public StripedRateLimiter(String name, RateLimiterConfig config, Map<String, String> tags) {
+        this(name, config, tags, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param concurrencyLevel 预计的并发线程数，stripe数量是不小于它的2的幂，但不会超过limitForPeriod（保证每个stripe至少有1个许可）
+     */
+    public StripedRateLimiter(String name, RateLimiterConfig config, Map<String, String> tags, int concurrencyLevel) {
+        this.name = name;
+        this.tags = tags;
+        this.nanoTimeStart = System.nanoTime();
+        this.waitingThreads = new AtomicInteger(0);
+        this.config = new AtomicReference<>(config);
+        int stripeCount = stripesFor(concurrencyLevel, config.getLimitForPeriod());
+        this.stripeMask = stripeCount - 1;
+        this.stripes = new AtomicLongArray(stripeCount << STRIPE_SHIFT);
+        for(int stripe = 0; stripe < stripeCount; stripe++)
+            this.stripes.set(stripe << STRIPE_SHIFT,
+                    PackedAtomicRateLimiter.pack(0, shareOf(stripe, config.getLimitForPeriod(), stripeCount)));
+        this.eventProcessor = new RateLimiterEventProcessor();
+        this.metrics = new StripedRateLimiterMetrics();
+    }
+
+    /**
+     * 向上取到2的幂，并限制最大值，同时不超过limitForPeriod
+     */
+    private static int stripesFor(int concurrencyLevel, int limitForPeriod) {
+        int stripes = 1;
+        while(stripes < concurrencyLevel && stripes < MAX_STRIPES)
+            stripes <<= 1;
+        while(stripes > 1 && stripes > limitForPeriod)
+            stripes >>= 1;
+        return stripes;
+    }
+
+    /**
+     * 第stripe个stripe每个周期的份额，除不尽的部分分给前面的stripe
+     */
+    private static int shareOf(int stripe, int limitForPeriod, int stripeCount) {
+        return limitForPeriod / stripeCount + (stripe < limitForPeriod % stripeCount ? 1 : 0);
+    }
+
+    /**
+     * 返回缓存的RequestNotPermitted（并发创建了多个也没关系，都是等价的实例）
+     */
+    @Override
+    public RequestNotPermitted getPreallocatedRequestNotPermitted() {
+        RequestNotPermitted exception = this.preallocatedException;
+        if(exception == null) {
+            exception = RequestNotPermitted.createPreallocatedRequestNotPermitted(this.name);
+            this.preallocatedException = exception;
+        }
+        return exception;
+    }
+
+    @Override
+    public void changeTimeoutDuration(Duration timeoutDuration) {
+        this.config.updateAndGet(current -> RateLimiterConfig.from(current)
+                .timeoutDuration(timeoutDuration)
+                .build());
+    }
+
+    /**
+     * stripe数量在创建时就确定了，limitForPeriod改小到不足stripe数量时，份额为0的stripe只能从其它stripe里取许可
+     */
+    @Override
+    public void changeLimitForPeriod(int limitForPeriod) {
+        this.config.updateAndGet(current -> RateLimiterConfig.from(current)
+                .limitForPeriod(limitForPeriod)
+                .build());
+    }
+
+    private long currentNanoTime() {
+        return System.nanoTime() - this.nanoTimeStart;
+    }
+
+    /**
+     * 根据当前线程的探针选出自己的stripe，CAS失败时探针会换一个，所以撞在同一个stripe上的线程之后会分开
+     */
+    private int stripeIndex() {
+        return StripeProbe.get() & this.stripeMask;
+    }
+
+    @Override
+    public boolean acquirePermission(int permits) {
+        long timeoutInNanos = this.config.get().getTimeoutDuration().toNanos();
+        long nanosToWait = this.acquireOrReserve(permits, timeoutInNanos);
+        boolean result = this.waitForPermissionIfNecessary(timeoutInNanos, nanosToWait);
+        this.publishRateLimiterAcquisitionEvent(result, permits);
+        return result;
+    }
+
+    @Override
+    public long reservePermission(int permits) {
+        long timeoutInNanos = this.config.get().getTimeoutDuration().toNanos();
+        long nanosToWait = this.acquireOrReserve(permits, timeoutInNanos);
+
+        if(nanosToWait <= 0) {
+            this.publishRateLimiterAcquisitionEvent(true, permits);
+            return 0;
+        }
+        if(timeoutInNanos >= nanosToWait) {
+            this.publishRateLimiterAcquisitionEvent(true, permits);
+            return nanosToWait;
+        }
+        this.publishRateLimiterAcquisitionEvent(false, permits);
+        return -1;
+    }
+
+    /**
+     * 先从自己的stripe开始依次收集立即可用的许可，凑够了直接返回0，凑不够就把收集到的还回去，
+     * 再在自己的stripe上预约之后周期的许可，返回需要等待的纳秒数（超过timeoutInNanos时许可没有被扣除）
+     */
+    private long acquireOrReserve(final int permits, final long timeoutInNanos) {
+        RateLimiterConfig currentConfig = this.config.get();
+        long cyclePeriodInNanos = currentConfig.getLimitRefreshPeriod().toNanos();
+        int limitForPeriod = currentConfig.getLimitForPeriod();
+        int stripeCount = this.stripeMask + 1;
+        int home = this.stripeIndex();
+
+        int collected = 0;
+        for(int i = 0; i < stripeCount && collected < permits; i++) {
+            int stripe = (home + i) & this.stripeMask;
+            collected += this.takeAvailable(stripe, permits - collected, cyclePeriodInNanos,
+                    shareOf(stripe, limitForPeriod, stripeCount));
+        }
+        if(collected == permits)
+            return 0;
+        for(int i = 0; i < stripeCount && collected > 0; i++) {
+            int stripe = (home + i) & this.stripeMask;
+            collected -= this.giveBack(stripe, collected, cyclePeriodInNanos, shareOf(stripe, limitForPeriod, stripeCount));
+        }
+
+        // 份额为0的stripe（limitForPeriod被改小了）没法预约，改用第0个stripe，它的份额总是最大的
+        int stripe = shareOf(home, limitForPeriod, stripeCount) > 0 ? home : 0;
+        return this.reserve(stripe, permits, timeoutInNanos, cyclePeriodInNanos, shareOf(stripe, limitForPeriod, stripeCount));
+    }
+
+    /**
+     * 从一个stripe里取最多wanted个立即可用的许可，返回实际取到的数量
+     */
+    private int takeAvailable(int stripe, int wanted, long cyclePeriodInNanos, int share) {
+        int index = stripe << STRIPE_SHIFT;
+        while(true) {
+            long prev = this.stripes.get(index);
+            long currentCycle = this.currentNanoTime() / cyclePeriodInNanos;
+            int available = PackedAtomicRateLimiter.refill(prev, currentCycle, share);
+            int taken = Math.max(0, Math.min(available, wanted));
+            if(taken == 0)
+                return 0;
+            if(this.stripes.compareAndSet(index, prev, PackedAtomicRateLimiter.pack(currentCycle, available - taken)))
+                return taken;
+            StripeProbe.advance();
+        }
+    }
+
+    /**
+     * 把凑不够时已经取到的许可还给一个stripe，最多还到它的份额为止，返回实际还回去的数量
+     */
+    private int giveBack(int stripe, int permits, long cyclePeriodInNanos, int share) {
+        int index = stripe << STRIPE_SHIFT;
+        while(true) {
+            long prev = this.stripes.get(index);
+            long currentCycle = this.currentNanoTime() / cyclePeriodInNanos;
+            int available = PackedAtomicRateLimiter.refill(prev, currentCycle, share);
+            int returned = Math.max(0, Math.min(permits, share - available));
+            if(returned == 0)
+                return 0;
+            if(this.stripes.compareAndSet(index, prev, PackedAtomicRateLimiter.pack(currentCycle, available + returned)))
+                return returned;
+            StripeProbe.advance();
+        }
+    }
+
+    /**
+     * 和PackedAtomicRateLimiter.updateStateWithBackOff相同，只是作用在一个stripe上，并且每周期的许可是这个stripe的份额，
+     * 另外超时之前等不到许可时直接返回，不写入状态
+     */
+    private long reserve(int stripe, int permits, long timeoutInNanos, long cyclePeriodInNanos, int share) {
+        int index = stripe << STRIPE_SHIFT;
+        long prev;
+        long next;
+        long nanosToWait;
+        do {
+            prev = this.stripes.get(index);
+            long currentNanos = this.currentNanoTime();
+            long currentCycle = currentNanos / cyclePeriodInNanos;
+            int permissions = PackedAtomicRateLimiter.refill(prev, currentCycle, share);
+            nanosToWait = PackedAtomicRateLimiter.nanosToWaitForPermission(permits, cyclePeriodInNanos, share, permissions,
+                    currentNanos, currentCycle);
+            if(timeoutInNanos < nanosToWait)
+                return nanosToWait; // 等不到，不用修改状态，也就不用和其它线程竞争CAS
+            next = PackedAtomicRateLimiter.pack(currentCycle, permissions - permits);
+        } while(!this.compareAndSet(index, prev, next));
+        return nanosToWait;
+    }
+
+    private boolean compareAndSet(int index, long current, long next) {
+        if(this.stripes.compareAndSet(index, current, next))
+            return true;
+        StripeProbe.advance();
+        LockSupport.parkNanos(1);   // 和AtomicRateLimiter一样的微退避
+        return false;
+    }
+
+    @Override
+    public void drainPermissions() {
+        RateLimiterConfig currentConfig = this.config.get();
+        long cyclePeriodInNanos = currentConfig.getLimitRefreshPeriod().toNanos();
+        int stripeCount = this.stripeMask + 1;
+        int remaining = 0;
+        for(int stripe = 0; stripe < stripeCount; stripe++) {
+            int index = stripe << STRIPE_SHIFT;
+            int share = shareOf(stripe, currentConfig.getLimitForPeriod(), stripeCount);
+            long prev;
+            int available;
+            long currentCycle;
+            do {
+                prev = this.stripes.get(index);
+                currentCycle = this.currentNanoTime() / cyclePeriodInNanos;
+                available = PackedAtomicRateLimiter.refill(prev, currentCycle, share);
+            } while(!this.stripes.compareAndSet(index, prev, PackedAtomicRateLimiter.pack(currentCycle, Math.min(available, 0))));
+            remaining += PackedAtomicRateLimiter.permissionsOf(prev);
+        }
+        if(this.eventProcessor.hasConsumers())
+            this.eventProcessor.consumeEvent(new RateLimiterOnDrainedEvent(this.name, Math.min(remaining, 0)));
+    }
+
+    private boolean waitForPermissionIfNecessary(final long timeoutInNanos, final long nanosToWait) {
+        if(nanosToWait <= 0)
+            return true;
+        if(timeoutInNanos >= nanosToWait)
+            return this.waitForPermission(nanosToWait);
+        this.waitForPermission(timeoutInNanos);
+        return false;
+    }
+
+    private boolean waitForPermission(final long nanosToWait) {
+        this.waitingThreads.incrementAndGet();
+        long deadline = currentNanoTime() + nanosToWait;
+        boolean wasInterrupted = false;
+        while(currentNanoTime() < deadline && !wasInterrupted) {
+            long sleepBlockDuration = deadline - currentNanoTime();
+            LockSupport.parkNanos(sleepBlockDuration);
+            wasInterrupted = Thread.interrupted();
+        }
+        this.waitingThreads.decrementAndGet();
+        if(wasInterrupted)
+            Thread.currentThread().interrupt();
+        return !wasInterrupted;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public RateLimiterConfig getRateLimiterConfig() {
+        return this.config.get();
+    }
+
+    @Override
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public Metrics getMetrics() {
+        return this.metrics;
+    }
+
+    @Override
+    public EventPublisher getEventPublisher() {
+        return this.eventProcessor;
+    }
+
+    @Override
+    public String toString() {
+        return "StripedRateLimiter{" +
+                "name='" + name + '\'' +
+                ", stripes=" + (this.stripeMask + 1) +
+                ", rateLimiterConfig=" + this.config.get() +
+                '}';
+    }
+
+    private void publishRateLimiterAcquisitionEvent(boolean permissionAcquired, int permits) {
+        if(!this.eventProcessor.hasConsumers())
+            return;
+        if(permissionAcquired) {
+            this.eventProcessor.consumeEvent(new RateLimiterOnSuccessEvent(this.name, permits));
+            return;
+        }
+        this.eventProcessor.consumeEvent(new RateLimiterOnFailureEvent(this.name, permits));
+    }
+
+    private class StripedRateLimiterMetrics implements Metrics {
+
+        @Override
+        public int getNumberOfWaitingThreads() {
+            return waitingThreads.get();
+        }
+
+        /**
+         * 所有stripe当前可用许可的总和
+         */
+        @Override
+        public int getAvailablePermissions() {
+            RateLimiterConfig currentConfig = config.get();
+            long cyclePeriodInNanos = currentConfig.getLimitRefreshPeriod().toNanos();
+            int stripeCount = stripeMask + 1;
+            long available = 0;
+            for(int stripe = 0; stripe < stripeCount; stripe++) {
+                long state = stripes.get(stripe << STRIPE_SHIFT);
+                long currentCycle = currentNanoTime() / cyclePeriodInNanos;
+                available += PackedAtomicRateLimiter.refill(state, currentCycle,
+                        shareOf(stripe, currentConfig.getLimitForPeriod(), stripeCount));
+            }
+            return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, available));
+        }
+    }
+}
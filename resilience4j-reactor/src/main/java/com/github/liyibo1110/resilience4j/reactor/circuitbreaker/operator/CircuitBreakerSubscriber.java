@@ -16,8 +16,8 @@ import static java.util.Objects.requireNonNull;
 class CircuitBreakerSubscriber<T> extends AbstractSubscriber<T> {
     private final CircuitBreaker cb;
 
-    /** 用于计算耗时 */
-    private final long start;
+    /** tryAcquirePermit返回的permit，也就是调用开始的时间戳，用于计算耗时 */
+    private final long permit;
 
     /** 为true代表Mono（单个值），为false代表Flux（代表可能多个值） */
     private final boolean singleProducer;
@@ -30,11 +30,12 @@ class CircuitBreakerSubscriber<T> extends AbstractSubscriber<T> {
 
     protected CircuitBreakerSubscriber(CircuitBreaker cb,
                                        CoreSubscriber<? super T> downstreamSubscriber,
+                                       long permit,
                                        boolean singleProducer) {
         super(downstreamSubscriber);
         this.cb = requireNonNull(cb);
+        this.permit = permit;
         this.singleProducer = singleProducer;
-        this.start = cb.getCurrentTimestamp();
     }
 
     /**
@@ -45,7 +46,7 @@ class CircuitBreakerSubscriber<T> extends AbstractSubscriber<T> {
         if(!isDisposed()) { // 没有被cancel
             // 单值（构建这个实例时，传来的构造参数）才允许调用cb的onResult，多个值没法统计
             if(singleProducer && successSignaled.compareAndSet(false, true))
-                cb.onResult(cb.getCurrentTimestamp() - start, cb.getTimestampUnit(), value);
+                cb.onPermitResult(permit, value);
             eventWasEmitted.set(true);  // 标记有事件产生
             // 直接调用下游
             downstreamSubscriber.onNext(value);
@@ -59,7 +60,7 @@ class CircuitBreakerSubscriber<T> extends AbstractSubscriber<T> {
     protected void hookOnComplete() {
         // 如果还没有被标记成功，则标记并且调用cb的onSuccess
         if(successSignaled.compareAndSet(false, true))
-            cb.onSuccess(cb.getCurrentTimestamp() - start, cb.getTimestampUnit());
+            cb.onPermitSuccess(permit);
         downstreamSubscriber.onComplete();
     }
 
@@ -70,7 +71,7 @@ class CircuitBreakerSubscriber<T> extends AbstractSubscriber<T> {
     public void hookOnCancel() {
         if(!successSignaled.get()) {
             if(eventWasEmitted.get())
-                cb.onSuccess(cb.getCurrentTimestamp() - start, cb.getTimestampUnit());
+                cb.onPermitSuccess(permit);
             else
                 cb.releasePermission();
         }
@@ -78,7 +79,7 @@ class CircuitBreakerSubscriber<T> extends AbstractSubscriber<T> {
 
     @Override
     protected void hookOnError(Throwable e) {
-        cb.onError(cb.getCurrentTimestamp() - start, cb.getTimestampUnit(), e);
+        cb.onPermitError(permit, e);
         downstreamSubscriber.onError(e);
     }
 }
@@ -21,8 +21,10 @@ class FluxCircuitBreaker<T> extends FluxOperator<T, T> {
 
     @Override
     public void subscribe(CoreSubscriber<? super T> actual) {
-        if(cb.tryAcquirePermission())
-            source.subscribe(new CircuitBreakerSubscriber<>(cb, actual, false));
+        // permit就是调用开始的时间戳，被拒绝时才需要创建异常（开启preallocatedExceptionEnabled时是缓存的实例）
+        long permit = cb.tryAcquirePermit();
+        if(permit != CircuitBreaker.NO_PERMIT)
+            source.subscribe(new CircuitBreakerSubscriber<>(cb, actual, permit, false));
         else
             Operators.error(actual, CallNotPermittedException.createCallNotPermittedException(cb));
     }
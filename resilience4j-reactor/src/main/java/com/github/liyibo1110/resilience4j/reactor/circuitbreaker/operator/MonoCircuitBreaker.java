@@ -21,8 +21,10 @@ public class MonoCircuitBreaker<T> extends MonoOperator<T, T> {
 
     @Override
     public void subscribe(CoreSubscriber<? super T> actual) {
-        if(cb.tryAcquirePermission())
-            source.subscribe(new CircuitBreakerSubscriber(cb, actual, true));
+        // permit就是调用开始的时间戳，被拒绝时才需要创建异常（开启preallocatedExceptionEnabled时是缓存的实例）
+        long permit = cb.tryAcquirePermit();
+        if(permit != CircuitBreaker.NO_PERMIT)
+            source.subscribe(new CircuitBreakerSubscriber<>(cb, actual, permit, true));
         else
             Operators.error(actual, CallNotPermittedException.createCallNotPermittedException(cb));
     }
@@ -1,5 +1,6 @@
 package com.github.liyibo1110.resilience4j.reactor.ratelimiter.operator;
 
+import com.github.liyibo1110.resilience4j.core.lang.Nullable;
 import com.github.liyibo1110.resilience4j.ratelimiter.RateLimiter;
 import com.github.liyibo1110.resilience4j.ratelimiter.RequestNotPermitted;
 import reactor.core.CorePublisher;
@@ -8,6 +9,8 @@ import reactor.core.publisher.Mono;
 import reactor.core.publisher.Operators;
 
 import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * @author liyibo
@@ -17,12 +20,21 @@ public class CorePublisherRateLimiterOperator<T> {
     private final CorePublisher<? extends T> source;
     private final RateLimiter rateLimiter;
 
-    CorePublisherRateLimiterOperator(CorePublisher<? extends T> source, RateLimiter rateLimiter) {
+    @Nullable
+    private final ScheduledExecutorService scheduler;
+
+    CorePublisherRateLimiterOperator(CorePublisher<? extends T> source, RateLimiter rateLimiter,
+                                     @Nullable ScheduledExecutorService scheduler) {
         this.source = source;
         this.rateLimiter = rateLimiter;
+        this.scheduler = scheduler;
     }
 
     void subscribe(CoreSubscriber<? super T> actual) {
+        if(this.scheduler != null) {
+            this.subscribeAsync(actual, this.scheduler);
+            return;
+        }
         long waitDuration = rateLimiter.reservePermission();
         if(waitDuration >= 0) {
             if(waitDuration > 0)
@@ -34,6 +46,18 @@ public class CorePublisherRateLimiterOperator<T> {
         }
     }
 
+    /**
+     * 拿到许可之后才订阅上游，等待期间不阻塞订阅线程
+     */
+    private void subscribeAsync(CoreSubscriber<? super T> actual, ScheduledExecutorService scheduler) {
+        rateLimiter.acquirePermissionAsync(1, scheduler).whenComplete((permitted, t) -> {
+            if(t == null)
+                source.subscribe(new RateLimiterSubscriber<>(rateLimiter, actual));
+            else
+                Operators.error(actual, t instanceof CompletionException && t.getCause() != null ? t.getCause() : t);
+        });
+    }
+
     private void delaySubscription(CoreSubscriber<? super T> actual, long waitDuration) {
         Mono.delay(Duration.ofNanos(waitDuration))
                 .subscribe(delay -> source.subscribe(new RateLimiterSubscriber<>(rateLimiter, actual)));
@@ -1,10 +1,13 @@
 package com.github.liyibo1110.resilience4j.reactor.ratelimiter.operator;
 
+import com.github.liyibo1110.resilience4j.core.lang.Nullable;
 import com.github.liyibo1110.resilience4j.ratelimiter.RateLimiter;
 import reactor.core.CoreSubscriber;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.FluxOperator;
 
+import java.util.concurrent.ScheduledExecutorService;
+
 /**
  * @author liyibo
  * @date 2026-02-10 23:04
@@ -12,9 +15,9 @@ import reactor.core.publisher.FluxOperator;
 class FluxRateLimiter<T> extends FluxOperator<T, T> {
     private final CorePublisherRateLimiterOperator<T> operator;
 
-    FluxRateLimiter(Flux<? extends T> source, RateLimiter rateLimiter) {
+    FluxRateLimiter(Flux<? extends T> source, RateLimiter rateLimiter, @Nullable ScheduledExecutorService scheduler) {
         super(source);
-        this.operator = new CorePublisherRateLimiterOperator<T>(source, rateLimiter);
+        this.operator = new CorePublisherRateLimiterOperator<T>(source, rateLimiter, scheduler);
     }
 
     @Override
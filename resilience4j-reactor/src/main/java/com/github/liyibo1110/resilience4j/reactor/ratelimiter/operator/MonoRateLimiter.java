@@ -1,10 +1,13 @@
 package com.github.liyibo1110.resilience4j.reactor.ratelimiter.operator;
 
+import com.github.liyibo1110.resilience4j.core.lang.Nullable;
 import com.github.liyibo1110.resilience4j.ratelimiter.RateLimiter;
 import reactor.core.CoreSubscriber;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.MonoOperator;
 
+import java.util.concurrent.ScheduledExecutorService;
+
 /**
  * @author liyibo
  * @date 2026-02-10 23:02
@@ -12,9 +15,9 @@ import reactor.core.publisher.MonoOperator;
 class MonoRateLimiter<T> extends MonoOperator<T, T> {
     private final CorePublisherRateLimiterOperator<T> operator;
 
-    MonoRateLimiter(Mono<? extends T> source, RateLimiter rateLimiter) {
+    MonoRateLimiter(Mono<? extends T> source, RateLimiter rateLimiter, @Nullable ScheduledExecutorService scheduler) {
         super(source);
-        this.operator = new CorePublisherRateLimiterOperator<T>(source, rateLimiter);
+        this.operator = new CorePublisherRateLimiterOperator<T>(source, rateLimiter, scheduler);
     }
 
     @Override
@@ -1,11 +1,13 @@
 package com.github.liyibo1110.resilience4j.reactor.ratelimiter.operator;
 
 import com.github.liyibo1110.resilience4j.ratelimiter.RateLimiter;
+import com.github.liyibo1110.resilience4j.core.lang.Nullable;
 import com.github.liyibo1110.resilience4j.reactor.IllegalPublisherException;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.UnaryOperator;
 
 /**
@@ -15,20 +17,32 @@ import java.util.function.UnaryOperator;
 public class RateLimiterOperator<T> implements UnaryOperator<Publisher<T>> {
     private final RateLimiter rateLimiter;
 
-    private RateLimiterOperator(RateLimiter rateLimiter) {
+    /** 为null时用Mono.delay延迟订阅，否则用RateLimiter.acquirePermissionAsync在这个scheduler上延迟订阅 */
+    @Nullable
+    private final ScheduledExecutorService scheduler;
+
+    private RateLimiterOperator(RateLimiter rateLimiter, @Nullable ScheduledExecutorService scheduler) {
         this.rateLimiter = rateLimiter;
+        this.scheduler = scheduler;
     }
 
     public static <T> RateLimiterOperator<T> of(RateLimiter rateLimiter) {
-        return new RateLimiterOperator<>(rateLimiter);
+        return new RateLimiterOperator<>(rateLimiter, null);
+    }
+
+    /**
+     * 等待许可的延迟由指定的scheduler负责（例如共享的HashedWheelScheduler），不占用Reactor的parallel线程
+     */
+    public static <T> RateLimiterOperator<T> of(RateLimiter rateLimiter, ScheduledExecutorService scheduler) {
+        return new RateLimiterOperator<>(rateLimiter, scheduler);
     }
 
     @Override
     public Publisher<T> apply(Publisher<T> publisher) {
         if(publisher instanceof Mono)
-            return new MonoRateLimiter<>((Mono<? extends T>) publisher, rateLimiter);
+            return new MonoRateLimiter<>((Mono<? extends T>) publisher, rateLimiter, scheduler);
         else if (publisher instanceof Flux)
-            return new FluxRateLimiter<>((Flux<? extends T>) publisher, rateLimiter);
+            return new FluxRateLimiter<>((Flux<? extends T>) publisher, rateLimiter, scheduler);
         else
             throw new IllegalPublisherException(publisher);
     }
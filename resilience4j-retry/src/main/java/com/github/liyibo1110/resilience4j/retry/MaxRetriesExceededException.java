@@ -14,13 +14,28 @@ public class MaxRetriesExceededException extends RuntimeException {
     }
 
     /**
-     * 构造工厂
+     * 构造工厂，启用了preallocatedExceptionEnabled时，返回Retry实例缓存的实例（实例不支持缓存时仍然新建）
      */
     public static MaxRetriesExceededException createMaxRetriesExceededException(Retry retry) {
+        if(retry.getRetryConfig().isPreallocatedExceptionEnabled()) {
+            MaxRetriesExceededException preallocated = retry.getPreallocatedMaxRetriesExceededException();
+            if(preallocated != null)
+                return preallocated;
+        }
         boolean writeStackTrace = retry.getRetryConfig().isWritableStackTraceEnabled();
-        String message = String.format("Retry '%s' has exhausted all attempts (%d)",
+        return new MaxRetriesExceededException(retry.getName(), createMessage(retry), writeStackTrace);
+    }
+
+    /**
+     * 创建用于缓存的实例，会被反复抛出，所以总是不带堆栈
+     */
+    public static MaxRetriesExceededException createPreallocatedMaxRetriesExceededException(Retry retry) {
+        return new MaxRetriesExceededException(retry.getName(), createMessage(retry), false);
+    }
+
+    private static String createMessage(Retry retry) {
+        return String.format("Retry '%s' has exhausted all attempts (%d)",
                 retry.getName(), retry.getRetryConfig().getMaxAttempts());
-        return new MaxRetriesExceededException(retry.getName(), message, writeStackTrace);
     }
 
     public String getCausingRetryName() {
@@ -1,6 +1,7 @@
 package com.github.liyibo1110.resilience4j.retry;
 
 import com.github.liyibo1110.resilience4j.core.EventConsumer;
+import com.github.liyibo1110.resilience4j.core.lang.Nullable;
 import com.github.liyibo1110.resilience4j.core.metrics.Metrics;
 import com.github.liyibo1110.resilience4j.retry.event.RetryEvent;
 import com.github.liyibo1110.resilience4j.retry.event.RetryOnErrorEvent;
@@ -248,6 +249,15 @@ public interface Retry {
 
     EventPublisher getEventPublisher();
 
+    /**
+     * 启用了preallocatedExceptionEnabled时MaxRetriesExceededException.createMaxRetriesExceededException会使用这个缓存的实例，
+     * 返回null表示不支持，每次都新建
+     */
+    @Nullable
+    default MaxRetriesExceededException getPreallocatedMaxRetriesExceededException() {
+        return null;
+    }
+
     default <T> T executeCheckedSupplier(CheckedFunction0<T> checkedSupplier) throws Throwable {
         return decorateCheckedSupplier(this, checkedSupplier).apply();
     }
@@ -41,6 +41,7 @@ public class RetryConfig implements Serializable {
     private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
     private boolean failAfterMaxAttempts = false;
     private boolean writableStackTraceEnabled = true;
+    private boolean preallocatedExceptionEnabled = false;
 
     @Nullable
     private IntervalFunction intervalFunction;
@@ -75,6 +76,10 @@ public class RetryConfig implements Serializable {
         return writableStackTraceEnabled;
     }
 
+    public boolean isPreallocatedExceptionEnabled() {
+        return preallocatedExceptionEnabled;
+    }
+
     /**
      * 建议直接使用{@link RetryConfig#intervalBiFunction}
      */
@@ -101,6 +106,7 @@ public class RetryConfig implements Serializable {
         private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
         private boolean failAfterMaxAttempts = false;
         private boolean writableStackTraceEnabled = true;
+        private boolean preallocatedExceptionEnabled = false;
 
         @Nullable
         private IntervalFunction intervalFunction;
@@ -122,6 +128,7 @@ public class RetryConfig implements Serializable {
             this.retryOnResultPredicate = baseConfig.retryOnResultPredicate;
             this.failAfterMaxAttempts = baseConfig.failAfterMaxAttempts;
             this.writableStackTraceEnabled = baseConfig.writableStackTraceEnabled;
+            this.preallocatedExceptionEnabled = baseConfig.preallocatedExceptionEnabled;
             this.retryExceptions = baseConfig.retryExceptions;
             this.ignoreExceptions = baseConfig.ignoreExceptions;
             if(baseConfig.intervalFunction != null)
@@ -160,6 +167,14 @@ public class RetryConfig implements Serializable {
             return this;
         }
 
+        /**
+         * 启用后，每个Retry缓存一个没有堆栈的MaxRetriesExceededException，用尽重试次数时直接抛出同一个实例
+         */
+        public Builder<T> preallocatedExceptionEnabled(boolean bool) {
+            this.preallocatedExceptionEnabled = bool;
+            return this;
+        }
+
         public Builder<T> intervalFunction(IntervalFunction f) {
             this.intervalFunction = f;
             return this;
@@ -196,6 +211,7 @@ public class RetryConfig implements Serializable {
             config.maxAttempts = maxAttempts;
             config.failAfterMaxAttempts = failAfterMaxAttempts;
             config.writableStackTraceEnabled = writableStackTraceEnabled;
+            config.preallocatedExceptionEnabled = preallocatedExceptionEnabled;
             config.retryOnExceptionPredicate = retryOnExceptionPredicate;
             config.retryOnResultPredicate = retryOnResultPredicate;
             config.retryExceptions = retryExceptions;
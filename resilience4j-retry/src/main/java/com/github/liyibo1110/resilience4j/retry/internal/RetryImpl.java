@@ -20,6 +20,7 @@ import io.vavr.control.Either;
 import io.vavr.control.Option;
 import io.vavr.control.Try;
 
+import java.util.Objects;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -59,6 +60,10 @@ public class RetryImpl<T> implements Retry {
     private final LongAdder succeededWithoutRetryCounter;
     private final LongAdder failedWithoutRetryCounter;
 
+    /** 缓存的MaxRetriesExceededException，只在启用了preallocatedExceptionEnabled时才会创建 */
+    @Nullable
+    private final MaxRetriesExceededException preallocatedException;
+
     public RetryImpl(String name, RetryConfig config) {
         this(name, config, HashMap.empty());
     }
@@ -78,6 +83,17 @@ public class RetryImpl<T> implements Retry {
         this.failedAfterRetryCounter = new LongAdder();
         this.succeededWithoutRetryCounter = new LongAdder();
         this.failedWithoutRetryCounter = new LongAdder();
+        this.preallocatedException = config.isPreallocatedExceptionEnabled()
+                ? MaxRetriesExceededException.createPreallocatedMaxRetriesExceededException(this)
+                : null;
+    }
+
+    /**
+     * 返回缓存的MaxRetriesExceededException，只有启用了preallocatedExceptionEnabled时才可以调用
+     */
+    @Override
+    public MaxRetriesExceededException getPreallocatedMaxRetriesExceededException() {
+        return Objects.requireNonNull(this.preallocatedException, "preallocatedExceptionEnabled is not enabled");
     }
 
     @Override
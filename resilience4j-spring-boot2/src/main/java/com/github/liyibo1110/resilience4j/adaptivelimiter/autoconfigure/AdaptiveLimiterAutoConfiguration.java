@@ -0,0 +1,19 @@
+package com.github.liyibo1110.resilience4j.adaptivelimiter.autoconfigure;
+
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * @author liyibo
+ * @date 2026-10-18 23:59
+ */
+@Configuration
+@ConditionalOnClass(AdaptiveLimiter.class)
+@EnableConfigurationProperties(AdaptiveLimiterProperties.class)
+@Import(AdaptiveLimiterConfigurationOnMissingBean.class)
+public class AdaptiveLimiterAutoConfiguration {
+
+}
@@ -0,0 +1,65 @@
+package com.github.liyibo1110.resilience4j.adaptivelimiter.autoconfigure;
+
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiter;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiterRegistry;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.configure.AdaptiveLimiterConfiguration;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.event.AdaptiveLimiterEvent;
+import com.github.liyibo1110.resilience4j.common.CompositeCustomizer;
+import com.github.liyibo1110.resilience4j.common.adaptivelimiter.configuration.AdaptiveLimiterConfigCustomizer;
+import com.github.liyibo1110.resilience4j.common.adaptivelimiter.configuration.AdaptiveLimiterConfigurationProperties;
+import com.github.liyibo1110.resilience4j.consumer.EventConsumerRegistry;
+import com.github.liyibo1110.resilience4j.core.registry.RegistryEventConsumer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @author liyibo
+ * @date 2026-10-18 23:59
+ */
+@Configuration
+public class AdaptiveLimiterConfigurationOnMissingBean {
+    protected final AdaptiveLimiterConfiguration adaptiveLimiterConfiguration;
+
+    public AdaptiveLimiterConfigurationOnMissingBean() {
+        this.adaptiveLimiterConfiguration = new AdaptiveLimiterConfiguration();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "compositeAdaptiveLimiterCustomizer")
+    @Qualifier("compositeAdaptiveLimiterCustomizer")
+    public CompositeCustomizer<AdaptiveLimiterConfigCustomizer> compositeAdaptiveLimiterCustomizer(
+            @Autowired(required = false) List<AdaptiveLimiterConfigCustomizer> customizers) {
+        return new CompositeCustomizer<>(customizers);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AdaptiveLimiterRegistry adaptiveLimiterRegistry(
+            AdaptiveLimiterConfigurationProperties adaptiveLimiterConfigurationProperties,
+            EventConsumerRegistry<AdaptiveLimiterEvent> adaptiveLimiterEventConsumerRegistry,
+            RegistryEventConsumer<AdaptiveLimiter> adaptiveLimiterRegistryEventConsumer,
+            @Qualifier("compositeAdaptiveLimiterCustomizer") CompositeCustomizer<AdaptiveLimiterConfigCustomizer> compositeAdaptiveLimiterCustomizer) {
+        return adaptiveLimiterConfiguration.adaptiveLimiterRegistry(adaptiveLimiterConfigurationProperties,
+                adaptiveLimiterEventConsumerRegistry, adaptiveLimiterRegistryEventConsumer, compositeAdaptiveLimiterCustomizer);
+    }
+
+    @Bean
+    @Primary
+    public RegistryEventConsumer<AdaptiveLimiter> adaptiveLimiterRegistryEventConsumer(
+            Optional<List<RegistryEventConsumer<AdaptiveLimiter>>> optionalRegistryEventConsumers) {
+        return adaptiveLimiterConfiguration.adaptiveLimiterRegistryEventConsumer(optionalRegistryEventConsumers);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(value=AdaptiveLimiterEvent.class, parameterizedContainer=EventConsumerRegistry.class)
+    public EventConsumerRegistry<AdaptiveLimiterEvent> adaptiveLimiterEventConsumerRegistry() {
+        return adaptiveLimiterConfiguration.adaptiveLimiterEventConsumerRegistry();
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.liyibo1110.resilience4j.adaptivelimiter.autoconfigure;
+
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiter;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiterRegistry;
+import com.github.liyibo1110.resilience4j.micrometer.tagged.TaggedAdaptiveLimiterMetrics;
+import com.github.liyibo1110.resilience4j.micrometer.tagged.TaggedAdaptiveLimiterMetricsPublisher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author liyibo
+ * @date 2026-10-18 23:59
+ */
+@Configuration
+@ConditionalOnClass({MeterRegistry.class, AdaptiveLimiter.class, TaggedAdaptiveLimiterMetricsPublisher.class})
+@AutoConfigureAfter({MetricsAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class})
+@ConditionalOnProperty(value="resilience4j.adaptivelimiter.metrics.enabled", matchIfMissing=true)
+public class AdaptiveLimiterMetricsAutoConfiguration {
+    @Bean
+    @ConditionalOnProperty(value="resilience4j.adaptivelimiter.metrics.legacy.enabled", havingValue="true")
+    @ConditionalOnMissingBean
+    public TaggedAdaptiveLimiterMetrics registerAdaptiveLimiterMetrics(AdaptiveLimiterRegistry adaptiveLimiterRegistry) {
+        return TaggedAdaptiveLimiterMetrics.ofAdaptiveLimiterRegistry(adaptiveLimiterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnBean(MeterRegistry.class)
+    @ConditionalOnProperty(value="resilience4j.adaptivelimiter.metrics.legacy.enabled", havingValue="false", matchIfMissing=true)
+    @ConditionalOnMissingBean
+    public TaggedAdaptiveLimiterMetricsPublisher taggedAdaptiveLimiterMetricsPublisher(MeterRegistry meterRegistry) {
+        return new TaggedAdaptiveLimiterMetricsPublisher(meterRegistry);
+    }
+}
@@ -0,0 +1,13 @@
+package com.github.liyibo1110.resilience4j.adaptivelimiter.autoconfigure;
+
+import com.github.liyibo1110.resilience4j.common.adaptivelimiter.configuration.AdaptiveLimiterConfigurationProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * @author liyibo
+ * @date 2026-10-18 23:59
+ */
+@ConfigurationProperties(prefix="resilience4j.adaptivelimiter")
+public class AdaptiveLimiterProperties extends AdaptiveLimiterConfigurationProperties {
+
+}
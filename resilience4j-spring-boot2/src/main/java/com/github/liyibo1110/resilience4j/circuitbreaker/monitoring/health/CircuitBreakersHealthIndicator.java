@@ -79,6 +79,7 @@ public class CircuitBreakersHealthIndicator implements HealthIndicator {
                 yield addDetails(allowHealthIndicatorToFail ? Health.down() : Health.status("CIRCUIT_OPEN"), circuitBreaker).build();
             }
             case HALF_OPEN -> addDetails(Health.status("CIRCUIT_HALF_OPEN"), circuitBreaker).build();
+            case RAMPING -> addDetails(Health.status("CIRCUIT_RAMPING"), circuitBreaker).build();
             default -> addDetails(Health.unknown(), circuitBreaker).build();
         };
     }
@@ -0,0 +1,94 @@
+package com.github.liyibo1110.resilience4j.adaptivelimiter.configure;
+
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiter;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiterConfig;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.AdaptiveLimiterRegistry;
+import com.github.liyibo1110.resilience4j.adaptivelimiter.event.AdaptiveLimiterEvent;
+import com.github.liyibo1110.resilience4j.common.CompositeCustomizer;
+import com.github.liyibo1110.resilience4j.common.adaptivelimiter.configuration.AdaptiveLimiterConfigCustomizer;
+import com.github.liyibo1110.resilience4j.common.adaptivelimiter.configuration.AdaptiveLimiterConfigurationProperties;
+import com.github.liyibo1110.resilience4j.consumer.DefaultEventConsumerRegistry;
+import com.github.liyibo1110.resilience4j.consumer.EventConsumerRegistry;
+import com.github.liyibo1110.resilience4j.core.registry.CompositeRegistryEventConsumer;
+import com.github.liyibo1110.resilience4j.core.registry.RegistryEventConsumer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * AdaptiveLimiter没有对应的注解和切面，只负责创建AdaptiveLimiterRegistry和事件消费者
+ * @author liyibo
+ * @date 2026-10-18 23:59
+ */
+@Configuration
+public class AdaptiveLimiterConfiguration {
+
+    @Bean
+    @Qualifier("compositeAdaptiveLimiterCustomizer")
+    public CompositeCustomizer<AdaptiveLimiterConfigCustomizer> compositeAdaptiveLimiterCustomizer(
+            @Autowired(required = false) List<AdaptiveLimiterConfigCustomizer> customizers) {
+        return new CompositeCustomizer<>(customizers);
+    }
+
+    @Bean
+    public AdaptiveLimiterRegistry adaptiveLimiterRegistry(
+            AdaptiveLimiterConfigurationProperties prop,
+            EventConsumerRegistry<AdaptiveLimiterEvent> adaptiveLimiterEventConsumerRegistry,
+            RegistryEventConsumer<AdaptiveLimiter> adaptiveLimiterRegistryEventConsumer,
+            @Qualifier("compositeAdaptiveLimiterCustomizer") CompositeCustomizer<AdaptiveLimiterConfigCustomizer> customizer) {
+        AdaptiveLimiterRegistry adaptiveLimiterRegistry = createAdaptiveLimiterRegistry(prop,
+                adaptiveLimiterRegistryEventConsumer, customizer);
+        registerEventConsumer(adaptiveLimiterRegistry, adaptiveLimiterEventConsumerRegistry, prop);
+        prop.getInstances().forEach((name, properties) ->
+                adaptiveLimiterRegistry.adaptiveLimiter(name, prop.createAdaptiveLimiterConfig(properties, customizer, name)));
+        return adaptiveLimiterRegistry;
+    }
+
+    @Bean
+    @Primary
+    public RegistryEventConsumer<AdaptiveLimiter> adaptiveLimiterRegistryEventConsumer(
+            Optional<List<RegistryEventConsumer<AdaptiveLimiter>>> optionalRegistryEventConsumers) {
+        return new CompositeRegistryEventConsumer<>(
+                optionalRegistryEventConsumers.orElseGet(ArrayList::new));
+    }
+
+    private AdaptiveLimiterRegistry createAdaptiveLimiterRegistry(
+            AdaptiveLimiterConfigurationProperties prop,
+            RegistryEventConsumer<AdaptiveLimiter> adaptiveLimiterRegistryEventConsumer,
+            CompositeCustomizer<AdaptiveLimiterConfigCustomizer> compositeAdaptiveLimiterCustomizer) {
+        Map<String, AdaptiveLimiterConfig> configs = prop.getConfigs()
+                .entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey,
+                        entry -> prop.createAdaptiveLimiterConfig(entry.getValue(), compositeAdaptiveLimiterCustomizer, entry.getKey())));
+        return AdaptiveLimiterRegistry.of(configs, adaptiveLimiterRegistryEventConsumer,
+                io.vavr.collection.HashMap.ofAll(prop.getTags()));
+    }
+
+    private void registerEventConsumer(AdaptiveLimiterRegistry adaptiveLimiterRegistry,
+                                       EventConsumerRegistry<AdaptiveLimiterEvent> eventConsumerRegistry,
+                                       AdaptiveLimiterConfigurationProperties properties) {
+        adaptiveLimiterRegistry.getEventPublisher()
+                .onEntryAdded(event -> registerEventConsumer(eventConsumerRegistry, event.getAddedEntry(), properties))
+                .onEntryReplaced(event -> registerEventConsumer(eventConsumerRegistry, event.getNewEntry(), properties));
+    }
+
+    private void registerEventConsumer(EventConsumerRegistry<AdaptiveLimiterEvent> eventConsumerRegistry,
+                                       AdaptiveLimiter adaptiveLimiter, AdaptiveLimiterConfigurationProperties prop) {
+        int eventConsumerBufferSize = Optional.ofNullable(prop.getBackendProperties(adaptiveLimiter.getName()))
+                .map(AdaptiveLimiterConfigurationProperties.InstanceProperties::getEventConsumerBufferSize)
+                .orElse(100);
+        adaptiveLimiter.getEventPublisher().onEvent(eventConsumerRegistry.createEventConsumer(adaptiveLimiter.getName(), eventConsumerBufferSize));
+    }
+
+    @Bean
+    public EventConsumerRegistry<AdaptiveLimiterEvent> adaptiveLimiterEventConsumerRegistry() {
+        return new DefaultEventConsumerRegistry<>();
+    }
+}
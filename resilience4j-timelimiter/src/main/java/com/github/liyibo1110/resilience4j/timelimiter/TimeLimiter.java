@@ -1,6 +1,7 @@
 package com.github.liyibo1110.resilience4j.timelimiter;
 
 import com.github.liyibo1110.resilience4j.core.EventConsumer;
+import com.github.liyibo1110.resilience4j.core.HashedWheelScheduler;
 import com.github.liyibo1110.resilience4j.core.lang.Nullable;
 import com.github.liyibo1110.resilience4j.timelimiter.event.TimeLimiterEvent;
 import com.github.liyibo1110.resilience4j.timelimiter.event.TimeLimiterOnErrorEvent;
@@ -63,6 +64,14 @@ public interface TimeLimiter {
         return timeLimiter.decorateCompletionStage(scheduler, supplier);
     }
 
+    /**
+     * 使用共享的HashedWheelScheduler做超时检测，超时时间最多会晚一个tick（10毫秒）
+     */
+    static <T, F extends CompletionStage<T>> Supplier<CompletionStage<T>> decorateCompletionStage(
+            TimeLimiter timeLimiter, Supplier<F> supplier) {
+        return timeLimiter.decorateCompletionStage(HashedWheelScheduler.getSharedInstance(), supplier);
+    }
+
     String getName();
 
     io.vavr.collection.Map<String, String> getTags();
@@ -78,6 +87,10 @@ public interface TimeLimiter {
         return decorateCompletionStage(this, scheduler, supplier).get();
     }
 
+    default <T, F extends CompletionStage<T>> CompletionStage<T> executeCompletionStage(Supplier<F> supplier) {
+        return decorateCompletionStage(this, supplier).get();
+    }
+
     <T, F extends Future<T>> Callable<T> decorateFutureSupplier(Supplier<F> futureSupplier);
 
     <T, F extends CompletionStage<T>> Supplier<CompletionStage<T>> decorateCompletionStage(
@@ -99,7 +112,7 @@ public interface TimeLimiter {
 
     static TimeoutException createdTimeoutExceptionWithName(String name, @Nullable Throwable t) {
         final TimeoutException e = new TimeoutException(String.format("TimeLimiter '%s' recorded a timeout exception.", name));
-        if(e != null)
+        if(t != null)
             e.setStackTrace(t.getStackTrace());
         return e;
     }
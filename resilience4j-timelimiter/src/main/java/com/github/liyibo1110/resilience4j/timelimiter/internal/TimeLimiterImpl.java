@@ -18,6 +18,7 @@ import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -174,13 +175,16 @@ public class TimeLimiterImpl implements TimeLimiter {
         private Timeout() {}
 
         /**
-         * 生成延迟线程实例，里面只做一件事，就是把原始任务的CompletableFuture直接设定为超时异常
+         * 生成延迟线程实例，里面只做一件事，就是把原始任务的CompletableFuture直接设定为超时异常。
+         * scheduler线程上只检查future是否已经完成，completeExceptionally交给ForkJoinPool.commonPool()执行，
+         * 因为调用方的后续回调和TimeLimiterOnTimeoutEvent的消费者都会在完成future的线程上运行，不能拖住（可能是共享的）scheduler
          */
         static ScheduledFuture<?> of(CompletableFuture<?> future, ScheduledExecutorService scheduler,
                                      String name, long delay, TimeUnit unit) {
             return scheduler.schedule(() -> {
                 if(future != null && !future.isDone())
-                    future.completeExceptionally(TimeLimiter.createdTimeoutExceptionWithName(name, null));
+                    ForkJoinPool.commonPool().execute(
+                            () -> future.completeExceptionally(TimeLimiter.createdTimeoutExceptionWithName(name, null)));
             }, delay, unit);
         }
     }